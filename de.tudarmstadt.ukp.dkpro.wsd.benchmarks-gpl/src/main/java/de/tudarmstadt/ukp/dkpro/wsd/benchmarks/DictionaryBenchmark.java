@@ -0,0 +1,131 @@
+/**
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tudarmstadt.ukp.dkpro.wsd.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.tudarmstadt.ukp.dkpro.wsd.si.dictionary.util.AbstractDictionary;
+import de.tudarmstadt.ukp.dkpro.wsd.si.dictionary.util.UkbDictionary;
+
+/**
+ * Benchmarks {@link AbstractDictionary#getWeightedSenses(String)} on a
+ * random dictionary in UKB format, which is written to a temporary file
+ * and loaded when the benchmark is set up.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DictionaryBenchmark
+{
+    @Param({ "10000" })
+    public int mentionCount;
+
+    @Param({ "2", "20" })
+    public int targetsPerMention;
+
+    private File directory;
+    private AbstractDictionary dictionary;
+    private String[] mentions;
+    private int next = 0;
+
+    @Setup
+    public void setUp()
+        throws IOException
+    {
+        Random random = new Random(42);
+        directory = File.createTempFile("dictionary", "");
+        if (!directory.delete() || !directory.mkdir()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        File dictionaryFile = new File(directory, "dict.txt.bz2");
+        File mentionsFile = new File(directory, "mentions.txt");
+
+        // One line per mention: the mention followed by target:frequency
+        // pairs in order of decreasing frequency
+        List<String> mentionList = new ArrayList<String>(mentionCount);
+        Writer writer = new OutputStreamWriter(
+                new BZip2CompressorOutputStream(new FileOutputStream(
+                        dictionaryFile)), "UTF-8");
+        try {
+            for (int i = 0; i < mentionCount; i++) {
+                String mention = "mention" + i;
+                mentionList.add(mention);
+                writer.write(mention);
+                int frequency = 1 + random.nextInt(100000);
+                for (int j = 0; j < targetsPerMention; j++) {
+                    writer.write(" target" + random.nextInt(mentionCount * 4)
+                            + ":" + frequency);
+                    frequency = random.nextInt(frequency + 1);
+                }
+                writer.write("\n");
+            }
+        }
+        finally {
+            writer.close();
+        }
+        FileUtils.writeLines(mentionsFile, mentionList);
+
+        dictionary = new UkbDictionary(dictionaryFile.getPath(),
+                mentionsFile.getPath());
+        mentions = mentionList.toArray(new String[mentionList.size()]);
+    }
+
+    @TearDown
+    public void tearDown()
+        throws IOException
+    {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public Map<String, Double> getWeightedSenses()
+    {
+        String mention = mentions[next];
+        next = next + 1 == mentions.length ? 0 : next + 1;
+        return dictionary.getWeightedSenses(mention);
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tudarmstadt.ukp.dkpro.wsd.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generators for synthetic benchmark data. Word frequencies follow a
+ * power-law distribution, so that texts overlap in a few frequent words and
+ * differ in most others, as natural language texts do.
+ *
+ */
+public class Fixtures
+{
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    private Fixtures()
+    {
+    }
+
+    /**
+     * @param random
+     *            the random number generator
+     * @param size
+     *            the number of words
+     * @return a list of distinct pseudo-words
+     */
+    public static List<String> vocabulary(Random random, int size)
+    {
+        List<String> vocabulary = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 3 + random.nextInt(7);
+            for (int j = 0; j < length; j++) {
+                word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+            }
+            // Make the word unique
+            word.append(i);
+            vocabulary.add(word.toString());
+        }
+        return vocabulary;
+    }
+
+    /**
+     * @param random
+     *            the random number generator
+     * @param vocabulary
+     *            the words to choose from; words at lower indices are more
+     *            frequent
+     * @return a word from the vocabulary
+     */
+    public static String word(Random random, List<String> vocabulary)
+    {
+        int index = (int) Math.pow(vocabulary.size(), random.nextDouble()) - 1;
+        return vocabulary.get(Math.min(index, vocabulary.size() - 1));
+    }
+
+    /**
+     * @param random
+     *            the random number generator
+     * @param vocabulary
+     *            the words to choose from
+     * @param length
+     *            the number of words
+     * @return a space-separated text of the given number of words
+     */
+    public static String text(Random random, List<String> vocabulary,
+            int length)
+    {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(word(random, vocabulary));
+        }
+        return text.toString();
+    }
+}
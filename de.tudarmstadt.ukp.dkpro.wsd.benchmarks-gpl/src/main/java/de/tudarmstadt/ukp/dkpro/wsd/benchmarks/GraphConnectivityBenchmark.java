@@ -0,0 +1,106 @@
+/**
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tudarmstadt.ukp.dkpro.wsd.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.tudarmstadt.ukp.dkpro.wsd.Pair;
+import de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.algorithm.DegreeCentralityWSD;
+import de.tudarmstadt.ukp.dkpro.wsd.si.POS;
+import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
+
+/**
+ * Benchmarks the construction of the disambiguation subgraph by
+ * {@link DegreeCentralityWSD} on a random sense graph. The search is either
+ * the depth-first search on a JUNG sparse graph ("sparse") or on the
+ * compact sense graph ("compact"), or the bounded path search ("bounded").
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphConnectivityBenchmark
+{
+    @Param({ "sparse", "compact", "bounded" })
+    public String search;
+
+    @Param({ "3", "4" })
+    public int searchDepth;
+
+    @Param({ "50000" })
+    public int graphSize;
+
+    @Param({ "8" })
+    public int sentenceLength;
+
+    private DegreeCentralityWSD algorithm;
+    private List<Pair<String, POS>> sentence;
+
+    @Setup
+    public void setUp()
+    {
+        Random random = new Random(42);
+        SyntheticSenseInventory inventory = new SyntheticSenseInventory(42,
+                1000, 4, Collections.singletonList("word"), 1, graphSize, 6);
+        if (search.equals("sparse")) {
+            inventory.useSparseGraph();
+        }
+        else if (!search.equals("compact") && !search.equals("bounded")) {
+            throw new IllegalArgumentException("Unknown search " + search);
+        }
+
+        algorithm = new DegreeCentralityWSD(inventory);
+        algorithm.setSearchDepth(searchDepth);
+        algorithm.setBoundedSearch(search.equals("bounded"));
+
+        List<String> sods = inventory.getSods();
+        sentence = new ArrayList<Pair<String, POS>>();
+        for (int i = 0; i < sentenceLength; i++) {
+            sentence.add(new Pair<String, POS>(sods.get(random.nextInt(sods
+                    .size())), POS.NOUN));
+        }
+    }
+
+    @Benchmark
+    public Map<Pair<String, POS>, Map<String, Double>> disambiguate()
+        throws SenseInventoryException
+    {
+        return algorithm.getDisambiguation(sentence);
+    }
+}
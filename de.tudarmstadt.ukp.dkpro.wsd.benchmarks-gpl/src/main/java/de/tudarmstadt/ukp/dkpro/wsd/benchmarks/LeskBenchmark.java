@@ -0,0 +1,154 @@
+/**
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tudarmstadt.ukp.dkpro.wsd.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.algorithm.SimplifiedLesk;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization.NoNormalization;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.overlap.DotProduct;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.overlap.OverlapStrategy;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.overlap.PairedOverlap;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.overlap.SetOverlap;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.overlap.VectorOverlapStrategy;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.StringSplit;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenDictionary;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
+import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
+
+/**
+ * Benchmarks the overlap strategies and tokenization of the Lesk
+ * algorithms, both on token lists and on encoded token vectors, and a
+ * complete simplified Lesk disambiguation with and without cached
+ * tokenizations.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeskBenchmark
+{
+    @Param({ "SetOverlap", "PairedOverlap", "DotProduct" })
+    public String overlap;
+
+    @Param({ "100" })
+    public int contextLength;
+
+    @Param({ "20" })
+    public int descriptionLength;
+
+    private OverlapStrategy overlapStrategy;
+    private StringSplit tokenizer;
+    private SimplifiedLesk lesk;
+    private String sod;
+    private String context;
+    private List<String> contextTokens;
+    private List<String> descriptionTokens;
+    private TokenVector contextVector;
+    private TokenVector descriptionVector;
+
+    @Setup
+    public void setUp()
+        throws SenseInventoryException
+    {
+        Random random = new Random(42);
+        List<String> vocabulary = Fixtures.vocabulary(random, 5000);
+        SyntheticSenseInventory inventory = new SyntheticSenseInventory(42,
+                100, 8, vocabulary, descriptionLength, 0, 0);
+
+        if (overlap.equals("SetOverlap")) {
+            overlapStrategy = new SetOverlap();
+        }
+        else if (overlap.equals("PairedOverlap")) {
+            overlapStrategy = new PairedOverlap();
+        }
+        else if (overlap.equals("DotProduct")) {
+            overlapStrategy = new DotProduct();
+        }
+        else {
+            throw new IllegalArgumentException("Unknown overlap strategy "
+                    + overlap);
+        }
+
+        tokenizer = new StringSplit();
+        lesk = new SimplifiedLesk(inventory, overlapStrategy,
+                new NoNormalization(), tokenizer, tokenizer);
+        sod = inventory.getSods().get(0);
+        context = Fixtures.text(random, vocabulary, contextLength);
+
+        TokenDictionary dictionary = new TokenDictionary();
+        contextTokens = tokenizer.tokenize(context);
+        descriptionTokens = tokenizer.tokenize(inventory
+                .getSenseDescription(inventory.getSenses(sod).get(0)));
+        contextVector = dictionary.encode(contextTokens);
+        descriptionVector = dictionary.encode(descriptionTokens);
+    }
+
+    @Benchmark
+    public List<String> tokenize()
+    {
+        return tokenizer.tokenize(context);
+    }
+
+    @Benchmark
+    public double listOverlap()
+    {
+        return overlapStrategy.overlap(descriptionTokens, contextTokens);
+    }
+
+    @Benchmark
+    public double vectorOverlap()
+    {
+        return ((VectorOverlapStrategy) overlapStrategy).overlap(
+                descriptionVector, contextVector);
+    }
+
+    @Benchmark
+    public Map<String, Double> disambiguate()
+        throws SenseInventoryException
+    {
+        return lesk.getDisambiguation(sod, context);
+    }
+
+    @Benchmark
+    public Map<String, Double> disambiguateUncached()
+        throws SenseInventoryException
+    {
+        lesk.flushCache();
+        return lesk.getDisambiguation(sod, context);
+    }
+}
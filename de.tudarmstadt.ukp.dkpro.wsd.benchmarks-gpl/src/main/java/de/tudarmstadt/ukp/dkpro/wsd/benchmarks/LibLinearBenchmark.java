@@ -0,0 +1,213 @@
+/**
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tudarmstadt.ukp.dkpro.wsd.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import liblinear.FeatureNode;
+import sg.edu.nus.comp.nlp.ims.classifiers.CLibLinearEvaluator;
+import sg.edu.nus.comp.nlp.ims.classifiers.CLibLinearTrainer;
+import sg.edu.nus.comp.nlp.ims.feature.CCollocation;
+import sg.edu.nus.comp.nlp.ims.feature.CPOSFeature;
+import sg.edu.nus.comp.nlp.ims.feature.CSurroundingWord;
+import sg.edu.nus.comp.nlp.ims.feature.IFeature;
+import sg.edu.nus.comp.nlp.ims.instance.CInstance;
+import sg.edu.nus.comp.nlp.ims.instance.IInstance;
+import sg.edu.nus.comp.nlp.ims.io.CLibLinearLexeltWriter;
+import sg.edu.nus.comp.nlp.ims.lexelt.CLexelt;
+import sg.edu.nus.comp.nlp.ims.lexelt.CModelInfo;
+import sg.edu.nus.comp.nlp.ims.lexelt.ILexelt;
+import sg.edu.nus.comp.nlp.ims.lexelt.IStatistic;
+
+/**
+ * Benchmarks the conversion of IMS instances to LIBLINEAR feature vectors by
+ * {@link CLibLinearLexeltWriter} and the evaluation of a lexelt by
+ * {@link CLibLinearEvaluator}. A model is trained on random instances with
+ * the same kinds of features as the IMS feature extractors produce, and
+ * written to a temporary directory for the evaluator.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LibLinearBenchmark
+{
+    private static final String LEXELT_ID = "benchmark.n";
+
+    @Param({ "4" })
+    public int senseCount;
+
+    @Param({ "200" })
+    public int trainingInstances;
+
+    @Param({ "50" })
+    public int testInstances;
+
+    @Param({ "60" })
+    public int surroundingWords;
+
+    private File directory;
+    private VectorWriter writer;
+    private CLexelt testLexelt;
+    private IStatistic statistic;
+    private int[][] indices;
+    private CLibLinearEvaluator evaluator;
+
+    @Setup
+    public void setUp()
+        throws Exception
+    {
+        Random random = new Random(42);
+        List<String> vocabulary = Fixtures.vocabulary(random, 2000);
+
+        CLexelt trainingLexelt = new CLexelt(LEXELT_ID);
+        for (int i = 0; i < trainingInstances; i++) {
+            CInstance instance = createInstance(random, vocabulary, "train"
+                    + i);
+            instance.setTag("sense" + random.nextInt(senseCount));
+            trainingLexelt.addInstance(instance, true);
+        }
+        CModelInfo info = (CModelInfo) new CLibLinearTrainer()
+                .train(trainingLexelt);
+        statistic = (IStatistic) info.statistic;
+
+        directory = File.createTempFile("liblinear", "");
+        if (!directory.delete() || !directory.mkdir()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        statistic.writeToFile(new File(directory, LEXELT_ID + ".stat")
+                .getPath());
+        ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(
+                new File(directory, LEXELT_ID + ".model")));
+        try {
+            out.writeObject(info.model);
+        }
+        finally {
+            out.close();
+        }
+        evaluator = new CLibLinearEvaluator(directory.getPath(),
+                directory.getPath());
+
+        testLexelt = new CLexelt(LEXELT_ID);
+        for (int i = 0; i < testInstances; i++) {
+            testLexelt.addInstance(
+                    createInstance(random, vocabulary, "test" + i), false);
+        }
+        testLexelt.setStatistic(statistic);
+        writer = new VectorWriter();
+        indices = writer.loadStatistic(testLexelt);
+    }
+
+    @TearDown
+    public void tearDown()
+        throws IOException
+    {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    private CInstance createInstance(Random random, List<String> vocabulary,
+            String id)
+    {
+        CInstance instance = new CInstance(id, LEXELT_ID, "benchmark");
+        for (int p = -3; p <= 3; p++) {
+            addFeature(instance, new CPOSFeature(), "POS" + p,
+                    "NN" + random.nextInt(5));
+        }
+        for (int c = 0; c < 11; c++) {
+            addFeature(instance, new CCollocation(), "C" + c,
+                    Fixtures.word(random, vocabulary) + "_"
+                            + Fixtures.word(random, vocabulary));
+        }
+        for (int s = 0; s < surroundingWords; s++) {
+            addFeature(instance, new CSurroundingWord(),
+                    Fixtures.word(random, vocabulary), "1");
+        }
+        return instance;
+    }
+
+    private static void addFeature(CInstance instance, IFeature feature,
+            String key, String value)
+    {
+        feature.setKey(key);
+        feature.setValue(value);
+        instance.addFeature(feature);
+    }
+
+    @Benchmark
+    public int getVectors()
+    {
+        int length = 0;
+        for (int i = 0; i < testLexelt.size(); i++) {
+            length += writer.getVector(testLexelt.getInstance(i), statistic,
+                    indices).length;
+        }
+        return length;
+    }
+
+    @Benchmark
+    public Object evaluate()
+        throws Exception
+    {
+        return evaluator.evaluate(testLexelt);
+    }
+
+    /**
+     * Exposes the vector conversion of the lexelt writer.
+     */
+    static class VectorWriter
+        extends CLibLinearLexeltWriter
+    {
+        @Override
+        protected int[][] loadStatistic(ILexelt lexelt)
+            throws ClassNotFoundException
+        {
+            return super.loadStatistic(lexelt);
+        }
+
+        @Override
+        protected FeatureNode[] getVector(IInstance instance,
+                IStatistic statistic, int[][] indices)
+        {
+            return super.getVector(instance, statistic, indices);
+        }
+    }
+}
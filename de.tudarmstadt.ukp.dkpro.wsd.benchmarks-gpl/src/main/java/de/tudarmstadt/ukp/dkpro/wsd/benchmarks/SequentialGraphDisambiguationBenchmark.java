@@ -0,0 +1,124 @@
+/**
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tudarmstadt.ukp.dkpro.wsd.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.algorithm.SequentialGraphDisambiguation;
+import de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.wikipedia.util.SimilarityCache;
+import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventory;
+import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
+
+/**
+ * Benchmarks the graph construction and PageRank of
+ * {@link SequentialGraphDisambiguation} for one sequence of subjects of
+ * disambiguation. The similarities are a deterministic function of the
+ * sense IDs and are cached after the first invocation, so the benchmark
+ * measures the graph algorithm rather than the similarity measure.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SequentialGraphDisambiguationBenchmark
+{
+    @Param({ "8", "32" })
+    public int sequenceLength;
+
+    @Param({ "5" })
+    public int sensesPerSod;
+
+    private SequentialGraphDisambiguation algorithm;
+    private Collection<Collection<String>> sequences;
+
+    @Setup
+    public void setUp()
+    {
+        Random random = new Random(42);
+        SyntheticSenseInventory inventory = new SyntheticSenseInventory(42,
+                1000, sensesPerSod, Collections.singletonList("word"), 1, 0,
+                0);
+
+        algorithm = new SyntheticSimilarityDisambiguation(inventory);
+        algorithm.setSimilarityCache(new SimilarityCache());
+        // Keep only the entities of the last sequence as previous entities,
+        // so that every invocation builds a graph of the same size
+        algorithm.setDampingFactor(0);
+
+        List<String> sods = inventory.getSods();
+        List<String> sequence = new ArrayList<String>();
+        for (int i = 0; i < sequenceLength; i++) {
+            sequence.add(sods.get(random.nextInt(sods.size())));
+        }
+        sequences = new ArrayList<Collection<String>>();
+        sequences.add(sequence);
+    }
+
+    @Benchmark
+    public List<Map<String, Map<String, Double>>> disambiguate()
+        throws SenseInventoryException
+    {
+        return algorithm.getDisambiguation(sequences);
+    }
+
+    /**
+     * Assigns about half of all sense pairs a pseudo-random similarity
+     * derived from their IDs, and the others a similarity of 0.
+     */
+    static class SyntheticSimilarityDisambiguation
+        extends SequentialGraphDisambiguation
+    {
+        public SyntheticSimilarityDisambiguation(SenseInventory inventory)
+        {
+            super(inventory);
+        }
+
+        @Override
+        protected double getSenseSimilarity(String baseSense,
+                String targetSense)
+        {
+            if (baseSense.equals(targetSense)) {
+                return 1;
+            }
+            int hash = (baseSense.hashCode() * 31 + targetSense.hashCode()) * 0x9E3779B9;
+            return hash < 0 ? 0 : (hash & 0xFFFF) / 65536.0;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tudarmstadt.ukp.dkpro.wsd.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import de.tudarmstadt.ukp.dkpro.wsd.UnorderedPair;
+import de.tudarmstadt.ukp.dkpro.wsd.si.CompactSenseGraph;
+import de.tudarmstadt.ukp.dkpro.wsd.si.POS;
+import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryBase;
+import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
+import de.tudarmstadt.ukp.dkpro.wsd.si.SenseTaxonomy;
+import de.tudarmstadt.ukp.dkpro.wsd.si.SenseWeightedInventory;
+import edu.uci.ics.jung.graph.UndirectedGraph;
+import edu.uci.ics.jung.graph.UndirectedSparseGraph;
+
+/**
+ * A randomly generated sense inventory. The subjects of disambiguation are
+ * named <code>w0</code>, <code>w1</code>, ..., and the senses of
+ * <code>wi</code> <code>wi#0</code>, <code>wi#1</code>, ..., in order of
+ * decreasing frequency. Each sense has a description drawn from a common
+ * vocabulary. The senses are embedded in a random sense graph with
+ * additional vertices which do not belong to any subject of disambiguation.
+ *
+ */
+public class SyntheticSenseInventory
+    extends SenseInventoryBase
+    implements SenseTaxonomy, SenseWeightedInventory
+{
+    private final Map<String, List<String>> senses = new LinkedHashMap<String, List<String>>();
+    private final Map<String, String> descriptions = new HashMap<String, String>();
+    private final Map<String, Integer> useCounts = new HashMap<String, Integer>();
+    private UndirectedGraph<String, UnorderedPair<String>> graph;
+
+    /**
+     * @param seed
+     *            the seed of the random number generator
+     * @param sodCount
+     *            the number of subjects of disambiguation
+     * @param sensesPerSod
+     *            the number of senses of each subject of disambiguation
+     * @param vocabulary
+     *            the words to draw sense descriptions from
+     * @param descriptionLength
+     *            the number of words in a sense description
+     * @param graphSize
+     *            the number of additional vertices in the sense graph
+     * @param degree
+     *            the average degree of the vertices in the sense graph
+     */
+    public SyntheticSenseInventory(long seed, int sodCount, int sensesPerSod,
+            List<String> vocabulary, int descriptionLength, int graphSize,
+            int degree)
+    {
+        Random random = new Random(seed);
+        CompactSenseGraph.Builder builder = new CompactSenseGraph.Builder();
+        List<String> vertices = new ArrayList<String>();
+
+        for (int i = 0; i < sodCount; i++) {
+            List<String> sodSenses = new ArrayList<String>(sensesPerSod);
+            for (int j = 0; j < sensesPerSod; j++) {
+                String sense = "w" + i + "#" + j;
+                sodSenses.add(sense);
+                descriptions.put(sense,
+                        Fixtures.text(random, vocabulary, descriptionLength));
+                useCounts.put(sense, sensesPerSod - j);
+                vertices.add(sense);
+            }
+            senses.put("w" + i, Collections.unmodifiableList(sodSenses));
+        }
+        for (int i = 0; i < graphSize; i++) {
+            vertices.add("v" + i);
+        }
+
+        for (String vertex : vertices) {
+            builder.addVertex(vertex);
+        }
+        long edgeCount = (long) vertices.size() * degree / 2;
+        for (long i = 0; i < edgeCount; i++) {
+            builder.addEdge(vertices.get(random.nextInt(vertices.size())),
+                    vertices.get(random.nextInt(vertices.size())));
+        }
+        graph = builder.build();
+    }
+
+    /**
+     * Replaces the compact sense graph by a copy in a JUNG sparse graph, to
+     * compare the generic graph code with the compact one.
+     */
+    public void useSparseGraph()
+    {
+        UndirectedGraph<String, UnorderedPair<String>> sparseGraph = new UndirectedSparseGraph<String, UnorderedPair<String>>();
+        for (String vertex : graph.getVertices()) {
+            sparseGraph.addVertex(vertex);
+        }
+        for (UnorderedPair<String> edge : graph.getEdges()) {
+            sparseGraph.addEdge(edge, edge.getFirst(), edge.getSecond());
+        }
+        graph = sparseGraph;
+    }
+
+    /**
+     * @return the subjects of disambiguation
+     */
+    public List<String> getSods()
+    {
+        return new ArrayList<String>(senses.keySet());
+    }
+
+    @Override
+    public Map<String, List<String>> getSenseInventory()
+    {
+        return senses;
+    }
+
+    @Override
+    public List<String> getSenses(String sod)
+    {
+        List<String> sodSenses = senses.get(sod);
+        return sodSenses == null ? Collections.<String> emptyList()
+                : sodSenses;
+    }
+
+    @Override
+    public List<String> getSenses(String sod, POS pos)
+    {
+        return pos == POS.NOUN ? getSenses(sod) : Collections
+                .<String> emptyList();
+    }
+
+    @Override
+    public String getSenseDescription(String senseId)
+    {
+        return descriptions.get(senseId);
+    }
+
+    @Override
+    public POS getPos(String senseId)
+    {
+        return POS.NOUN;
+    }
+
+    @Override
+    public int getUseCount(String senseId)
+    {
+        Integer useCount = useCounts.get(senseId);
+        return useCount == null ? 0 : useCount;
+    }
+
+    @Override
+    public String getSenseInventoryName()
+    {
+        return "Synthetic";
+    }
+
+    @Override
+    public Map<String, Double> getWeightedSenses(String sod)
+    {
+        List<String> sodSenses = getSenses(sod);
+        double sum = 0;
+        for (String sense : sodSenses) {
+            sum += getUseCount(sense);
+        }
+        Map<String, Double> weightedSenses = new HashMap<String, Double>();
+        for (String sense : sodSenses) {
+            weightedSenses.put(sense, getUseCount(sense) / sum);
+        }
+        return weightedSenses;
+    }
+
+    @Override
+    public UndirectedGraph<String, UnorderedPair<String>> getUndirectedGraph()
+    {
+        return graph;
+    }
+
+    @Override
+    public void setUndirectedGraph(
+            UndirectedGraph<String, UnorderedPair<String>> graph)
+    {
+        this.graph = graph;
+    }
+
+    @Override
+    public Set<String> getSenseNeighbours(String senseId)
+        throws SenseInventoryException
+    {
+        if (!graph.containsVertex(senseId)) {
+            return Collections.emptySet();
+        }
+        return new HashSet<String>(graph.getNeighbors(senseId));
+    }
+}
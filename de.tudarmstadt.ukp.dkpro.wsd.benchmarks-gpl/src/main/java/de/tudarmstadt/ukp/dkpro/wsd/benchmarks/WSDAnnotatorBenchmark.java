@@ -0,0 +1,152 @@
+/**
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tudarmstadt.ukp.dkpro.wsd.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.tudarmstadt.ukp.dkpro.wsd.annotator.WSDAnnotatorBase;
+import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventory;
+import de.tudarmstadt.ukp.dkpro.wsd.type.WSDItem;
+
+/**
+ * Benchmarks {@link WSDAnnotatorBase#setWSDItem(JCas, WSDItem, Map)}, which
+ * post-processes a disambiguation result and writes it to the CAS. Each
+ * invocation resets the CAS and writes the results for
+ * {@value #ITEM_COUNT} items; the reported time is per item.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WSDAnnotatorBenchmark
+{
+    public static final int ITEM_COUNT = 1000;
+
+    @Param({ "false", "true" })
+    public boolean bestOnly;
+
+    @Param({ "8" })
+    public int sensesPerSod;
+
+    private ResultWriter writer;
+    private JCas jcas;
+    private String text;
+    private List<Map<String, Double>> results;
+
+    @Setup
+    public void setUp()
+        throws UIMAException
+    {
+        Random random = new Random(42);
+        SyntheticSenseInventory inventory = new SyntheticSenseInventory(42,
+                ITEM_COUNT, sensesPerSod, Fixtures.vocabulary(random, 1000),
+                10, 0, 0);
+        writer = new ResultWriter(inventory, bestOnly);
+        jcas = JCasFactory.createJCas();
+
+        StringBuilder textBuilder = new StringBuilder();
+        results = new ArrayList<Map<String, Double>>(ITEM_COUNT);
+        for (String sod : inventory.getSods()) {
+            textBuilder.append(sod).append(' ');
+            Map<String, Double> result = new HashMap<String, Double>();
+            for (String sense : inventory.getSenses(sod)) {
+                result.put(sense, random.nextDouble());
+            }
+            results.add(result);
+        }
+        text = textBuilder.toString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEM_COUNT)
+    public JCas setWSDItems()
+        throws AnalysisEngineProcessException
+    {
+        jcas.reset();
+        jcas.setDocumentText(text);
+        int begin = 0;
+        for (Map<String, Double> result : results) {
+            int end = text.indexOf(' ', begin);
+            WSDItem wsdItem = new WSDItem(jcas, begin, end);
+            wsdItem.setId("d0.t" + begin);
+            wsdItem.setSubjectOfDisambiguation(text.substring(begin, end));
+            wsdItem.addToIndexes();
+            // setWSDItem may modify the result
+            writer.setWSDItem(jcas, wsdItem, new HashMap<String, Double>(
+                    result));
+            begin = end + 1;
+        }
+        return jcas;
+    }
+
+    /**
+     * An annotator which is not run in a pipeline, but only used to write
+     * results to the CAS.
+     */
+    static class ResultWriter
+        extends WSDAnnotatorBase
+    {
+        ResultWriter(SenseInventory inventory, boolean bestOnly)
+        {
+            this.inventory = inventory;
+            this.bestOnly = bestOnly;
+            this.tieStrategy = TieStrategy.SPLIT_SCORES;
+            this.normalizeConfidence = true;
+            this.allowEmptyWsdResults = false;
+            this.setSenseDescriptions = false;
+        }
+
+        @Override
+        protected String getDisambiguationMethod()
+        {
+            return "benchmark";
+        }
+
+        @Override
+        public void process(JCas aJCas)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
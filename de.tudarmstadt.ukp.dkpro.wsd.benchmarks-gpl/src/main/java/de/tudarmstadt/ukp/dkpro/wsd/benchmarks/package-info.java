@@ -0,0 +1,26 @@
+/**
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+/**
+ * JMH benchmarks for the performance-critical parts of the framework. All
+ * fixtures are generated synthetically when a benchmark is set up, so no
+ * external resources or network access are needed. Build with
+ * <code>mvn -Pbenchmarks package</code> and run the resulting
+ * <code>target/benchmarks.jar</code>.
+ */
+package de.tudarmstadt.ukp.dkpro.wsd.benchmarks;
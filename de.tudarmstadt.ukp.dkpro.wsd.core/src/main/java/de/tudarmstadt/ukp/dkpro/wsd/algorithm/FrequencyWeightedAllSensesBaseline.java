@@ -18,6 +18,7 @@
 
 package de.tudarmstadt.ukp.dkpro.wsd.algorithm;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventory;
@@ -48,6 +49,9 @@ public class FrequencyWeightedAllSensesBaseline
         throws SenseInventoryException
     {
 //        System.out.println(sod + "\t" + ((SenseWeightedInventory)inventory).getWeightedSenses(sod));
-        return ((SenseWeightedInventory)inventory).getWeightedSenses(sod);
+        // Inventories may return shared maps, which the annotator must not
+        // modify when normalizing the result
+        return new HashMap<String, Double>(
+                ((SenseWeightedInventory) inventory).getWeightedSenses(sod));
     }
 }
\ No newline at end of file
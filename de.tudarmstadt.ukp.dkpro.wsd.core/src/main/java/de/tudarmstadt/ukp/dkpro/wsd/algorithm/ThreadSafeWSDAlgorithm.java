@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.algorithm;
+
+/**
+ * A marker interface for word sense disambiguation algorithms whose
+ * disambiguation methods may be called concurrently from several threads,
+ * including any access they make to their sense inventory. Annotators which
+ * are configured to use more than one thread disambiguate in parallel only
+ * if their algorithm implements this interface.
+ *
+ */
+public interface ThreadSafeWSDAlgorithm
+    extends WSDAlgorithm
+{
+}
@@ -24,6 +24,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
@@ -34,6 +40,9 @@ import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
 
+import de.tudarmstadt.ukp.dkpro.wsd.algorithm.ThreadSafeWSDAlgorithm;
+import de.tudarmstadt.ukp.dkpro.wsd.algorithm.WSDAlgorithm;
+import de.tudarmstadt.ukp.dkpro.wsd.resource.WSDResourceBase;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventory;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
 import de.tudarmstadt.ukp.dkpro.wsd.type.Sense;
@@ -86,6 +95,12 @@ public abstract class WSDAnnotatorBase
     @ConfigurationParameter(name = PARAM_SET_SENSE_DESCRIPTIONS, mandatory = false, description = "Whether to include sense descriptions in the Sense table of the WSDResult", defaultValue = "true")
     protected boolean setSenseDescriptions;
 
+    public static final String PARAM_THREADS = "threads";
+    @ConfigurationParameter(name = PARAM_THREADS, mandatory = false, description = "The number of threads with which context and collective annotators call a thread-safe disambiguation algorithm.  Set to 1 to disambiguate sequentially, or to 0 to use the common fork-join pool.  Negative values are rejected.  Results are added to the CAS in the original order.", defaultValue = "1")
+    protected int threads;
+
+    private ExecutorService executor = null;
+
     protected SenseInventory inventory;
     private final Logger logger = Logger.getLogger(getClass());
 
@@ -99,6 +114,94 @@ public abstract class WSDAnnotatorBase
         // TODO: Allow user to specify a seed via a configuration parameter
         super.initialize(context);
         generator = new Random();
+        if (threads < 0) {
+            throw new ResourceInitializationException(new IllegalArgumentException(
+                    PARAM_THREADS + " must not be negative: " + threads));
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+        if (executor != null && executor != ForkJoinPool.commonPool()) {
+            executor.shutdown();
+        }
+        executor = null;
+        super.destroy();
+    }
+
+    /**
+     * Returns whether the disambiguation algorithm used by this annotator may
+     * be called concurrently. Subclasses supporting parallel disambiguation
+     * should override this method; the default is false.
+     *
+     * @return true if the algorithm is thread-safe
+     */
+    protected boolean isThreadSafe()
+    {
+        return false;
+    }
+
+    /**
+     * Returns whether the given algorithm, or the algorithm wrapped by the
+     * given resource, is a {@link ThreadSafeWSDAlgorithm}.
+     *
+     * @param algorithm
+     *            the algorithm or resource
+     * @return true if the algorithm is thread-safe
+     */
+    protected static boolean isThreadSafe(WSDAlgorithm algorithm)
+    {
+        if (algorithm instanceof WSDResourceBase) {
+            return ((WSDResourceBase) algorithm).isThreadSafe();
+        }
+        return algorithm instanceof ThreadSafeWSDAlgorithm;
+    }
+
+    /**
+     * @return true if more than one thread is configured and the algorithm
+     *         is thread-safe
+     */
+    protected boolean isParallel()
+    {
+        return threads != 1 && isThreadSafe();
+    }
+
+    /**
+     * Runs the given disambiguation tasks on the configured executor and
+     * waits for all of them to complete. The CAS must not be modified while
+     * the tasks are running.
+     *
+     * @param tasks
+     *            the tasks to run
+     * @return the results of the tasks, in the same order as the tasks
+     * @throws AnalysisEngineProcessException
+     *             if a task failed or the thread was interrupted
+     */
+    protected <T> List<T> invokeAll(List<Callable<T>> tasks)
+        throws AnalysisEngineProcessException
+    {
+        synchronized (this) {
+            if (executor == null) {
+                executor = threads > 1 ? Executors.newFixedThreadPool(threads)
+                        : ForkJoinPool.commonPool();
+            }
+        }
+
+        List<T> results = new ArrayList<T>(tasks.size());
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisEngineProcessException(e);
+        }
+        catch (ExecutionException e) {
+            throw new AnalysisEngineProcessException(e.getCause());
+        }
+        return results;
     }
 
     /**
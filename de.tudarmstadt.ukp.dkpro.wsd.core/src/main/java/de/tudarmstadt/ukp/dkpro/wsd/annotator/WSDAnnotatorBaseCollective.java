@@ -18,8 +18,11 @@
 
 package de.tudarmstadt.ukp.dkpro.wsd.annotator;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
@@ -38,7 +41,9 @@ import de.tudarmstadt.ukp.dkpro.wsd.type.WSDItem;
 /**
  * An abstract class for annotators which call a disambiguation algorithm taking
  * as a parameter all the {@link WSDItem}s in the document so that the algorithm
- * can disambiguate them all simultaneously.
+ * can disambiguate them all simultaneously. If the algorithm is thread-safe
+ * and {@link #PARAM_THREADS} is not 1, the contexts are disambiguated in
+ * parallel, and the results are then added to the CAS in document order.
  *
  * @author <a href="mailto:miller@ukp.informatik.tu-darmstadt.de">Tristan Miller</a>
  *
@@ -87,6 +92,11 @@ public abstract class WSDAnnotatorBaseCollective
     public void process(JCas aJCas)
         throws AnalysisEngineProcessException
     {
+        if (isParallel()) {
+            processParallel(aJCas);
+            return;
+        }
+
         try {
             for (Annotation context : JCasUtil.select(aJCas, contextClass)) {
                 logger.debug("Entering context "
@@ -108,4 +118,41 @@ public abstract class WSDAnnotatorBaseCollective
         }
 
     }
-}
\ No newline at end of file
+
+    private void processParallel(JCas aJCas)
+        throws AnalysisEngineProcessException
+    {
+        List<Callable<Map<WSDItem, Map<String, Double>>>> tasks = new ArrayList<Callable<Map<WSDItem, Map<String, Double>>>>();
+        // only disambiguate the contexts whose items can still be attempted
+        int itemsLeft = maxItemsAttempted - numItemsAttempted;
+        for (Annotation context : JCasUtil.select(aJCas, contextClass)) {
+            if (maxItemsAttempted >= 0 && itemsLeft <= 0) {
+                break;
+            }
+            logger.debug("Entering context "
+                    + WSDUtils.truncate(context.getCoveredText(),
+                            CONTEXT_TRUNCATION_LENGTH));
+            final List<WSDItem> wsdItems = JCasUtil.selectCovered(aJCas,
+                    WSDItem.class, context);
+            itemsLeft -= wsdItems.size();
+            tasks.add(new Callable<Map<WSDItem, Map<String, Double>>>()
+            {
+                @Override
+                public Map<WSDItem, Map<String, Double>> call()
+                    throws SenseInventoryException
+                {
+                    return getDisambiguation(wsdItems);
+                }
+            });
+        }
+
+        for (Map<WSDItem, Map<String, Double>> disambiguationResults : invokeAll(tasks)) {
+            for (WSDItem wsdItem : disambiguationResults.keySet()) {
+                if (maxItemsAttempted >= 0 && numItemsAttempted++ >= maxItemsAttempted) {
+                    return;
+                }
+                setWSDItem(aJCas, wsdItem, disambiguationResults.get(wsdItem));
+            }
+        }
+    }
+}
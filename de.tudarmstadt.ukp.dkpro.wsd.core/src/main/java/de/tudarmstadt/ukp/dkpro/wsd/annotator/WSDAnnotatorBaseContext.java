@@ -18,7 +18,10 @@
 
 package de.tudarmstadt.ukp.dkpro.wsd.annotator;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
@@ -36,7 +39,10 @@ import de.tudarmstadt.ukp.dkpro.wsd.type.WSDItem;
 
 /**
  * An abstract annotator which calls the disambiguation algorithm once for each
- * {@link WSDItem} in each context.
+ * {@link WSDItem} in each context. If the algorithm is thread-safe and
+ * {@link #PARAM_THREADS} is not 1, the items of the whole document are
+ * disambiguated in parallel, and the results are then added to the CAS in
+ * document order.
  *
  * @author <a href="mailto:miller@ukp.informatik.tu-darmstadt.de">Tristan Miller</a>
  *
@@ -84,6 +90,11 @@ public abstract class WSDAnnotatorBaseContext
     public void process(JCas aJCas)
         throws AnalysisEngineProcessException
     {
+        if (isParallel()) {
+            processParallel(aJCas);
+            return;
+        }
+
         try {
             for (Annotation context : JCasUtil.select(aJCas, contextClass)) {
                 logger.debug("Entering context "
@@ -104,4 +115,37 @@ public abstract class WSDAnnotatorBaseContext
         }
     }
 
+    private void processParallel(final JCas aJCas)
+        throws AnalysisEngineProcessException
+    {
+        List<WSDItem> wsdItems = new ArrayList<WSDItem>();
+        List<Callable<Map<String, Double>>> tasks = new ArrayList<Callable<Map<String, Double>>>();
+        contexts: for (final Annotation context : JCasUtil.select(aJCas,
+                contextClass)) {
+            logger.debug("Entering context "
+                    + WSDUtils.truncate(context.getCoveredText(),
+                            CONTEXT_TRUNCATION_LENGTH));
+            for (final WSDItem wsdItem : JCasUtil.selectCovered(aJCas,
+                    WSDItem.class, context)) {
+                if (maxItemsAttempted >= 0 && numItemsAttempted++ >= maxItemsAttempted) {
+                    break contexts;
+                }
+                wsdItems.add(wsdItem);
+                tasks.add(new Callable<Map<String, Double>>()
+                {
+                    @Override
+                    public Map<String, Double> call()
+                        throws SenseInventoryException
+                    {
+                        return getDisambiguation(aJCas, wsdItem, context);
+                    }
+                });
+            }
+        }
+
+        List<Map<String, Double>> disambiguationResults = invokeAll(tasks);
+        for (int i = 0; i < wsdItems.size(); i++) {
+            setWSDItem(aJCas, wsdItems.get(i), disambiguationResults.get(i));
+        }
+    }
 }
\ No newline at end of file
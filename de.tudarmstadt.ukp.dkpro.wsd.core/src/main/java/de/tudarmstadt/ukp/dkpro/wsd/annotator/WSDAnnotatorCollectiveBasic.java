@@ -76,6 +76,12 @@ public class WSDAnnotatorCollectiveBasic
 		return resultsByWSDItem;
 	}
 
+	@Override
+	protected boolean isThreadSafe()
+	{
+		return isThreadSafe(wsdMethod);
+	}
+
 	@Override
 	protected String getDisambiguationMethod()
 		throws SenseInventoryException
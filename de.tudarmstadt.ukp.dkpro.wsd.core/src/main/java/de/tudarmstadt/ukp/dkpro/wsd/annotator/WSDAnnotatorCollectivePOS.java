@@ -80,6 +80,12 @@ public class WSDAnnotatorCollectivePOS
 
 	}
 
+	@Override
+	protected boolean isThreadSafe()
+	{
+		return isThreadSafe(wsdMethod);
+	}
+
 	@Override
 	protected String getDisambiguationMethod()
 		throws SenseInventoryException
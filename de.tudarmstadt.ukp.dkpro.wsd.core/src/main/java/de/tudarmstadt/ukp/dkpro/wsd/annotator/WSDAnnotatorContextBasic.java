@@ -64,6 +64,12 @@ public class WSDAnnotatorContextBasic
                 wsdItem.getSubjectOfDisambiguation(), context.getCoveredText());
     }
 
+    @Override
+    protected boolean isThreadSafe()
+    {
+        return isThreadSafe(wsdMethod);
+    }
+
     @Override
     protected String getDisambiguationMethod()
         throws SenseInventoryException
@@ -66,6 +66,12 @@ public class WSDAnnotatorContextPOS
                 POS.valueOf(wsdItem.getPos()), context.getCoveredText());
     }
 
+    @Override
+    protected boolean isThreadSafe()
+    {
+        return isThreadSafe(wsdMethod);
+    }
+
     @Override
     protected String getDisambiguationMethod()
         throws SenseInventoryException
@@ -56,6 +56,12 @@ public class WSDAnnotatorStringList
         inventory = wsdMethod.getSenseInventory();
 	}
 
+	@Override
+	protected boolean isThreadSafe()
+	{
+		return isThreadSafe(wsdMethod);
+	}
+
 	@Override
 	protected String getDisambiguationMethod()
 		throws SenseInventoryException
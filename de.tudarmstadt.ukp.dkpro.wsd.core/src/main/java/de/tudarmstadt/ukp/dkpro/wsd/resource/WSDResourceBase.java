@@ -21,6 +21,7 @@ package de.tudarmstadt.ukp.dkpro.wsd.resource;
 import org.apache.uima.fit.component.Resource_ImplBase;
 import org.apache.uima.fit.descriptor.ExternalResource;
 
+import de.tudarmstadt.ukp.dkpro.wsd.algorithm.ThreadSafeWSDAlgorithm;
 import de.tudarmstadt.ukp.dkpro.wsd.algorithm.WSDAlgorithm;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventory;
 
@@ -57,4 +58,13 @@ public abstract class WSDResourceBase
     {
         wsdAlgorithm.setSenseInventory(senseInventory);
     }
+
+    /**
+     * @return true if the wrapped algorithm may be called concurrently
+     * @see ThreadSafeWSDAlgorithm
+     */
+    public boolean isThreadSafe()
+    {
+        return wsdAlgorithm instanceof ThreadSafeWSDAlgorithm;
+    }
 }
@@ -0,0 +1,1117 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import de.tudarmstadt.ukp.dkpro.wsd.UnorderedPair;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.UndirectedGraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+import edu.uci.ics.jung.graph.util.Pair;
+
+/**
+ * An immutable undirected sense graph stored in compressed sparse row form.
+ * Vertices are numbered 0..n-1; the neighbours of vertex i are stored in
+ * ascending order in neighbours[offsets[i]] to neighbours[offsets[i+1]-1].
+ * Edges are not stored at all, but created on demand as
+ * {@link UnorderedPair}s of their endpoints, so the graph is interchangeable
+ * with a JUNG {@link UndirectedGraph} built from the same sense pairs. For
+ * WordNet this takes a fraction of the memory of an
+ * {@link edu.uci.ics.jung.graph.UndirectedSparseGraph}.
+ * <p>
+ * Algorithms which need to traverse the graph quickly can use the int-based
+ * methods {@link #getVertexId(String)}, {@link #getDegree(int)} and
+ * {@link #getNeighbour(int, int)} instead of the JUNG collections.
+ * <p>
+ * Instances are created with a {@link Builder} or with
+ * {@link #copyOf(Graph)}, or memory-mapped from a snapshot file written by
+ * {@link #write(File, String)}. All methods which would modify the graph
+ * throw an {@link UnsupportedOperationException}.
+ *
+ */
+public class CompactSenseGraph
+    implements UndirectedGraph<String, UnorderedPair<String>>, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAGIC = 0x57534447;
+    private static final int VERSION = 1;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private transient int vertexCount;
+    private transient int edgeCount;
+    private transient IntBuffer offsets;
+    private transient IntBuffer neighbours;
+
+    /** Open-addressing hash table mapping labels to vertex IDs plus one */
+    private transient IntBuffer index;
+
+    /** UTF-8 encoded labels; the label of vertex i starts at labelOffsets[i] */
+    private transient IntBuffer labelOffsets;
+    private transient ByteBuffer labelBytes;
+
+    /** Decoded labels, filled on demand for mapped graphs */
+    private transient String[] labels;
+
+    private CompactSenseGraph(String[] labels, int[] offsets, int[] neighbours,
+            int edgeCount)
+    {
+        int capacity = 2;
+        while (capacity < labels.length * 2) {
+            capacity <<= 1;
+        }
+        int[] index = new int[capacity];
+        for (int id = 0; id < labels.length; id++) {
+            int slot = hash(labels[id]) & (capacity - 1);
+            while (index[slot] != 0) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            index[slot] = id + 1;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int[] labelOffsets = new int[labels.length + 1];
+        for (int id = 0; id < labels.length; id++) {
+            byte[] label = labels[id].getBytes(UTF8);
+            bytes.write(label, 0, label.length);
+            labelOffsets[id + 1] = labelOffsets[id] + label.length;
+        }
+
+        this.vertexCount = labels.length;
+        this.edgeCount = edgeCount;
+        this.offsets = IntBuffer.wrap(offsets);
+        this.neighbours = IntBuffer.wrap(neighbours);
+        this.index = IntBuffer.wrap(index);
+        this.labelOffsets = IntBuffer.wrap(labelOffsets);
+        this.labelBytes = ByteBuffer.wrap(bytes.toByteArray());
+        this.labels = labels;
+    }
+
+    private CompactSenseGraph(ByteBuffer buffer)
+        throws IOException
+    {
+        read(buffer);
+    }
+
+    /**
+     * Returns a compact copy of the given graph. If the graph is already a
+     * CompactSenseGraph it is returned unchanged.
+     *
+     * @param graph
+     *            the graph to copy
+     * @return a compact graph with the same vertices and edges
+     */
+    public static CompactSenseGraph copyOf(
+            Graph<String, UnorderedPair<String>> graph)
+    {
+        if (graph instanceof CompactSenseGraph) {
+            return (CompactSenseGraph) graph;
+        }
+        return new Builder().addGraph(graph).build();
+    }
+
+    private static int hash(String label)
+    {
+        int h = label.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Snapshots
+
+    /**
+     * Writes the graph to a binary snapshot file which can be loaded with
+     * {@link #map(File, String)}. The file is written under a temporary name
+     * and then renamed, so processes which have already mapped an older
+     * snapshot of the same name are not affected.
+     *
+     * @param file
+     *            the snapshot file
+     * @param key
+     *            a string identifying the contents of the graph, e.g. the
+     *            version of the sense inventory and the sense ID scheme
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public void write(File file, String key)
+        throws IOException
+    {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp)));
+            try {
+                byte[] keyBytes = key.getBytes(UTF8);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(keyBytes.length);
+                out.write(keyBytes);
+                // Align the int arrays which follow
+                for (int i = keyBytes.length; i % 4 != 0; i++) {
+                    out.writeByte(0);
+                }
+                write(out);
+            }
+            finally {
+                out.close();
+            }
+            Files.move(temp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Memory-maps a snapshot written by {@link #write(File, String)}. The
+     * graph is read directly from the mapped file, so several processes
+     * mapping the same snapshot share its pages.
+     *
+     * @param file
+     *            the snapshot file
+     * @param key
+     *            the key the snapshot must have been written with
+     * @return the mapped graph
+     * @throws IOException
+     *             if the file cannot be read, is not a snapshot of the
+     *             current format or was written with a different key
+     */
+    public static CompactSenseGraph map(File file, String key)
+        throws IOException
+    {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        MappedByteBuffer buffer;
+        try {
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+                    raf.length());
+        }
+        finally {
+            raf.close();
+        }
+
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+            throw new IOException(file + " is not a sense graph snapshot");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException(file + " has snapshot version " + version
+                    + ", expected " + VERSION);
+        }
+        byte[] keyBytes = new byte[buffer.getInt()];
+        buffer.get(keyBytes);
+        String fileKey = new String(keyBytes, UTF8);
+        if (!fileKey.equals(key)) {
+            throw new IOException(file + " is a snapshot of \"" + fileKey
+                    + "\", expected \"" + key + "\"");
+        }
+        buffer.position((buffer.position() + 3) & ~3);
+        return new CompactSenseGraph(buffer.slice());
+    }
+
+    private void write(DataOutput out)
+        throws IOException
+    {
+        out.writeInt(vertexCount);
+        out.writeInt(edgeCount);
+        out.writeInt(neighbours.limit());
+        out.writeInt(index.limit());
+        out.writeInt(labelBytes.limit());
+        writeInts(out, offsets);
+        writeInts(out, neighbours);
+        writeInts(out, index);
+        writeInts(out, labelOffsets);
+        for (int i = 0; i < labelBytes.limit(); i++) {
+            out.writeByte(labelBytes.get(i));
+        }
+    }
+
+    private static void writeInts(DataOutput out, IntBuffer ints)
+        throws IOException
+    {
+        for (int i = 0; i < ints.limit(); i++) {
+            out.writeInt(ints.get(i));
+        }
+    }
+
+    private void read(ByteBuffer buffer)
+        throws IOException
+    {
+        try {
+            vertexCount = buffer.getInt();
+            edgeCount = buffer.getInt();
+            int neighbourCount = buffer.getInt();
+            int indexCapacity = buffer.getInt();
+            int labelByteCount = buffer.getInt();
+            offsets = sliceInts(buffer, vertexCount + 1);
+            neighbours = sliceInts(buffer, neighbourCount);
+            index = sliceInts(buffer, indexCapacity);
+            labelOffsets = sliceInts(buffer, vertexCount + 1);
+            ByteBuffer bytes = buffer.slice();
+            bytes.limit(labelByteCount);
+            labelBytes = bytes;
+            labels = new String[vertexCount];
+        }
+        catch (RuntimeException e) {
+            throw new IOException("Truncated or corrupt sense graph", e);
+        }
+    }
+
+    private static IntBuffer sliceInts(ByteBuffer buffer, int length)
+    {
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length * 4);
+        buffer.position(buffer.position() + length * 4);
+        return slice.asIntBuffer();
+    }
+
+    private void writeObject(ObjectOutputStream out)
+        throws IOException
+    {
+        out.defaultWriteObject();
+        write((DataOutput) out);
+    }
+
+    private void readObject(ObjectInputStream in)
+        throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        int vertexCount = in.readInt();
+        int edgeCount = in.readInt();
+        int neighbourCount = in.readInt();
+        int indexCapacity = in.readInt();
+        int labelByteCount = in.readInt();
+        ByteBuffer buffer = ByteBuffer.allocate(20 + 4
+                * (2 * vertexCount + 2 + neighbourCount + indexCapacity)
+                + labelByteCount);
+        buffer.putInt(vertexCount).putInt(edgeCount).putInt(neighbourCount)
+                .putInt(indexCapacity).putInt(labelByteCount);
+        in.readFully(buffer.array(), buffer.position(), buffer.remaining());
+        buffer.rewind();
+        read(buffer);
+    }
+
+    // Int-based access
+
+    /**
+     * @param vertex
+     *            a sense ID
+     * @return the internal ID of the vertex, or -1 if it is not in the graph
+     */
+    public int getVertexId(String vertex)
+    {
+        int mask = index.limit() - 1;
+        int slot = hash(vertex) & mask;
+        int id;
+        while ((id = index.get(slot)) != 0) {
+            if (getVertexLabel(id - 1).equals(vertex)) {
+                return id - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @param id
+     *            an internal vertex ID
+     * @return the sense ID of the vertex
+     */
+    public String getVertexLabel(int id)
+    {
+        String label = labels[id];
+        if (label == null) {
+            int start = labelOffsets.get(id);
+            byte[] bytes = new byte[labelOffsets.get(id + 1) - start];
+            ByteBuffer buffer = labelBytes.duplicate();
+            buffer.position(start);
+            buffer.get(bytes);
+            label = new String(bytes, UTF8);
+            labels[id] = label;
+        }
+        return label;
+    }
+
+    /**
+     * @param id
+     *            an internal vertex ID
+     * @return the number of neighbours of the vertex
+     */
+    public int getDegree(int id)
+    {
+        return offsets.get(id + 1) - offsets.get(id);
+    }
+
+    /**
+     * @param id
+     *            an internal vertex ID
+     * @param i
+     *            the position of the neighbour, between 0 and
+     *            {@link #getDegree(int)}-1
+     * @return the internal ID of the i-th neighbour of the vertex, in
+     *         ascending order of IDs
+     */
+    public int getNeighbour(int id, int i)
+    {
+        return neighbours.get(offsets.get(id) + i);
+    }
+
+    /**
+     * @return true if and only if the two vertices are connected by an edge
+     */
+    public boolean hasEdge(int id1, int id2)
+    {
+        int low = offsets.get(id1), high = offsets.get(id1 + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int neighbour = neighbours.get(mid);
+            if (neighbour < id2) {
+                low = mid + 1;
+            }
+            else if (neighbour > id2) {
+                high = mid - 1;
+            }
+            else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int idOf(Object vertex)
+    {
+        return vertex instanceof String ? getVertexId((String) vertex) : -1;
+    }
+
+    private boolean hasEdge(Object vertex1, Object vertex2)
+    {
+        int id1 = idOf(vertex1);
+        if (id1 < 0) {
+            return false;
+        }
+        int id2 = idOf(vertex2);
+        return id2 >= 0 && hasEdge(id1, id2);
+    }
+
+    private int checkedVertexId(String vertex)
+    {
+        int id = getVertexId(vertex);
+        if (id < 0) {
+            throw new IllegalArgumentException(vertex
+                    + " is not a vertex in this graph");
+        }
+        return id;
+    }
+
+    // Collection views
+
+    private class NeighbourCollection
+        extends AbstractCollection<String>
+    {
+        private final int id;
+
+        NeighbourCollection(int id)
+        {
+            this.id = id;
+        }
+
+        @Override
+        public Iterator<String> iterator()
+        {
+            return new Iterator<String>()
+            {
+                private int i = offsets.get(id);
+
+                @Override
+                public boolean hasNext()
+                {
+                    return i < offsets.get(id + 1);
+                }
+
+                @Override
+                public String next()
+                {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return getVertexLabel(neighbours.get(i++));
+                }
+
+                @Override
+                public void remove()
+                {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return getDegree(id);
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            int other = idOf(o);
+            return other >= 0 && hasEdge(id, other);
+        }
+    }
+
+    private class IncidentEdgeCollection
+        extends AbstractCollection<UnorderedPair<String>>
+    {
+        private final int id;
+
+        IncidentEdgeCollection(int id)
+        {
+            this.id = id;
+        }
+
+        @Override
+        public Iterator<UnorderedPair<String>> iterator()
+        {
+            return new Iterator<UnorderedPair<String>>()
+            {
+                private int i = offsets.get(id);
+
+                @Override
+                public boolean hasNext()
+                {
+                    return i < offsets.get(id + 1);
+                }
+
+                @Override
+                public UnorderedPair<String> next()
+                {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return new UnorderedPair<String>(getVertexLabel(id),
+                            getVertexLabel(neighbours.get(i++)));
+                }
+
+                @Override
+                public void remove()
+                {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return getDegree(id);
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            return isIncidentPair(getVertexLabel(id), o);
+        }
+    }
+
+    private class EdgeCollection
+        extends AbstractCollection<UnorderedPair<String>>
+    {
+        @Override
+        public Iterator<UnorderedPair<String>> iterator()
+        {
+            // Each edge is returned once, from its endpoint with the lower ID
+            return new Iterator<UnorderedPair<String>>()
+            {
+                private int vertex = 0;
+                private int i = advance(0);
+
+                private int advance(int from)
+                {
+                    while (vertex < vertexCount) {
+                        if (from < offsets.get(vertex)) {
+                            from = offsets.get(vertex);
+                        }
+                        for (; from < offsets.get(vertex + 1); from++) {
+                            if (neighbours.get(from) >= vertex) {
+                                return from;
+                            }
+                        }
+                        vertex++;
+                    }
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext()
+                {
+                    return vertex < vertexCount;
+                }
+
+                @Override
+                public UnorderedPair<String> next()
+                {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    UnorderedPair<String> edge = new UnorderedPair<String>(
+                            getVertexLabel(vertex),
+                            getVertexLabel(neighbours.get(i)));
+                    i = advance(i + 1);
+                    return edge;
+                }
+
+                @Override
+                public void remove()
+                {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return edgeCount;
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            return containsPair(o);
+        }
+    }
+
+    private class VertexCollection
+        extends AbstractCollection<String>
+    {
+        @Override
+        public Iterator<String> iterator()
+        {
+            return new Iterator<String>()
+            {
+                private int id = 0;
+
+                @Override
+                public boolean hasNext()
+                {
+                    return id < vertexCount;
+                }
+
+                @Override
+                public String next()
+                {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return getVertexLabel(id++);
+                }
+
+                @Override
+                public void remove()
+                {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return vertexCount;
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            return idOf(o) >= 0;
+        }
+    }
+
+    // Graph interface
+
+    @Override
+    public Collection<UnorderedPair<String>> getEdges()
+    {
+        return new EdgeCollection();
+    }
+
+    @Override
+    public Collection<String> getVertices()
+    {
+        return new VertexCollection();
+    }
+
+    @Override
+    public boolean containsVertex(String vertex)
+    {
+        return getVertexId(vertex) >= 0;
+    }
+
+    @Override
+    public boolean containsEdge(UnorderedPair<String> edge)
+    {
+        return containsPair(edge);
+    }
+
+    private boolean containsPair(Object o)
+    {
+        if (!(o instanceof UnorderedPair<?>)) {
+            return false;
+        }
+        UnorderedPair<?> edge = (UnorderedPair<?>) o;
+        return hasEdge(edge.getFirst(), edge.getSecond());
+    }
+
+    @Override
+    public int getEdgeCount()
+    {
+        return edgeCount;
+    }
+
+    @Override
+    public int getVertexCount()
+    {
+        return vertexCount;
+    }
+
+    @Override
+    public Collection<String> getNeighbors(String vertex)
+    {
+        int id = getVertexId(vertex);
+        return id < 0 ? null : new NeighbourCollection(id);
+    }
+
+    @Override
+    public Collection<UnorderedPair<String>> getIncidentEdges(String vertex)
+    {
+        int id = getVertexId(vertex);
+        return id < 0 ? null : new IncidentEdgeCollection(id);
+    }
+
+    @Override
+    public Collection<String> getIncidentVertices(UnorderedPair<String> edge)
+    {
+        return getEndpoints(edge);
+    }
+
+    @Override
+    public UnorderedPair<String> findEdge(String v1, String v2)
+    {
+        return hasEdge(v1, v2) ? new UnorderedPair<String>(v1, v2) : null;
+    }
+
+    @Override
+    public Collection<UnorderedPair<String>> findEdgeSet(String v1, String v2)
+    {
+        if (!containsVertex(v1) || !containsVertex(v2)) {
+            return null;
+        }
+        UnorderedPair<String> edge = findEdge(v1, v2);
+        if (edge == null) {
+            return Collections.emptySet();
+        }
+        return Collections.singleton(edge);
+    }
+
+    @Override
+    public boolean isNeighbor(String v1, String v2)
+    {
+        return hasEdge(v1, v2);
+    }
+
+    @Override
+    public boolean isIncident(String vertex, UnorderedPair<String> edge)
+    {
+        return isIncidentPair(vertex, edge);
+    }
+
+    private boolean isIncidentPair(String vertex, Object edge)
+    {
+        if (!containsPair(edge)) {
+            return false;
+        }
+        UnorderedPair<?> pair = (UnorderedPair<?>) edge;
+        return vertex.equals(pair.getFirst()) || vertex.equals(pair.getSecond());
+    }
+
+    @Override
+    public int degree(String vertex)
+    {
+        return getDegree(checkedVertexId(vertex));
+    }
+
+    @Override
+    public int getNeighborCount(String vertex)
+    {
+        return degree(vertex);
+    }
+
+    @Override
+    public int getIncidentCount(UnorderedPair<String> edge)
+    {
+        if (!containsEdge(edge)) {
+            return 0;
+        }
+        return edge.getFirst().equals(edge.getSecond()) ? 1 : 2;
+    }
+
+    @Override
+    public EdgeType getEdgeType(UnorderedPair<String> edge)
+    {
+        return containsEdge(edge) ? EdgeType.UNDIRECTED : null;
+    }
+
+    @Override
+    public EdgeType getDefaultEdgeType()
+    {
+        return EdgeType.UNDIRECTED;
+    }
+
+    @Override
+    public Collection<UnorderedPair<String>> getEdges(EdgeType edgeType)
+    {
+        if (edgeType == EdgeType.UNDIRECTED) {
+            return getEdges();
+        }
+        return Collections.emptySet();
+    }
+
+    @Override
+    public int getEdgeCount(EdgeType edgeType)
+    {
+        return edgeType == EdgeType.UNDIRECTED ? edgeCount : 0;
+    }
+
+    @Override
+    public Collection<UnorderedPair<String>> getInEdges(String vertex)
+    {
+        return getIncidentEdges(vertex);
+    }
+
+    @Override
+    public Collection<UnorderedPair<String>> getOutEdges(String vertex)
+    {
+        return getIncidentEdges(vertex);
+    }
+
+    @Override
+    public int inDegree(String vertex)
+    {
+        return degree(vertex);
+    }
+
+    @Override
+    public int outDegree(String vertex)
+    {
+        return degree(vertex);
+    }
+
+    @Override
+    public String getSource(UnorderedPair<String> directedEdge)
+    {
+        return null;
+    }
+
+    @Override
+    public String getDest(UnorderedPair<String> directedEdge)
+    {
+        return null;
+    }
+
+    @Override
+    public Collection<String> getPredecessors(String vertex)
+    {
+        return getNeighbors(vertex);
+    }
+
+    @Override
+    public Collection<String> getSuccessors(String vertex)
+    {
+        return getNeighbors(vertex);
+    }
+
+    @Override
+    public boolean isPredecessor(String v1, String v2)
+    {
+        return hasEdge(v1, v2);
+    }
+
+    @Override
+    public boolean isSuccessor(String v1, String v2)
+    {
+        return hasEdge(v1, v2);
+    }
+
+    @Override
+    public int getPredecessorCount(String vertex)
+    {
+        return degree(vertex);
+    }
+
+    @Override
+    public int getSuccessorCount(String vertex)
+    {
+        return degree(vertex);
+    }
+
+    @Override
+    public boolean isSource(String vertex, UnorderedPair<String> edge)
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isDest(String vertex, UnorderedPair<String> edge)
+    {
+        return false;
+    }
+
+    @Override
+    public Pair<String> getEndpoints(UnorderedPair<String> edge)
+    {
+        if (!containsEdge(edge)) {
+            return null;
+        }
+        return new Pair<String>(edge.getFirst(), edge.getSecond());
+    }
+
+    @Override
+    public String getOpposite(String vertex, UnorderedPair<String> edge)
+    {
+        if (vertex.equals(edge.getFirst())) {
+            return edge.getSecond();
+        }
+        if (vertex.equals(edge.getSecond())) {
+            return edge.getFirst();
+        }
+        throw new IllegalArgumentException(vertex + " is not incident to "
+                + edge);
+    }
+
+    // Unsupported modifications
+
+    @Override
+    public boolean addVertex(String vertex)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addEdge(UnorderedPair<String> edge,
+            Collection<? extends String> vertices)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addEdge(UnorderedPair<String> edge,
+            Collection<? extends String> vertices, EdgeType edgeType)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addEdge(UnorderedPair<String> e, String v1, String v2)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addEdge(UnorderedPair<String> e, String v1, String v2,
+            EdgeType edgeType)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeVertex(String vertex)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeEdge(UnorderedPair<String> edge)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + "[" + vertexCount
+                + " vertices, " + edgeCount + " edges]";
+    }
+
+    /**
+     * Collects vertices and edges for a {@link CompactSenseGraph}. Edges
+     * may be added more than once and in either direction; duplicates are
+     * removed when the graph is built. Vertices are numbered in the order in
+     * which they are first added.
+     *
+     */
+    public static class Builder
+    {
+        private final Map<String, Integer> ids = new HashMap<String, Integer>();
+        private String[] labels = new String[1024];
+        private long[] edges = new long[1024];
+        private int edgeCount = 0;
+
+        /**
+         * Adds a vertex, if it has not already been added.
+         *
+         * @param vertex
+         *            the sense ID
+         * @return this builder
+         */
+        public Builder addVertex(String vertex)
+        {
+            id(vertex);
+            return this;
+        }
+
+        /**
+         * Adds an undirected edge between two vertices, adding the vertices
+         * if necessary.
+         *
+         * @param v1
+         *            a sense ID
+         * @param v2
+         *            another sense ID
+         * @return this builder
+         */
+        public Builder addEdge(String v1, String v2)
+        {
+            long id1 = id(v1), id2 = id(v2);
+            if (edgeCount == edges.length) {
+                edges = Arrays.copyOf(edges, edges.length * 2);
+            }
+            edges[edgeCount++] = id1 < id2 ? id1 << 32 | id2 : id2 << 32
+                    | id1;
+            return this;
+        }
+
+        /**
+         * Adds all vertices and edges of a graph.
+         *
+         * @param graph
+         *            the graph to add
+         * @return this builder
+         */
+        public Builder addGraph(Graph<String, UnorderedPair<String>> graph)
+        {
+            for (String vertex : graph.getVertices()) {
+                addVertex(vertex);
+            }
+            for (UnorderedPair<String> edge : graph.getEdges()) {
+                Pair<String> endpoints = graph.getEndpoints(edge);
+                addEdge(endpoints.getFirst(), endpoints.getSecond());
+            }
+            return this;
+        }
+
+        private int id(String vertex)
+        {
+            Integer id = ids.get(vertex);
+            if (id == null) {
+                id = ids.size();
+                ids.put(vertex, id);
+                if (id == labels.length) {
+                    labels = Arrays.copyOf(labels, labels.length * 2);
+                }
+                labels[id] = vertex;
+            }
+            return id;
+        }
+
+        /**
+         * @return a new graph with the vertices and edges added so far
+         */
+        public CompactSenseGraph build()
+        {
+            int n = ids.size();
+            long[] sorted = Arrays.copyOf(edges, edgeCount);
+            Arrays.sort(sorted);
+
+            // Remove duplicate edges and count the degree of each vertex
+            int[] offsets = new int[n + 1];
+            int unique = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i > 0 && sorted[i] == sorted[i - 1]) {
+                    continue;
+                }
+                sorted[unique++] = sorted[i];
+                int id1 = (int) (sorted[i] >>> 32), id2 = (int) sorted[i];
+                offsets[id1 + 1]++;
+                if (id1 != id2) {
+                    offsets[id2 + 1]++;
+                }
+            }
+            for (int id = 0; id < n; id++) {
+                offsets[id + 1] += offsets[id];
+            }
+
+            int[] neighbours = new int[offsets[n]];
+            int[] fill = Arrays.copyOf(offsets, n);
+            for (int i = 0; i < unique; i++) {
+                int id1 = (int) (sorted[i] >>> 32), id2 = (int) sorted[i];
+                neighbours[fill[id1]++] = id2;
+                if (id1 != id2) {
+                    neighbours[fill[id2]++] = id1;
+                }
+            }
+            for (int id = 0; id < n; id++) {
+                Arrays.sort(neighbours, offsets[id], offsets[id + 1]);
+            }
+
+            return new CompactSenseGraph(Arrays.copyOf(labels, n), offsets,
+                    neighbours, unique);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.algorithm;
+
+import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngine;
+import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngineDescription;
+import static org.apache.uima.fit.factory.ExternalResourceFactory.createExternalResourceDescription;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ExternalResourceDescription;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.junit.Test;
+
+import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Sentence;
+import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Token;
+import de.tudarmstadt.ukp.dkpro.core.tokit.BreakIteratorSegmenter;
+import de.tudarmstadt.ukp.dkpro.wsd.annotator.WSDAnnotatorCollectiveBasic;
+import de.tudarmstadt.ukp.dkpro.wsd.annotator.WSDAnnotatorContextBasic;
+import de.tudarmstadt.ukp.dkpro.wsd.candidates.WSDItemAnnotator;
+import de.tudarmstadt.ukp.dkpro.wsd.resource.WSDResourceCollectiveBasic;
+import de.tudarmstadt.ukp.dkpro.wsd.resource.WSDResourceContextBasic;
+import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventory;
+import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
+import de.tudarmstadt.ukp.dkpro.wsd.si.resource.TestSenseInventoryResource;
+import de.tudarmstadt.ukp.dkpro.wsd.type.WSDResult;
+
+public class ParallelWSDAnnotatorTest
+{
+    private static final String TEXT = "The bank near the river bank had a bat "
+            + "and another bat but no test or second test.";
+
+    @Test
+    public void testParallelContextAnnotator()
+        throws Exception
+    {
+        List<String> expected = disambiguate(ThreadSafeAlgorithm.class, 1);
+        assertEquals(19, expected.size());
+        assertEquals(expected, disambiguate(ThreadSafeAlgorithm.class, 4));
+        assertEquals(expected, disambiguate(ThreadSafeAlgorithm.class, 0));
+        assertEquals(expected, disambiguate(SequentialAlgorithm.class, 4));
+    }
+
+    @Test
+    public void testParallelCollectiveAnnotatorRespectsMaxItems()
+        throws Exception
+    {
+        // Each sentence is one context, so only the first one is disambiguated
+        CollectiveAlgorithm.contexts.set(0);
+        assertEquals(3, disambiguateCollective(1, 3).size());
+        assertEquals(1, CollectiveAlgorithm.contexts.get());
+
+        CollectiveAlgorithm.contexts.set(0);
+        assertEquals(3, disambiguateCollective(4, 3).size());
+        assertEquals(1, CollectiveAlgorithm.contexts.get());
+
+        CollectiveAlgorithm.contexts.set(0);
+        assertEquals(disambiguateCollective(1, -1), disambiguateCollective(4, -1));
+        assertEquals(2 * 4, CollectiveAlgorithm.contexts.get());
+    }
+
+    @Test(expected = ResourceInitializationException.class)
+    public void testNegativeThreads()
+        throws Exception
+    {
+        disambiguate(ThreadSafeAlgorithm.class, -1);
+    }
+
+    private List<String> disambiguateCollective(int threads, int maxItems)
+        throws Exception
+    {
+        ExternalResourceDescription inventory = createExternalResourceDescription(TestSenseInventoryResource.class);
+        ExternalResourceDescription resource = createExternalResourceDescription(
+                WSDResourceCollectiveBasic.class,
+                WSDResourceCollectiveBasic.SENSE_INVENTORY_RESOURCE, inventory,
+                WSDResourceCollectiveBasic.DISAMBIGUATION_METHOD,
+                CollectiveAlgorithm.class.getName());
+        AnalysisEngine engine = createEngine(createEngineDescription(
+                createEngineDescription(BreakIteratorSegmenter.class),
+                createEngineDescription(WSDItemAnnotator.class,
+                        WSDItemAnnotator.PARAM_FEATURE_PATH,
+                        Token.class.getName()),
+                createEngineDescription(WSDAnnotatorCollectiveBasic.class,
+                        WSDAnnotatorCollectiveBasic.WSD_ALGORITHM_RESOURCE, resource,
+                        WSDAnnotatorCollectiveBasic.PARAM_CONTEXT_ANNOTATION,
+                        Sentence.class.getName(),
+                        WSDAnnotatorCollectiveBasic.PARAM_MAXIMUM_ITEMS_TO_ATTEMPT, maxItems,
+                        WSDAnnotatorCollectiveBasic.PARAM_THREADS, threads)));
+        JCas jcas = engine.newJCas();
+        jcas.setDocumentText("The bank had a bat. Another bat had a test. "
+                + "No test had a bank. The river had no bat.");
+        engine.process(jcas);
+        engine.destroy();
+
+        List<String> results = new ArrayList<String>();
+        for (WSDResult wsdResult : JCasUtil.select(jcas, WSDResult.class)) {
+            results.add(wsdResult.getWsdItem().getBegin() + " "
+                    + wsdResult.getBestSense().getId());
+        }
+        return results;
+    }
+
+    private List<String> disambiguate(Class<?> algorithm, int threads)
+        throws Exception
+    {
+        ExternalResourceDescription inventory = createExternalResourceDescription(TestSenseInventoryResource.class);
+        ExternalResourceDescription resource = createExternalResourceDescription(
+                WSDResourceContextBasic.class,
+                WSDResourceContextBasic.SENSE_INVENTORY_RESOURCE, inventory,
+                WSDResourceContextBasic.DISAMBIGUATION_METHOD,
+                algorithm.getName());
+        AnalysisEngine engine = createEngine(createEngineDescription(
+                createEngineDescription(BreakIteratorSegmenter.class),
+                createEngineDescription(WSDItemAnnotator.class,
+                        WSDItemAnnotator.PARAM_FEATURE_PATH,
+                        Token.class.getName()),
+                createEngineDescription(WSDAnnotatorContextBasic.class,
+                        WSDAnnotatorContextBasic.WSD_METHOD_CONTEXT, resource,
+                        WSDAnnotatorContextBasic.PARAM_THREADS, threads)));
+        JCas jcas = engine.newJCas();
+        jcas.setDocumentText(TEXT);
+        engine.process(jcas);
+        engine.destroy();
+
+        // Order the results by their position in the CAS heap, that is, by
+        // the order in which they were created
+        Map<Integer, String> results = new TreeMap<Integer, String>();
+        for (WSDResult wsdResult : JCasUtil.select(jcas, WSDResult.class)) {
+            results.put(jcas.getLowLevelCas().ll_getFSRef(wsdResult),
+                    wsdResult.getWsdItem().getBegin() + " "
+                            + wsdResult.getBestSense().getId());
+        }
+        return new ArrayList<String>(results.values());
+    }
+
+    public static class SequentialAlgorithm
+        extends AbstractWSDAlgorithm
+        implements WSDAlgorithmContextBasic
+    {
+        private final Random random = new Random();
+
+        public SequentialAlgorithm(SenseInventory inventory)
+        {
+            super(inventory);
+        }
+
+        @Override
+        public Map<String, Double> getDisambiguation(String sod, String context)
+            throws SenseInventoryException
+        {
+            try {
+                // Let the tasks complete out of order
+                Thread.sleep(random.nextInt(5));
+            }
+            catch (InterruptedException e) {
+                throw new SenseInventoryException(e);
+            }
+            return getDisambiguationMap(
+                    new String[] { sod + "#" + context.indexOf(sod) },
+                    new double[] { 1.0 });
+        }
+    }
+
+    public static class CollectiveAlgorithm
+        extends AbstractWSDAlgorithm
+        implements WSDAlgorithmCollectiveBasic, ThreadSafeWSDAlgorithm
+    {
+        static final AtomicInteger contexts = new AtomicInteger();
+
+        public CollectiveAlgorithm(SenseInventory inventory)
+        {
+            super(inventory);
+        }
+
+        @Override
+        public Map<String, Map<String, Double>> getDisambiguation(
+                Collection<String> sods)
+            throws SenseInventoryException
+        {
+            contexts.incrementAndGet();
+            Map<String, Map<String, Double>> results = new HashMap<String, Map<String, Double>>();
+            for (String sod : sods) {
+                results.put(sod, getDisambiguationMap(new String[] { sod },
+                        new double[] { 1.0 }));
+            }
+            return results;
+        }
+    }
+
+    public static class ThreadSafeAlgorithm
+        extends SequentialAlgorithm
+        implements ThreadSafeWSDAlgorithm
+    {
+        public ThreadSafeAlgorithm(SenseInventory inventory)
+        {
+            super(inventory);
+        }
+    }
+}
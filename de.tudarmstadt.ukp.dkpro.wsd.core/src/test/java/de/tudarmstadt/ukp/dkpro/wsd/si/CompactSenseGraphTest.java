@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.tudarmstadt.ukp.dkpro.wsd.UnorderedPair;
+
+public class CompactSenseGraphTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private CompactSenseGraph buildGraph()
+    {
+        return new CompactSenseGraph.Builder().addVertex("a")
+                .addEdge("a", "b").addEdge("b", "a").addEdge("b", "c")
+                .addEdge("c", "c").addVertex("d").build();
+    }
+
+    @Test
+    public void testStructure()
+    {
+        CompactSenseGraph g = buildGraph();
+
+        assertEquals(4, g.getVertexCount());
+        assertEquals(3, g.getEdgeCount());
+        assertEquals(3, g.getEdges().size());
+        assertTrue(g.containsEdge(new UnorderedPair<String>("c", "b")));
+        assertTrue(g.containsEdge(new UnorderedPair<String>("c", "c")));
+        assertFalse(g.containsEdge(new UnorderedPair<String>("a", "c")));
+        assertFalse(g.containsEdge(new UnorderedPair<String>("a", "x")));
+        assertTrue(g.containsVertex("d"));
+        assertFalse(g.containsVertex("x"));
+
+        assertEquals(2, g.degree("b"));
+        assertEquals(0, g.degree("d"));
+        assertTrue(g.getNeighbors("b").contains("a"));
+        assertTrue(g.getNeighbors("b").contains("c"));
+        assertNull(g.getNeighbors("x"));
+        assertEquals("a", g.getOpposite("b",
+                g.findEdge("a", "b")));
+        assertNull(g.findEdge("a", "d"));
+
+        Set<UnorderedPair<String>> edges = new HashSet<UnorderedPair<String>>(
+                g.getEdges());
+        assertEquals(3, edges.size());
+        assertTrue(edges.contains(new UnorderedPair<String>("b", "a")));
+        assertTrue(edges.contains(new UnorderedPair<String>("c", "b")));
+        assertTrue(edges.contains(new UnorderedPair<String>("c", "c")));
+
+        int b = g.getVertexId("b");
+        assertEquals("b", g.getVertexLabel(b));
+        assertEquals(2, g.getDegree(b));
+        assertTrue(g.hasEdge(b, g.getVertexId("a")));
+        assertTrue(g.getNeighbour(b, 0) < g.getNeighbour(b, 1));
+        assertEquals(-1, g.getVertexId("x"));
+    }
+
+    @Test
+    public void testCopyAndSerialization()
+        throws Exception
+    {
+        CompactSenseGraph g = buildGraph();
+        CompactSenseGraph copy = CompactSenseGraph.copyOf(
+                new CompactSenseGraph.Builder().addGraph(g).build());
+        assertEquals(g.getVertexCount(), copy.getVertexCount());
+        assertEquals(new HashSet<UnorderedPair<String>>(g.getEdges()),
+                new HashSet<UnorderedPair<String>>(copy.getEdges()));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(g);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+                bytes.toByteArray()));
+        CompactSenseGraph h = (CompactSenseGraph) in.readObject();
+        in.close();
+        assertEquals(g.getEdgeCount(), h.getEdgeCount());
+        assertTrue(h.isNeighbor("c", "b"));
+    }
+
+    @Test
+    public void testSnapshot()
+        throws Exception
+    {
+        CompactSenseGraph g = new CompactSenseGraph.Builder()
+                .addEdge("a", "b").addEdge("b", "\u00e9t\u00e9").build();
+        File file = new File(folder.getRoot(), "graph.bin");
+        g.write(file, "test 1.0 synset");
+
+        CompactSenseGraph h = CompactSenseGraph.map(file, "test 1.0 synset");
+        assertEquals(3, h.getVertexCount());
+        assertEquals(2, h.getEdgeCount());
+        assertTrue(h.isNeighbor("\u00e9t\u00e9", "b"));
+        assertFalse(h.isNeighbor("a", "\u00e9t\u00e9"));
+        assertEquals(new HashSet<String>(g.getVertices()),
+                new HashSet<String>(h.getVertices()));
+
+        try {
+            CompactSenseGraph.map(file, "test 1.0 sensekey");
+            fail("Snapshot with different key was accepted");
+        }
+        catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable()
+    {
+        buildGraph().addVertex("e");
+    }
+}
@@ -18,6 +18,7 @@
 
 package de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.algorithm;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -30,22 +31,21 @@ import org.dkpro.similarity.algorithms.api.SimilarityException;
 
 import de.tudarmstadt.ukp.dkpro.wsd.algorithm.AbstractWSDAlgorithm;
 import de.tudarmstadt.ukp.dkpro.wsd.algorithm.WSDAlgorithmCollectiveSequentialBasic;
-import de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.util.DisambiguationEdge;
-import de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.util.DisambiguationEdgeTransformer;
 import de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.util.DisambiguationVertex;
-import de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.util.DisambiguationVertexTransformer;
-import de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.wikipedia.util.IncomingLinksCache;
+import de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.util.PageRankWithPriorsKernel;
 import de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.wikipedia.util.SimilarityCache;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventory;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseWeightedInventory;
-import edu.uci.ics.jung.algorithms.scoring.PageRankWithPriors;
-import edu.uci.ics.jung.graph.DirectedSparseGraph;
-import edu.uci.ics.jung.graph.Graph;
 
 /**
  * Base for all methods doing sequential disambiguation, i.e. iterating over lists of sods and taking previous disambiguations into account
  *
+ * The senses are ranked by PageRank with priors, computed by the {@link PageRankWithPriorsKernel} of the current thread.
+ *
+ * Instances keep the previous disambiguations as state and must not be shared between threads,
+ * but the similarity cache is thread-safe and may be shared by instances in different threads.
+ *
  * @author nico.erbs@gmail.com
  *
  */
@@ -57,10 +57,18 @@ implements WSDAlgorithmCollectiveSequentialBasic {
 	//Dimensions
 	private double pagerankAlpha = 0.1;
 
+	private int maxIterations = PageRankWithPriorsKernel.DEFAULT_MAX_ITERATIONS;
+
+	private double tolerance = PageRankWithPriorsKernel.DEFAULT_TOLERANCE;
+
+	private boolean parallel = false;
+
 	private double dampingFactor;
 
 	private final Map<String, Double> previousEntites;
 
+	private SimilarityCache similarityCache;
+
 	private final static Logger logger = Logger
 			.getLogger(SequentialGraphDisambiguation.class.getName());
 
@@ -68,7 +76,39 @@ implements WSDAlgorithmCollectiveSequentialBasic {
 		super(inventory);
 
 		previousEntites = new HashMap<String, Double>();
-		SimilarityCache.initialize();
+		similarityCache = SimilarityCache.getDefault();
+	}
+
+	/**
+	 * @param similarityCache the cache for similarity values, by default {@link SimilarityCache#getDefault()}
+	 */
+	public void setSimilarityCache(SimilarityCache similarityCache) {
+		this.similarityCache = similarityCache;
+	}
+
+	public SimilarityCache getSimilarityCache() {
+		return similarityCache;
+	}
+
+	/**
+	 * @param maxIterations the maximum number of PageRank iterations, by default {@link PageRankWithPriorsKernel#DEFAULT_MAX_ITERATIONS}
+	 */
+	public void setMaxIterations(int maxIterations) {
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * @param tolerance the maximum change of a score at which PageRank stops, by default {@link PageRankWithPriorsKernel#DEFAULT_TOLERANCE}
+	 */
+	public void setTolerance(double tolerance) {
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * @param parallel whether the PageRank iterations on large graphs are run in parallel
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
 	}
 
 	/**
@@ -79,12 +119,13 @@ implements WSDAlgorithmCollectiveSequentialBasic {
 	 * @throws SimilarityException
 	 */
 	protected double getSimilarity(String baseSense, String targetSense) throws SimilarityException{
-		if(SimilarityCache.contains(baseSense, targetSense)){
-			return SimilarityCache.get(baseSense, targetSense);
+		Double cached = similarityCache.get(baseSense, targetSense);
+		if(cached != null){
+			return cached;
 		}
 		else{
 			double similarity = getSenseSimilarity(baseSense, targetSense);
-			SimilarityCache.put(baseSense, targetSense, similarity);
+			similarityCache.put(baseSense, targetSense, similarity);
 			return similarity;
 		}
 	}
@@ -132,39 +173,38 @@ implements WSDAlgorithmCollectiveSequentialBasic {
 			Collection<String> sods,
 			Map<String, Double> previousEntites) throws SenseInventoryException{
 
-		//Construct graph
-		Graph<DisambiguationVertex, DisambiguationEdge> graph = new DirectedSparseGraph<DisambiguationVertex, DisambiguationEdge>();
-
-		//Add nodes from sentence to graph
+		//Collect vertices from sentence
+		List<DisambiguationVertex> vertices = new ArrayList<DisambiguationVertex>();
 		Map<String, Double> weightedSenses;
 		for(String sod : sods){
 			weightedSenses = ((SenseWeightedInventory)inventory).getWeightedSenses(sod);
 			for(String sense : weightedSenses.keySet()){
 				logger.debug("Added vertex to graph: " + sod +"\t"+ sense +"\t"+ weightedSenses.get(sense));
-				graph.addVertex(new DisambiguationVertex(sod, sense, weightedSenses.get(sense)));
+				vertices.add(new DisambiguationVertex(sod, sense, weightedSenses.get(sense)));
 			}
 		}
 
-		//Add nodes from sentence to graph
+		//Collect vertices from previous disambiguations
 		for(String sense : previousEntites.keySet()){
-			graph.addVertex(new DisambiguationVertex("PREVIOUS", sense, previousEntites.get(sense)));
+			vertices.add(new DisambiguationVertex("PREVIOUS", sense, previousEntites.get(sense)));
+		}
+
+		//Construct graph
+		PageRankWithPriorsKernel graph = PageRankWithPriorsKernel.getWorkspace();
+		graph.reset(vertices.size());
+		for(int i=0; i<vertices.size(); i++){
+			graph.setPrior(i, vertices.get(i).getWeight());
 		}
 
 		//Add edges to graph
 		double similarity;
-		for(DisambiguationVertex source : graph.getVertices()){
-			for(DisambiguationVertex target : graph.getVertices()){
+		for(int source=0; source<vertices.size(); source++){
+			for(int target=0; target<vertices.size(); target++){
 				if(source != target){
-					//					System.out.println(getSenseSimilarity(source.getSense(), target.getSense()) +"\t"+
-					//					source.getSense() +"\t"+
-					//					target.getSense());
 					try {
-						similarity = getSimilarity(source.getSense(), target.getSense());
+						similarity = getSimilarity(vertices.get(source).getSense(), vertices.get(target).getSense());
 						if(similarity > 0){
-						graph.addEdge(
-								new DisambiguationEdge(similarity),
-								source,
-								target);
+							graph.addEdge(source, target, similarity);
 						}
 					} catch (SimilarityException e) {
 						throw new SenseInventoryException(e);
@@ -174,29 +214,17 @@ implements WSDAlgorithmCollectiveSequentialBasic {
 		}
 
 		//Run graph algorithm
-//		BetweennessCentrality<DisambiguationVertex, DisambiguationEdge> graphAlgorithm =
-//				new BetweennessCentrality<DisambiguationVertex, DisambiguationEdge>(
-//						graph,
-//						new DisambiguationEdgeTransformer());
-
-		PageRankWithPriors<DisambiguationVertex, DisambiguationEdge> graphAlgorithm =
-				new PageRankWithPriors<DisambiguationVertex, DisambiguationEdge>(
-						graph,
-						new DisambiguationEdgeTransformer(),
-						new DisambiguationVertexTransformer(),
-						pagerankAlpha);
-		graphAlgorithm.initialize();
-		graphAlgorithm.evaluate();
-
+		graph.evaluate(pagerankAlpha, maxIterations, tolerance, parallel);
 
 		//Fill disambiguation results
 		Map<String, Map<String, Double>> disambiguation = new HashMap<String, Map<String, Double>>();
-		for(DisambiguationVertex vertex : graph.getVertices()){
+		for(int i=0; i<vertices.size(); i++){
+			DisambiguationVertex vertex = vertices.get(i);
 			if(!disambiguation.containsKey(vertex.getSod())){
 				disambiguation.put(vertex.getSod(), new HashMap<String, Double>());
 			}
-			disambiguation.get(vertex.getSod()).put(vertex.getSense(), graphAlgorithm.getVertexScore(vertex));
-			logger.debug(vertex.getSod() +"\t"+ vertex.getSense()  +"\t"+ graphAlgorithm.getVertexScore(vertex));
+			disambiguation.get(vertex.getSod()).put(vertex.getSense(), graph.getScore(i));
+			logger.debug(vertex.getSod() +"\t"+ vertex.getSense()  +"\t"+ graph.getScore(i));
 		}
 
 		return disambiguation;
@@ -245,8 +273,11 @@ implements WSDAlgorithmCollectiveSequentialBasic {
 
 	@Override
 	public void collectionProcessComplete() {
-		SimilarityCache.serialize();
-		IncomingLinksCache.serialize();
+		try {
+			similarityCache.flush();
+		} catch (IOException e) {
+			logger.error("Could not write similarity cache " + similarityCache.getFile(), e);
+		}
 	}
 
 	@Override
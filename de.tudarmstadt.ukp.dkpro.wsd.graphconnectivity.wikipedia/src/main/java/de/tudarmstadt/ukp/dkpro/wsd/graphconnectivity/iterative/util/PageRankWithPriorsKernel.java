@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * An array-based PageRank with priors, computing the same scores as JUNG's
+ * {@link edu.uci.ics.jung.algorithms.scoring.PageRankWithPriors} with
+ * untransformed edge weights. Starting from the priors, each iteration
+ * computes
+ *
+ * <pre>
+ * score'(v) = (1 - alpha) * (sum of score(u) * weight(u, v) over all edges u-&gt;v + d * prior(v)) + alpha * prior(v)
+ * </pre>
+ *
+ * where d is the sum of the scores of all vertices without outgoing edges.
+ * The iteration stops after the maximum number of iterations, or as soon as
+ * no score changes by more than the tolerance in one iteration. (JUNG only
+ * stops early if this held for all iterations so far.)
+ * <p>
+ * Vertices are numbered from 0. The incoming edges are stored as a CSR
+ * array, and an instance reuses its arrays for consecutive graphs, so
+ * {@link #getWorkspace()} provides one instance per thread.
+ */
+public class PageRankWithPriorsKernel {
+
+	public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+	public static final double DEFAULT_TOLERANCE = 0.001;
+
+	/** The minimum number of edges for which an iteration is run in parallel */
+	private static final int PARALLEL_THRESHOLD = 4096;
+
+	private static final ThreadLocal<PageRankWithPriorsKernel> workspaces = new ThreadLocal<PageRankWithPriorsKernel>() {
+		@Override
+		protected PageRankWithPriorsKernel initialValue() {
+			return new PageRankWithPriorsKernel();
+		}
+	};
+
+	/**
+	 * @return the workspace of the current thread
+	 */
+	public static PageRankWithPriorsKernel getWorkspace() {
+		return workspaces.get();
+	}
+
+	private int vertexCount = 0;
+	private int edgeCount = 0;
+	private int iterations = 0;
+
+	private double[] priors = new double[16];
+	private double[] scores = new double[16];
+	private double[] nextScores = new double[16];
+	private int[] outDegrees = new int[16];
+
+	//edges in the order they were added
+	private int[] edgeSources = new int[64];
+	private int[] edgeTargets = new int[64];
+	private double[] edgeWeights = new double[64];
+
+	//the incoming edges of vertex v are stored at inOffsets[v] until inOffsets[v+1]
+	private int[] inOffsets = new int[17];
+	private int[] inSources = new int[64];
+	private double[] inWeights = new double[64];
+	private int[] inPositions = new int[16];
+
+	/**
+	 * Clears the workspace for a new graph.
+	 * @param vertexCount the number of vertices of the graph
+	 */
+	public void reset(int vertexCount) {
+		if(vertexCount > priors.length){
+			int capacity = Math.max(vertexCount, priors.length * 2);
+			priors = new double[capacity];
+			scores = new double[capacity];
+			nextScores = new double[capacity];
+			outDegrees = new int[capacity];
+			inOffsets = new int[capacity + 1];
+		}
+		Arrays.fill(priors, 0, vertexCount, 0);
+		Arrays.fill(outDegrees, 0, vertexCount, 0);
+		this.vertexCount = vertexCount;
+		edgeCount = 0;
+		iterations = 0;
+	}
+
+	public void setPrior(int vertex, double prior) {
+		priors[vertex] = prior;
+	}
+
+	/**
+	 * Adds a directed edge.
+	 */
+	public void addEdge(int source, int target, double weight) {
+		if(edgeCount == edgeSources.length){
+			int capacity = edgeCount * 2;
+			edgeSources = Arrays.copyOf(edgeSources, capacity);
+			edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+			edgeWeights = Arrays.copyOf(edgeWeights, capacity);
+		}
+		edgeSources[edgeCount] = source;
+		edgeTargets[edgeCount] = target;
+		edgeWeights[edgeCount++] = weight;
+		outDegrees[source]++;
+	}
+
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	/**
+	 * @return the number of iterations run by the last {@link #evaluate}
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * @return the score of a vertex computed by the last {@link #evaluate}
+	 */
+	public double getScore(int vertex) {
+		return scores[vertex];
+	}
+
+	/**
+	 * Computes the scores of the current graph with the default maximum number
+	 * of iterations and tolerance.
+	 * @param alpha the probability of jumping back to a vertex according to its prior
+	 */
+	public void evaluate(double alpha) {
+		evaluate(alpha, DEFAULT_MAX_ITERATIONS, DEFAULT_TOLERANCE, false);
+	}
+
+	/**
+	 * Computes the scores of the current graph.
+	 * @param alpha the probability of jumping back to a vertex according to its prior
+	 * @param maxIterations the maximum number of iterations
+	 * @param tolerance the maximum change of a score at which the scores count as converged
+	 * @param parallel whether the scores of large graphs are updated in parallel
+	 */
+	public void evaluate(final double alpha, int maxIterations, double tolerance, boolean parallel) {
+		buildIncomingEdges();
+		System.arraycopy(priors, 0, scores, 0, vertexCount);
+		iterations = 0;
+		IntConsumer update = new IntConsumer() {
+			@Override
+			public void accept(int v) {
+				double input = 0;
+				for(int e=inOffsets[v]; e<inOffsets[v + 1]; e++){
+					input += scores[inSources[e]] * inWeights[e];
+				}
+				nextScores[v] = alpha > 0 ? input * (1 - alpha) + priors[v] * alpha : input;
+			}
+		};
+		boolean runParallel = parallel && edgeCount >= PARALLEL_THRESHOLD;
+
+		while(iterations < maxIterations){
+			//the scores of vertices without outgoing edges are redistributed according to the priors
+			double disappearingPotential = 0;
+			for(int v=0; v<vertexCount; v++){
+				if(outDegrees[v] == 0){
+					disappearingPotential += scores[v];
+				}
+			}
+
+			if(runParallel){
+				IntStream.range(0, vertexCount).parallel().forEach(update);
+			}
+			else{
+				for(int v=0; v<vertexCount; v++){
+					update.accept(v);
+				}
+			}
+
+			double maxDelta = 0;
+			for(int v=0; v<vertexCount; v++){
+				if(disappearingPotential > 0){
+					nextScores[v] += (1 - alpha) * disappearingPotential * priors[v];
+				}
+				maxDelta = Math.max(maxDelta, Math.abs(nextScores[v] - scores[v]));
+			}
+
+			double[] swap = scores;
+			scores = nextScores;
+			nextScores = swap;
+			iterations++;
+			if(maxDelta < tolerance){
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Sorts the edges into the CSR array of incoming edges by a counting sort.
+	 */
+	private void buildIncomingEdges() {
+		if(edgeCount > inSources.length){
+			inSources = new int[edgeSources.length];
+			inWeights = new double[edgeSources.length];
+		}
+		Arrays.fill(inOffsets, 0, vertexCount + 1, 0);
+		for(int e=0; e<edgeCount; e++){
+			inOffsets[edgeTargets[e] + 1]++;
+		}
+		for(int v=0; v<vertexCount; v++){
+			inOffsets[v + 1] += inOffsets[v];
+		}
+		if(inPositions.length < vertexCount){
+			inPositions = new int[priors.length];
+		}
+		System.arraycopy(inOffsets, 0, inPositions, 0, vertexCount);
+		for(int e=0; e<edgeCount; e++){
+			int position = inPositions[edgeTargets[e]]++;
+			inSources[position] = edgeSources[e];
+			inWeights[position] = edgeWeights[e];
+		}
+	}
+}
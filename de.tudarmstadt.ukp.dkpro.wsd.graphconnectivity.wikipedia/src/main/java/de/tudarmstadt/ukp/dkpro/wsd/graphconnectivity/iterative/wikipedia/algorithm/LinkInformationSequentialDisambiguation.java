@@ -18,16 +18,19 @@
 
 package de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.wikipedia.algorithm;
 
+import java.io.IOException;
 import java.util.List;
 
-import org.apache.commons.collections15.ListUtils;
+import org.apache.log4j.Logger;
 import org.dkpro.similarity.algorithms.api.SimilarityException;
 import org.junit.Before;
 
 import de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.algorithm.SequentialGraphDisambiguation;
+import de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.wikipedia.util.BoundedCache;
 import de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.wikipedia.util.IncomingLinksCache;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventory;
 import de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.PerformanceLinkInformationReader;
+import de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.util.MilneWittenRelatedness;
 import de.tudarmstadt.ukp.wikipedia.api.exception.WikiApiException;
 
 /**
@@ -41,8 +44,47 @@ SequentialGraphDisambiguation {
 
 	private PerformanceLinkInformationReader linkInformationReader;
 
+	private IncomingLinksCache incomingLinksCache;
+
+	private MilneWittenRelatedness relatedness;
+
+	public static final int DEFAULT_MAX_ARTICLES = 10000;
+	public static final int DEFAULT_MAX_PAGE_IDS = 1000000;
+
+	/** The sorted IDs of the pages linking to an article */
+	private BoundedCache<String, int[]> incomingLinkIds = new BoundedCache<String, int[]>(DEFAULT_MAX_ARTICLES);
+
+	private int maxPageIds = DEFAULT_MAX_PAGE_IDS;
+
+	private final static Logger logger = Logger
+			.getLogger(LinkInformationSequentialDisambiguation.class.getName());
+
 	public LinkInformationSequentialDisambiguation(SenseInventory inventory) {
 		super(inventory);
+		incomingLinksCache = IncomingLinksCache.getDefault();
+	}
+
+	/**
+	 * @param incomingLinksCache the cache for incoming links, by default {@link IncomingLinksCache#getDefault()}
+	 */
+	public void setIncomingLinksCache(IncomingLinksCache incomingLinksCache) {
+		this.incomingLinksCache = incomingLinksCache;
+	}
+
+	/**
+	 * @param maxArticles the maximum number of articles whose incoming link IDs are kept in memory,
+	 * by default {@link #DEFAULT_MAX_ARTICLES}
+	 */
+	public void setMaxArticles(int maxArticles) {
+		incomingLinkIds = new BoundedCache<String, int[]>(maxArticles);
+	}
+
+	/**
+	 * @param maxPageIds the number of page names given an ID after which all IDs are forgotten,
+	 * together with the cached incoming link IDs, by default {@link #DEFAULT_MAX_PAGE_IDS}
+	 */
+	public void setMaxPageIds(int maxPageIds) {
+		this.maxPageIds = maxPageIds;
 	}
 
 	@Before
@@ -54,7 +96,6 @@ SequentialGraphDisambiguation {
 				"linkdatabase_wikipedia_en_20100615",
 				"root",
 				"");
-		IncomingLinksCache.initialize();
 			}
 
 
@@ -86,43 +127,57 @@ SequentialGraphDisambiguation {
 		}
 
 
-		List<String> linksA;
-		List<String> linksB;
+		if(relatedness == null){
+			relatedness = new MilneWittenRelatedness(linkInformationReader.getNumberOfSenses());
+		}
+		else if(relatedness.getNumberOfPageIds() > maxPageIds){
+			// arrays of IDs from before are not comparable to new ones, so they are dropped as well
+			relatedness.clearPageIds();
+			incomingLinkIds.clear();
+		}
+
+		int[] linksA;
+		int[] linksB;
 		try {
-			linksA = getIncomingLinks(target0);
-			linksB = getIncomingLinks(target1);
+			linksA = getIncomingLinkIds(target0);
+			linksB = getIncomingLinkIds(target1);
 		} catch (Exception e) {
 			throw new SimilarityException();
 		}
 
-		int linksBoth = ListUtils.intersection(linksA, linksB).size();
-
-		double a = Math.log(linksA.size()) ;
-		double b = Math.log(linksB.size()) ;
-		double ab = Math.log(linksBoth) ;
-		double m = Math.log(linkInformationReader.getNumberOfSenses()) ;
+		return relatedness.relatedness(linksA, linksB);
 
-		double sr = (Math.max(a, b) -ab) / (m - Math.min(a, b)) ;
+	}
 
-		if (Double.isNaN(sr) || Double.isInfinite(sr) || sr > 1) {
-			sr = 1 ;
+	private int[] getIncomingLinkIds(String article) throws Exception {
+		int[] ids = incomingLinkIds.get(article);
+		if(ids == null){
+			ids = relatedness.toIds(getIncomingLinks(article));
+			incomingLinkIds.put(article, ids);
 		}
-
-		sr = 1-sr ;
-
-		return sr ;
-
+		return ids;
 	}
 
 	private List<String> getIncomingLinks(String article) throws Exception {
-		if(IncomingLinksCache.contains(article)){
-			return IncomingLinksCache.getSources(article);
+		List<String> sources = incomingLinksCache.getSources(article);
+		if(sources != null){
+			return sources;
 		}
-		List<String> sources = linkInformationReader.getLinkSources(null, null, article, 0);
-		IncomingLinksCache.add(article, sources);
+		sources = linkInformationReader.getLinkSources(null, null, article, 0);
+		incomingLinksCache.add(article, sources);
 		return sources;
 	}
 
+	@Override
+	public void collectionProcessComplete() {
+		super.collectionProcessComplete();
+		try {
+			incomingLinksCache.flush();
+		} catch (IOException e) {
+			logger.error("Could not write incoming links cache " + incomingLinksCache.getFile(), e);
+		}
+	}
+
 
 
 }
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.wikipedia.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe cache bounded by size and, optionally, by the age of its entries.
+ * The keys are spread over a number of independently locked stripes, each of
+ * which evicts its least recently used entries once it is full.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BoundedCache<K, V> {
+
+	private static final int DEFAULT_STRIPES = 16;
+
+	private final Stripe<K, V>[] stripes;
+	private final long ttlNanos;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * @param maxSize maximum number of entries
+	 */
+	public BoundedCache(int maxSize) {
+		this(maxSize, 0, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @param maxSize maximum number of entries
+	 * @param ttl time after which an entry expires, 0 for no expiry
+	 * @param unit unit of ttl
+	 */
+	@SuppressWarnings("unchecked")
+	public BoundedCache(int maxSize, long ttl, TimeUnit unit) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+		}
+		int stripeCount = Math.min(DEFAULT_STRIPES, maxSize);
+		stripes = new Stripe[stripeCount];
+		int stripeSize = (maxSize + stripeCount - 1) / stripeCount;
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new Stripe<K, V>(stripeSize, evictions);
+		}
+		ttlNanos = unit.toNanos(ttl);
+	}
+
+	/**
+	 * @param key key
+	 * @return the cached value, or null if the key is not cached or has expired
+	 */
+	public V get(K key) {
+		Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			Entry<V> entry = stripe.get(key);
+			if (entry != null && isExpired(entry)) {
+				stripe.remove(key);
+				entry = null;
+			}
+			if (entry == null) {
+				misses.incrementAndGet();
+				return null;
+			}
+			hits.incrementAndGet();
+			return entry.value;
+		}
+	}
+
+	/**
+	 * @param key key
+	 * @return true if the key is cached and has not expired
+	 */
+	public boolean containsKey(K key) {
+		Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			Entry<V> entry = stripe.get(key);
+			return entry != null && !isExpired(entry);
+		}
+	}
+
+	/**
+	 * Caches a value, replacing any previous value of the key.
+	 *
+	 * @param key key
+	 * @param value value
+	 * @return true if the key was not cached before
+	 */
+	public boolean put(K key, V value) {
+		Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			Entry<V> previous = stripe.put(key, new Entry<V>(value, System.nanoTime()));
+			return previous == null || isExpired(previous);
+		}
+	}
+
+	/**
+	 * @param key key
+	 */
+	public void remove(K key) {
+		Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			stripe.remove(key);
+		}
+	}
+
+	public void clear() {
+		for (Stripe<K, V> stripe : stripes) {
+			synchronized (stripe) {
+				stripe.clear();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of cached entries, including expired ones not yet removed
+	 */
+	public int size() {
+		int size = 0;
+		for (Stripe<K, V> stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return a copy of all entries which have not expired
+	 */
+	public Map<K, V> snapshot() {
+		Map<K, V> snapshot = new HashMap<K, V>();
+		for (Stripe<K, V> stripe : stripes) {
+			synchronized (stripe) {
+				for (Map.Entry<K, Entry<V>> entry : stripe.entrySet()) {
+					if (!isExpired(entry.getValue())) {
+						snapshot.put(entry.getKey(), entry.getValue().value);
+					}
+				}
+			}
+		}
+		return snapshot;
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[size=" + size() + ", hits=" + getHitCount()
+				+ ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+	}
+
+	private Stripe<K, V> stripeFor(K key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return stripes[(h & 0x7fffffff) % stripes.length];
+	}
+
+	private boolean isExpired(Entry<V> entry) {
+		return ttlNanos > 0 && System.nanoTime() - entry.created > ttlNanos;
+	}
+
+	private static class Entry<V> {
+		final V value;
+		final long created;
+
+		Entry(V value, long created) {
+			this.value = value;
+			this.created = created;
+		}
+	}
+
+	private static class Stripe<K, V> extends LinkedHashMap<K, Entry<V>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maxSize;
+		private final AtomicLong evictions;
+
+		Stripe(int maxSize, AtomicLong evictions) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+			this.evictions = evictions;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+			if (size() > maxSize) {
+				evictions.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	}
+}
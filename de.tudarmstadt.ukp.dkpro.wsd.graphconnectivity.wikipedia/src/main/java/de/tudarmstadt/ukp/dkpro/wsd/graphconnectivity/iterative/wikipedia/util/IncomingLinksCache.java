@@ -18,89 +18,120 @@
 
 package de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.wikipedia.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
 
 /**
  * A cache for incoming links. Increases speed dramatically.
- * 
+ * The cache is thread-safe and can be shared by several disambiguators.
+ *
  * @author nico.erbs@gmail.com
  *
  */
-public class IncomingLinksCache extends HashMap<String, List<String>> {
-
-	private static String CACHE_FILE_PATH = "/srv/experiments/ned/aida/incomingLinksCache.ser";
+public class IncomingLinksCache extends PersistentCache<String, List<String>> {
 
 	/**
-	 * 
+	 * System property with the path of the file backing the default cache.
+	 * If it is not set, the default cache is kept in memory only.
 	 */
-	private static final long serialVersionUID = 1L;
+	public static final String PROPERTY_FILE = "dkpro.wsd.incomingLinksCache.file";
 
-	private static IncomingLinksCache cache;
+	/**
+	 * System property with the maximum size of the default cache.
+	 */
+	public static final String PROPERTY_MAX_SIZE = "dkpro.wsd.incomingLinksCache.maxSize";
 
+	public static final int DEFAULT_MAX_SIZE = 100000;
 
-	public static void initialize(){
-		if(cache == null){
-			//try de-serializing first
-			cache = deSerialize();
-			if(cache == null){
-				cache = new IncomingLinksCache();
-			}
-		}
-	}
+	private final static Logger logger = Logger.getLogger(IncomingLinksCache.class.getName());
 
-	public static void add(String article, List<String> sources){
-		cache.put(article, sources);
-	}
+	private static IncomingLinksCache defaultCache;
 
-	public static boolean contains(String article){
-		return cache.containsKey(article);
+	/**
+	 * Creates a cache which is kept in memory only.
+	 */
+	public IncomingLinksCache() {
+		this(null, DEFAULT_MAX_SIZE, 0, TimeUnit.MILLISECONDS);
 	}
 
-	public static List<String> getSources(String article){
-		return cache.get(article);
+	/**
+	 * @param file backing file, or null
+	 * @param maxSize maximum number of entries
+	 * @param ttl time after which an entry expires, 0 for no expiry
+	 * @param unit unit of ttl
+	 */
+	public IncomingLinksCache(File file, int maxSize, long ttl, TimeUnit unit) {
+		super(file, maxSize, ttl, unit);
 	}
 
-	public static void serialize() {
-		try{
-
-			ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(new File(CACHE_FILE_PATH)));
-			oos.writeObject(cache);
-			oos.flush();
-			oos.close();
+	/**
+	 * @return the cache shared by all disambiguators which are not given a cache
+	 *         explicitly, configured by {@link #PROPERTY_FILE} and {@link #PROPERTY_MAX_SIZE}
+	 */
+	public static synchronized IncomingLinksCache getDefault() {
+		if (defaultCache == null) {
+			String path = System.getProperty(PROPERTY_FILE);
+			int maxSize = Integer.getInteger(PROPERTY_MAX_SIZE, DEFAULT_MAX_SIZE);
+			defaultCache = new IncomingLinksCache(path == null ? null : new File(path), maxSize, 0,
+					TimeUnit.MILLISECONDS);
+			try {
+				defaultCache.load();
+			} catch (IOException e) {
+				logger.warn("Could not read incoming links cache " + path + ": " + e);
+			}
 		}
-		catch(Exception e) {
-			System.out.println("Exception during serialization: " + e);
-			e.printStackTrace();
-		} 
+		return defaultCache;
+	}
 
+	/**
+	 * @param article article
+	 * @param sources articles linking to article
+	 */
+	public void add(String article, List<String> sources) {
+		put(article, Collections.unmodifiableList(new ArrayList<String>(sources)));
 	}
 
-	public static IncomingLinksCache deSerialize() {
-		IncomingLinksCache cache = null;
-		try{
-			ObjectInputStream in = new ObjectInputStream( 
-					new FileInputStream(CACHE_FILE_PATH));
-			cache = (IncomingLinksCache) in.readObject();
-			in.close();
-		} catch(Exception e){
-			System.out.println("Exception during serialization: " + e);
-		}
-		return cache;
+	/**
+	 * @param article article
+	 * @return the cached sources of incoming links, or null if they have not been cached
+	 */
+	public List<String> getSources(String article) {
+		return get(article);
+	}
 
+	@Override
+	protected void writeKey(DataOutput out, String key) throws IOException {
+		out.writeUTF(key);
 	}
 
-	public static String getCACHE_FILE_PATH() {
-		return CACHE_FILE_PATH;
+	@Override
+	protected String readKey(DataInput in) throws IOException {
+		return in.readUTF();
 	}
 
-	public static void setCACHE_FILE_PATH(String cACHE_FILE_PATH) {
-		CACHE_FILE_PATH = cACHE_FILE_PATH;
+	@Override
+	protected void writeValue(DataOutput out, List<String> value) throws IOException {
+		out.writeInt(value.size());
+		for (String source : value) {
+			out.writeUTF(source);
+		}
 	}
 
+	@Override
+	protected List<String> readValue(DataInput in) throws IOException {
+		int size = in.readInt();
+		List<String> sources = new ArrayList<String>(size);
+		for (int i = 0; i < size; i++) {
+			sources.add(in.readUTF());
+		}
+		return Collections.unmodifiableList(sources);
+	}
 }
@@ -0,0 +1,358 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.wikipedia.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.log4j.Logger;
+
+/**
+ * A {@link BoundedCache} which can be backed by a file.
+ * <p>
+ * The file is an append-only log of length-prefixed records. {@link #flush()}
+ * only appends the entries added since the last flush, and both reading and
+ * appending hold a file lock, so several JVMs can share the same file. Every
+ * {@link #put} is appended, including updates of cached keys, and when the
+ * file contains a key more than once, the last record wins. A truncated or
+ * corrupt record, e.g. from a crashed writer, ends the file.
+ * <p>
+ * Once the flush threshold is reached, {@link #put} flushes by itself, so
+ * the entries waiting to be written stay bounded. Entries which could not be
+ * written are kept for the next flush, up to the maximum size of the cache.
+ * {@link #compact()} rewrites the file with the last record of the most
+ * recently written keys; {@link #load()} does so if the file holds more than
+ * twice as many records as the cache.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public abstract class PersistentCache<K, V> extends BoundedCache<K, V> {
+
+	/**
+	 * The default number of entries after which {@link #put} flushes.
+	 */
+	public static final int DEFAULT_FLUSH_THRESHOLD = 10000;
+
+	private final static Logger logger = Logger.getLogger(PersistentCache.class.getName());
+
+	private final File file;
+	private final int maxSize;
+	private final ConcurrentLinkedQueue<Map.Entry<K, V>> pending = new ConcurrentLinkedQueue<Map.Entry<K, V>>();
+	private final AtomicInteger pendingCount = new AtomicInteger();
+	private final ReentrantLock flushLock = new ReentrantLock();
+	// entries of a failed flush, guarded by flushLock
+	private List<Map.Entry<K, V>> unwritten = new ArrayList<Map.Entry<K, V>>();
+	private volatile int flushThreshold = DEFAULT_FLUSH_THRESHOLD;
+
+	/**
+	 * @param file backing file, or null for a cache which is kept in memory only
+	 * @param maxSize maximum number of entries
+	 * @param ttl time after which an entry expires, 0 for no expiry
+	 * @param unit unit of ttl
+	 */
+	public PersistentCache(File file, int maxSize, long ttl, TimeUnit unit) {
+		super(maxSize, ttl, unit);
+		this.file = file;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return the backing file, or null
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @param flushThreshold the number of new entries after which {@link #put} flushes
+	 */
+	public void setFlushThreshold(int flushThreshold) {
+		if (flushThreshold <= 0) {
+			throw new IllegalArgumentException("flushThreshold must be positive: " + flushThreshold);
+		}
+		this.flushThreshold = flushThreshold;
+	}
+
+	public int getFlushThreshold() {
+		return flushThreshold;
+	}
+
+	@Override
+	public boolean put(K key, V value) {
+		boolean added = super.put(key, value);
+		if (file != null) {
+			pending.add(new AbstractMap.SimpleImmutableEntry<K, V>(key, value));
+			if (pendingCount.incrementAndGet() >= flushThreshold && flushLock.tryLock()) {
+				try {
+					flushPending();
+				} catch (IOException e) {
+					logger.warn("Could not append to cache file " + file + ": " + e);
+				} finally {
+					flushLock.unlock();
+				}
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * Reads all records of the backing file into the cache, and compacts the
+	 * file if it holds more than twice as many records as the cache.
+	 *
+	 * @return the number of records read
+	 * @throws IOException if the file cannot be read
+	 */
+	public int load() throws IOException {
+		if (file == null || !file.exists()) {
+			return 0;
+		}
+		int count;
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileLock lock = in.getChannel().lock(0, Long.MAX_VALUE, true);
+			try {
+				count = readRecords(new BufferedInputStream(in), in.getChannel().size(), null);
+			} finally {
+				lock.release();
+			}
+		} finally {
+			in.close();
+		}
+		logger.debug("Read " + count + " records from " + file);
+		if (count > 2L * maxSize) {
+			compact();
+		}
+		return count;
+	}
+
+	/**
+	 * Appends the entries added since the last flush to the backing file.
+	 * If the file cannot be written, the entries are kept for the next flush.
+	 *
+	 * @return the number of records written
+	 * @throws IOException if the file cannot be written
+	 */
+	public int flush() throws IOException {
+		if (file == null) {
+			return 0;
+		}
+		flushLock.lock();
+		try {
+			return flushPending();
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	/**
+	 * Rewrites the backing file with the last record of each key, keeping
+	 * the most recently written keys up to the maximum size of the cache.
+	 * Pending entries are flushed first.
+	 *
+	 * @return the number of records in the compacted file
+	 * @throws IOException if the file cannot be read or written
+	 */
+	public int compact() throws IOException {
+		if (file == null) {
+			return 0;
+		}
+		flushLock.lock();
+		try {
+			flushPending();
+			if (!file.exists()) {
+				return 0;
+			}
+			Map<K, V> latest = new LinkedHashMap<K, V>(16, 0.75f, false) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+					return size() > maxSize;
+				}
+			};
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			try {
+				FileChannel channel = raf.getChannel();
+				FileLock lock = channel.lock();
+				try {
+					int count = readRecords(new BufferedInputStream(Channels.newInputStream(channel)),
+							channel.size(), latest);
+					byte[] bytes = encode(new ArrayList<Map.Entry<K, V>>(latest.entrySet()));
+					channel.truncate(0);
+					channel.position(0);
+					write(channel, bytes);
+					channel.force(false);
+					logger.info("Compacted " + count + " records to " + latest.size() + " in " + file);
+				} finally {
+					lock.release();
+				}
+			} finally {
+				raf.close();
+			}
+			return latest.size();
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	/**
+	 * Reads records until the end of the input or the first corrupt record.
+	 *
+	 * @param latest map which receives the records, moving rewritten keys to
+	 *        the end, or null to put them into the cache
+	 * @return the number of records read
+	 */
+	private int readRecords(InputStream in, long remaining, Map<K, V> latest) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		int count = 0;
+		byte[] record = new byte[256];
+		while (true) {
+			int length;
+			try {
+				length = data.readInt();
+				remaining -= 4;
+				if (length < 0 || length > remaining) {
+					logger.warn("Ignoring record of length " + length + " with only " + remaining
+							+ " bytes left in " + file);
+					break;
+				}
+				remaining -= length;
+				if (length > record.length) {
+					record = new byte[length];
+				}
+				data.readFully(record, 0, length);
+			} catch (EOFException e) {
+				break;
+			}
+			DataInputStream recordIn = new DataInputStream(new ByteArrayInputStream(record, 0, length));
+			K key = readKey(recordIn);
+			V value = readValue(recordIn);
+			if (latest == null) {
+				super.put(key, value);
+			} else {
+				latest.remove(key);
+				latest.put(key, value);
+			}
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Appends the pending entries and those of a failed flush. The caller
+	 * holds the flush lock.
+	 */
+	private int flushPending() throws IOException {
+		List<Map.Entry<K, V>> entries = unwritten;
+		unwritten = new ArrayList<Map.Entry<K, V>>();
+		Map.Entry<K, V> entry;
+		while ((entry = pending.poll()) != null) {
+			pendingCount.decrementAndGet();
+			entries.add(entry);
+		}
+		if (entries.isEmpty()) {
+			return 0;
+		}
+		try {
+			byte[] bytes = encode(entries);
+			File parent = file.getAbsoluteFile().getParentFile();
+			if (parent != null && !parent.exists()) {
+				parent.mkdirs();
+			}
+			FileOutputStream fileOut = new FileOutputStream(file, true);
+			try {
+				FileLock lock = fileOut.getChannel().lock();
+				try {
+					write(fileOut.getChannel(), bytes);
+				} finally {
+					lock.release();
+				}
+			} finally {
+				fileOut.close();
+			}
+		} catch (IOException e) {
+			if (entries.size() > maxSize) {
+				logger.warn("Dropping " + (entries.size() - maxSize) + " unwritten records of " + file);
+				entries = new ArrayList<Map.Entry<K, V>>(entries.subList(entries.size() - maxSize, entries.size()));
+			}
+			unwritten = entries;
+			throw e;
+		}
+		logger.debug("Appended " + entries.size() + " records to " + file);
+		return entries.size();
+	}
+
+	private byte[] encode(List<Map.Entry<K, V>> entries) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(buffer);
+		ByteArrayOutputStream record = new ByteArrayOutputStream();
+		DataOutputStream recordOut = new DataOutputStream(record);
+		for (Map.Entry<K, V> entry : entries) {
+			record.reset();
+			writeKey(recordOut, entry.getKey());
+			writeValue(recordOut, entry.getValue());
+			recordOut.flush();
+			out.writeInt(record.size());
+			record.writeTo(out);
+		}
+		out.flush();
+		return buffer.toByteArray();
+	}
+
+	private static void write(FileChannel channel, byte[] bytes) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	protected abstract void writeKey(DataOutput out, K key) throws IOException;
+
+	protected abstract K readKey(DataInput in) throws IOException;
+
+	protected abstract void writeValue(DataOutput out, V value) throws IOException;
+
+	protected abstract V readValue(DataInput in) throws IOException;
+}
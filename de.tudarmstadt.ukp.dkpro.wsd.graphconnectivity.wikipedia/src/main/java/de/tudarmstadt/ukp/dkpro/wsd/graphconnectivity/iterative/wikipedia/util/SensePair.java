@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.wikipedia.util;
+
+/**
+ * An unordered pair of senses, i.e. (a, b) equals (b, a).
+ * The two senses are stored in a canonical order so that no key strings need to be built.
+ */
+public final class SensePair {
+
+	private final String first;
+	private final String second;
+	private final int hash;
+
+	public SensePair(String a, String b) {
+		if (a == null || b == null) {
+			throw new NullPointerException("senses must not be null");
+		}
+		int ha = a.hashCode();
+		int hb = b.hashCode();
+		if (ha < hb || (ha == hb && a.compareTo(b) <= 0)) {
+			first = a;
+			second = b;
+		}
+		else {
+			first = b;
+			second = a;
+		}
+		hash = 31 * first.hashCode() + second.hashCode();
+	}
+
+	/**
+	 * @return the sense which comes first in the canonical order
+	 */
+	public String getFirst() {
+		return first;
+	}
+
+	/**
+	 * @return the sense which comes second in the canonical order
+	 */
+	public String getSecond() {
+		return second;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SensePair)) {
+			return false;
+		}
+		SensePair other = (SensePair) obj;
+		return hash == other.hash && first.equals(other.first) && second.equals(other.second);
+	}
+
+	@Override
+	public String toString() {
+		return "(" + first + ", " + second + ")";
+	}
+}
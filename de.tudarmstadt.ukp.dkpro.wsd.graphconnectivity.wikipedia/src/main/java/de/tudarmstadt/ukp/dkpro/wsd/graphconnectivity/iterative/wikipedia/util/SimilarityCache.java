@@ -18,100 +18,112 @@
 
 package de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.wikipedia.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.util.HashMap;
-import java.util.Random;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
 
 /**
  * A cache for similarity values. Increases speed dramatically.
+ * Similarity is assumed to be symmetric, so (a, b) and (b, a) share one entry.
+ * The cache is thread-safe and can be shared by several disambiguators.
  *
  * @author nico.erbs@gmail.com
  *
  */
-public class SimilarityCache extends HashMap<String, Double> {
+public class SimilarityCache extends PersistentCache<SensePair, Double> {
 
-	private static String CACHE_FILE_PATH = "/srv/experiments/ned/aida/cache.ser";
+	/**
+	 * System property with the path of the file backing the default cache.
+	 * If it is not set, the default cache is kept in memory only.
+	 */
+	public static final String PROPERTY_FILE = "dkpro.wsd.similarityCache.file";
 
 	/**
-	 *
+	 * System property with the maximum size of the default cache.
 	 */
-	private static final long serialVersionUID = 1L;
+	public static final String PROPERTY_MAX_SIZE = "dkpro.wsd.similarityCache.maxSize";
 
-	private static SimilarityCache cache;
+	public static final int DEFAULT_MAX_SIZE = 1000000;
 
-	private static final String KEY_IDENTIFIER = "-::-";
+	private final static Logger logger = Logger.getLogger(SimilarityCache.class.getName());
 
-	public static void initialize(){
-		if(cache == null){
-			cache = deSerialize();
-			if(cache == null){
-				cache = new SimilarityCache();
-			}
-		}
+	private static SimilarityCache defaultCache;
+
+	/**
+	 * Creates a cache which is kept in memory only.
+	 */
+	public SimilarityCache() {
+		this(null, DEFAULT_MAX_SIZE, 0, TimeUnit.MILLISECONDS);
 	}
 
-	@SuppressWarnings("static-access")
-	public static void put(String keyPart0, String keyPart1, double value){
-		if(!cache.contains(keyPart0, keyPart1)){
-			cache.put(keyPart0 + KEY_IDENTIFIER + keyPart1, value);
-		}
+	/**
+	 * @param file backing file, or null
+	 * @param maxSize maximum number of entries
+	 * @param ttl time after which an entry expires, 0 for no expiry
+	 * @param unit unit of ttl
+	 */
+	public SimilarityCache(File file, int maxSize, long ttl, TimeUnit unit) {
+		super(file, maxSize, ttl, unit);
 	}
 
-	public static double get(String keyPart0, String keyPart1){
-		if(cache.containsKey(keyPart0 + KEY_IDENTIFIER + keyPart1)){
-			return cache.get(keyPart0 + KEY_IDENTIFIER + keyPart1);
-		}
-		else if(cache.containsKey(keyPart1 + KEY_IDENTIFIER + keyPart0)){
-			return cache.get(keyPart1 + KEY_IDENTIFIER + keyPart0);
+	/**
+	 * @return the cache shared by all disambiguators which are not given a cache
+	 *         explicitly, configured by {@link #PROPERTY_FILE} and {@link #PROPERTY_MAX_SIZE}
+	 */
+	public static synchronized SimilarityCache getDefault() {
+		if (defaultCache == null) {
+			String path = System.getProperty(PROPERTY_FILE);
+			int maxSize = Integer.getInteger(PROPERTY_MAX_SIZE, DEFAULT_MAX_SIZE);
+			defaultCache = new SimilarityCache(path == null ? null : new File(path), maxSize, 0,
+					TimeUnit.MILLISECONDS);
+			try {
+				defaultCache.load();
+			} catch (IOException e) {
+				logger.warn("Could not read similarity cache " + path + ": " + e);
+			}
 		}
-		return 0d;
+		return defaultCache;
 	}
 
-	public static boolean contains(String keyPart0, String keyPart1){
-		return
-				cache.containsKey(keyPart0 + KEY_IDENTIFIER + keyPart1) ||
-				cache.containsKey(keyPart1 + KEY_IDENTIFIER + keyPart0);
+	/**
+	 * @param sense0 first sense
+	 * @param sense1 second sense
+	 * @return the cached similarity, or null if it has not been cached
+	 */
+	public Double get(String sense0, String sense1) {
+		return get(new SensePair(sense0, sense1));
 	}
 
-	public static void serialize() {
-		try{
-
-			ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(new File(CACHE_FILE_PATH + new Random().nextInt(2))));
-			oos.writeObject(cache);
-			oos.flush();
-			oos.close();
-		}
-		catch(Exception e) {
-			System.out.println("Exception during serialization: " + e);
-			e.printStackTrace();
-		}
-
+	public void put(String sense0, String sense1, double value) {
+		put(new SensePair(sense0, sense1), value);
 	}
 
-	public static SimilarityCache deSerialize() {
-		SimilarityCache cache = null;
-		try{
-			ObjectInputStream in = new ObjectInputStream(
-					new FileInputStream(CACHE_FILE_PATH));
-			cache = (SimilarityCache) in.readObject();
-			in.close();
-		} catch(Exception e){
-			System.out.println("Exception during serialization: " + e);
-		}
-		return cache;
+	public boolean contains(String sense0, String sense1) {
+		return containsKey(new SensePair(sense0, sense1));
+	}
 
+	@Override
+	protected void writeKey(DataOutput out, SensePair key) throws IOException {
+		out.writeUTF(key.getFirst());
+		out.writeUTF(key.getSecond());
 	}
 
-	public static String getCACHE_FILE_PATH() {
-		return CACHE_FILE_PATH;
+	@Override
+	protected SensePair readKey(DataInput in) throws IOException {
+		return new SensePair(in.readUTF(), in.readUTF());
 	}
 
-	public static void setCACHE_FILE_PATH(String cACHE_FILE_PATH) {
-		CACHE_FILE_PATH = cACHE_FILE_PATH;
+	@Override
+	protected void writeValue(DataOutput out, Double value) throws IOException {
+		out.writeDouble(value);
 	}
 
+	@Override
+	protected Double readValue(DataInput in) throws IOException {
+		return in.readDouble();
+	}
 }
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.uci.ics.jung.algorithms.scoring.PageRankWithPriors;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+import edu.uci.ics.jung.graph.Graph;
+
+public class PageRankWithPriorsKernelTest {
+
+	@Test
+	public void testSameScoresAsJung() {
+		Random random = new Random(42);
+		for(int run=0; run<20; run++){
+			int vertexCount = 2 + random.nextInt(30);
+			double alpha = run % 4 == 0 ? 0 : random.nextDouble();
+
+			Graph<DisambiguationVertex, DisambiguationEdge> graph = new DirectedSparseGraph<DisambiguationVertex, DisambiguationEdge>();
+			List<DisambiguationVertex> vertices = new ArrayList<DisambiguationVertex>();
+			PageRankWithPriorsKernel kernel = PageRankWithPriorsKernel.getWorkspace();
+			kernel.reset(vertexCount);
+			for(int i=0; i<vertexCount; i++){
+				DisambiguationVertex vertex = new DisambiguationVertex("Sod" + i, "Sense" + i, random.nextDouble());
+				vertices.add(vertex);
+				graph.addVertex(vertex);
+				kernel.setPrior(i, vertex.getWeight());
+			}
+			//sparse weights, so that some vertices have no outgoing edges
+			for(int source=0; source<vertexCount; source++){
+				for(int target=0; target<vertexCount; target++){
+					if(source != target && random.nextDouble() < 0.3){
+						double weight = random.nextDouble() / vertexCount;
+						graph.addEdge(new DisambiguationEdge(weight), vertices.get(source), vertices.get(target));
+						kernel.addEdge(source, target, weight);
+					}
+				}
+			}
+
+			PageRankWithPriors<DisambiguationVertex, DisambiguationEdge> pageRank =
+					new PageRankWithPriors<DisambiguationVertex, DisambiguationEdge>(
+							graph,
+							new DisambiguationEdgeTransformer(),
+							new DisambiguationVertexTransformer(),
+							alpha);
+			pageRank.setTolerance(0);
+			pageRank.initialize();
+			pageRank.evaluate();
+
+			kernel.evaluate(alpha, PageRankWithPriorsKernel.DEFAULT_MAX_ITERATIONS, 0, false);
+			for(int i=0; i<vertexCount; i++){
+				//without damping the scores may grow, so they are compared relatively
+				double expected = pageRank.getVertexScore(vertices.get(i));
+				assertEquals(expected, kernel.getScore(i), 1e-9 * Math.max(1, Math.abs(expected)));
+			}
+		}
+	}
+
+	@Test
+	public void testEarlyStopping() {
+		PageRankWithPriorsKernel kernel = new PageRankWithPriorsKernel();
+		kernel.reset(3);
+		kernel.setPrior(0, 0.5);
+		kernel.setPrior(1, 0.3);
+		kernel.setPrior(2, 0.2);
+		kernel.addEdge(0, 1, 0.5);
+		kernel.addEdge(1, 2, 0.5);
+		kernel.addEdge(2, 0, 0.5);
+
+		kernel.evaluate(0.5);
+		assertTrue(kernel.getIterations() < PageRankWithPriorsKernel.DEFAULT_MAX_ITERATIONS);
+		double score = kernel.getScore(0);
+
+		kernel.evaluate(0.5, PageRankWithPriorsKernel.DEFAULT_MAX_ITERATIONS, 0, false);
+		assertEquals(PageRankWithPriorsKernel.DEFAULT_MAX_ITERATIONS, kernel.getIterations());
+		assertEquals(kernel.getScore(0), score, 0.001);
+	}
+
+	@Test
+	public void testParallel() {
+		Random random = new Random(7);
+		int vertexCount = 200;
+		PageRankWithPriorsKernel kernel = new PageRankWithPriorsKernel();
+		kernel.reset(vertexCount);
+		for(int i=0; i<vertexCount; i++){
+			kernel.setPrior(i, random.nextDouble());
+			for(int j=0; j<vertexCount; j++){
+				if(i != j){
+					kernel.addEdge(i, j, random.nextDouble() / vertexCount);
+				}
+			}
+		}
+
+		kernel.evaluate(0.1, 50, 0, false);
+		double[] serial = new double[vertexCount];
+		for(int i=0; i<vertexCount; i++){
+			serial[i] = kernel.getScore(i);
+		}
+		kernel.evaluate(0.1, 50, 0, true);
+		for(int i=0; i<vertexCount; i++){
+			assertEquals(serial[i], kernel.getScore(i), 0);
+		}
+	}
+
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.iterative.wikipedia.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SimilarityCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testSymmetricKeys() {
+		SimilarityCache cache = new SimilarityCache();
+		assertNull(cache.get("Sense0", "Sense1"));
+		cache.put("Sense0", "Sense1", 0.5);
+		assertEquals(0.5, cache.get("Sense1", "Sense0"), 0.0);
+		assertTrue(cache.contains("Sense1", "Sense0"));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testEviction() {
+		SimilarityCache cache = new SimilarityCache(null, 4, 0, TimeUnit.MILLISECONDS);
+		for (int i = 0; i < 100; i++) {
+			cache.put("Sense" + i, "Target", i);
+		}
+		assertTrue(cache.size() <= 4);
+		assertTrue(cache.getEvictionCount() >= 96);
+	}
+
+	@Test
+	public void testIncrementalPersistence() throws Exception {
+		File file = new File(folder.getRoot(), "similarity.cache");
+
+		SimilarityCache writer = new SimilarityCache(file, 100, 0, TimeUnit.MILLISECONDS);
+		writer.put("Sense0", "Sense1", 0.25);
+		assertEquals(1, writer.flush());
+		assertEquals(0, writer.flush());
+		writer.put("Sense2", "Sense3", 0.75);
+		assertEquals(1, writer.flush());
+
+		SimilarityCache reader = new SimilarityCache(file, 100, 0, TimeUnit.MILLISECONDS);
+		assertEquals(2, reader.load());
+		assertEquals(0.25, reader.get("Sense1", "Sense0"), 0.0);
+		assertEquals(0.75, reader.get("Sense2", "Sense3"), 0.0);
+		assertFalse(reader.contains("Sense0", "Sense3"));
+
+		IncomingLinksCache links = new IncomingLinksCache(new File(folder.getRoot(), "links.cache"), 100, 0,
+				TimeUnit.MILLISECONDS);
+		links.add("Article", Arrays.asList("Source0", "Source1"));
+		links.flush();
+		IncomingLinksCache linksReader = new IncomingLinksCache(links.getFile(), 100, 0, TimeUnit.MILLISECONDS);
+		linksReader.load();
+		assertEquals(Arrays.asList("Source0", "Source1"), linksReader.getSources("Article"));
+	}
+
+	@Test
+	public void testLastRecordWins() throws Exception {
+		File file = new File(folder.getRoot(), "similarity.cache");
+
+		SimilarityCache writer = new SimilarityCache(file, 100, 0, TimeUnit.MILLISECONDS);
+		writer.put("Sense0", "Sense1", 0.25);
+		writer.flush();
+		writer.put("Sense1", "Sense0", 0.5);
+		assertEquals(1, writer.flush());
+
+		SimilarityCache reader = new SimilarityCache(file, 100, 0, TimeUnit.MILLISECONDS);
+		assertEquals(2, reader.load());
+		assertEquals(0.5, reader.get("Sense0", "Sense1"), 0.0);
+	}
+
+	@Test
+	public void testCorruptLength() throws Exception {
+		File file = new File(folder.getRoot(), "similarity.cache");
+
+		SimilarityCache writer = new SimilarityCache(file, 100, 0, TimeUnit.MILLISECONDS);
+		writer.put("Sense0", "Sense1", 0.25);
+		writer.flush();
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(file, true));
+		out.writeInt(Integer.MAX_VALUE);
+		out.writeInt(0);
+		out.close();
+
+		SimilarityCache reader = new SimilarityCache(file, 100, 0, TimeUnit.MILLISECONDS);
+		assertEquals(1, reader.load());
+		assertEquals(0.25, reader.get("Sense0", "Sense1"), 0.0);
+	}
+
+	@Test
+	public void testFlushThreshold() throws Exception {
+		File file = new File(folder.getRoot(), "similarity.cache");
+
+		SimilarityCache writer = new SimilarityCache(file, 100, 0, TimeUnit.MILLISECONDS);
+		writer.setFlushThreshold(2);
+		writer.put("Sense0", "Sense1", 0.25);
+		assertFalse(file.exists());
+		writer.put("Sense1", "Sense2", 0.5);
+		writer.put("Sense2", "Sense3", 0.75);
+
+		SimilarityCache reader = new SimilarityCache(file, 100, 0, TimeUnit.MILLISECONDS);
+		assertEquals(2, reader.load());
+		assertEquals(1, writer.flush());
+	}
+
+	@Test
+	public void testFailedFlushKeepsEntries() throws Exception {
+		File file = folder.newFolder("similarity.cache");
+
+		SimilarityCache writer = new SimilarityCache(file, 100, 0, TimeUnit.MILLISECONDS);
+		writer.put("Sense0", "Sense1", 0.25);
+		try {
+			writer.flush();
+			fail("Flush into a directory succeeded");
+		} catch (IOException e) {
+			// expected
+		}
+		assertTrue(file.delete());
+		writer.put("Sense2", "Sense3", 0.75);
+		assertEquals(2, writer.flush());
+
+		SimilarityCache reader = new SimilarityCache(file, 100, 0, TimeUnit.MILLISECONDS);
+		assertEquals(2, reader.load());
+		assertEquals(0.25, reader.get("Sense0", "Sense1"), 0.0);
+	}
+
+	@Test
+	public void testCompact() throws Exception {
+		File file = new File(folder.getRoot(), "similarity.cache");
+
+		SimilarityCache writer = new SimilarityCache(file, 100, 0, TimeUnit.MILLISECONDS);
+		for (int i = 0; i < 10; i++) {
+			writer.put("Sense0", "Sense1", i);
+			writer.put("Sense" + i, "Target", i);
+			writer.flush();
+		}
+		long length = file.length();
+		assertEquals(11, writer.compact());
+		assertTrue(file.length() < length);
+
+		SimilarityCache reader = new SimilarityCache(file, 100, 0, TimeUnit.MILLISECONDS);
+		assertEquals(11, reader.load());
+		assertEquals(9, reader.get("Sense0", "Sense1"), 0.0);
+		assertEquals(5, reader.get("Sense5", "Target"), 0.0);
+
+		// loading a file with more than twice the records of the cache compacts it
+		SimilarityCache small = new SimilarityCache(file, 4, 0, TimeUnit.MILLISECONDS);
+		assertEquals(11, small.load());
+		SimilarityCache compacted = new SimilarityCache(file, 100, 0, TimeUnit.MILLISECONDS);
+		assertEquals(4, compacted.load());
+		assertEquals(9, compacted.get("Sense9", "Target"), 0.0);
+	}
+}
@@ -0,0 +1,372 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import de.tudarmstadt.ukp.dkpro.wsd.UnorderedPair;
+import de.tudarmstadt.ukp.dkpro.wsd.si.CompactSenseGraph;
+
+/**
+ * Finds the edges of all simple paths of length at most maxDepth which
+ * connect two senses of a set of candidate senses without passing through a
+ * third one. These are the paths the disambiguation graph of Navigli &amp;
+ * Lapata (2010) is built from.
+ * <p>
+ * A single breadth-first search starting from all candidate senses at once
+ * first determines, for each vertex within maxDepth-1 steps of a candidate,
+ * the distances to its two nearest candidates. The paths are then
+ * enumerated from each candidate, but only through vertices from which
+ * another candidate can still be reached within the remaining length. This
+ * restricts the enumeration to the part of the graph which actually
+ * contributes paths, instead of the whole neighbourhood of each candidate.
+ * <p>
+ * Unlike the depth-first search in {@link GraphConnectivityWSD}, which does
+ * not follow edges already in the disambiguation graph, all paths are
+ * found, so the result does not depend on the order in which the candidates
+ * and their neighbours are visited. This also allows the enumeration for
+ * different candidates to run in parallel.
+ *
+ */
+public class BoundedPathSearch
+{
+    private static final byte UNREACHED = Byte.MAX_VALUE;
+
+    private final CompactSenseGraph graph;
+    private final int maxDepth;
+    private boolean parallel = false;
+    private ExecutorService executor = null;
+
+    /**
+     * @param graph
+     *            the sense graph to search
+     * @param maxDepth
+     *            the maximum length of a path
+     */
+    public BoundedPathSearch(CompactSenseGraph graph, int maxDepth)
+    {
+        if (maxDepth < 1 || maxDepth >= UNREACHED) {
+            throw new IllegalArgumentException("Invalid search depth "
+                    + maxDepth);
+        }
+        this.graph = graph;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Sets whether paths from different candidate senses are enumerated in
+     * parallel. Unless an executor is set, the common fork-join pool is
+     * used.
+     *
+     * @param parallel
+     *            true to search in parallel
+     */
+    public void setParallel(boolean parallel)
+    {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Sets the executor for parallel searches.
+     *
+     * @param executor
+     *            the executor, or null to use the common fork-join pool
+     */
+    public void setExecutor(ExecutorService executor)
+    {
+        this.executor = executor;
+    }
+
+    /**
+     * Finds the edges of all paths of length at most maxDepth between the
+     * given senses. Senses which are not in the graph are ignored.
+     *
+     * @param senses
+     *            the candidate senses
+     * @return the edges on the paths, sorted by the IDs of their endpoints
+     */
+    public List<UnorderedPair<String>> findPathEdges(Collection<String> senses)
+    {
+        BitSet candidates = new BitSet(graph.getVertexCount());
+        for (String sense : senses) {
+            int id = graph.getVertexId(sense);
+            if (id >= 0) {
+                candidates.set(id);
+            }
+        }
+        final Distances distances = new Distances(candidates);
+
+        LongSet edges = new LongSet();
+        if (!parallel || candidates.cardinality() < 2) {
+            for (int source = candidates.nextSetBit(0); source >= 0; source = candidates
+                    .nextSetBit(source + 1)) {
+                new PathEnumerator(source, candidates, distances, edges).run();
+            }
+        }
+        else {
+            ExecutorService service = executor != null ? executor
+                    : ForkJoinPool.commonPool();
+            List<Future<LongSet>> results = new ArrayList<Future<LongSet>>();
+            for (int source = candidates.nextSetBit(0); source >= 0; source = candidates
+                    .nextSetBit(source + 1)) {
+                final PathEnumerator enumerator = new PathEnumerator(source,
+                        candidates, distances, new LongSet());
+                results.add(service.submit(new Callable<LongSet>()
+                {
+                    @Override
+                    public LongSet call()
+                    {
+                        enumerator.run();
+                        return enumerator.edges;
+                    }
+                }));
+            }
+            try {
+                for (Future<LongSet> result : results) {
+                    edges.addAll(result.get());
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        long[] keys = edges.toArray();
+        Arrays.sort(keys);
+        List<UnorderedPair<String>> pathEdges = new ArrayList<UnorderedPair<String>>(
+                keys.length);
+        for (long key : keys) {
+            pathEdges.add(new UnorderedPair<String>(graph
+                    .getVertexLabel((int) (key >>> 32)), graph
+                    .getVertexLabel((int) key)));
+        }
+        return pathEdges;
+    }
+
+    /**
+     * The distances from each vertex to its nearest and its second nearest
+     * candidate, determined by a breadth-first search from all candidates at
+     * once. Each vertex is labelled with at most two distinct candidates, so
+     * it is enqueued at most twice.
+     */
+    private class Distances
+    {
+        private final int[] nearest;
+        private final byte[] distance1;
+        private final byte[] distance2;
+
+        Distances(BitSet candidates)
+        {
+            int n = graph.getVertexCount();
+            nearest = new int[n];
+            distance1 = new byte[n];
+            distance2 = new byte[n];
+            Arrays.fill(distance1, UNREACHED);
+            Arrays.fill(distance2, UNREACHED);
+
+            int[] queueVertex = new int[Math.max(16,
+                    candidates.cardinality() * 2)];
+            int[] queueSource = new int[queueVertex.length];
+            int head = 0, tail = 0;
+            for (int c = candidates.nextSetBit(0); c >= 0; c = candidates
+                    .nextSetBit(c + 1)) {
+                nearest[c] = c;
+                distance1[c] = 0;
+                queueVertex[tail] = c;
+                queueSource[tail++] = c;
+            }
+
+            while (head < tail) {
+                int vertex = queueVertex[head];
+                int source = queueSource[head++];
+                int distance = nearest[vertex] == source ? distance1[vertex]
+                        : distance2[vertex];
+                // Only distances up to maxDepth-1 are needed, since every
+                // vertex but the source is at least one step along the path
+                if (distance + 1 >= maxDepth) {
+                    continue;
+                }
+                int degree = graph.getDegree(vertex);
+                for (int i = 0; i < degree; i++) {
+                    int neighbour = graph.getNeighbour(vertex, i);
+                    if (distance1[neighbour] == UNREACHED) {
+                        nearest[neighbour] = source;
+                        distance1[neighbour] = (byte) (distance + 1);
+                    }
+                    else if (distance2[neighbour] == UNREACHED
+                            && nearest[neighbour] != source) {
+                        distance2[neighbour] = (byte) (distance + 1);
+                    }
+                    else {
+                        continue;
+                    }
+                    if (tail == queueVertex.length) {
+                        queueVertex = Arrays.copyOf(queueVertex, tail * 2);
+                        queueSource = Arrays.copyOf(queueSource, tail * 2);
+                    }
+                    queueVertex[tail] = neighbour;
+                    queueSource[tail++] = source;
+                }
+            }
+        }
+
+        /**
+         * @return a lower bound for the length of a path from vertex to a
+         *         candidate other than source
+         */
+        int distanceToOther(int vertex, int source)
+        {
+            return nearest[vertex] != source ? distance1[vertex]
+                    : distance2[vertex];
+        }
+    }
+
+    /**
+     * Enumerates the paths from one candidate. The current path is kept in
+     * an array indexed by depth, which also serves for the loop check.
+     */
+    private class PathEnumerator
+        implements Runnable
+    {
+        private final int[] path = new int[maxDepth + 1];
+        private final BitSet candidates;
+        private final Distances distances;
+        private final LongSet edges;
+
+        PathEnumerator(int source, BitSet candidates, Distances distances,
+                LongSet edges)
+        {
+            path[0] = source;
+            this.candidates = candidates;
+            this.distances = distances;
+            this.edges = edges;
+        }
+
+        @Override
+        public void run()
+        {
+            enumerate(0);
+        }
+
+        private void enumerate(int depth)
+        {
+            int vertex = path[depth];
+            int degree = graph.getDegree(vertex);
+            neighbours: for (int i = 0; i < degree; i++) {
+                int neighbour = graph.getNeighbour(vertex, i);
+                for (int j = 0; j <= depth; j++) {
+                    if (path[j] == neighbour) {
+                        continue neighbours;
+                    }
+                }
+                path[depth + 1] = neighbour;
+                if (candidates.get(neighbour)) {
+                    for (int j = 0; j <= depth; j++) {
+                        edges.add(key(path[j], path[j + 1]));
+                    }
+                }
+                else if (depth + 1 < maxDepth
+                        && distances.distanceToOther(neighbour, path[0]) <= maxDepth
+                                - depth - 1) {
+                    enumerate(depth + 1);
+                }
+            }
+        }
+    }
+
+    private static long key(int id1, int id2)
+    {
+        return id1 < id2 ? (long) id1 << 32 | id2 : (long) id2 << 32 | id1;
+    }
+
+    /**
+     * A minimal open-addressing hash set of non-negative longs.
+     */
+    private static class LongSet
+    {
+        private static final long EMPTY = -1;
+
+        private long[] table = newTable(64);
+        private int size = 0;
+
+        private static long[] newTable(int capacity)
+        {
+            long[] table = new long[capacity];
+            Arrays.fill(table, EMPTY);
+            return table;
+        }
+
+        void add(long key)
+        {
+            int mask = table.length - 1;
+            int slot = (int) (key ^ key >>> 29) * 0x9E3779B9 >>> 7 & mask;
+            while (table[slot] != EMPTY) {
+                if (table[slot] == key) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = key;
+            if (++size * 2 > table.length) {
+                long[] old = table;
+                table = newTable(old.length * 2);
+                size = 0;
+                for (long k : old) {
+                    if (k != EMPTY) {
+                        add(k);
+                    }
+                }
+            }
+        }
+
+        void addAll(LongSet other)
+        {
+            for (long k : other.table) {
+                if (k != EMPTY) {
+                    add(k);
+                }
+            }
+        }
+
+        long[] toArray()
+        {
+            long[] keys = new long[size];
+            int i = 0;
+            for (long k : table) {
+                if (k != EMPTY) {
+                    keys[i++] = k;
+                }
+            }
+            return keys;
+        }
+    }
+}
@@ -18,11 +18,14 @@
 
 package de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.algorithm;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.collections15.Transformer;
 import org.apache.log4j.Logger;
@@ -31,6 +34,7 @@ import de.tudarmstadt.ukp.dkpro.wsd.Pair;
 import de.tudarmstadt.ukp.dkpro.wsd.UnorderedPair;
 import de.tudarmstadt.ukp.dkpro.wsd.algorithm.AbstractWSDAlgorithm;
 import de.tudarmstadt.ukp.dkpro.wsd.algorithm.WSDAlgorithmCollectivePOS;
+import de.tudarmstadt.ukp.dkpro.wsd.si.CompactSenseGraph;
 import de.tudarmstadt.ukp.dkpro.wsd.si.POS;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseTaxonomy;
@@ -56,6 +60,9 @@ public abstract class GraphConnectivityWSD
             .getLogger(GraphConnectivityWSD.class.getName());
     GraphVisualizer graphVisualizer = null;
     private int searchDepth = 3;
+    private boolean boundedSearch = false;
+    private boolean parallelSearch = false;
+    private ExecutorService searchExecutor = null;
 
     public GraphConnectivityWSD(SenseTaxonomy inventory)
     {
@@ -74,6 +81,49 @@ public abstract class GraphConnectivityWSD
         searchDepth = depth;
     }
 
+    /**
+     * Sets whether the disambiguation graph is built with a
+     * {@link BoundedPathSearch} instead of the depth-first search. This
+     * requires the sense graph to be a {@link CompactSenseGraph}; other
+     * graphs are always searched depth-first. The bounded search adds all
+     * paths between senses of at most the search depth, whereas the
+     * depth-first search does not follow edges which are already in the
+     * disambiguation graph and so may miss some of them.
+     *
+     * @param boundedSearch
+     *            true to use the bounded search
+     */
+    public void setBoundedSearch(boolean boundedSearch)
+    {
+        this.boundedSearch = boundedSearch;
+    }
+
+    /**
+     * Sets whether the bounded search enumerates the paths from different
+     * senses in parallel.
+     *
+     * @param parallelSearch
+     *            true to search in parallel
+     * @see #setBoundedSearch(boolean)
+     */
+    public void setParallelSearch(boolean parallelSearch)
+    {
+        this.parallelSearch = parallelSearch;
+    }
+
+    /**
+     * Sets the executor used for parallel searches. By default, the common
+     * fork-join pool is used.
+     *
+     * @param searchExecutor
+     *            the executor to use
+     * @see #setParallelSearch(boolean)
+     */
+    public void setSearchExecutor(ExecutorService searchExecutor)
+    {
+        this.searchExecutor = searchExecutor;
+    }
+
     /**
      * Set the graph visualizer
      *
@@ -154,10 +204,24 @@ public abstract class GraphConnectivityWSD
 
         // Run DFS on each synset in s
         Collection<String> s = new HashSet<String>(dGraph.getVertices());
+        if (boundedSearch && siGraph instanceof CompactSenseGraph) {
+            BoundedPathSearch search = new BoundedPathSearch(
+                    (CompactSenseGraph) siGraph, searchDepth);
+            search.setParallel(parallelSearch);
+            search.setExecutor(searchExecutor);
+            Stack<UnorderedPair<String>> edges = new Stack<UnorderedPair<String>>();
+            edges.addAll(search.findPathEdges(s));
+            addPath(dGraph, edges);
+            s = Collections.emptySet();
+        }
         for (String v : s) {
             logger.debug("Beginning DFS from " + v);
             Collection<String> t = new HashSet<String>(s);
             t.remove(v);
+            if (siGraph instanceof CompactSenseGraph) {
+                dfs(v, t, (CompactSenseGraph) siGraph, dGraph);
+                continue;
+            }
             Stack<String> synsetPath = new Stack<String>();
             synsetPath.push(v);
             dfs(v, t, siGraph, dGraph, synsetPath,
@@ -260,6 +324,104 @@ public abstract class GraphConnectivityWSD
         return false;
     }
 
+    /**
+     * Beginning at startVertex, conduct the same depth-first search as
+     * {@link #dfs(String, Collection, Graph, Graph, Stack, Stack, int)}, but
+     * traverse the int adjacency arrays of a {@link CompactSenseGraph}
+     * directly. Edge objects are only created for paths which reach a goal.
+     *
+     * @param startVertex
+     *            The vertex at which to begin the search
+     * @param goalVertices
+     *            A collection of vertices at which to stop the search
+     *            successfully
+     * @param siGraph
+     *            The full ontology graph to search
+     * @param dGraph
+     *            The disambiguation graph to construct
+     */
+    protected void dfs(final String startVertex,
+            final Collection<String> goalVertices,
+            final CompactSenseGraph siGraph,
+            final Graph<String, UnorderedPair<String>> dGraph)
+    {
+        int start = siGraph.getVertexId(startVertex);
+        if (start < 0) {
+            logger.warn("Sense " + startVertex + " is not in the sense graph");
+            return;
+        }
+
+        int goalCount = 0;
+        int[] goals = new int[goalVertices.size()];
+        for (String goal : goalVertices) {
+            int id = siGraph.getVertexId(goal);
+            if (id >= 0) {
+                goals[goalCount++] = id;
+            }
+        }
+        goals = Arrays.copyOf(goals, goalCount);
+        Arrays.sort(goals);
+
+        int[] path = new int[searchDepth + 1];
+        path[0] = start;
+        dfs(siGraph, dGraph, goals, path, 0);
+    }
+
+    private boolean dfs(final CompactSenseGraph siGraph,
+            final Graph<String, UnorderedPair<String>> dGraph,
+            final int[] goals, final int[] path, final int depth)
+    {
+        final int vertex = path[depth];
+        dfsCount++;
+
+        // We have found a goal
+        if (Arrays.binarySearch(goals, vertex) >= 0) {
+            return true;
+        }
+
+        // We have reached the maximum depth
+        if (depth == searchDepth) {
+            return false;
+        }
+
+        // Visit all neighbours of this vertex
+        final String label = siGraph.getVertexLabel(vertex);
+        final int degree = siGraph.getDegree(vertex);
+        neighbours: for (int i = 0; i < degree; i++) {
+            final int neighbour = siGraph.getNeighbour(vertex, i);
+            for (int j = 0; j <= depth; j++) {
+                if (path[j] == neighbour) {
+                    // We have encountered a loop
+                    continue neighbours;
+                }
+            }
+            final String neighbourLabel = siGraph.getVertexLabel(neighbour);
+            if (dGraph.containsVertex(label)
+                    && dGraph.containsVertex(neighbourLabel)
+                    && dGraph.containsEdge(new UnorderedPair<String>(label,
+                            neighbourLabel))) {
+                // This path is already in the disambiguation graph
+                continue;
+            }
+            path[depth + 1] = neighbour;
+            if (dfs(siGraph, dGraph, goals, path, depth + 1)) {
+                Stack<UnorderedPair<String>> edgePath = new Stack<UnorderedPair<String>>();
+                for (int j = 0; j <= depth; j++) {
+                    edgePath.push(new UnorderedPair<String>(siGraph
+                            .getVertexLabel(path[j]), siGraph
+                            .getVertexLabel(path[j + 1])));
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Adding path " + edgePath);
+                }
+                addPath(dGraph, edgePath);
+            }
+        }
+
+        // We have reached a dead end
+        return false;
+    }
+
     /**
      * Adds stack of edges to a graph
      *
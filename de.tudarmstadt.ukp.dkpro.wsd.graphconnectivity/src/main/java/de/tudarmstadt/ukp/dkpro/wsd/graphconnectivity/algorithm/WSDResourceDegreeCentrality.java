@@ -45,6 +45,14 @@ public class WSDResourceDegreeCentrality
     @ConfigurationParameter(name = PARAM_MINIMUM_DEGREE, mandatory = false, description = "The degree score below which the algorithm will not attempt a sense assignment", defaultValue = "1")
     protected String minDegree;
 
+    public final static String PARAM_BOUNDED_SEARCH = "boundedSearch";
+    @ConfigurationParameter(name = PARAM_BOUNDED_SEARCH, mandatory = false, description = "Whether to build the disambiguation graph with a bounded breadth-first search instead of the depth-first search", defaultValue = "false")
+    protected String boundedSearch;
+
+    public final static String PARAM_PARALLEL_SEARCH = "parallelSearch";
+    @ConfigurationParameter(name = PARAM_PARALLEL_SEARCH, mandatory = false, description = "Whether the bounded search searches from different senses in parallel", defaultValue = "false")
+    protected String parallelSearch;
+
     public final static String GRAPH_VISUALIZER_RESOURCE = "GraphVisualizer";
     @ExternalResource(key = GRAPH_VISUALIZER_RESOURCE, mandatory = false)
     protected GraphVisualizer graphVisualizer;
@@ -58,6 +66,10 @@ public class WSDResourceDegreeCentrality
                 .valueOf(searchDepth));
         ((DegreeCentralityWSD) wsdAlgorithm).setMinDegree(Integer
                 .valueOf(minDegree));
+        ((DegreeCentralityWSD) wsdAlgorithm).setBoundedSearch(Boolean
+                .valueOf(boundedSearch));
+        ((DegreeCentralityWSD) wsdAlgorithm).setParallelSearch(Boolean
+                .valueOf(parallelSearch));
         ((DegreeCentralityWSD) wsdAlgorithm).setGraphVisualizer(graphVisualizer);
     }
 
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.graphconnectivity.algorithm;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.Stack;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import de.tudarmstadt.ukp.dkpro.wsd.UnorderedPair;
+import de.tudarmstadt.ukp.dkpro.wsd.si.CompactSenseGraph;
+
+public class BoundedPathSearchTest
+{
+    @Test
+    public void testSimpleGraph()
+    {
+        // a - x - b - y - z - c, and a - b directly
+        CompactSenseGraph graph = new CompactSenseGraph.Builder()
+                .addEdge("a", "x").addEdge("x", "b").addEdge("b", "y")
+                .addEdge("y", "z").addEdge("z", "c").addEdge("a", "b")
+                .addEdge("z", "w").build();
+        List<String> senses = new ArrayList<String>();
+        senses.add("a");
+        senses.add("b");
+        senses.add("c");
+
+        Set<UnorderedPair<String>> edges = new HashSet<UnorderedPair<String>>(
+                new BoundedPathSearch(graph, 2).findPathEdges(senses));
+        Set<UnorderedPair<String>> expected = new HashSet<UnorderedPair<String>>();
+        expected.add(new UnorderedPair<String>("a", "x"));
+        expected.add(new UnorderedPair<String>("x", "b"));
+        expected.add(new UnorderedPair<String>("a", "b"));
+        assertEquals(expected, edges);
+
+        edges = new HashSet<UnorderedPair<String>>(new BoundedPathSearch(
+                graph, 3).findPathEdges(senses));
+        expected.add(new UnorderedPair<String>("b", "y"));
+        expected.add(new UnorderedPair<String>("y", "z"));
+        expected.add(new UnorderedPair<String>("z", "c"));
+        assertEquals(expected, edges);
+    }
+
+    @Test
+    public void testRandomGraphs()
+        throws Exception
+    {
+        Random random = new Random(42);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int trial = 0; trial < 50; trial++) {
+                int n = 20 + random.nextInt(60);
+                CompactSenseGraph.Builder builder = new CompactSenseGraph.Builder();
+                for (int i = 0; i < n; i++) {
+                    builder.addVertex("v" + i);
+                }
+                for (int i = 0; i < 2 * n; i++) {
+                    builder.addEdge("v" + random.nextInt(n),
+                            "v" + random.nextInt(n));
+                }
+                CompactSenseGraph graph = builder.build();
+                Set<String> senses = new HashSet<String>();
+                for (int i = 0; i < 6; i++) {
+                    senses.add("v" + random.nextInt(n));
+                }
+                int depth = 1 + random.nextInt(4);
+
+                Set<UnorderedPair<String>> expected = allPathEdges(graph,
+                        senses, depth);
+                BoundedPathSearch search = new BoundedPathSearch(graph, depth);
+                assertEquals(expected, new HashSet<UnorderedPair<String>>(
+                        search.findPathEdges(senses)));
+                search.setParallel(true);
+                search.setExecutor(executor);
+                assertEquals(expected, new HashSet<UnorderedPair<String>>(
+                        search.findPathEdges(senses)));
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Exhaustive depth-first enumeration of all paths between senses
+     */
+    private Set<UnorderedPair<String>> allPathEdges(CompactSenseGraph graph,
+            Set<String> senses, int depth)
+    {
+        Set<UnorderedPair<String>> edges = new HashSet<UnorderedPair<String>>();
+        for (String sense : senses) {
+            Stack<String> path = new Stack<String>();
+            path.push(sense);
+            enumerate(graph, senses, path, depth, edges);
+        }
+        return edges;
+    }
+
+    private void enumerate(CompactSenseGraph graph, Set<String> senses,
+            Stack<String> path, int depth, Set<UnorderedPair<String>> edges)
+    {
+        String vertex = path.peek();
+        if (path.size() > 1 && senses.contains(vertex)) {
+            for (int i = 1; i < path.size(); i++) {
+                edges.add(new UnorderedPair<String>(path.get(i - 1), path
+                        .get(i)));
+            }
+            return;
+        }
+        if (depth == 0) {
+            return;
+        }
+        for (String neighbour : graph.getNeighbors(vertex)) {
+            if (!path.contains(neighbour)) {
+                path.push(neighbour);
+                enumerate(graph, senses, path, depth - 1, edges);
+                path.pop();
+            }
+        }
+    }
+}
@@ -21,18 +21,21 @@ package de.tudarmstadt.ukp.dkpro.wsd.io.reader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
+import javax.xml.stream.XMLResolver;
+
 import org.xml.sax.EntityResolver;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 /**
- * Returns a null {@link EntityResolver} to bypass DTD processing
+ * Returns a null {@link EntityResolver} to bypass DTD processing. It can
+ * also be used as an {@link XMLResolver} for StAX parsers.
  *
  * @author <a href="mailto:miller@ukp.informatik.tu-darmstadt.de">Tristan Miller</a>
  *
  */
 public class NullEntityResolver
-    implements EntityResolver
+    implements EntityResolver, XMLResolver
 {
     static final String emptyDtd = "";
 
@@ -48,4 +51,17 @@ public class NullEntityResolver
     {
         return new InputSource(new ByteArrayInputStream(emptyDtd.getBytes()));
     }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javax.xml.stream.XMLResolver#resolveEntity(java.lang.String,
+     * java.lang.String, java.lang.String, java.lang.String)
+     */
+    @Override
+    public Object resolveEntity(String publicID, String systemID,
+            String baseURI, String namespace)
+    {
+        return new ByteArrayInputStream(emptyDtd.getBytes());
+    }
 }
@@ -21,8 +21,12 @@ package de.tudarmstadt.ukp.dkpro.wsd.io.reader;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Iterator;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
@@ -32,11 +36,6 @@ import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.cas.FSArray;
 import org.apache.uima.resource.ResourceInitializationException;
-import org.dom4j.Document;
-import org.dom4j.DocumentException;
-import org.dom4j.Element;
-import org.dom4j.Node;
-import org.dom4j.io.SAXReader;
 
 import de.tudarmstadt.ukp.dkpro.core.api.io.JCasResourceCollectionReader_ImplBase;
 import de.tudarmstadt.ukp.dkpro.core.api.metadata.type.DocumentMetaData;
@@ -54,7 +53,8 @@ import de.tudarmstadt.ukp.dkpro.wsd.type.WSDResult;
 /**
  * A collection reader for <a href=
  * "http://nltk.googlecode.com/svn/trunk/nltk_data/packages/corpora/semcor.zip"
- * >NLTK's XML conversion of the SemCor pseudo-SGML</a>.
+ * >NLTK's XML conversion of the SemCor pseudo-SGML</a>. The files are
+ * streamed with an {@link XMLStreamReader}.
  *
  * @author <a href="mailto:miller@ukp.informatik.tu-darmstadt.de">Tristan Miller</a>
  */
@@ -143,7 +143,6 @@ public class SemCorXMLReader
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public void getNext(JCas jCas)
         throws IOException, CollectionException
     {
@@ -155,243 +154,261 @@ public class SemCorXMLReader
         }
 
         // Open the next file
-        Document document;
-        SAXReader reader = new SAXReader();
-        NullEntityResolver resolver = new NullEntityResolver();
-        reader.setEntityResolver(resolver);
         InputStream is = new BufferedInputStream(nextFile().getInputStream());
+        XMLStreamReader reader = null;
         try {
-            document = reader.read(is);
-        }
-        catch (DocumentException e) {
-            throw new CollectionException(e);
-        }
+            reader = XMLStreamUtils.openRootElement(is);
 
-        // Get metadata from the top two elements
-        Element contextFile = document.getRootElement();
-        if (contextFile.getName().equals(ELEMENT_CONTEXTFILE) == false) {
-            throw new CollectionException("unknown_element",
-                    new Object[] { contextFile.getName() });
+            // Get metadata from the top two elements
+            if (reader.getLocalName().equals(ELEMENT_CONTEXTFILE) == false) {
+                throw new CollectionException("unknown_element",
+                        new Object[] { reader.getLocalName() });
+            }
+            String collectionId = reader.getAttributeValue(null,
+                    ATTR_CONCORDANCE);
+            if (XMLStreamUtils.nextElement(reader, ELEMENT_CONTEXT) == false) {
+                throw new CollectionException("element_not_found",
+                        new Object[] { ELEMENT_CONTEXT, ELEMENT_CONTEXTFILE });
+            }
+            String documentId = reader.getAttributeValue(null, ATTR_FILENAME);
+            setDocumentMetadata(jCas, collectionId, documentId);
+            logger.debug("Found context filename: " + documentId);
+
+            // Process document text
+            StringBuffer documentText = processContext(jCas, reader,
+                    documentId);
+            jCas.setDocumentText(documentText.toString());
         }
-        Iterator<Element> contextIterator = contextFile
-                .elementIterator(ELEMENT_CONTEXT);
-        if (contextIterator.hasNext() == false) {
-            throw new CollectionException("element_not_found", new Object[] {
-                    ELEMENT_CONTEXT, ELEMENT_CONTEXTFILE });
+        catch (XMLStreamException e) {
+            throw new CollectionException(e);
         }
-        Element context = contextIterator.next();
-        setDocumentMetadata(jCas, contextFile, context);
-        String documentId = context.attributeValue(ATTR_FILENAME);
-        logger.debug("Found context filename: " + documentId);
-
-        // Process document text
-        StringBuffer documentText = processParagraphs(jCas, context, documentId);
-        if (documentText.length() == 0) {
-            documentText = processSentences(jCas, context, 0, documentId);
+        finally {
+            XMLStreamUtils.closeQuietly(reader);
+            IOUtils.closeQuietly(is);
         }
-        jCas.setDocumentText(documentText.toString());
         logger.info("Read " + validWordFormCount
                 + " valid word forms; skipped "
                 + (totalWordFormCount - validWordFormCount));
     }
 
-    @SuppressWarnings("unchecked")
-    private StringBuffer processParagraphs(JCas jCas, Element element,
+    /**
+     * Reads the paragraphs of a context, or its sentences if it has no
+     * paragraphs with text.
+     */
+    private StringBuffer processContext(JCas jCas, XMLStreamReader reader,
             String idPrefix)
-        throws CollectionException
+        throws CollectionException, XMLStreamException
     {
-        StringBuffer paragraphText = new StringBuffer();
-        for (Iterator<Element> paragraphIterator = element
-                .elementIterator(ELEMENT_PARAGRAPH); paragraphIterator
-                .hasNext();) {
-            Element paragraph = paragraphIterator.next();
-            String paragraphId = paragraph.attributeValue(ATTR_PNUM);
-            Paragraph paragraphAnnotation = new Paragraph(jCas);
-            paragraphAnnotation.setBegin(paragraphText.length());
-
-            paragraphText.append(processSentences(jCas, paragraph,
-                    paragraphText.length(), idPrefix + ".p" + paragraphId));
-
-            paragraphAnnotation.setEnd(paragraphText.length());
-            paragraphAnnotation.addToIndexes();
+        StringBuffer documentText = new StringBuffer();
+        boolean hasParagraphText = false;
+        for (int event = reader.next(); event != XMLStreamConstants.END_ELEMENT; event = reader
+                .next()) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            if (reader.getLocalName().equals(ELEMENT_PARAGRAPH)) {
+                processParagraph(jCas, reader, documentText, idPrefix);
+                hasParagraphText = documentText.length() > 0;
+            }
+            else if (reader.getLocalName().equals(ELEMENT_SENTENCE)
+                    && hasParagraphText == false) {
+                processSentence(jCas, reader, documentText, idPrefix);
+            }
+            else {
+                XMLStreamUtils.skipElement(reader);
+            }
         }
-        return paragraphText;
+        return documentText;
     }
 
-    @SuppressWarnings("unchecked")
-    private StringBuffer processSentences(JCas jCas, Element element,
-            int offset, String idPrefix)
-        throws CollectionException
+    private void processParagraph(JCas jCas, XMLStreamReader reader,
+            StringBuffer paragraphText, String idPrefix)
+        throws CollectionException, XMLStreamException
+    {
+        String paragraphId = reader.getAttributeValue(null, ATTR_PNUM);
+        Paragraph paragraphAnnotation = new Paragraph(jCas);
+        paragraphAnnotation.setBegin(paragraphText.length());
+
+        while (XMLStreamUtils.nextElement(reader, ELEMENT_SENTENCE)) {
+            processSentence(jCas, reader, paragraphText, idPrefix + ".p"
+                    + paragraphId);
+        }
+
+        paragraphAnnotation.setEnd(paragraphText.length());
+        paragraphAnnotation.addToIndexes();
+    }
+
+    private void processSentence(JCas jCas, XMLStreamReader reader,
+            StringBuffer sentenceText, String idPrefix)
+        throws CollectionException, XMLStreamException
     {
-        StringBuffer sentenceText = new StringBuffer();
-        for (Iterator<Element> sentenceIterator = element
-                .elementIterator(ELEMENT_SENTENCE); sentenceIterator.hasNext();) {
-            Element sentence = sentenceIterator.next();
-            Sentence sentenceAnnotation = new Sentence(jCas);
-            sentenceAnnotation.setBegin(offset);
-            String sentenceId = sentence.attributeValue(ATTR_SNUM);
-            int wordFormCount = 0;
-
-            for (Iterator<Node> nodeIterator = sentence.nodeIterator(); nodeIterator
-                    .hasNext();) {
-                Node node = nodeIterator.next();
-                String nodeText = node.getText().replace('\n', ' ');
-                int oldOffset = offset;
+        int offset = sentenceText.length();
+        Sentence sentenceAnnotation = new Sentence(jCas);
+        sentenceAnnotation.setBegin(offset);
+        String sentenceId = reader.getAttributeValue(null, ATTR_SNUM);
+        int wordFormCount = 0;
+
+        for (int event = reader.next(); event != XMLStreamConstants.END_ELEMENT; event = reader
+                .next()) {
+            if (XMLStreamUtils.isText(event)) {
+                String nodeText = reader.getText().replace('\n', ' ');
                 offset += nodeText.length();
                 sentenceText.append(nodeText);
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
 
-                if (node.getName() == null) {
-                    continue;
-                }
+            String nodeName = reader.getLocalName();
+            String wordFormId = reader.getAttributeValue(null, ATTR_ID);
+            String lemma = reader.getAttributeValue(null, ATTR_LEMMA);
+            String pos = reader.getAttributeValue(null, ATTR_POS);
+            String cmd = reader.getAttributeValue(null, ATTR_CMD);
+            String ot = reader.getAttributeValue(null, ATTR_OT);
+            String wnsn = reader.getAttributeValue(null, ATTR_WNSN);
+            String lexsn = reader.getAttributeValue(null, ATTR_LEXSN);
+            String nodeText = XMLStreamUtils.readText(reader).replace('\n',
+                    ' ');
+            int oldOffset = offset;
+            offset += nodeText.length();
+            sentenceText.append(nodeText);
+
+            if (nodeName.equals(ELEMENT_PUNCTUATION)) {
+                logger.trace("Found punctuation " + nodeText);
+                continue;
+            }
 
-                if (node.getName().equals(ELEMENT_PUNCTUATION)) {
-                    logger.trace("Found punctuation " + node.getText());
-                    continue;
-                }
+            if (nodeName.equals(ELEMENT_WORDFORM) == false) {
+                throw new CollectionException("unknown_element",
+                        new Object[] { nodeName });
+            }
 
-                if (node.getName().equals(ELEMENT_WORDFORM) == false) {
-                    throw new CollectionException("unknown_element",
-                            new Object[] { node.getName() });
+            // Find or construct a unique ID for this word form
+            wordFormCount++;
+            totalWordFormCount++;
+            if (wordFormId == null) {
+                wordFormId = idPrefix + ".s" + sentenceId + ".w"
+                        + wordFormCount;
+            }
+            logger.trace("Found wf id: " + wordFormId);
+
+            // write DKPro Core annotations Token, Lemma, and POS
+            if (shouldWriteCoreAnnotations) {
+                Lemma lemmaAnno = null;
+                if (lemma != null) {
+                    lemmaAnno = new Lemma(jCas, offset, oldOffset + nodeText.length());
+                    lemmaAnno.setValue(lemma);
+                    lemmaAnno.addToIndexes();
                 }
 
-                // Find or construct a unique ID for this word form
-                wordFormCount++;
-                totalWordFormCount++;
-                Element wordForm = (Element) node;
-                String wordFormId = wordForm.attributeValue(ATTR_ID);
-                if (wordFormId == null) {
-                    wordFormId = idPrefix + ".s" + sentenceId + ".w"
-                            + wordFormCount;
-                }
-                logger.trace("Found wf id: " + wordFormId);
-
-                String lemma = wordForm.attributeValue(ATTR_LEMMA);
-                String pos = wordForm.attributeValue(ATTR_POS);
-
-                // write DKPro Core annotations Token, Lemma, and POS
-                if (shouldWriteCoreAnnotations) {
-                    Lemma lemmaAnno = null;
-                    if (lemma != null) {
-                        lemmaAnno = new Lemma(jCas, offset, oldOffset + nodeText.length());
-                        lemmaAnno.setValue(lemma);
-                        lemmaAnno.addToIndexes();
-                    }
-
-                    de.tudarmstadt.ukp.dkpro.core.api.lexmorph.type.pos.POS posAnno = null;
-                    if (pos != null) {
-                        Type posTag = mappingProvider.getTagType(pos);
-                        posAnno = (de.tudarmstadt.ukp.dkpro.core.api.lexmorph.type.pos.POS) jCas.getCas().createAnnotation(posTag, oldOffset, oldOffset + nodeText.length());
-                        posAnno.setPosValue(pos);
-                        posAnno.addToIndexes();
-                    }
-
-                    Token tokenAnno = new Token(jCas, oldOffset, oldOffset + nodeText.length());
-                    tokenAnno.setLemma(lemmaAnno);
-                    tokenAnno.setPos(posAnno);
-                    tokenAnno.addToIndexes();
+                de.tudarmstadt.ukp.dkpro.core.api.lexmorph.type.pos.POS posAnno = null;
+                if (pos != null) {
+                    Type posTag = mappingProvider.getTagType(pos);
+                    posAnno = (de.tudarmstadt.ukp.dkpro.core.api.lexmorph.type.pos.POS) jCas.getCas().createAnnotation(posTag, oldOffset, oldOffset + nodeText.length());
+                    posAnno.setPosValue(pos);
+                    posAnno.addToIndexes();
                 }
 
-                // Skip <wf> elements which are not marked as "done"
-                if (skipUndone == true
-                        && wordForm.attributeValue(ATTR_CMD).equals(VAL_DONE) == false) {
-                    logger.debug("Skipping wf " + wordFormId
-                            + ": not marked as 'done'");
-                    continue;
-                }
+                Token tokenAnno = new Token(jCas, oldOffset, oldOffset + nodeText.length());
+                tokenAnno.setLemma(lemmaAnno);
+                tokenAnno.setPos(posAnno);
+                tokenAnno.addToIndexes();
+            }
 
-                // Skip <wf> elements for which semantic tags could not be
-                // assigned
-                if (skipUnassignable == true
-                        && wordForm.attributeValue(ATTR_OT) != null) {
-                    logger.debug("Skipping wf " + wordFormId + ": ot="
-                            + wordForm.attributeValue(ATTR_OT));
-                    continue;
-                }
+            // Skip <wf> elements which are not marked as "done"
+            if (skipUndone == true && cmd.equals(VAL_DONE) == false) {
+                logger.debug("Skipping wf " + wordFormId
+                        + ": not marked as 'done'");
+                continue;
+            }
 
-                // Find the number of valid sense tags for this word form.
-                // Tags with a wnsn attribute value of "0"
-                // (or "-1" according to some specifications) could not be
-                // mapped and so are skipped.
-                String wnsn = wordForm.attributeValue(ATTR_WNSN);
-                if (skipWithoutWnsn == true && wnsn == null) {
-                    logger.debug("Skipping wf " + wordFormId + ": no wnsn");
-                    continue;
-                }
-                int totalValidWf = 0;
-                String wnsns[] = wnsn.split(";");
-                for (String s : wnsns) {
-                    if (isValidWnsn(s)) {
-                        totalValidWf++;
-                    }
-                }
-                if (skipWithoutWnsn == true && totalValidWf == 0) {
-                    logger.debug("Skipping wf " + wordFormId + ": wnsn="
-                            + wordForm.attributeValue(ATTR_WNSN));
-                    continue;
-                }
+            // Skip <wf> elements for which semantic tags could not be
+            // assigned
+            if (skipUnassignable == true && ot != null) {
+                logger.debug("Skipping wf " + wordFormId + ": ot=" + ot);
+                continue;
+            }
 
-                // Skip word forms without a lemma
-                if (skipWithoutLemma == true && lemma == null) {
-                    logger.warn("Sipping wf " + wordFormId + ": no lemma");
-                    continue;
+            // Find the number of valid sense tags for this word form.
+            // Tags with a wnsn attribute value of "0"
+            // (or "-1" according to some specifications) could not be
+            // mapped and so are skipped.
+            if (skipWithoutWnsn == true && wnsn == null) {
+                logger.debug("Skipping wf " + wordFormId + ": no wnsn");
+                continue;
+            }
+            int totalValidWf = 0;
+            String wnsns[] = wnsn.split(";");
+            for (String s : wnsns) {
+                if (isValidWnsn(s)) {
+                    totalValidWf++;
                 }
+            }
+            if (skipWithoutWnsn == true && totalValidWf == 0) {
+                logger.debug("Skipping wf " + wordFormId + ": wnsn=" + wnsn);
+                continue;
+            }
 
-                // Skip word forms without a POS
-                if (skipWithoutPos == true && pos == null) {
-                    logger.warn("Skipping " + wordFormId + ": no pos");
-                    continue;
-                }
-                try {
-                    pos = semCorPosToPOS(pos).toString();
-                }
-                catch (IllegalArgumentException e) {
-                    logger.warn("Skipping wf " + wordFormId
-                            + ": unrecognized pos=" + pos);
-                    continue;
-                }
+            // Skip word forms without a lemma
+            if (skipWithoutLemma == true && lemma == null) {
+                logger.warn("Sipping wf " + wordFormId + ": no lemma");
+                continue;
+            }
 
-                // Create the necessary WSDItem and LexicalItemConstituent
-                // annotations for this word form
-                LexicalItemConstituent c = newLexicalItemConstituent(jCas,
-                        wordFormId, ELEMENT_WORDFORM, oldOffset,
-                        nodeText.length());
-                WSDItem w = newWsdItem(jCas, wordFormId, oldOffset,
-                        nodeText.length(), pos, lemma);
-                w.setConstituents(new FSArray(jCas, 1));
-                w.setConstituents(0, c);
-
-                // Get an array of sense tags. Sense tags are found
-                // in the lexsn attribute and are separated with
-                // semicolons. Sometimes the head_word field contains
-                // a superfluous character in parentheses which must
-                // be removed. (These quirks are not documented in
-                // the SemCor file format specification.)
-                String lexsns[] = wordForm.attributeValue(ATTR_LEXSN)
-                        .replaceAll("\\(.\\)", "").split(";");
-                FSArray senseArray = new FSArray(jCas, totalValidWf);
-                int validWfCount = 0;
-                for (int i = 0; i < lexsns.length; i++) {
-                    if (isValidWnsn(wnsns[i])) {
-                        Sense sense = new Sense(jCas);
-                        sense.setId(lemma + "%" + lexsns[i]);
-                        sense.setConfidence(1.0);
-                        sense.addToIndexes();
-                        senseArray.set(validWfCount++, sense);
-                    }
-                }
+            // Skip word forms without a POS
+            if (skipWithoutPos == true && pos == null) {
+                logger.warn("Skipping " + wordFormId + ": no pos");
+                continue;
+            }
+            try {
+                pos = semCorPosToPOS(pos).toString();
+            }
+            catch (IllegalArgumentException e) {
+                logger.warn("Skipping wf " + wordFormId
+                        + ": unrecognized pos=" + pos);
+                continue;
+            }
 
-                WSDResult wsdResult = new WSDResult(jCas, oldOffset, oldOffset + nodeText.length());
-                wsdResult.setWsdItem(w);
-                wsdResult.setSenses(senseArray);
-                wsdResult.setSenseInventory(senseInventory);
-                wsdResult.setDisambiguationMethod(DISAMBIGUATION_METHOD_NAME);
-                wsdResult.addToIndexes();
+            // Create the necessary WSDItem and LexicalItemConstituent
+            // annotations for this word form
+            LexicalItemConstituent c = newLexicalItemConstituent(jCas,
+                    wordFormId, ELEMENT_WORDFORM, oldOffset,
+                    nodeText.length());
+            WSDItem w = newWsdItem(jCas, wordFormId, oldOffset,
+                    nodeText.length(), pos, lemma);
+            w.setConstituents(new FSArray(jCas, 1));
+            w.setConstituents(0, c);
+
+            // Get an array of sense tags. Sense tags are found
+            // in the lexsn attribute and are separated with
+            // semicolons. Sometimes the head_word field contains
+            // a superfluous character in parentheses which must
+            // be removed. (These quirks are not documented in
+            // the SemCor file format specification.)
+            String lexsns[] = lexsn.replaceAll("\\(.\\)", "").split(";");
+            FSArray senseArray = new FSArray(jCas, totalValidWf);
+            int validWfCount = 0;
+            for (int i = 0; i < lexsns.length; i++) {
+                if (isValidWnsn(wnsns[i])) {
+                    Sense sense = new Sense(jCas);
+                    sense.setId(lemma + "%" + lexsns[i]);
+                    sense.setConfidence(1.0);
+                    sense.addToIndexes();
+                    senseArray.set(validWfCount++, sense);
+                }
             }
 
-            sentenceAnnotation.setEnd(offset);
-            sentenceAnnotation.addToIndexes();
+            WSDResult wsdResult = new WSDResult(jCas, oldOffset, oldOffset + nodeText.length());
+            wsdResult.setWsdItem(w);
+            wsdResult.setSenses(senseArray);
+            wsdResult.setSenseInventory(senseInventory);
+            wsdResult.setDisambiguationMethod(DISAMBIGUATION_METHOD_NAME);
+            wsdResult.addToIndexes();
         }
-        return sentenceText;
+
+        sentenceAnnotation.setEnd(offset);
+        sentenceAnnotation.addToIndexes();
     }
 
     private boolean isValidWnsn(String wnsn)
@@ -406,18 +423,16 @@ public class SemCorXMLReader
      * @param jCas
      * @throws CollectionException
      */
-    private void setDocumentMetadata(JCas jCas, Element contextFile,
-            Element context)
+    private void setDocumentMetadata(JCas jCas, String collectionId,
+            String documentId)
         throws CollectionException
     {
         DocumentMetaData d = DocumentMetaData.create(jCas);
-        String documentId = context.attributeValue(ATTR_FILENAME);
         if (documentId == null) {
             throw new CollectionException("required_attribute_missing",
                     new Object[] { ATTR_FILENAME, ELEMENT_CONTEXT });
         }
 
-        String collectionId = contextFile.attributeValue(ATTR_CONCORDANCE);
         if (collectionId == null) {
             throw new CollectionException("required_attribute_missing",
                     new Object[] { ATTR_CONCORDANCE, ELEMENT_CONTEXTFILE });
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.io.reader;
+
+import java.io.InputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Helper methods for readers which stream through XML files with an
+ * {@link XMLStreamReader} rather than building a DOM. The methods mirror
+ * the dom4j calls the readers used before, so that the streaming readers
+ * see the same elements and text.
+ */
+public class XMLStreamUtils
+{
+    private static final XMLInputFactory factory = XMLInputFactory
+            .newInstance();
+
+    static {
+        // Like the SAXReaders with a NullEntityResolver, read internal DTD
+        // subsets but ignore external DTDs
+        factory.setXMLResolver(new NullEntityResolver());
+    }
+
+    private XMLStreamUtils()
+    {
+    }
+
+    /**
+     * Creates a parser positioned on the start of the root element.
+     *
+     * @param is
+     *            The XML file. The caller must close it.
+     * @return The parser.
+     * @throws XMLStreamException
+     *             if the file has no root element
+     */
+    public static XMLStreamReader openRootElement(InputStream is)
+        throws XMLStreamException
+    {
+        XMLStreamReader reader;
+        synchronized (factory) {
+            reader = factory.createXMLStreamReader(is);
+        }
+        while (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+            if (reader.hasNext() == false) {
+                throw new XMLStreamException("No root element");
+            }
+            reader.next();
+        }
+        return reader;
+    }
+
+    /**
+     * Advances to the next child element with the given name, skipping
+     * other elements and text. The parser must be positioned on the start
+     * of the parent element or on the end of one of its children.
+     *
+     * @return true if the parser is positioned on the start of the child;
+     *         false if it is positioned on the end of the parent
+     */
+    public static boolean nextElement(XMLStreamReader reader, String name)
+        throws XMLStreamException
+    {
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (reader.getLocalName().equals(name)) {
+                    return true;
+                }
+                skipElement(reader);
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Advances to the end of the innermost open element, i.e., the element
+     * on whose start the parser is positioned, or else the element
+     * containing the current position.
+     */
+    public static void skipElement(XMLStreamReader reader)
+        throws XMLStreamException
+    {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Reads the text of the element on whose start the parser is positioned,
+     * and advances to its end. Like dom4j's {@code Element.getText()}, this
+     * is the text directly contained in the element, not the text of nested
+     * elements.
+     */
+    public static String readText(XMLStreamReader reader)
+        throws XMLStreamException
+    {
+        String text = null;
+        StringBuilder builder = null;
+        while (true) {
+            int event = reader.next();
+            if (isText(event)) {
+                if (text == null) {
+                    text = reader.getText();
+                }
+                else {
+                    if (builder == null) {
+                        builder = new StringBuilder(text);
+                    }
+                    builder.append(reader.getText());
+                }
+            }
+            else if (event == XMLStreamConstants.START_ELEMENT) {
+                skipElement(reader);
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            }
+        }
+        if (builder != null) {
+            return builder.toString();
+        }
+        return text == null ? "" : text;
+    }
+
+    /**
+     * @return whether the event is a piece of the text of the document
+     */
+    public static boolean isText(int event)
+    {
+        return event == XMLStreamConstants.CHARACTERS
+                || event == XMLStreamConstants.CDATA
+                || event == XMLStreamConstants.SPACE;
+    }
+
+    /**
+     * Closes a parser, ignoring any errors.
+     */
+    public static void closeQuietly(XMLStreamReader reader)
+    {
+        if (reader != null) {
+            try {
+                reader.close();
+            }
+            catch (XMLStreamException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -18,8 +18,8 @@
 
 /**
  * This package contains readers for various sense-annotated corpora and
- * data sets.  Everything here depends only on dom4j, jaxen, and some DKPro Core
- * modules.  Readers with other dependencies should probably go in a separate
- * module.
+ * data sets.  Everything here depends only on dom4j, jaxen, the StAX API of
+ * the JDK, and some DKPro Core modules.  Readers with other dependencies
+ * should probably go in a separate module.
  */
 package de.tudarmstadt.ukp.dkpro.wsd.io.reader;
\ No newline at end of file
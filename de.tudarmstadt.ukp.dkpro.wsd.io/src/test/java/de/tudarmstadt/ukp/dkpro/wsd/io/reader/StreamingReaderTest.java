@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.io.reader;
+
+import static org.apache.uima.fit.factory.CollectionReaderFactory.createReader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.uima.cas.ArrayFS;
+import org.apache.uima.cas.CommonArrayFS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.fit.pipeline.JCasIterator;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.junit.Test;
+
+import de.tudarmstadt.ukp.dkpro.core.api.io.ResourceCollectionReaderBase;
+
+/**
+ * Checks that the StAX-based SemCor reader produces the same CASes as the
+ * former DOM-based reader on the sample corpus.
+ */
+public class StreamingReaderTest
+{
+    @Test
+    public void testSemCorXMLReader()
+        throws Exception
+    {
+        for (boolean option : new boolean[] { false, true }) {
+            assertSameCases(
+                    createReader(DomSemCorXMLReader.class,
+                            DomSemCorXMLReader.PARAM_SOURCE_LOCATION,
+                            "classpath:/semcor",
+                            DomSemCorXMLReader.PARAM_PATTERNS,
+                            new String[] { ResourceCollectionReaderBase.INCLUDE_PREFIX
+                                    + "*.xml" },
+                            DomSemCorXMLReader.PARAM_SKIP_UNDONE, option,
+                            DomSemCorXMLReader.PARAM_SKIP_UNASSIGNABLE, option,
+                            DomSemCorXMLReader.PARAM_SKIP_WITHOUT_LEMMA, option,
+                            DomSemCorXMLReader.PARAM_SKIP_WITHOUT_POS, option,
+                            DomSemCorXMLReader.PARAM_WRITE_CORE_ANNOTATIONS,
+                            option),
+                    createReader(SemCorXMLReader.class,
+                            SemCorXMLReader.PARAM_SOURCE_LOCATION,
+                            "classpath:/semcor",
+                            SemCorXMLReader.PARAM_PATTERNS,
+                            new String[] { ResourceCollectionReaderBase.INCLUDE_PREFIX
+                                    + "*.xml" },
+                            SemCorXMLReader.PARAM_SKIP_UNDONE, option,
+                            SemCorXMLReader.PARAM_SKIP_UNASSIGNABLE, option,
+                            SemCorXMLReader.PARAM_SKIP_WITHOUT_LEMMA, option,
+                            SemCorXMLReader.PARAM_SKIP_WITHOUT_POS, option,
+                            SemCorXMLReader.PARAM_WRITE_CORE_ANNOTATIONS,
+                            option));
+        }
+    }
+
+    private static void assertSameCases(CollectionReader expected,
+            CollectionReader actual)
+        throws Exception
+    {
+        List<String> expectedCases = dump(expected);
+        assertFalse(expectedCases.isEmpty());
+        assertEquals(expectedCases, dump(actual));
+    }
+
+    /**
+     * @return the text, language and annotations of each CAS of the reader,
+     *         including the elements of their array features
+     */
+    static List<String> dump(CollectionReader reader)
+        throws Exception
+    {
+        List<String> cases = new ArrayList<String>();
+        JCasIterator i = new JCasIterator(reader);
+        while (i.hasNext()) {
+            JCas jcas = i.next();
+            StringBuilder dump = new StringBuilder();
+            dump.append(jcas.getDocumentLanguage()).append('\n');
+            dump.append(jcas.getDocumentText()).append('\n');
+            for (Annotation annotation : jcas.getAnnotationIndex()) {
+                dump.append(annotation).append('\n');
+                for (Feature feature : annotation.getType().getFeatures()) {
+                    if (feature.getRange().isPrimitive()) {
+                        continue;
+                    }
+                    FeatureStructure value = annotation
+                            .getFeatureValue(feature);
+                    if (value instanceof ArrayFS) {
+                        for (FeatureStructure element : ((ArrayFS) value)
+                                .toArray()) {
+                            dump.append(feature.getShortName()).append(": ")
+                                    .append(element).append('\n');
+                        }
+                    }
+                    else if (value instanceof CommonArrayFS) {
+                        dump.append(feature.getShortName())
+                                .append(": ")
+                                .append(Arrays.toString(((CommonArrayFS) value)
+                                        .toStringArray())).append('\n');
+                    }
+                }
+            }
+            cases.add(dump.toString());
+        }
+        return cases;
+    }
+}
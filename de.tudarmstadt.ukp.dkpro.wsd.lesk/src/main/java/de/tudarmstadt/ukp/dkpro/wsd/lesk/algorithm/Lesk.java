@@ -20,6 +20,7 @@ package de.tudarmstadt.ukp.dkpro.wsd.lesk.algorithm;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -28,10 +29,20 @@ import java.util.regex.Pattern;
 
 import org.apache.log4j.Logger;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+
 import de.tudarmstadt.ukp.dkpro.wsd.WSDUtils;
 import de.tudarmstadt.ukp.dkpro.wsd.algorithm.AbstractWSDAlgorithm;
+import de.tudarmstadt.ukp.dkpro.wsd.algorithm.ThreadSafeWSDAlgorithm;
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization.NormalizationStrategy;
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.overlap.OverlapStrategy;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.AbstractLexicalExpander;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.AbstractLexicalExpander.Expansion;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenDictionary;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenizationStrategy;
 import de.tudarmstadt.ukp.dkpro.wsd.si.POS;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventory;
@@ -39,23 +50,41 @@ import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
 
 /**
  * Base class for algorithms which disambiguate words using Lesk-like algorithms
+ * <p>
+ * Tokenized sense descriptions and contexts are kept in two caches which are
+ * bounded by the total number of tokens they hold. Once configured, an
+ * instance may be shared between threads, provided that its sense inventory
+ * and its strategies are thread-safe.
  *
  * @author <a href="mailto:miller@ukp.informatik.tu-darmstadt.de">Tristan Miller</a>
  */
 public abstract class Lesk
     extends AbstractWSDAlgorithm
+    implements ThreadSafeWSDAlgorithm
 {
 
     private final static Logger logger = Logger.getLogger(Lesk.class.getName());
 
     protected static final int CONTEXT_TRUNCATION_LENGTH = 80;
 
+    /**
+     * The default maximum number of tokens held by each cache
+     */
+    public static final long DEFAULT_MAXIMUM_CACHE_WEIGHT = 1000000;
+
+    /**
+     * The default maximum number of distinct tokens in the token dictionary
+     */
+    public static final long DEFAULT_MAXIMUM_DICTIONARY_SIZE = 1000000;
+
     protected OverlapStrategy overlapStrategy;
     protected NormalizationStrategy normalizationStrategy;
     protected TokenizationStrategy senseTokenizationStrategy;
     protected TokenizationStrategy contextTokenizationStrategy;
-    protected Map<String, List<String>> tokenizedSenseDescriptionCache;
-    protected Map<String, List<String>> tokenizedContextCache;
+    protected volatile TokenDictionary tokenDictionary;
+    protected volatile long maximumDictionarySize;
+    protected volatile Cache<CacheKey, TokenVector> tokenizedSenseDescriptionCache;
+    protected volatile Cache<CacheKey, TokenVector> tokenizedContextCache;
 
     public Lesk(SenseInventory inventory, OverlapStrategy overlapStrategy,
             NormalizationStrategy normalizationStrategy,
@@ -67,8 +96,9 @@ public abstract class Lesk
         this.normalizationStrategy = normalizationStrategy;
         this.senseTokenizationStrategy = senseTokenizationStrategy;
         this.contextTokenizationStrategy = contextTokenizationStrategy;
-        tokenizedSenseDescriptionCache = new HashMap<String, List<String>>();
-        tokenizedContextCache = new HashMap<String, List<String>>();
+        setMaximumCacheWeight(DEFAULT_MAXIMUM_CACHE_WEIGHT);
+        setMaximumDictionarySize(DEFAULT_MAXIMUM_DICTIONARY_SIZE);
+        tokenDictionary = new TokenDictionary();
     }
 
     @Override
@@ -78,12 +108,78 @@ public abstract class Lesk
     }
 
     /**
-     * Flush the cache of tokenized sense descriptions and contexts
+     * Flush the cache of tokenized sense descriptions and contexts, and
+     * replace the token dictionary with an empty one
      */
     public void flushCache()
     {
-        tokenizedSenseDescriptionCache.clear();
-        tokenizedContextCache.clear();
+        tokenDictionary = new TokenDictionary();
+        tokenizedSenseDescriptionCache.invalidateAll();
+        tokenizedContextCache.invalidateAll();
+    }
+
+    /**
+     * Replaces the caches of tokenized sense descriptions and contexts with
+     * empty ones holding at most the given number of tokens each. Least
+     * recently used entries are evicted first.
+     *
+     * @param maximumWeight
+     *            the maximum number of tokens per cache
+     */
+    public void setMaximumCacheWeight(long maximumWeight)
+    {
+        tokenizedSenseDescriptionCache = createCache(maximumWeight);
+        tokenizedContextCache = createCache(maximumWeight);
+    }
+
+    /**
+     * Sets the number of distinct tokens the token dictionary may hold. Once
+     * it holds more, the dictionary is replaced and the caches are flushed.
+     *
+     * @param maximumSize
+     *            the maximum number of distinct tokens
+     */
+    public void setMaximumDictionarySize(long maximumSize)
+    {
+        maximumDictionarySize = maximumSize;
+    }
+
+    /**
+     * @return the number of distinct tokens in the token dictionary
+     */
+    public int getTokenDictionarySize()
+    {
+        return tokenDictionary.size();
+    }
+
+    /**
+     * @return the hit, miss and eviction counts of the sense description
+     *         cache
+     */
+    public CacheStats getSenseDescriptionCacheStats()
+    {
+        return tokenizedSenseDescriptionCache.stats();
+    }
+
+    /**
+     * @return the hit, miss and eviction counts of the context cache
+     */
+    public CacheStats getContextCacheStats()
+    {
+        return tokenizedContextCache.stats();
+    }
+
+    private static Cache<CacheKey, TokenVector> createCache(long maximumWeight)
+    {
+        return CacheBuilder.newBuilder().maximumWeight(maximumWeight)
+                .weigher(new Weigher<CacheKey, TokenVector>()
+                {
+                    @Override
+                    public int weigh(CacheKey key, TokenVector tokens)
+                    {
+                        return tokens.length() + 1;
+                    }
+                }).recordStats().build();
     }
 
     /**
@@ -103,29 +199,94 @@ public abstract class Lesk
     protected Map<String, List<String>> getTokenizedSenseDescriptions(
             List<String> senses, String tokenPrefilter, String tokenPostfilter)
         throws SenseInventoryException
+    {
+        return getTokenizedSenseDescriptions(senses, tokenPrefilter,
+                tokenPostfilter, null);
+    }
+
+    /**
+     * Takes a list of sense IDs and returns a mapping to their sense
+     * descriptions, represented by a list of tokens
+     *
+     * @param senses
+     *            a list of sense IDs
+     * @param tokenPrefilter
+     *            all occurrences of this String, if not null, will be removed
+     *            from the descriptions before tokenization
+     * @param tokenPostfilter
+     *            all occurrences of this String, if not null, will be removed
+     *            from the descriptions after tokenization
+     * @param expansion
+     *            the lexical expansions to apply if the tokenization strategy
+     *            is an {@link AbstractLexicalExpander}, or null to use its
+     *            own setting
+     * @return a mapping of sense IDs to lists of tokens
+     */
+    protected Map<String, List<String>> getTokenizedSenseDescriptions(
+            List<String> senses, String tokenPrefilter,
+            String tokenPostfilter, Expansion expansion)
+        throws SenseInventoryException
     {
         Map<String, List<String>> tokenizedSenseDescriptions = new LinkedHashMap<String, List<String>>(
                 senses.size());
+        for (Map.Entry<String, TokenVector> entry : getEncodedSenseDescriptions(
+                senses, tokenPrefilter, tokenPostfilter, expansion).entrySet()) {
+            tokenizedSenseDescriptions.put(entry.getKey(), entry.getValue()
+                    .getTokens());
+        }
+        return tokenizedSenseDescriptions;
+    }
+
+    /**
+     * Takes a list of sense IDs and returns a mapping to their sense
+     * descriptions, represented by token vectors encoded with
+     * {@link #tokenDictionary}
+     *
+     * @param senses
+     *            a list of sense IDs
+     * @param tokenPrefilter
+     *            all occurrences of this String, if not null, will be removed
+     *            from the descriptions before tokenization
+     * @param tokenPostfilter
+     *            all occurrences of this String, if not null, will be removed
+     *            from the descriptions after tokenization
+     * @param expansion
+     *            the lexical expansions to apply if the tokenization strategy
+     *            is an {@link AbstractLexicalExpander}, or null to use its
+     *            own setting
+     * @return a mapping of sense IDs to token vectors
+     */
+    protected Map<String, TokenVector> getEncodedSenseDescriptions(
+            List<String> senses, String tokenPrefilter,
+            String tokenPostfilter, Expansion expansion)
+        throws SenseInventoryException
+    {
+        Map<String, TokenVector> encodedSenseDescriptions = new LinkedHashMap<String, TokenVector>(
+                senses.size());
         for (String sense : senses) {
-            List<String> senseDescription;
+            TokenVector senseDescription;
 
             // If we prefilter, we can't cache the sense description
             if (tokenPrefilter != null) {
                 String untokenizedSenseDescription = getSenseDescription(sense);
-                senseDescription = senseTokenizationStrategy.tokenize(filter(
-                        untokenizedSenseDescription, tokenPrefilter));
+                senseDescription = encode(tokenize(senseTokenizationStrategy,
+                        filter(untokenizedSenseDescription, tokenPrefilter),
+                        expansion));
                 logger.trace("Untokenized sense description for " + sense
                         + ": " + untokenizedSenseDescription);
                 logger.trace("Tokenized sense description for " + sense
                         + "  : " + senseDescription);
             }
             else {
-                senseDescription = tokenizedSenseDescriptionCache.get(sense);
+                CacheKey key = new CacheKey(sense, expansion);
+                senseDescription = tokenizedSenseDescriptionCache
+                        .getIfPresent(key);
                 if (senseDescription == null) {
                     String untokenizedSenseDescription = getSenseDescription(sense);
-                    senseDescription = senseTokenizationStrategy
-                            .tokenize(untokenizedSenseDescription);
-                    tokenizedSenseDescriptionCache.put(sense, senseDescription);
+                    senseDescription = encode(tokenize(
+                            senseTokenizationStrategy,
+                            untokenizedSenseDescription, expansion));
+                    tokenizedSenseDescriptionCache.put(key, senseDescription);
                     logger.trace("Untokenized sense description for " + sense
                             + ": " + untokenizedSenseDescription);
                     logger.trace("Tokenized sense description for " + sense
@@ -135,10 +296,10 @@ public abstract class Lesk
                             + tokenizedSenseDescriptionCache.size());
                 }
             }
-            tokenizedSenseDescriptions.put(sense,
+            encodedSenseDescriptions.put(sense,
                     filter(senseDescription, tokenPostfilter));
         }
-        return tokenizedSenseDescriptions;
+        return encodedSenseDescriptions;
     }
 
     /**
@@ -190,22 +351,73 @@ public abstract class Lesk
     public List<String> getTokenizedContext(String untokenizedContext,
             String tokenPrefilter, String tokenPostfilter)
     {
-        List<String> tokenizedContext;
+        return getTokenizedContext(untokenizedContext, tokenPrefilter,
+                tokenPostfilter, null);
+    }
+
+    /**
+     * Takes a context string and returns its tokenized representation
+     *
+     * @param untokenizedContext
+     *            a context string
+     * @param tokenPrefilter
+     *            all occurrences of this String, if not null, will be removed
+     *            from the context before tokenization
+     * @param tokenPostfilter
+     *            all occurrences of this String, if not null, will be removed
+     *            from the context after tokenization
+     * @param expansion
+     *            the lexical expansions to apply if the tokenization strategy
+     *            is an {@link AbstractLexicalExpander}, or null to use its
+     *            own setting
+     * @return a list of objects representing the tokenized context
+     */
+    public List<String> getTokenizedContext(String untokenizedContext,
+            String tokenPrefilter, String tokenPostfilter, Expansion expansion)
+    {
+        return getEncodedContext(untokenizedContext, tokenPrefilter,
+                tokenPostfilter, expansion).getTokens();
+    }
+
+    /**
+     * Takes a context string and returns its representation as a token
+     * vector encoded with {@link #tokenDictionary}
+     *
+     * @param untokenizedContext
+     *            a context string
+     * @param tokenPrefilter
+     *            all occurrences of this String, if not null, will be removed
+     *            from the context before tokenization
+     * @param tokenPostfilter
+     *            all occurrences of this String, if not null, will be removed
+     *            from the context after tokenization
+     * @param expansion
+     *            the lexical expansions to apply if the tokenization strategy
+     *            is an {@link AbstractLexicalExpander}, or null to use its
+     *            own setting
+     * @return the token vector of the context
+     */
+    public TokenVector getEncodedContext(String untokenizedContext,
+            String tokenPrefilter, String tokenPostfilter, Expansion expansion)
+    {
+        TokenVector tokenizedContext;
 
         // If we prefilter, we can't cache the context
         if (tokenPrefilter != null) {
-            tokenizedContext = contextTokenizationStrategy.tokenize(filter(
-                    untokenizedContext, tokenPrefilter));
+            tokenizedContext = encode(tokenize(contextTokenizationStrategy,
+                    filter(untokenizedContext, tokenPrefilter), expansion));
             logger.trace("Untokenized context: " + untokenizedContext);
             logger.trace("Tokenized context  : " + tokenizedContext.toString());
         }
         else {
-            tokenizedContext = tokenizedContextCache.get(untokenizedContext);
+            CacheKey key = new CacheKey(untokenizedContext, expansion);
+            tokenizedContext = tokenizedContextCache.getIfPresent(key);
 
             if (tokenizedContext == null) {
-                tokenizedContext = contextTokenizationStrategy
-                        .tokenize(untokenizedContext);
-                tokenizedContextCache.put(untokenizedContext, tokenizedContext);
+                tokenizedContext = encode(tokenize(
+                        contextTokenizationStrategy, untokenizedContext,
+                        expansion));
+                tokenizedContextCache.put(key, tokenizedContext);
                 if (logger.isDebugEnabled()) {
                     logger.trace("Untokenized context: " + untokenizedContext);
                     logger.trace("Tokenized context  : "
@@ -221,6 +433,65 @@ public abstract class Lesk
         return filter(tokenizedContext, tokenPostfilter);
     }
 
+    /**
+     * Encodes a list of tokens with {@link #tokenDictionary}, flushing the
+     * caches first if the dictionary has grown beyond its bound. Vectors
+     * encoded before a flush remain valid but must be re-encoded before they
+     * are compared to newer ones; see {@link TokenDictionary#encode(TokenVector)}.
+     *
+     * @param tokens
+     *            the tokens
+     * @return a token vector holding an unmodifiable view of the tokens
+     */
+    protected TokenVector encode(List<String> tokens)
+    {
+        if (tokenDictionary.size() > maximumDictionarySize) {
+            logger.debug("Token dictionary holds more than "
+                    + maximumDictionarySize + " tokens; flushing caches");
+            flushCache();
+        }
+        return tokenDictionary.encode(Collections.unmodifiableList(tokens));
+    }
+
+    /**
+     * Returns a token vector without the given token.
+     *
+     * @param vector
+     *            The token vector to filter
+     * @param filter
+     *            The token which should not appear in the filtered vector
+     * @return The filtered vector
+     */
+    protected TokenVector filter(TokenVector vector, String filter)
+    {
+        if (filter == null || vector.length() == 0) {
+            return vector;
+        }
+        return encode(filter(vector.getTokens(), filter));
+    }
+
+    /**
+     * Tokenizes a string, applying the given lexical expansions if the
+     * strategy supports them.
+     *
+     * @param strategy
+     *            the tokenization strategy
+     * @param s
+     *            the string to tokenize
+     * @param expansion
+     *            the lexical expansions, or null to use the strategy's own
+     *            setting
+     * @return the tokens
+     */
+    protected List<String> tokenize(TokenizationStrategy strategy, String s,
+            Expansion expansion)
+    {
+        if (expansion != null && strategy instanceof AbstractLexicalExpander) {
+            return ((AbstractLexicalExpander) strategy).tokenize(s, expansion);
+        }
+        return strategy.tokenize(s);
+    }
+
     /**
      * Returns a copy of a list filtered to remove the given elements.
      *
@@ -266,6 +537,41 @@ public abstract class Lesk
         }
     }
 
+    /**
+     * The key of a cached tokenization: the tokenized string and the lexical
+     * expansions applied to it
+     */
+    protected static final class CacheKey
+    {
+        private final String text;
+        private final String expansion;
+
+        CacheKey(String text, Expansion expansion)
+        {
+            this.text = text;
+            this.expansion = expansion == null ? null : expansion.toString();
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return text.equals(other.text)
+                    && (expansion == null ? other.expansion == null
+                            : expansion.equals(other.expansion));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * text.hashCode()
+                    + (expansion == null ? 0 : expansion.hashCode());
+        }
+    }
+
     /**
      * Takes arrays of arrays of objects and returns a frequency (co-occurrence)
      * matrix
@@ -301,11 +607,16 @@ public abstract class Lesk
      */
     public static double magnitude(List<String> o)
     {
-        Map<Object, Integer[]> vector = frequencyMatrix(new Object[][] { o
-                .toArray() });
-        int total = 0;
-        for (Integer[] weights : vector.values()) {
-            total += weights[0] * weights[0];
+        String[] tokens = o.toArray(new String[o.size()]);
+        Arrays.sort(tokens);
+        long total = 0;
+        int count = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            count++;
+            if (i + 1 == tokens.length || !tokens[i].equals(tokens[i + 1])) {
+                total += (long) count * count;
+                count = 0;
+            }
         }
         return Math.sqrt(total);
     }
@@ -57,18 +57,35 @@ public class SimplifiedExpandedLesk
                 senseTokenizationStrategy, contextTokenizationStrategy);
     }
 
+    /**
+     * Sets the expansions to use for subjects of disambiguation of each part
+     * of speech. The expansions are copied, so later changes to the arguments
+     * have no effect.
+     */
     public void setExpansions(Expansion a, Expansion n, Expansion r, Expansion v)
     {
         logger.info("Setting a expansions: " + a);
         logger.info("Setting n expansions: " + n);
         logger.info("Setting r expansions: " + r);
         logger.info("Setting v expansions: " + v);
-        aExpansion = a;
-        nExpansion = n;
-        rExpansion = r;
-        vExpansion = v;
+        aExpansion = copy(a);
+        nExpansion = copy(n);
+        rExpansion = copy(r);
+        vExpansion = copy(v);
     }
 
+    private static Expansion copy(Expansion expansion)
+    {
+        return expansion == null ? null : new Expansion(expansion);
+    }
+
+    /**
+     * @deprecated Changes the expansions of the shared tokenizers and so is
+     *             not thread-safe. The expansions for a subject of
+     *             disambiguation are now passed on with each call; see
+     *             {@link #getExpansion(POS)}.
+     */
+    @Deprecated
     protected void setNumberOfExpansions(Expansion expansion)
     {
         logger.debug("Setting number of expansions to " + expansion);
@@ -77,23 +94,28 @@ public class SimplifiedExpandedLesk
     }
 
     @Override
-    public Map<String, Double> getDisambiguation(String sod, POS sodPos,
-            String context)
-        throws SenseInventoryException
+    protected Expansion getExpansion(POS sodPos)
     {
-        logger.debug("Disambiguating " + sod + "/" + sodPos);
-        if (sodPos.equals(POS.NOUN)) {
-            setNumberOfExpansions(nExpansion);
+        if (POS.NOUN.equals(sodPos)) {
+            return nExpansion;
         }
-        else if (sodPos.equals(POS.VERB)) {
-            setNumberOfExpansions(vExpansion);
+        else if (POS.VERB.equals(sodPos)) {
+            return vExpansion;
         }
-        else if (sodPos.equals(POS.ADJ)) {
-            setNumberOfExpansions(aExpansion);
+        else if (POS.ADJ.equals(sodPos)) {
+            return aExpansion;
         }
         else {
-            setNumberOfExpansions(rExpansion);
+            return rExpansion;
         }
+    }
+
+    @Override
+    public Map<String, Double> getDisambiguation(String sod, POS sodPos,
+            String context)
+        throws SenseInventoryException
+    {
+        logger.debug("Disambiguating " + sod + "/" + sodPos);
 
         // Use the Lesk algorithm to find the index of the best sense
         return super.getDisambiguation(sod, sodPos, context);
@@ -27,7 +27,12 @@ import org.apache.log4j.Logger;
 import de.tudarmstadt.ukp.dkpro.wsd.algorithm.WSDAlgorithmContextBasic;
 import de.tudarmstadt.ukp.dkpro.wsd.algorithm.WSDAlgorithmContextPOS;
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization.NormalizationStrategy;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization.VectorNormalizationStrategy;
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.overlap.OverlapStrategy;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.overlap.VectorOverlapStrategy;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.AbstractLexicalExpander.Expansion;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenDictionary;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenizationStrategy;
 import de.tudarmstadt.ukp.dkpro.wsd.si.POS;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventory;
@@ -133,6 +138,7 @@ public class SimplifiedLesk
     {
         String tokenPostfilter = postfilterSod ? sod : null;
         String tokenPrefilter = prefilterSod ? sod : null;
+        Expansion expansion = getExpansion(sodPos);
 
         // Get the sense IDs for the subject of disambiguation
         List<String> sodSenses = getSenses(sod, sodPos);
@@ -150,11 +156,26 @@ public class SimplifiedLesk
                     new double[] { 1.0 });
         }
 
+        // Compare token vectors if the strategies support them
+        if (overlapStrategy instanceof VectorOverlapStrategy
+                && normalizationStrategy instanceof VectorNormalizationStrategy) {
+            Map<String, TokenVector> encodedSenseDescriptions = getEncodedSenseDescriptions(
+                    sodSenses, tokenPrefilter, tokenPostfilter, expansion);
+            TokenVector encodedContext = getEncodedContext(context,
+                    tokenPrefilter, tokenPostfilter, expansion);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Comparing " + encodedSenseDescriptions.size()
+                        + " senses of " + sod + "/" + sodPos
+                        + " against context");
+            }
+            return simplifiedLesk(encodedSenseDescriptions, encodedContext);
+        }
+
         // Get the tokenized context and sense descriptions
         Map<String, List<String>> tokenizedSenseDescriptions = getTokenizedSenseDescriptions(
-                sodSenses, tokenPrefilter, tokenPostfilter);
+                sodSenses, tokenPrefilter, tokenPostfilter, expansion);
         List<String> tokenizedContext = getTokenizedContext(context,
-                tokenPrefilter, tokenPostfilter);
+                tokenPrefilter, tokenPostfilter, expansion);
         if (logger.isDebugEnabled()) {
             logger.debug("Comparing " + tokenizedSenseDescriptions.size()
                     + " senses of " + sod + "/" + sodPos + " against context");
@@ -164,6 +185,21 @@ public class SimplifiedLesk
         return simplifiedLesk(tokenizedSenseDescriptions, tokenizedContext);
     }
 
+    /**
+     * Returns the lexical expansions with which to tokenize the context and
+     * sense descriptions of a subject of disambiguation.
+     *
+     * @param sodPos
+     *            the subject of disambiguation's part of speech, or null if
+     *            not known
+     * @return the expansions, or null to use the tokenization strategies'
+     *         own settings
+     */
+    protected Expansion getExpansion(POS sodPos)
+    {
+        return null;
+    }
+
     /**
      * This function takes a mapping of sense IDs to tokenized sense
      * descriptions and a tokenized context. It computes the "overlap" between
@@ -210,4 +246,63 @@ public class SimplifiedLesk
         return disambiguationMap;
     }
 
+    /**
+     * This function takes a mapping of sense IDs to encoded sense
+     * descriptions and an encoded context. It computes the "overlap" between
+     * the context and each sense description, and returns a mapping of sense
+     * IDs to nonzero overlap scores. The overlap and normalization strategies
+     * must be a {@link VectorOverlapStrategy} and a
+     * {@link VectorNormalizationStrategy}. Sense descriptions encoded with
+     * another dictionary than the context are re-encoded before comparison.
+     *
+     * @param encodedCandidates
+     *            a mapping of sense IDs to encoded sense descriptions
+     * @param encodedContext
+     *            the encoded context
+     * @return a mapping of sense IDs to nonzero overlap scores
+     */
+    protected Map<String, Double> simplifiedLesk(
+            Map<String, TokenVector> encodedCandidates,
+            TokenVector encodedContext)
+    {
+        Map<String, Double> disambiguationMap = new TreeMap<String, Double>();
+        VectorOverlapStrategy vectorOverlapStrategy = (VectorOverlapStrategy) overlapStrategy;
+        VectorNormalizationStrategy vectorNormalizationStrategy = (VectorNormalizationStrategy) normalizationStrategy;
+
+        // Avoid expensive computation for monosemous terms
+        if (encodedCandidates.size() == 1) {
+            String sense = encodedCandidates.keySet().iterator().next();
+            disambiguationMap.put(sense, 1.0);
+            logger.debug("Sense " + sense + " has overlap 1.0 / 1.0 = 1.0");
+            return disambiguationMap;
+        }
+
+        // Compute overlap for each of the disambiguation candidates
+        TokenDictionary dictionary = encodedContext.getDictionary();
+        for (Map.Entry<String, TokenVector> candidate : encodedCandidates
+                .entrySet()) {
+            TokenVector encodedCandidate = dictionary.encode(candidate
+                    .getValue());
+            double overlap = vectorOverlapStrategy.overlap(encodedCandidate,
+                    encodedContext);
+            if (overlap > 0.0) {
+                double normalization = vectorNormalizationStrategy.normalizer(
+                        encodedCandidate, encodedContext);
+                double normalizedOverlap = overlap / normalization;
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Sense " + candidate.getKey()
+                            + " has overlap " + overlap + " / "
+                            + normalization + " = " + normalizedOverlap);
+                }
+                disambiguationMap.put(candidate.getKey(),
+                        Double.valueOf(normalizedOverlap));
+            }
+            else if (logger.isDebugEnabled()) {
+                logger.debug("Sense " + candidate.getKey()
+                        + " has overlap 0.0 / 1.0 = 0.0");
+            }
+        }
+
+        return disambiguationMap;
+    }
 }
@@ -63,6 +63,14 @@ public class WSDResourceSimplifiedLesk
     @ConfigurationParameter(name = PARAM_POSTFILTER_SOD, mandatory = false, description = "Whether to use filter the subject of disambiguation from the tokenized contexts and sense descriptions", defaultValue = "false")
     protected String postfilterSod;
 
+    public final static String PARAM_MAXIMUM_CACHE_WEIGHT = "maximumCacheWeight";
+    @ConfigurationParameter(name = PARAM_MAXIMUM_CACHE_WEIGHT, mandatory = false, description = "The maximum number of tokens in each of the caches of tokenized sense descriptions and contexts", defaultValue = "1000000")
+    protected String maximumCacheWeight;
+
+    public final static String PARAM_MAXIMUM_DICTIONARY_SIZE = "maximumDictionarySize";
+    @ConfigurationParameter(name = PARAM_MAXIMUM_DICTIONARY_SIZE, mandatory = false, description = "The maximum number of distinct tokens in the token dictionary; once it holds more, it is replaced and the caches are flushed", defaultValue = "1000000")
+    protected String maximumDictionarySize;
+
     // TODO: Implement the following
     // public final static String PARAM_FORWARD_CONTEXT_SIZE =
     // "ForwardContextSize";
@@ -144,6 +152,10 @@ public class WSDResourceSimplifiedLesk
                 .valueOf(prefilterSod));
         ((SimplifiedLesk) wsdAlgorithm).setPostfilterSod(Boolean
                 .valueOf(postfilterSod));
+        ((SimplifiedLesk) wsdAlgorithm).setMaximumCacheWeight(Long
+                .valueOf(maximumCacheWeight));
+        ((SimplifiedLesk) wsdAlgorithm).setMaximumDictionarySize(Long
+                .valueOf(maximumDictionarySize));
     }
 
     protected void initializeWsdAlgorithm()
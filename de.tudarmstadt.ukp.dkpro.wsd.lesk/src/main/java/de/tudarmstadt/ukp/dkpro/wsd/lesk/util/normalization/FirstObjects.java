@@ -20,8 +20,10 @@ package de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization;
 
 import java.util.List;
 
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
+
 public class FirstObjects
-	implements NormalizationStrategy
+	implements VectorNormalizationStrategy
 {
 
 	/**
@@ -38,4 +40,9 @@ public class FirstObjects
 		return o1.size();
 	}
 
+	@Override
+	public double normalizer(TokenVector v1, TokenVector v2)
+	{
+		return v1.length();
+	}
 }
@@ -20,8 +20,10 @@ package de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization;
 
 import java.util.List;
 
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
+
 public class MostObjects
-	implements NormalizationStrategy
+	implements VectorNormalizationStrategy
 {
 
 	/**
@@ -38,4 +40,9 @@ public class MostObjects
 		return Math.max(o1.size(), o2.size());
 	}
 
+	@Override
+	public double normalizer(TokenVector v1, TokenVector v2)
+	{
+		return Math.max(v1.length(), v2.length());
+	}
 }
@@ -21,8 +21,10 @@ package de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization;
 import java.util.HashSet;
 import java.util.List;
 
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
+
 public class MostUniqueObjects
-	implements NormalizationStrategy
+	implements VectorNormalizationStrategy
 {
 
 	/**
@@ -43,4 +45,9 @@ public class MostUniqueObjects
 				new HashSet<Object>(o2).size());
 	}
 
+	@Override
+	public double normalizer(TokenVector v1, TokenVector v2)
+	{
+		return Math.max(v1.uniqueLength(), v2.uniqueLength());
+	}
 }
@@ -20,8 +20,10 @@ package de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization;
 
 import java.util.List;
 
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
+
 public class NoNormalization
-	implements NormalizationStrategy
+	implements VectorNormalizationStrategy
 {
 
 	/**
@@ -38,4 +40,9 @@ public class NoNormalization
 		return 1.0;
 	}
 
+	@Override
+	public double normalizer(TokenVector v1, TokenVector v2)
+	{
+		return 1.0;
+	}
 }
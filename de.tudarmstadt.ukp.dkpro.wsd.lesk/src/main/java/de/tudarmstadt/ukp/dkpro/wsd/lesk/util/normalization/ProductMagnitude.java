@@ -21,9 +21,10 @@ package de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization;
 import java.util.List;
 
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.algorithm.Lesk;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
 
 public class ProductMagnitude
-	implements NormalizationStrategy
+	implements VectorNormalizationStrategy
 {
 
 	/**
@@ -40,4 +41,9 @@ public class ProductMagnitude
 		return Lesk.magnitude(o1) * Lesk.magnitude(o2);
 	}
 
+	@Override
+	public double normalizer(TokenVector v1, TokenVector v2)
+	{
+		return v1.magnitude() * v2.magnitude();
+	}
 }
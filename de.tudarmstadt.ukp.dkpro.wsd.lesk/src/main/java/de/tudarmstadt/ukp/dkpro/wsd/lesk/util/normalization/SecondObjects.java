@@ -20,8 +20,10 @@ package de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization;
 
 import java.util.List;
 
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
+
 public class SecondObjects
-	implements NormalizationStrategy
+	implements VectorNormalizationStrategy
 {
 
 	/**
@@ -38,4 +40,9 @@ public class SecondObjects
 		return o2.size();
 	}
 
+	@Override
+	public double normalizer(TokenVector v1, TokenVector v2)
+	{
+		return v2.length();
+	}
 }
@@ -21,8 +21,10 @@ package de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization;
 import java.util.HashSet;
 import java.util.List;
 
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
+
 public class SecondUniqueObjects
-	implements NormalizationStrategy
+	implements VectorNormalizationStrategy
 {
 
 	/**
@@ -39,4 +41,9 @@ public class SecondUniqueObjects
 		return new HashSet<Object>(o2).size();
 	}
 
+	@Override
+	public double normalizer(TokenVector v1, TokenVector v2)
+	{
+		return v2.uniqueLength();
+	}
 }
@@ -20,8 +20,10 @@ package de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization;
 
 import java.util.List;
 
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
+
 public class TotalObjects
-	implements NormalizationStrategy
+	implements VectorNormalizationStrategy
 {
 
 	/**
@@ -37,4 +39,9 @@ public class TotalObjects
 		return o1.size() + o2.size();
 	}
 
+	@Override
+	public double normalizer(TokenVector v1, TokenVector v2)
+	{
+		return v1.length() + v2.length();
+	}
 }
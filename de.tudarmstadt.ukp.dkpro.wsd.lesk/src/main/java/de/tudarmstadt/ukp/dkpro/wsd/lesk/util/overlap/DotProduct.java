@@ -22,10 +22,11 @@ import java.util.List;
 import java.util.Map;
 
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.algorithm.Lesk;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
 
 
 public class DotProduct
-	implements OverlapStrategy
+	implements VectorOverlapStrategy
 {
 
 	/**
@@ -50,4 +51,9 @@ public class DotProduct
 		return dotProduct;
 	}
 
+	@Override
+	public double overlap(TokenVector v1, TokenVector v2)
+	{
+		return v1.dotProduct(v2);
+	}
 }
@@ -23,9 +23,11 @@ import java.util.List;
 
 import org.apache.log4j.Logger;
 
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
+
 
 public class PairedOverlap
-	implements OverlapStrategy
+	implements VectorOverlapStrategy
 {
     private final Logger logger = Logger.getLogger(getClass());
 
@@ -70,4 +72,9 @@ public class PairedOverlap
         return overlap;
 	}
 
+	@Override
+	public double overlap(TokenVector v1, TokenVector v2)
+	{
+		return v1.pairedTokens(v2);
+	}
 }
@@ -22,8 +22,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
+
 public class SetOverlap
-	implements OverlapStrategy
+	implements VectorOverlapStrategy
 {
 
 	/**
@@ -43,4 +45,9 @@ public class SetOverlap
 		return set2.size();
 	}
 
+	@Override
+	public double overlap(TokenVector v1, TokenVector v2)
+	{
+		return v1.commonTokens(v2);
+	}
 }
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.dkpro.wsd.lesk.util.overlap;
+
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
+
+/**
+ * Overlap strategies which can also compare pre-encoded token vectors
+ *
+ */
+public interface VectorOverlapStrategy
+	extends OverlapStrategy
+{
+	/**
+	 * Computes the number of overlaps between two token vectors. The result
+	 * is the same as that of {@link #overlap(java.util.List, java.util.List)}
+	 * for the vectors' tokens.
+	 *
+	 * @param v1	the first token vector to be compared
+	 * @param v2	the second token vector, encoded with the same dictionary
+     * @return	the number of overlaps between the two vectors
+	 */
+	double overlap(TokenVector v1, TokenVector v2);
+}
@@ -19,6 +19,7 @@
 package de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization;
 
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * A TokenizationStrategy for use with the Lesk family of algorithms which
@@ -61,6 +62,12 @@ public abstract class AbstractLexicalExpander
             this.o = o;
         }
 
+        public Expansion(Expansion expansion)
+        {
+            this(expansion.a, expansion.n, expansion.r, expansion.v,
+                    expansion.o);
+        }
+
         public Expansion(int[] pos)
         {
             if (pos.length != 5) {
@@ -108,6 +115,43 @@ public abstract class AbstractLexicalExpander
         this.expansion = expansion;
     }
 
+    /**
+     * Tokenizes a string using the expansion strategy set for this
+     * tokenizer. Subclasses override either this method or
+     * {@link #tokenize(String, Expansion)}.
+     */
+    @Override
+    public List<String> tokenize(String s)
+    {
+        return tokenize(s, expansion);
+    }
+
+    /**
+     * Tokenizes a string using the given expansion strategy instead of the
+     * one set for this tokenizer. This implementation is for subclasses
+     * which only override {@link #tokenize(String)}: it temporarily replaces
+     * the expansion strategy and therefore serializes concurrent calls.
+     * Subclasses which can pass the strategy on directly should override it
+     * without changing the state of the tokenizer.
+     *
+     * @param s
+     *            the string to tokenize
+     * @param expansion
+     *            the POS-specific expansion strategy
+     * @return a list of strings
+     */
+    public synchronized List<String> tokenize(String s, Expansion expansion)
+    {
+        Expansion previous = this.expansion;
+        this.expansion = expansion;
+        try {
+            return tokenize(s);
+        }
+        finally {
+            this.expansion = previous;
+        }
+    }
+
     /**
      * Set a filter such that the tokenizer removes all occurrences of this
      * string from its output
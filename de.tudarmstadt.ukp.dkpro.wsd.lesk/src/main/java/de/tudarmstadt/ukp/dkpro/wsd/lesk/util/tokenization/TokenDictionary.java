@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns integer IDs to tokens so that tokenized texts can be represented
+ * as {@link TokenVector}s. A dictionary may be shared between threads. It
+ * only grows; to free the IDs of tokens which are no longer used, replace it
+ * with a new dictionary. Only vectors encoded with the same dictionary can be
+ * compared.
+ *
+ */
+public class TokenDictionary
+{
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * Returns the ID of a token, assigning a new one if the token has not
+     * been seen before.
+     *
+     * @param token
+     *            the token
+     * @return the token's ID
+     */
+    public int getId(String token)
+    {
+        Integer id = ids.get(token);
+        if (id == null) {
+            Integer newId = Integer.valueOf(nextId.getAndIncrement());
+            id = ids.putIfAbsent(token, newId);
+            if (id == null) {
+                id = newId;
+            }
+        }
+        return id;
+    }
+
+    /**
+     * @return the number of tokens which have been assigned an ID
+     */
+    public int size()
+    {
+        return ids.size();
+    }
+
+    /**
+     * Encodes a list of tokens as a vector of token IDs and counts.
+     *
+     * @param tokens
+     *            the tokens
+     * @return the token vector
+     */
+    public TokenVector encode(List<String> tokens)
+    {
+        int[] tokenIds = new int[tokens.size()];
+        int i = 0;
+        for (String token : tokens) {
+            tokenIds[i++] = getId(token);
+        }
+        return new TokenVector(this, tokens, tokenIds);
+    }
+
+    /**
+     * Returns a vector encoded with this dictionary for the tokens of the
+     * given vector.
+     *
+     * @param vector
+     *            a vector encoded with this or another dictionary
+     * @return the vector itself if it was encoded with this dictionary, or
+     *         else a new vector for its tokens
+     */
+    public TokenVector encode(TokenVector vector)
+    {
+        if (vector.getDictionary() == this) {
+            return vector;
+        }
+        return encode(vector.getTokens());
+    }
+}
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A tokenized text, represented both by its list of tokens and by the
+ * frequency vector of their IDs in a {@link TokenDictionary}. The IDs are
+ * stored in ascending order, so that vectors can be compared by merging
+ * them without allocating any memory. Token vectors are immutable.
+ *
+ */
+public class TokenVector
+{
+    private final TokenDictionary dictionary;
+    private final List<String> tokens;
+    private final int[] ids;
+    private final int[] counts;
+    private final double magnitude;
+
+    /**
+     * @param dictionary
+     *            the dictionary which assigned the IDs
+     * @param tokens
+     *            the tokens
+     * @param tokenIds
+     *            the IDs of the tokens, in the same order; the array is
+     *            sorted in place
+     */
+    TokenVector(TokenDictionary dictionary, List<String> tokens, int[] tokenIds)
+    {
+        this.dictionary = dictionary;
+        this.tokens = tokens;
+        Arrays.sort(tokenIds);
+        int size = 0;
+        for (int i = 0; i < tokenIds.length; i++) {
+            if (i == 0 || tokenIds[i] != tokenIds[i - 1]) {
+                size++;
+            }
+        }
+        ids = new int[size];
+        counts = new int[size];
+        int j = -1;
+        for (int i = 0; i < tokenIds.length; i++) {
+            if (i == 0 || tokenIds[i] != tokenIds[i - 1]) {
+                j++;
+                ids[j] = tokenIds[i];
+            }
+            counts[j]++;
+        }
+        long sumOfSquares = 0;
+        for (int count : counts) {
+            sumOfSquares += (long) count * count;
+        }
+        magnitude = Math.sqrt(sumOfSquares);
+    }
+
+    /**
+     * @return the dictionary this vector was encoded with
+     */
+    public TokenDictionary getDictionary()
+    {
+        return dictionary;
+    }
+
+    /**
+     * @return the tokens this vector was created from
+     */
+    public List<String> getTokens()
+    {
+        return tokens;
+    }
+
+    /**
+     * @return the number of tokens
+     */
+    public int length()
+    {
+        return tokens.size();
+    }
+
+    /**
+     * @return the number of distinct tokens
+     */
+    public int uniqueLength()
+    {
+        return ids.length;
+    }
+
+    /**
+     * @return the magnitude of the frequency vector
+     */
+    public double magnitude()
+    {
+        return magnitude;
+    }
+
+    /**
+     * @param other
+     *            a vector encoded with the same dictionary
+     * @return the number of distinct tokens occurring in both vectors
+     */
+    public int commonTokens(TokenVector other)
+    {
+        int common = 0;
+        int i = 0, j = 0;
+        while (i < ids.length && j < other.ids.length) {
+            if (ids[i] < other.ids[j]) {
+                i++;
+            }
+            else if (ids[i] > other.ids[j]) {
+                j++;
+            }
+            else {
+                common++;
+                i++;
+                j++;
+            }
+        }
+        return common;
+    }
+
+    /**
+     * @param other
+     *            a vector encoded with the same dictionary
+     * @return the size of the multiset intersection of the tokens of both
+     *         vectors
+     */
+    public int pairedTokens(TokenVector other)
+    {
+        int paired = 0;
+        int i = 0, j = 0;
+        while (i < ids.length && j < other.ids.length) {
+            if (ids[i] < other.ids[j]) {
+                i++;
+            }
+            else if (ids[i] > other.ids[j]) {
+                j++;
+            }
+            else {
+                paired += Math.min(counts[i++], other.counts[j++]);
+            }
+        }
+        return paired;
+    }
+
+    /**
+     * @param other
+     *            a vector encoded with the same dictionary
+     * @return the dot product of the frequency vectors
+     */
+    public long dotProduct(TokenVector other)
+    {
+        long dotProduct = 0;
+        int i = 0, j = 0;
+        while (i < ids.length && j < other.ids.length) {
+            if (ids[i] < other.ids[j]) {
+                i++;
+            }
+            else if (ids[i] > other.ids[j]) {
+                j++;
+            }
+            else {
+                dotProduct += (long) counts[i++] * other.counts[j++];
+            }
+        }
+        return dotProduct;
+    }
+
+    @Override
+    public String toString()
+    {
+        return tokens.toString();
+    }
+}
@@ -19,8 +19,15 @@
 package de.tudarmstadt.ukp.dkpro.wsd.algorithms.lesk;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 
@@ -80,4 +87,69 @@ public class SimplifiedLeskTest
         Map<String, Double> senseMap = l.getDisambiguation("bank", POS.NOUN, "none of these terms are in the sense inventory");
         assertEquals(0, senseMap.size());
     }
+
+    @Test
+    public void cacheTest() throws SenseInventoryException {
+        l.setMaximumCacheWeight(3);
+        l.getDisambiguation("bank", POS.NOUN, "financial institution");
+        l.getDisambiguation("bank", POS.NOUN, "financial institution");
+        assertEquals(1, l.getContextCacheStats().hitCount());
+        assertEquals(1, l.getContextCacheStats().missCount());
+
+        // A second context exceeds the maximum weight of three tokens
+        l.getDisambiguation("bank", POS.NOUN, "river otter");
+        assertEquals(1, l.getContextCacheStats().evictionCount());
+
+        l.flushCache();
+        l.getDisambiguation("bank", POS.NOUN, "river otter");
+        assertEquals(3, l.getContextCacheStats().missCount());
+        l.setMaximumCacheWeight(SimplifiedLesk.DEFAULT_MAXIMUM_CACHE_WEIGHT);
+    }
+
+    @Test
+    public void dictionaryTest() throws SenseInventoryException {
+        l.getDisambiguation("bank", POS.NOUN, "financial institution");
+        assertTrue(l.getTokenDictionarySize() > 0);
+        l.flushCache();
+        assertEquals(0, l.getTokenDictionarySize());
+
+        // Exceeding the maximum size flushes the dictionary and the caches,
+        // so sense descriptions and contexts may be encoded with different
+        // dictionaries
+        l.setMaximumDictionarySize(1);
+        Map<String, Double> senseMap = l.getDisambiguation("bank", POS.NOUN, "financial institution");
+        assertEquals(1, senseMap.size());
+        assertEquals(1.0, senseMap.get("bank1"), 0.001);
+        senseMap = l.getDisambiguation("bank", POS.NOUN, "river otter");
+        assertEquals(1, senseMap.size());
+        assertEquals(1.0, senseMap.get("bank2"), 0.001);
+        assertEquals(0, l.getContextCacheStats().hitCount());
+        l.setMaximumDictionarySize(SimplifiedLesk.DEFAULT_MAXIMUM_DICTIONARY_SIZE);
+    }
+
+    @Test
+    public void concurrencyTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Map<String, Double>>> results = new ArrayList<Future<Map<String, Double>>>();
+            for (int i = 0; i < 200; i++) {
+                final String context = i % 2 == 0 ? "financial institution"
+                        : "river otter";
+                results.add(executor.submit(new Callable<Map<String, Double>>() {
+                    @Override
+                    public Map<String, Double> call() throws SenseInventoryException {
+                        return l.getDisambiguation("bank", POS.NOUN, context);
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                Map<String, Double> senseMap = results.get(i).get();
+                assertEquals(1, senseMap.size());
+                assertEquals(1.0, senseMap.get(i % 2 == 0 ? "bank1" : "bank2"), 0.001);
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
 }
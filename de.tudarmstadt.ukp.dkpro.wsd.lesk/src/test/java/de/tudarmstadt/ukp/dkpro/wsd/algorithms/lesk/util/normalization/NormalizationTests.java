@@ -33,8 +33,12 @@ import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization.MostUniqueObjects;
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization.NoNormalization;
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization.NormalizationStrategy;
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization.ProductMagnitude;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization.SecondObjects;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization.SecondUniqueObjects;
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization.TotalObjects;
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization.TotalUniqueObjects;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.normalization.VectorNormalizationStrategy;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenDictionary;
 
 
 /**
@@ -104,4 +108,24 @@ public class NormalizationTests
 		assertEquals(7.071, n.normalizer(s1, s2), 0.001);
 		assertEquals(0.0, n.normalizer(s3, s3), 0.001);
 	}
+
+	@Test
+	public void vectorNormalizationTest() {
+		TokenDictionary dictionary = new TokenDictionary();
+		List<List<String>> lists = Arrays.asList(s1, s2, s3);
+		for (VectorNormalizationStrategy v : new VectorNormalizationStrategy[] {
+				new FirstObjects(), new FirstUniqueObjects(),
+				new MostObjects(), new MostUniqueObjects(),
+				new NoNormalization(), new ProductMagnitude(),
+				new SecondObjects(), new SecondUniqueObjects(),
+				new TotalObjects(), new TotalUniqueObjects() }) {
+			for (List<String> l1 : lists) {
+				for (List<String> l2 : lists) {
+					assertEquals(v.normalizer(l1, l2), v.normalizer(
+							dictionary.encode(l1), dictionary.encode(l2)),
+							0.001);
+				}
+			}
+		}
+	}
 }
@@ -30,6 +30,9 @@ import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.overlap.DotProduct;
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.overlap.OverlapStrategy;
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.overlap.PairedOverlap;
 import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.overlap.SetOverlap;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.overlap.VectorOverlapStrategy;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenDictionary;
+import de.tudarmstadt.ukp.dkpro.wsd.lesk.util.tokenization.TokenVector;
 
 /**
  * @author <a href="mailto:miller@ukp.informatik.tu-darmstadt.de">Tristan Miller</a>
@@ -66,4 +69,20 @@ public class OverlapTests
     	assertEquals(0, o.overlap(s1, s3), DELTA);
     	assertEquals(0, o.overlap(s3, s1), DELTA);
     }
+
+    @Test
+	public void vectorOverlapTest() {
+    	TokenDictionary dictionary = new TokenDictionary();
+    	List<List<String>> lists = Arrays.asList(s1, s2, s3);
+    	for (VectorOverlapStrategy v : new VectorOverlapStrategy[] {
+    			new PairedOverlap(), new SetOverlap(), new DotProduct() }) {
+    		for (List<String> l1 : lists) {
+    			for (List<String> l2 : lists) {
+    				TokenVector v1 = dictionary.encode(l1);
+    				TokenVector v2 = dictionary.encode(l2);
+    				assertEquals(v.overlap(l1, l2), v.overlap(v1, v2), DELTA);
+    			}
+    		}
+    	}
+    }
 }
@@ -18,24 +18,27 @@
 
 package de.tudarmstadt.ukp.dkpro.wsd.linkbased.algorithm;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import org.apache.commons.collections.ListUtils;
 import org.apache.log4j.Logger;
 
 import de.tudarmstadt.ukp.dkpro.wsd.algorithm.AbstractWSDAlgorithm;
 import de.tudarmstadt.ukp.dkpro.wsd.algorithm.WSDAlgorithmCollectiveBasic;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventory;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
-import de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.LinkDatabaseInventoryResource;
+import de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.LinkDatabase;
+import de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.util.MilneWittenRelatedness;
 
 /**
- * An disambiguation algorithm based on the relatedness of two links, which is based on the formula by Milne &amp; Witten
+ * An disambiguation algorithm based on the relatedness of two links, which is based on the formula by Milne &amp; Witten.
+ * The shared incoming links of all candidates of a document are counted at once with {@link MilneWittenRelatedness}.
  *
  * @author nico.erbs@gmail.com
  *
@@ -50,9 +53,37 @@ public class WikipediaRelatednessMethod extends AbstractWSDAlgorithm implements
     private final static Logger logger = Logger
 			.getLogger(WikipediaRelatednessMethod.class.getName());
 
-	private final Map<String,List<String>> incomingLinksList = new HashMap<String,List<String>>();
+	public static final int DEFAULT_MAX_ARTICLES = 10000;
 
-	private Set<String> possibleCandidates;
+	private int maxArticles = DEFAULT_MAX_ARTICLES;
+
+	/** The sorted IDs of the pages linking to a candidate, by least recent use */
+	@SuppressWarnings("serial")
+	private final Map<String,int[]> incomingLinkIds = new LinkedHashMap<String,int[]>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String,int[]> eldest) {
+			return size() > maxArticles;
+		}
+	};
+
+	private MilneWittenRelatedness relatedness;
+
+	private boolean parallel = false;
+
+	/**
+	 * @param maxArticles the maximum number of candidates whose incoming link IDs are kept in memory,
+	 * by default {@link #DEFAULT_MAX_ARTICLES}
+	 */
+	public void setMaxArticles(int maxArticles) {
+		this.maxArticles = maxArticles;
+	}
+
+	/**
+	 * @param parallel whether the shared links of the candidates are counted in parallel
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
 
 	@Override
 	public Map<String, Map<String, Double>> getDisambiguation(Collection<String> sods)
@@ -60,7 +91,7 @@ public class WikipediaRelatednessMethod extends AbstractWSDAlgorithm implements
 		Map<String, Map<String, Double>> disambiguationResults = new HashMap<String, Map<String, Double>>();
 
 		logger.info("Get all possible senses");
-		possibleCandidates = new HashSet<String>();
+		Set<String> possibleCandidates = new HashSet<String>();
 		List<String> senses;
 		HashMap<String,Double> disambiguations;
 		for(String sod : sods){
@@ -77,48 +108,45 @@ public class WikipediaRelatednessMethod extends AbstractWSDAlgorithm implements
 
 		logger.info("Computing incoming links");
 
-		for(String candidate : possibleCandidates){
-			logger.info("Compute incoming links for " + candidate);
-			if(!incomingLinksList.containsKey(candidate)){
-				incomingLinksList.put(candidate, ((LinkDatabaseInventoryResource)inventory).getIncomingLinks(candidate));
+		LinkDatabase linkDatabase = (LinkDatabase) inventory;
+		if(relatedness == null){
+			relatedness = new MilneWittenRelatedness(linkDatabase.getNumberOfSenses());
+		}
+		List<String> candidates = new ArrayList<String>(possibleCandidates);
+		int[][] links = new int[candidates.size()][];
+		for(int i=0; i<links.length; i++){
+			String candidate = candidates.get(i);
+			links[i] = incomingLinkIds.get(candidate);
+			if(links[i] == null){
+				logger.debug("Compute incoming links for " + candidate);
+				links[i] = linkDatabase.getIncomingLinkIds(candidate);
+				incomingLinkIds.put(candidate, links[i]);
 			}
 		}
 
+		logger.info("Computing scores for " + links.length + " candidates");
+		int[][] sharedLinks = MilneWittenRelatedness.countSharedLinks(links, parallel);
+		Map<String,Double> scores = new HashMap<String,Double>();
+		for(int i=0; i<links.length; i++){
+			scores.put(candidates.get(i), computeWikipediaLinkMeasure(i, links, sharedLinks));
+		}
+
 		//create list with disambiguation results
 		for(String sod : disambiguationResults.keySet()){
 			for(String candidate : disambiguationResults.get(sod).keySet()){
-				disambiguationResults.get(sod).put(candidate, computeWikipediaLinkMeasure(candidate));
+				disambiguationResults.get(sod).put(candidate, scores.get(candidate));
 			}
 		}
 
 		return disambiguationResults;
 	}
 
-	private Integer countIncomingSharedLinks(String candidate0,
-			String candidate1) {
-
-		return ListUtils.intersection(
-				incomingLinksList.get(candidate0),
-				incomingLinksList.get(candidate1))
-				.size();
-	}
-
-	private Double computeWikipediaLinkMeasure(String candidate) {
-		logger.info("Computing score for " + candidate);
-
+	private Double computeWikipediaLinkMeasure(int candidate, int[][] links, int[][] sharedLinks) {
 		double relatedness = 0;
-		//start with -1 because a sense own value will be zero
-		int counter = -1;
-		int maxIncomingLinks;
-		int minIncomingLinks;
-		int numberOfSenses = ((LinkDatabaseInventoryResource)inventory).getNumberOfSenses();
-		for(String otherCandidate : possibleCandidates){
-			maxIncomingLinks = Math.max(incomingLinksList.get(candidate).size(), incomingLinksList.get(otherCandidate).size());
-			minIncomingLinks = Math.min(incomingLinksList.get(candidate).size(), incomingLinksList.get(otherCandidate).size());
-			counter++;
-			relatedness +=
-				(Math.log(maxIncomingLinks) - Math.log(countIncomingSharedLinks(candidate, otherCandidate))) /
-				(Math.log(numberOfSenses) - Math.log(minIncomingLinks)) ;
+		//the candidate itself is included, but its own distance will be zero
+		for(int otherCandidate=0; otherCandidate<links.length; otherCandidate++){
+			relatedness += this.relatedness.distance(links[candidate].length,
+					links[otherCandidate].length, sharedLinks[candidate][otherCandidate]);
 		}
 
 		//Formula by Milne & Witten
@@ -126,7 +154,7 @@ public class WikipediaRelatednessMethod extends AbstractWSDAlgorithm implements
 		//			log(max ( A , B )) − log( A ∩ B )
 		//			log( W ) − log(min( A , B ))
 
-		return relatedness/counter;
+		return relatedness/(links.length - 1);
 	}
 
 }
@@ -20,15 +20,16 @@ package de.tudarmstadt.ukp.dkpro.wsd.senseval.reader;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
-import java.util.Iterator;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
 
 import org.apache.uima.collection.CollectionException;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.cas.FSArray;
-import org.dom4j.Element;
-import org.dom4j.Node;
 
 import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Sentence;
+import de.tudarmstadt.ukp.dkpro.wsd.io.reader.XMLStreamUtils;
 import de.tudarmstadt.ukp.dkpro.wsd.type.LexicalItemConstituent;
 import de.tudarmstadt.ukp.dkpro.wsd.type.WSDItem;
 
@@ -44,56 +45,63 @@ public class Semeval1AWReader
     private static final String SENTENCE_ELEMENT_NAME = "sentence";
 	private static final String HEAD_ELEMENT_NAME = "instance";
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public void getNext(JCas jCas)
 		throws IOException, CollectionException
 	{
 		int offset = 0, numSentences = 0;
-		String s = "";
-		Element text = textIterator.next();
-
-		for (Iterator<Element> sentenceIterator = text
-				.elementIterator(SENTENCE_ELEMENT_NAME); sentenceIterator
-				.hasNext();) {
-
-			Element sentence = sentenceIterator.next();
-			Sentence sentenceAnnotation = new Sentence(jCas);
-			sentenceAnnotation.setBegin(offset);
-
-			for (Iterator<Node> nodeIterator = sentence.nodeIterator(); nodeIterator
-					.hasNext();) {
-
-				Node node = nodeIterator.next();
-				String nodeText = node.getText().replace('\n', ' ');
-
-				// If the node is a head, create a LexicalItemConstituent and a
-				// WSDItem
-				if (node.getName() != null && node.getName().equals(HEAD_ELEMENT_NAME)) {
-					Element head = (Element) node;
-					String id = head.attributeValue(ID_ATTRIBUTE_NAME);
-
-					LexicalItemConstituent c = newLexicalItemConstituent(jCas,
-							id, LIC_TYPE_HEAD, offset, nodeText.length());
-					WSDItem w = newWsdItem(jCas, id, LIC_TYPE_HEAD, offset,
-							nodeText.length(), head
-									.attributeValue(POS_ATTRIBUTE_NAME), head
-									.attributeValue(LEMMA_ATTRIBUTE_NAME));
-					w.setConstituents(new FSArray(jCas, 1));
-					w.setConstituents(0, c);
-				}
-				else if (node.getName() != null ){
-					throw new CollectionException("unknown_element",
-							new Object[] { node.getName() });
+		StringBuilder s = new StringBuilder();
+		String textId = corpus.getAttributeValue(null, ID_ATTRIBUTE_NAME);
+
+		try {
+			while (nextElement(SENTENCE_ELEMENT_NAME)) {
+
+				Sentence sentenceAnnotation = new Sentence(jCas);
+				sentenceAnnotation.setBegin(offset);
+
+				for (int event = corpus.next(); event != XMLStreamConstants.END_ELEMENT; event = corpus
+						.next()) {
+
+					String nodeText;
+
+					// If the node is a head, create a LexicalItemConstituent and a
+					// WSDItem
+					if (event == XMLStreamConstants.START_ELEMENT
+							&& corpus.getLocalName().equals(HEAD_ELEMENT_NAME)) {
+						String id = corpus.getAttributeValue(null, ID_ATTRIBUTE_NAME);
+						String pos = corpus.getAttributeValue(null, POS_ATTRIBUTE_NAME);
+						String lemma = corpus.getAttributeValue(null, LEMMA_ATTRIBUTE_NAME);
+						nodeText = XMLStreamUtils.readText(corpus).replace('\n', ' ');
+
+						LexicalItemConstituent c = newLexicalItemConstituent(jCas,
+								id, LIC_TYPE_HEAD, offset, nodeText.length());
+						WSDItem w = newWsdItem(jCas, id, LIC_TYPE_HEAD, offset,
+								nodeText.length(), pos, lemma);
+						w.setConstituents(new FSArray(jCas, 1));
+						w.setConstituents(0, c);
+					}
+					else if (event == XMLStreamConstants.START_ELEMENT) {
+						throw new CollectionException("unknown_element",
+								new Object[] { corpus.getLocalName() });
+					}
+					else if (XMLStreamUtils.isText(event)) {
+						nodeText = corpus.getText().replace('\n', ' ');
+					}
+					else {
+						continue;
+					}
+
+					offset += nodeText.length();
+					s.append(nodeText);
 				}
 
-				offset += nodeText.length();
-				s += nodeText;
+				sentenceAnnotation.setEnd(offset);
+				sentenceAnnotation.addToIndexes();
+				numSentences++;
 			}
-
-			sentenceAnnotation.setEnd(offset);
-			sentenceAnnotation.addToIndexes();
-			numSentences++;
+		}
+		catch (XMLStreamException e) {
+			throw new CollectionException(e);
 		}
 
 		// The Semeval-1 DTD requires each text to have at least one sentence
@@ -102,15 +110,16 @@ public class Semeval1AWReader
                     SENTENCE_ELEMENT_NAME, TEXT_ELEMENT_NAME });
 		}
 
-		jCas.setDocumentText(s);
+		jCas.setDocumentText(s.toString());
 
 		try {
-            setDocumentMetadata(jCas, text.attributeValue(ID_ATTRIBUTE_NAME));
+            setDocumentMetadata(jCas, textId);
         }
         catch (URISyntaxException e) {
             throw new IOException(e);
         }
 
 		textCount++;
+		nextText();
 	}
 }
@@ -21,13 +21,15 @@ package de.tudarmstadt.ukp.dkpro.wsd.senseval.reader;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+
 import org.apache.uima.collection.CollectionException;
 import org.apache.uima.jcas.JCas;
-import org.dom4j.Element;
-import org.dom4j.Node;
+
+import de.tudarmstadt.ukp.dkpro.wsd.io.reader.XMLStreamUtils;
 
 import de.tudarmstadt.ukp.dkpro.wsd.type.LexicalItemConstituent;
 import de.tudarmstadt.ukp.dkpro.wsd.type.WSDItem;
@@ -43,74 +45,83 @@ public class Senseval2AWReader
 {
 	private static final String HEAD_ELEMENT_NAME = "head";
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public void getNext(JCas jCas)
 		throws IOException, CollectionException
 	{
 		int offset = 0;
-		String s = "";
-		Element text = textIterator.next();
+		StringBuilder s = new StringBuilder();
+		String textId = corpus.getAttributeValue(null, ID_ATTRIBUTE_NAME);
 
 		Map<String, WSDItem> wsdItems = new HashMap<String, WSDItem>();
 		Map<String, LexicalItemConstituent> lics = new HashMap<String, LexicalItemConstituent>();
 		Map<String, String> sats = new HashMap<String, String>();
 
-        // Loop over all nodes to get the document text in order
-		for (Iterator<Node> nodeIterator = text.nodeIterator(); nodeIterator.hasNext();) {
-
-			Node node = nodeIterator.next();
-			String nodeText = node.getText().replace('\n', ' ');
-			String nodeName = node.getName();
-
-			if (nodeName == null) {
-                offset += nodeText.length();
-                s += nodeText;
-                continue;
-			}
-
-			// If the node is a satellite, create a LexicalItemConstituent
-			if (nodeName.equals(SATELLITE_ELEMENT_NAME)) {
-				String id = ((Element)node).attributeValue(ID_ATTRIBUTE_NAME);
-				LexicalItemConstituent lic = newLexicalItemConstituent(jCas, id, LIC_TYPE_SATELLITE, offset, nodeText.length());
-				lics.put(id, lic);
-			}
-
-			// If the node is a head, create a LexicalItemConstituent and a WSDItem
-			else if (nodeName.equals(HEAD_ELEMENT_NAME)) {
-				Element head = (Element) node;
-				String id = head.attributeValue(ID_ATTRIBUTE_NAME);
-				String satellites = head.attributeValue(SATELLITES_ATTRIBUTE_NAME);
-
-				lics.put(id, newLexicalItemConstituent(jCas, id, LIC_TYPE_HEAD, offset, nodeText.length()));
-                WSDItem wsdItem = newWsdItem(jCas, id, LIC_TYPE_HEAD, offset, nodeText.length(),  null, nodeText);
-				wsdItems.put(id, wsdItem);
-
-				if (satellites != null) {
-                    sats.put(id, satellites);
-                }
-			}
-
-			// If the node is any other element, something is wrong
-			else if (node.getNodeTypeName().equals("Entity") == false) {
-				throw new CollectionException("unknown_element", new Object[]{node.getName()});
+		try {
+			// Loop over all nodes to get the document text in order
+			for (int event = corpus.next(); event != XMLStreamConstants.END_ELEMENT; event = corpus.next()) {
+
+				if (XMLStreamUtils.isText(event)) {
+					String nodeText = corpus.getText().replace('\n', ' ');
+					offset += nodeText.length();
+					s.append(nodeText);
+					continue;
+				}
+				if (event != XMLStreamConstants.START_ELEMENT) {
+					continue;
+				}
+
+				String nodeName = corpus.getLocalName();
+				String nodeText;
+
+				// If the node is a satellite, create a LexicalItemConstituent
+				if (nodeName.equals(SATELLITE_ELEMENT_NAME)) {
+					String id = corpus.getAttributeValue(null, ID_ATTRIBUTE_NAME);
+					nodeText = XMLStreamUtils.readText(corpus).replace('\n', ' ');
+					LexicalItemConstituent lic = newLexicalItemConstituent(jCas, id, LIC_TYPE_SATELLITE, offset, nodeText.length());
+					lics.put(id, lic);
+				}
+
+				// If the node is a head, create a LexicalItemConstituent and a WSDItem
+				else if (nodeName.equals(HEAD_ELEMENT_NAME)) {
+					String id = corpus.getAttributeValue(null, ID_ATTRIBUTE_NAME);
+					String satellites = corpus.getAttributeValue(null, SATELLITES_ATTRIBUTE_NAME);
+					nodeText = XMLStreamUtils.readText(corpus).replace('\n', ' ');
+
+					lics.put(id, newLexicalItemConstituent(jCas, id, LIC_TYPE_HEAD, offset, nodeText.length()));
+					WSDItem wsdItem = newWsdItem(jCas, id, LIC_TYPE_HEAD, offset, nodeText.length(),  null, nodeText);
+					wsdItems.put(id, wsdItem);
+
+					if (satellites != null) {
+						sats.put(id, satellites);
+					}
+				}
+
+				// If the node is any other element, something is wrong
+				else {
+					throw new CollectionException("unknown_element", new Object[]{nodeName});
+				}
+
+				offset += nodeText.length();
+				s.append(nodeText);
 			}
-
-			offset += nodeText.length();
-			s += nodeText;
+		}
+		catch (XMLStreamException e) {
+			throw new CollectionException(e);
 		}
 
 		populateLexicalItemConstituents(jCas, wsdItems, lics, sats);
 
-		jCas.setDocumentText(s);
+		jCas.setDocumentText(s.toString());
 
 		try {
-            setDocumentMetadata(jCas, text.attributeValue(ID_ATTRIBUTE_NAME));
+            setDocumentMetadata(jCas, textId);
         }
         catch (URISyntaxException e) {
             throw new IOException(e);
         }
 
         textCount++;
+        nextText();
 	}
 }
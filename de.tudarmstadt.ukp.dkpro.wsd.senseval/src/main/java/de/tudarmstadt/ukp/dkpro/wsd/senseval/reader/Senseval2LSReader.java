@@ -21,19 +21,20 @@ package de.tudarmstadt.ukp.dkpro.wsd.senseval.reader;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+
 import org.apache.uima.UimaContext;
 import org.apache.uima.collection.CollectionException;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
-import org.dom4j.Element;
-import org.dom4j.Node;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
 
+import de.tudarmstadt.ukp.dkpro.wsd.io.reader.XMLStreamUtils;
 import de.tudarmstadt.ukp.dkpro.wsd.type.LexicalItemConstituent;
 import de.tudarmstadt.ukp.dkpro.wsd.type.WSDItem;
 
@@ -70,28 +71,66 @@ public class Senseval2LSReader
     private String lexeltPOS;
     private String lexeltLemma;
     private static final Pattern lexeltPattern = Pattern.compile("(.*)\\.(.)$");
-    private Element lexelt;
-    private Iterator<Element> lexeltIterator, instanceIterator;
+    private int lexeltCount;
+    private boolean hasNextInstance;
 
-    @SuppressWarnings("unchecked")
     @Override
     public void initialize(UimaContext context)
         throws ResourceInitializationException
     {
         super.initialize(context);
 
-        numTexts = corpus.elements(LEXELT_ELEMENT_NAME).size();
+        numTexts = countCorpusElements(LEXELT_ELEMENT_NAME);
         if (numTexts < 1) {
             throw new ResourceInitializationException("element_not_found",
                     new Object[] { LEXELT_ELEMENT_NAME, CORPUS_ELEMENT_NAME });
         }
 
         // Find the first <instance> of the first <lexelt>
-        lexeltIterator = corpus.elementIterator(LEXELT_ELEMENT_NAME);
-        lexelt = lexeltIterator.next();
-        lexeltPOS = getLexeltPOS(lexelt.attributeValue(ITEM_ATTRIBUTE_NAME));
-        lexeltLemma = getLexeltLemma(lexelt.attributeValue(ITEM_ATTRIBUTE_NAME));
-        instanceIterator = lexelt.elementIterator(INSTANCE_ELEMENT_NAME);
+        lexeltCount = 0;
+        try {
+            hasNextInstance = nextLexelt() && nextInstance();
+        }
+        catch (CollectionException e) {
+            throw new ResourceInitializationException(e);
+        }
+    }
+
+    /**
+     * Advances the parser to the start of the next &lt;lexelt&gt;.
+     *
+     * @return false if there are no more &lt;lexelt&gt;s
+     */
+    private boolean nextLexelt()
+        throws CollectionException
+    {
+        if (nextElement(LEXELT_ELEMENT_NAME) == false) {
+            return false;
+        }
+        String item = corpus.getAttributeValue(null, ITEM_ATTRIBUTE_NAME);
+        lexeltPOS = getLexeltPOS(item,
+                corpus.getAttributeValue(null, POS_ATTRIBUTE_NAME));
+        lexeltLemma = getLexeltLemma(item);
+        lexeltCount++;
+        return true;
+    }
+
+    /**
+     * Advances the parser to the start of the next &lt;instance&gt;, getting
+     * the next &lt;lexelt&gt; if there are no more &lt;instance&gt;s in this
+     * one.
+     *
+     * @return false if there are no more &lt;instance&gt;s
+     */
+    private boolean nextInstance()
+        throws CollectionException
+    {
+        while (nextElement(INSTANCE_ELEMENT_NAME) == false) {
+            if (nextLexelt() == false) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private String getLexeltLemma(String item)
@@ -105,9 +144,8 @@ public class Senseval2LSReader
         return null;
     }
 
-    private String getLexeltPOS(String item)
+    private String getLexeltPOS(String item, String pos)
     {
-        String pos = lexelt.attributeValue(POS_ATTRIBUTE_NAME);
         if ((pos == null || pos.equals(POS_ATTRIBUTE_UNKNOWN_VALUE))
                 && guessPOS == true) {
             Matcher m = lexeltPattern.matcher(item);
@@ -118,108 +156,114 @@ public class Senseval2LSReader
         return pos;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void getNext(JCas jCas)
         throws IOException, CollectionException
     {
-        // If there are no more <instance>s in this <lexelt>, get the next
-        // <lexelt>
-        if (instanceIterator.hasNext() == false) {
-            lexelt = lexeltIterator.next();
-            lexeltPOS = getLexeltPOS(lexelt.attributeValue(ITEM_ATTRIBUTE_NAME));
-            lexeltLemma = getLexeltLemma(lexelt
-                    .attributeValue(ITEM_ATTRIBUTE_NAME));
-            textCount++;
-            instanceIterator = lexelt.elementIterator(INSTANCE_ELEMENT_NAME);
-        }
+        // The progress counts the <lexelt>s before the current one
+        textCount = lexeltCount - 1;
 
-        Element instance = instanceIterator.next();
-        Element context = instance.element(CONTEXT_ELEMENT_NAME);
+        String instanceId = corpus.getAttributeValue(null, ID_ATTRIBUTE_NAME);
+        if (nextElement(CONTEXT_ELEMENT_NAME) == false) {
+            throw new CollectionException("element_not_found", new Object[] {
+                    CONTEXT_ELEMENT_NAME, INSTANCE_ELEMENT_NAME });
+        }
         int offset = 0;
-        String s = "";
+        StringBuilder s = new StringBuilder();
         Map<String, WSDItem> wsdItems = new HashMap<String, WSDItem>();
         Map<String, LexicalItemConstituent> lics = new HashMap<String, LexicalItemConstituent>();
         Map<String, String> sats = new HashMap<String, String>();
 
-        // Loop over all nodes to get the document text in order
-        for (Iterator<Node> nodeIterator = context.nodeIterator(); nodeIterator
-                .hasNext();) {
+        try {
+            // Loop over all nodes to get the document text in order
+            for (int event = corpus.next(); event != XMLStreamConstants.END_ELEMENT; event = corpus
+                    .next()) {
 
-            Node node = nodeIterator.next();
-            String nodeText = node.getText().replace('\n', ' ');
-            String nodeName = node.getName();
+                if (XMLStreamUtils.isText(event)) {
+                    String nodeText = corpus.getText().replace('\n', ' ');
+                    offset += nodeText.length();
+                    s.append(nodeText);
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
 
-            if (nodeName == null) {
-                offset += nodeText.length();
-                s += nodeText;
-                continue;
-            }
+                String nodeName = corpus.getLocalName();
+                String nodeText;
 
-            // If the node is a satellite, create a LexicalItemConstituent
-            if (nodeName.equals(SATELLITE_ELEMENT_NAME)) {
-                String id = ((Element) node).attributeValue(ID_ATTRIBUTE_NAME);
-                lics.put(
-                        id,
-                        newLexicalItemConstituent(jCas, id, LIC_TYPE_SATELLITE,
-                                offset, nodeText.length()));
-            }
+                // If the node is a satellite, create a LexicalItemConstituent
+                if (nodeName.equals(SATELLITE_ELEMENT_NAME)) {
+                    String id = corpus.getAttributeValue(null,
+                            ID_ATTRIBUTE_NAME);
+                    nodeText = XMLStreamUtils.readText(corpus).replace('\n',
+                            ' ');
+                    lics.put(
+                            id,
+                            newLexicalItemConstituent(jCas, id,
+                                    LIC_TYPE_SATELLITE, offset,
+                                    nodeText.length()));
+                }
+
+                // If the node is a head, create a LexicalItemConstituent and a
+                // WSDItem
+                else if (nodeName.equals(HEAD_ELEMENT_NAME)) {
+                    String id = instanceId;
+                    String satellites = corpus.getAttributeValue(null,
+                            SATELLITES_ATTRIBUTE_NAME);
+                    nodeText = XMLStreamUtils.readText(corpus).replace('\n',
+                            ' ');
+
+                    lics.put(
+                            id,
+                            newLexicalItemConstituent(jCas, id, LIC_TYPE_HEAD,
+                                    offset, nodeText.length()));
+                    wsdItems.put(
+                            id,
+                            newWsdItem(jCas, id, LIC_TYPE_HEAD, offset,
+                                    nodeText.length(), lexeltPOS, lexeltLemma));
 
-            // If the node is a head, create a LexicalItemConstituent and a
-            // WSDItem
-            else if (nodeName.equals(HEAD_ELEMENT_NAME)) {
-                String id = instance.attributeValue(ID_ATTRIBUTE_NAME);
-                String satellites = ((Element) node)
-                        .attributeValue(SATELLITES_ATTRIBUTE_NAME);
-
-                lics.put(
-                        id,
-                        newLexicalItemConstituent(jCas, id, LIC_TYPE_HEAD,
-                                offset, nodeText.length()));
-                wsdItems.put(
-                        id,
-                        newWsdItem(jCas, id, LIC_TYPE_HEAD, offset,
-                                nodeText.length(), lexeltPOS, lexeltLemma));
-
-                if (satellites != null) {
-                    sats.put(id, satellites);
+                    if (satellites != null) {
+                        sats.put(id, satellites);
+                    }
+                }
+
+                // If the node is any other element, something is wrong
+                else {
+                    throw new CollectionException("unknown_element",
+                            new Object[] { nodeName });
                 }
-            }
 
-            // If the node is any other element, something is wrong
-            else if (node.getNodeTypeName().equals("Entity") == false) {
-                throw new CollectionException("unknown_element",
-                        new Object[] { node.getName() });
+                offset += nodeText.length();
+                s.append(nodeText);
             }
 
-            offset += nodeText.length();
-            s += nodeText;
+            // Skip the rest of the <instance>
+            XMLStreamUtils.skipElement(corpus);
+        }
+        catch (XMLStreamException e) {
+            throw new CollectionException(e);
         }
 
         populateLexicalItemConstituents(jCas, wsdItems, lics, sats);
 
-        jCas.setDocumentText(s);
+        jCas.setDocumentText(s.toString());
 
         try {
-            setDocumentMetadata(jCas,
-                    instance.attributeValue(ID_ATTRIBUTE_NAME));
+            setDocumentMetadata(jCas, instanceId);
         }
         catch (URISyntaxException e) {
             throw new IOException(e);
         }
 
+        hasNextInstance = nextInstance();
     }
 
     @Override
     public boolean hasNext()
         throws IOException, CollectionException
     {
-        if (instanceIterator.hasNext()) {
-            return true;
-        }
-        else {
-            return lexeltIterator.hasNext();
-        }
+        return hasNextInstance;
     }
 
 }
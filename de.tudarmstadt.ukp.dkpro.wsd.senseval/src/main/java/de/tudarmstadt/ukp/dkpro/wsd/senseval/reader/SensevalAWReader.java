@@ -19,14 +19,11 @@
 package de.tudarmstadt.ukp.dkpro.wsd.senseval.reader;
 
 import java.io.IOException;
-import java.util.Iterator;
 
 import org.apache.uima.UimaContext;
 import org.apache.uima.collection.CollectionException;
 import org.apache.uima.resource.ResourceInitializationException;
 
-import org.dom4j.Element;
-
 /**
  * SensevalAWReader is the abstract base class for all collection readers
  * which read the XML data sets for the Senseval and Semeval all-words
@@ -38,25 +35,39 @@ public abstract class SensevalAWReader
 	extends SensevalReader
 {
 	protected static final String TEXT_ELEMENT_NAME = "text";
-	protected Iterator<Element> textIterator;
+	private boolean hasNextText;
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public void initialize(UimaContext context)
 		throws ResourceInitializationException
 	{
 		super.initialize(context);
-		numTexts = corpus.elements(TEXT_ELEMENT_NAME).size();
+		numTexts = countCorpusElements(TEXT_ELEMENT_NAME);
 		if (numTexts < 1)
 			throw new ResourceInitializationException("element_not_found", new Object[]{TEXT_ELEMENT_NAME, CORPUS_ELEMENT_NAME});
-		textIterator = corpus.elementIterator(TEXT_ELEMENT_NAME);
+		try {
+			hasNextText = nextElement(TEXT_ELEMENT_NAME);
+		}
+		catch (CollectionException e) {
+			throw new ResourceInitializationException(e);
+		}
 	}
 
 	@Override
 	public boolean hasNext()
 		throws IOException, CollectionException
 	{
-		return textIterator.hasNext();
+		return hasNextText;
+	}
+
+	/**
+	 * Advances the parser from the end of the current text to the start of
+	 * the next one.  Subclasses call this at the end of getNext().
+	 */
+	protected void nextText()
+		throws CollectionException
+	{
+		hasNextText = nextElement(TEXT_ELEMENT_NAME);
 	}
 	
 }
@@ -20,11 +20,13 @@ package de.tudarmstadt.ukp.dkpro.wsd.senseval.reader;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringReader;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Map;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import org.apache.commons.io.IOUtils;
 import org.apache.uima.UimaContext;
 import org.apache.uima.collection.CollectionException;
@@ -33,17 +35,12 @@ import org.apache.uima.jcas.cas.FSArray;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.util.Progress;
 import org.apache.uima.util.ProgressImpl;
-import org.dom4j.Document;
-import org.dom4j.DocumentException;
-import org.dom4j.Element;
-import org.dom4j.io.SAXReader;
 import org.apache.uima.fit.component.JCasCollectionReader_ImplBase;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
-import org.xml.sax.EntityResolver;
-import org.xml.sax.InputSource;
 
 import de.tudarmstadt.ukp.dkpro.core.api.metadata.type.DocumentMetaData;
 import de.tudarmstadt.ukp.dkpro.core.api.resources.ResourceUtils;
+import de.tudarmstadt.ukp.dkpro.wsd.io.reader.XMLStreamUtils;
 import de.tudarmstadt.ukp.dkpro.wsd.si.POS;
 import de.tudarmstadt.ukp.dkpro.wsd.type.LexicalItemConstituent;
 import de.tudarmstadt.ukp.dkpro.wsd.type.WSDItem;
@@ -51,7 +48,8 @@ import de.tudarmstadt.ukp.dkpro.wsd.type.WSDItem;
 /**
  * SensevalReader is the abstract base class for all collection readers which
  * read the XML data sets for the Senseval and Semeval all-words and lexical
- * sample tasks.
+ * sample tasks. The file is streamed with an {@link XMLStreamReader}, so
+ * that only the text or instance currently read is held in memory.
  *
  * @author <a href="mailto:miller@ukp.informatik.tu-darmstadt.de">Tristan Miller</a>
  */
@@ -79,7 +77,10 @@ public abstract class SensevalReader
     protected static final String SATELLITES_ATTRIBUTE_NAME = "sats";
     protected static final String LEMMA_ATTRIBUTE_NAME = "lemma";
 
-    protected Element corpus;
+    /** The parser, positioned within the (root) corpus element */
+    protected XMLStreamReader corpus;
+    private InputStream corpusStream;
+    protected String language;
     protected int textCount, numTexts;
 
     @Override
@@ -90,65 +91,111 @@ public abstract class SensevalReader
 
         textCount = 0;
 
-        // EntityResolver resolver = new EntityResolver() {
-        // public InputSource resolveEntity(String publicId, String systemId) {
-        // try {
-        // URL url;
-        // if (publicId == null) {
-        // url = ResourceUtils.resolveLocation(systemId, this, null);
-        // }
-        // else {
-        // url = ResourceUtils.resolveLocation(publicId, this, null);
-        // }
-        // return new InputSource(url.openStream());
-        // } catch (IOException e) {
-        // e.printStackTrace();
-        // return null;
-        // }
-        // }
-        // };
-        Document documentCollection = null;
-        SAXReader reader = new SAXReader();
+        // External DTDs are ignored by the parsers from XMLStreamUtils.  As
+        // before with the SAXReader, this prevents the XML files from being
+        // validated, but works whether the DTDs are in a directory or in a
+        // JAR.
+        try {
+            fileURL = ResourceUtils.resolveLocation(fileName, this, context);
+            corpusStream = fileURL.openStream();
+            corpus = openCorpus(corpusStream);
+        }
+        catch (XMLStreamException e) {
+            IOUtils.closeQuietly(corpusStream);
+            throw new ResourceInitializationException(e);
+        }
+        catch (ResourceInitializationException e) {
+            IOUtils.closeQuietly(corpusStream);
+            throw e;
+        }
+        catch (IOException e) {
+            throw new ResourceInitializationException(e);
+        }
+        language = corpus.getAttributeValue(null, LANG_ATTRIBUTE_NAME);
+    }
 
-        // TODO: We can't figure out how to get the XML parser to read DTDs in
-        // all cases (i.e., whether they are in a directory or in a JAR) so the
-        // following code just forces the SAXReader to ignore DTDs.  This is
-        // not an optimal solution as it prevents the XML files from being
-        // validated.
-        EntityResolver resolver = new EntityResolver() {
-            @Override
-            public InputSource resolveEntity(String publicId, String systemId) {
-                return new InputSource(new StringReader(""));
-            }
-        };
-        reader.setEntityResolver(resolver);
+    /**
+     * Opens the corpus element of the file.
+     *
+     * @param is
+     *            The XML file.
+     * @return A parser positioned on the start of the corpus element.
+     */
+    private XMLStreamReader openCorpus(InputStream is)
+        throws XMLStreamException, ResourceInitializationException
+    {
+        XMLStreamReader reader = XMLStreamUtils.openRootElement(is);
+        if (reader.getLocalName().equals(CORPUS_ELEMENT_NAME) == false) {
+            throw new ResourceInitializationException("unknown_element",
+                    new Object[] { reader.getLocalName() });
+        }
+        return reader;
+    }
 
+    /**
+     * Counts the children of the corpus element with the given name in a
+     * separate pass over the file, so that the progress can be reported
+     * without keeping the whole file in memory.
+     *
+     * @param elementName
+     *            The name of the elements to count.
+     * @return The number of elements.
+     */
+    protected int countCorpusElements(String elementName)
+        throws ResourceInitializationException
+    {
         InputStream is = null;
+        XMLStreamReader reader = null;
         try {
-            fileURL = ResourceUtils.resolveLocation(fileName, this, context);
             is = fileURL.openStream();
-            // The following line fails on Jenkins but not locally
-            // documentCollection = reader.read(fileURL.getFile());
-            documentCollection = reader.read(is);
+            reader = openCorpus(is);
+            int count = 0;
+            while (XMLStreamUtils.nextElement(reader, elementName)) {
+                XMLStreamUtils.skipElement(reader);
+                count++;
+            }
+            return count;
         }
-        catch (DocumentException e) {
+        catch (XMLStreamException e) {
             throw new ResourceInitializationException(e);
         }
         catch (IOException e) {
             throw new ResourceInitializationException(e);
         }
         finally {
+            XMLStreamUtils.closeQuietly(reader);
             IOUtils.closeQuietly(is);
         }
+    }
 
-        // Get the (root) corpus element so we can iterate over its elements
-        corpus = documentCollection.getRootElement();
-        if (corpus.getName().equals(CORPUS_ELEMENT_NAME) == false) {
-            throw new ResourceInitializationException("unknown_element",
-                    new Object[] { corpus.getName() });
+    /**
+     * Advances the parser to the next child of the current element with the
+     * given name.
+     *
+     * @return true if there is such a child, false if the parser reached the
+     *         end of the current element
+     * @see XMLStreamUtils#nextElement(XMLStreamReader, String)
+     */
+    protected boolean nextElement(String elementName)
+        throws CollectionException
+    {
+        try {
+            return XMLStreamUtils.nextElement(corpus, elementName);
+        }
+        catch (XMLStreamException e) {
+            throw new CollectionException(e);
         }
     }
 
+    @Override
+    public void close()
+        throws IOException
+    {
+        XMLStreamUtils.closeQuietly(corpus);
+        IOUtils.closeQuietly(corpusStream);
+        super.close();
+    }
+
     @Override
     public Progress[] getProgress()
     {
@@ -172,8 +219,8 @@ public abstract class SensevalReader
         docMetaData.setDocumentUri(fileURL.toURI().toString() + "#"
                 + documentId);
         docMetaData.setCollectionId(fileURL.toURI().toString());
-        docMetaData.setLanguage(corpus.attributeValue(LANG_ATTRIBUTE_NAME));
-        jCas.setDocumentLanguage(corpus.attributeValue(LANG_ATTRIBUTE_NAME));
+        docMetaData.setLanguage(language);
+        jCas.setDocumentLanguage(language);
     }
 
     /**
@@ -28,6 +28,7 @@ import org.apache.uima.collection.CollectionReader;
 import org.apache.uima.fit.pipeline.JCasIterator;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
+import org.apache.uima.util.Progress;
 import org.junit.Test;
 
 import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Sentence;
@@ -55,6 +56,7 @@ public class Semeval1AWReaderTest
 		JCas j = i.next();
 		assertEquals(" Eggs looked like food . ", j.getDocumentText());
 		assertEquals("en", j.getDocumentLanguage());
+		assertProgress(reader, 1, 2);
 
 		s = JCasUtil.selectByIndex(j, Sentence.class, 0);
 		assertEquals(" Eggs looked like food . ", s.getCoveredText());
@@ -86,7 +88,15 @@ public class Semeval1AWReaderTest
 		j = i.next();
 		assertEquals(" Hello .  He is good . ", j.getDocumentText());
 		assertEquals("en", j.getDocumentLanguage());
+		assertProgress(reader, 2, 2);
 
 		assertFalse(i.hasNext());
 	}
+
+	private void assertProgress(CollectionReader reader, long completed, long total)
+	{
+		Progress progress = reader.getProgress()[0];
+		assertEquals(completed, progress.getCompleted());
+		assertEquals(total, progress.getTotal());
+	}
 }
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.senseval.reader;
+
+import static org.apache.uima.fit.factory.CollectionReaderFactory.createReader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.uima.cas.ArrayFS;
+import org.apache.uima.cas.CommonArrayFS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.fit.pipeline.JCasIterator;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.junit.Test;
+
+/**
+ * Checks that the StAX-based readers produce the same CASes as the former
+ * DOM-based readers on the sample corpora.
+ */
+public class StreamingReaderTest
+{
+    @Test
+    public void testSenseval2LSReader()
+        throws Exception
+    {
+        for (boolean guess : new boolean[] { false, true }) {
+            assertSameCases(
+                    createReader(DomSenseval2LSReader.class,
+                            DomSenseval2LSReader.PARAM_FILE,
+                            "classpath:/senseval/senseval2ls.xml",
+                            DomSenseval2LSReader.PARAM_GUESS_POS, guess,
+                            DomSenseval2LSReader.PARAM_GUESS_LEMMA, guess),
+                    createReader(Senseval2LSReader.class,
+                            Senseval2LSReader.PARAM_FILE,
+                            "classpath:/senseval/senseval2ls.xml",
+                            Senseval2LSReader.PARAM_GUESS_POS, guess,
+                            Senseval2LSReader.PARAM_GUESS_LEMMA, guess));
+        }
+    }
+
+    @Test
+    public void testSenseval2AWReader()
+        throws Exception
+    {
+        assertSameCases(
+                createReader(DomSenseval2AWReader.class,
+                        DomSenseval2AWReader.PARAM_FILE,
+                        "classpath:/senseval/senseval2aw.xml"),
+                createReader(Senseval2AWReader.class,
+                        Senseval2AWReader.PARAM_FILE,
+                        "classpath:/senseval/senseval2aw.xml"));
+    }
+
+    @Test
+    public void testSemeval1AWReader()
+        throws Exception
+    {
+        assertSameCases(
+                createReader(DomSemeval1AWReader.class,
+                        DomSemeval1AWReader.PARAM_FILE,
+                        "classpath:/senseval/semeval1aw.xml"),
+                createReader(Semeval1AWReader.class,
+                        Semeval1AWReader.PARAM_FILE,
+                        "classpath:/senseval/semeval1aw.xml"));
+    }
+
+    @Test
+    public void testSemeval2AWReader()
+        throws Exception
+    {
+        assertSameCases(
+                createReader(DomSemeval2AWReader.class,
+                        DomSemeval2AWReader.PARAM_FILE,
+                        "classpath:/senseval/semeval2aw.xml"),
+                createReader(Semeval2AWReader.class,
+                        Semeval2AWReader.PARAM_FILE,
+                        "classpath:/senseval/semeval2aw.xml"));
+    }
+
+    private static void assertSameCases(CollectionReader expected,
+            CollectionReader actual)
+        throws Exception
+    {
+        List<String> expectedCases = dump(expected);
+        assertFalse(expectedCases.isEmpty());
+        assertEquals(expectedCases, dump(actual));
+    }
+
+    /**
+     * @return the text, language and annotations of each CAS of the reader,
+     *         including the elements of their array features
+     */
+    static List<String> dump(CollectionReader reader)
+        throws Exception
+    {
+        List<String> cases = new ArrayList<String>();
+        JCasIterator i = new JCasIterator(reader);
+        while (i.hasNext()) {
+            JCas jcas = i.next();
+            StringBuilder dump = new StringBuilder();
+            dump.append(jcas.getDocumentLanguage()).append('\n');
+            dump.append(jcas.getDocumentText()).append('\n');
+            for (Annotation annotation : jcas.getAnnotationIndex()) {
+                dump.append(annotation).append('\n');
+                for (Feature feature : annotation.getType().getFeatures()) {
+                    if (feature.getRange().isPrimitive()) {
+                        continue;
+                    }
+                    FeatureStructure value = annotation
+                            .getFeatureValue(feature);
+                    if (value instanceof ArrayFS) {
+                        for (FeatureStructure element : ((ArrayFS) value)
+                                .toArray()) {
+                            dump.append(feature.getShortName()).append(": ")
+                                    .append(element).append('\n');
+                        }
+                    }
+                    else if (value instanceof CommonArrayFS) {
+                        dump.append(feature.getShortName())
+                                .append(": ")
+                                .append(Arrays.toString(((CommonArrayFS) value)
+                                        .toStringArray())).append('\n');
+                    }
+                }
+            }
+            cases.add(dump.toString());
+        }
+        return cases;
+    }
+}
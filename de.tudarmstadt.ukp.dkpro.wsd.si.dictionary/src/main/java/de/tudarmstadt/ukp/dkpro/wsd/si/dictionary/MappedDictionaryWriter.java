@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si.dictionary;
+
+import java.io.File;
+
+import de.tudarmstadt.ukp.dkpro.wsd.si.dictionary.util.GoogleDictionary;
+import de.tudarmstadt.ukp.dkpro.wsd.si.dictionary.util.MappedDictionary;
+import de.tudarmstadt.ukp.dkpro.wsd.si.dictionary.util.UkbDictionary;
+
+/**
+ * Compiles a bzip2-compressed UKB or Google dictionary into a
+ * {@link MappedDictionary} file which can be opened with
+ * {@link MappedUkbDictionaryInventory} or
+ * {@link MappedGoogleDictionaryInventory}. If no file of needed mentions is
+ * given, the whole dictionary is compiled.
+ * <p>
+ * Usage: <code>MappedDictionaryWriter ukb|google inputPath outputFile
+ * [neededMentionsPath]</code>
+ *
+ */
+public class MappedDictionaryWriter
+{
+    public static void main(String[] args)
+        throws Exception
+    {
+        if (args.length < 3 || args.length > 4) {
+            System.err
+                    .println("Usage: MappedDictionaryWriter ukb|google inputPath outputFile [neededMentionsPath]");
+            System.exit(1);
+        }
+        String neededMentionsPath = args.length == 4 ? args[3] : null;
+        File file = new File(args[2]);
+        long source = MappedDictionary.source(args[1], neededMentionsPath);
+
+        if (args[0].equals(MappedUkbDictionaryInventory.FORMAT)) {
+            MappedDictionary.write(new UkbDictionary(args[1],
+                    neededMentionsPath), MappedUkbDictionaryInventory.FORMAT,
+                    file, source);
+        }
+        else if (args[0].equals(MappedGoogleDictionaryInventory.FORMAT)) {
+            MappedDictionary.write(new GoogleDictionary(args[1],
+                    neededMentionsPath),
+                    MappedGoogleDictionaryInventory.FORMAT, file, source);
+        }
+        else {
+            throw new IllegalArgumentException("Unknown dictionary format "
+                    + args[0]);
+        }
+        System.out.println("Wrote " + file);
+    }
+}
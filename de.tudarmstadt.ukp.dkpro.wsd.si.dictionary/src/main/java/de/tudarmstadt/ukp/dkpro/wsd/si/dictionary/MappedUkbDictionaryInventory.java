@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si.dictionary;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import de.tudarmstadt.ukp.dkpro.wsd.si.POS;
+import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
+import de.tudarmstadt.ukp.dkpro.wsd.si.dictionary.util.MappedDictionary;
+import de.tudarmstadt.ukp.dkpro.wsd.si.dictionary.util.UkbDictionary;
+
+/**
+ * A UKB dictionary inventory which is memory-mapped from a file compiled by
+ * {@link MappedDictionaryWriter}, instead of being deserialized onto the heap
+ * like {@link UkbDictionaryInventory}.
+ *
+ */
+public class MappedUkbDictionaryInventory
+    implements IUkbDictionary
+{
+    /** The format of mapped UKB dictionaries */
+    public static final String FORMAT = "ukb";
+
+    private final static Logger logger = Logger
+            .getLogger(MappedUkbDictionaryInventory.class.getName());
+
+    private MappedDictionary dictionary;
+
+    /**
+     * Maps a compiled dictionary.
+     *
+     * @param mappedPath
+     *            the path of the compiled dictionary
+     * @throws IOException
+     *             if the file is not a compiled UKB dictionary
+     */
+    public MappedUkbDictionaryInventory(String mappedPath)
+        throws IOException
+    {
+        dictionary = MappedDictionary.map(new File(mappedPath), FORMAT);
+    }
+
+    /**
+     * Maps a compiled dictionary, compiling it first from the UKB
+     * dictionary if it does not exist, is of an older version or was
+     * compiled from a different dictionary or list of needed mentions. The
+     * latter is detected by the modification time and length of the
+     * dictionary file and a checksum of the needed mentions, which are
+     * stored in the compiled file.
+     *
+     * @param inputPath
+     *            the path of the bzip2-compressed UKB dictionary
+     * @param mappedPath
+     *            the path of the compiled dictionary
+     * @param neededMentionsPath
+     *            the path of a file listing the mentions to compile, or null
+     *            to compile all mentions
+     * @throws IOException
+     *             if the dictionary or the needed mentions do not exist or
+     *             cannot be read, or the dictionary cannot be compiled
+     */
+    public MappedUkbDictionaryInventory(String inputPath, String mappedPath,
+            String neededMentionsPath)
+        throws IOException
+    {
+        File file = new File(mappedPath);
+        long source = MappedDictionary.source(inputPath, neededMentionsPath);
+        try {
+            dictionary = MappedDictionary.map(file, FORMAT);
+            if (dictionary.getSource() != source) {
+                logger.info("Dictionary " + mappedPath
+                        + " was not compiled from the current " + inputPath);
+                dictionary = null;
+            }
+        }
+        catch (IOException e) {
+            logger.debug("Cannot map dictionary " + mappedPath + ": "
+                    + e.getMessage());
+        }
+        if (dictionary == null) {
+            logger.debug("Compiling dictionary " + inputPath + " to "
+                    + mappedPath);
+            MappedDictionary.write(new UkbDictionary(inputPath,
+                    neededMentionsPath), FORMAT, file, source);
+            dictionary = MappedDictionary.map(file, FORMAT);
+        }
+    }
+
+    /**
+     * Returns the underlying {@link MappedDictionary} object.
+     *
+     * @return the underlying {@link MappedDictionary} object
+     */
+    public MappedDictionary getUnderlyingResource()
+    {
+        return dictionary;
+    }
+
+    @Override
+    public Map<String, Double> getWeightedSenses(String sod)
+        throws SenseInventoryException
+    {
+        return dictionary.getWeightedSenses(sod);
+    }
+
+    @Override
+    public Map<String, Double> getPopularityWeightedSenses(String sod)
+        throws SenseInventoryException
+    {
+        return dictionary.getPopularityWeightedSenses(sod);
+    }
+
+    @Override
+    public Map<String, Double> getRandomlyWeightedSenses(String sod)
+        throws SenseInventoryException
+    {
+        return dictionary.getRandomlyWeightedSenses(sod);
+    }
+
+    @Override
+    public String getMostFrequentSense(String sod)
+        throws SenseInventoryException, UnsupportedOperationException
+    {
+        return dictionary.getMostFrequentTarget(sod);
+    }
+
+    @Override
+    public String getMostFrequentSense(String sod, POS pos)
+        throws SenseInventoryException, UnsupportedOperationException
+    {
+        return dictionary.getMostFrequentTarget(sod);
+    }
+
+    @Override
+    public String getSenseDescription(String senseId)
+        throws SenseInventoryException
+    {
+        if (dictionary.containsTarget(senseId)) {
+            return "";
+        }
+        else {
+            throw new SenseInventoryException("invalid sense ID " + senseId);
+        }
+    }
+
+    @Override
+    public POS getPos(String senseId)
+        throws SenseInventoryException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<String, List<String>> getSenseInventory()
+        throws SenseInventoryException
+    {
+        return dictionary.getSenseInventory();
+    }
+
+    @Override
+    public String getSenseInventoryName()
+    {
+        return "UkbDict";
+    }
+
+    @Override
+    public List<String> getSenses(String sod)
+        throws SenseInventoryException
+    {
+        return dictionary.getTargets(sod);
+    }
+
+    @Override
+    public List<String> getSenses(String sod, POS pos)
+        throws SenseInventoryException, UnsupportedOperationException
+    {
+        return dictionary.getTargets(sod);
+    }
+
+    @Override
+    public int getUseCount(String senseId)
+        throws SenseInventoryException
+    {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -20,6 +20,7 @@ package de.tudarmstadt.ukp.dkpro.wsd.si.dictionary.util;
 
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -46,6 +47,9 @@ public abstract class AbstractDictionary implements Serializable, Dictionary{
 	protected Map<String,Integer> targetMap;
 
 	protected long mentionEntityPairs = 0;
+
+	/** Normalized weighted senses of each mention, built on first use */
+	private transient volatile Map<String,Map<String, Double>> weightedSenseMap;
 	
 	public Map<String, List<String[]>> getSenseInventory(){
 		return mentionMap;
@@ -75,24 +79,67 @@ public abstract class AbstractDictionary implements Serializable, Dictionary{
 		}
 	}
 
+	/**
+	 * Returns the targets of a mention weighted by their share of the mention's
+	 * total score. Targets scoring at most 1% of the best target are left out.
+	 * <p>
+	 * The weights of all mentions are computed in a single pass on the first
+	 * call, so the returned map is a shared read-only view which callers must
+	 * copy before modifying it.
+	 */
 	public Map<String, Double> getWeightedSenses(String sod) {
-		Map<String, Double> weightedSenses = new HashMap<String, Double>();
+		Map<String, Map<String, Double>> weightedSenses = getWeightedSenseMap();
+		Map<String, Double> senses = weightedSenses.get(convertKey(sod));
+		if(senses != null){
+			return senses;
+		}
+		return Collections.emptyMap();
+	}
+
+	private Map<String, Map<String, Double>> getWeightedSenseMap() {
+		Map<String, Map<String, Double>> weightedSenses = weightedSenseMap;
+		if(weightedSenses == null){
+			synchronized (this) {
+				weightedSenses = weightedSenseMap;
+				if(weightedSenses == null){
+					weightedSenses = new HashMap<String, Map<String, Double>>(
+							mentionMap.size() * 4 / 3 + 1);
+					for(Map.Entry<String, List<String[]>> entry : mentionMap.entrySet()){
+						weightedSenses.put(entry.getKey(),
+								Collections.unmodifiableMap(computeWeightedSenses(entry.getValue())));
+					}
+					weightedSenseMap = weightedSenses;
+				}
+			}
+		}
+		return weightedSenses;
+	}
+
+	private static Map<String, Double> computeWeightedSenses(List<String[]> targetValuePairs) {
+		double[] scores = new double[targetValuePairs.size()];
 		double sum = 0;
 		double max = 0;
-		for(String[] sense : getTargetValuePairs(sod)){
-			sum += Double.valueOf(sense[1]);
-			if(Double.valueOf(sense[1]) > max){
-				max  = Double.valueOf(sense[1]);
+		int i = 0;
+		for(String[] sense : targetValuePairs){
+			scores[i] = Double.parseDouble(sense[1]);
+			sum += scores[i];
+			if(scores[i] > max){
+				max = scores[i];
 			}
+			i++;
 		}
 
-		for(String[] sense : getTargetValuePairs(sod)){
-			if(weightedSenses.containsKey(sense[0])){
-				weightedSenses.put(sense[0], Double.valueOf(sense[1])/sum+weightedSenses.get(sense[0]));
+		Map<String, Double> weightedSenses = new HashMap<String, Double>();
+		i = 0;
+		for(String[] sense : targetValuePairs){
+			double score = scores[i++];
+			Double weight = weightedSenses.get(sense[0]);
+			if(weight != null){
+				weightedSenses.put(sense[0], score/sum+weight);
 			}
 			else{
-				if(Double.valueOf(sense[1])/max > 0.01){
-					weightedSenses.put(sense[0], Double.valueOf(sense[1])/sum);
+				if(score/max > 0.01){
+					weightedSenses.put(sense[0], score/sum);
 				}
 			}
 		}
@@ -189,6 +236,34 @@ public abstract class AbstractDictionary implements Serializable, Dictionary{
 	}
 
 	public static String convertKey(String key){
+		// Plain ASCII keys without escapes only need to be lowercased, which
+		// avoids unescaping, the byte round trip and the regex below
+		boolean converted = true;
+		for(int i = 0; i < key.length(); i++){
+			char c = key.charAt(i);
+			if(c >= 0x80 || c == '\\'){
+				return convertKeySlowly(key);
+			}
+			if(c == ' ' || (c >= 'A' && c <= 'Z')){
+				converted = false;
+			}
+		}
+		if(converted){
+			return key;
+		}
+		char[] chars = key.toCharArray();
+		for(int i = 0; i < chars.length; i++){
+			if(chars[i] == ' '){
+				chars[i] = '_';
+			}
+			else if(chars[i] >= 'A' && chars[i] <= 'Z'){
+				chars[i] += 'a' - 'A';
+			}
+		}
+		return new String(chars);
+	}
+
+	private static String convertKeySlowly(String key){
 		//		key = key.replaceAll("\\u002d", "-");
 		//		key = key.replaceAll("\\u00df", "ß");
 		//		key = key.replaceAll("\\u002c", ",");
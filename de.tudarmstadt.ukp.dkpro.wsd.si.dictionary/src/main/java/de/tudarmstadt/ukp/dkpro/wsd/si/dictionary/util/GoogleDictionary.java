@@ -48,7 +48,9 @@ public class GoogleDictionary extends AbstractDictionary {
 
 	public GoogleDictionary(String path, String neededMentionsPath) throws FileNotFoundException, IOException{
 
-		HashSet<String> neededMentions = new HashSet<String>(FileUtils.readLines(new File(neededMentionsPath)));
+		// Without a list of needed mentions, the whole dictionary is loaded
+		HashSet<String> neededMentions = neededMentionsPath == null ? null
+				: new HashSet<String>(FileUtils.readLines(new File(neededMentionsPath)));
 
 		mentionMap = new HashMap<String,List<String[]>>();
 		targetMap = new HashMap<String,Integer>();
@@ -70,7 +72,7 @@ public class GoogleDictionary extends AbstractDictionary {
 			lineArray = line.split("\t");
 
 			anchor = lineArray[0];
-			if(neededMentions.contains(anchor)){
+			if(neededMentions == null || neededMentions.contains(anchor)){
 				anchor = anchor.replaceAll("\"", "").trim().replaceAll(" ", "_").toLowerCase();
 				score = lineArray[1].split(" ")[0].trim();
 				target = lineArray[1].split(" ")[1].trim();
@@ -0,0 +1,771 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si.dictionary.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * A read-only dictionary which is memory-mapped from a binary file written by
+ * {@link #write(AbstractDictionary, String, File)}. Mentions and targets are
+ * stored as UTF-8 strings and found through open-addressing hash tables,
+ * targets are referenced by int IDs and scores are stored as floats. Nothing
+ * but the file header is read onto the heap, so even very large
+ * dictionaries open instantly, and several processes mapping the same file
+ * share its pages.
+ * <p>
+ * The dictionary behaves like the {@link AbstractDictionary} it was compiled
+ * from. Scores are only kept with float precision, though, so weights
+ * computed from non-integer scores may differ in the last digits.
+ * <p>
+ * Each section of the file is mapped separately and may be at most 2 GB, so
+ * a dictionary may hold up to about 500 million mention-target pairs.
+ * <p>
+ * The header records a fingerprint of the files the dictionary was compiled
+ * from (see {@link #source(String, String)}), so that a compiled file can be
+ * recognized as outdated.
+ *
+ */
+public class MappedDictionary
+    implements Dictionary
+{
+    private static final int MAGIC = 0x57534444;
+    private static final int VERSION = 2;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final String format;
+    private final int mentionCount;
+    private final int targetCount;
+    private final long mentionEntityPairs;
+    private final long source;
+
+    /** Open-addressing hash table mapping mentions to mention IDs plus one */
+    private final IntBuffer mentionIndex;
+    private final IntBuffer mentionOffsets;
+    private final ByteBuffer mentionBytes;
+
+    /** The pairs of mention i are stored at pairOffsets[i] until pairOffsets[i+1] */
+    private final IntBuffer pairOffsets;
+    private final IntBuffer pairTargets;
+    private final FloatBuffer pairScores;
+
+    /** Open-addressing hash table mapping targets to target IDs plus one */
+    private final IntBuffer targetIndex;
+    private final IntBuffer targetOffsets;
+    private final ByteBuffer targetBytes;
+    private final IntBuffer targetPopularity;
+
+    private MappedDictionary(File file, FileChannel channel)
+        throws IOException
+    {
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                Math.min(channel.size(), 4096));
+        if (header.remaining() < 12 || header.getInt() != MAGIC) {
+            throw new IOException(file + " is not a mapped dictionary");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException(file + " has dictionary version " + version
+                    + ", expected " + VERSION);
+        }
+        try {
+            byte[] formatBytes = new byte[header.getInt()];
+            header.get(formatBytes);
+            format = new String(formatBytes, UTF8);
+            header.position((header.position() + 3) & ~3);
+
+            mentionCount = header.getInt();
+            targetCount = header.getInt();
+            int pairCount = header.getInt();
+            int mentionIndexCapacity = header.getInt();
+            int targetIndexCapacity = header.getInt();
+            int mentionByteCount = header.getInt();
+            int targetByteCount = header.getInt();
+            mentionEntityPairs = header.getLong();
+            source = header.getLong();
+
+            Sections sections = new Sections(channel, header.position());
+            mentionIndex = sections.ints(mentionIndexCapacity);
+            mentionOffsets = sections.ints(mentionCount + 1);
+            mentionBytes = sections.bytes(mentionByteCount);
+            pairOffsets = sections.ints(mentionCount + 1);
+            pairTargets = sections.ints(pairCount);
+            pairScores = sections.floats(pairCount);
+            targetIndex = sections.ints(targetIndexCapacity);
+            targetOffsets = sections.ints(targetCount + 1);
+            targetBytes = sections.bytes(targetByteCount);
+            targetPopularity = sections.ints(targetCount);
+        }
+        catch (RuntimeException e) {
+            throw new IOException("Truncated or corrupt dictionary " + file, e);
+        }
+    }
+
+    /**
+     * Memory-maps a dictionary written by
+     * {@link #write(AbstractDictionary, String, File)}.
+     *
+     * @param file
+     *            the dictionary file
+     * @param format
+     *            the format the dictionary must have been written with
+     * @return the mapped dictionary
+     * @throws IOException
+     *             if the file cannot be read, is not a dictionary of the
+     *             current version or was written with a different format
+     */
+    public static MappedDictionary map(File file, String format)
+        throws IOException
+    {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        MappedDictionary dictionary;
+        try {
+            dictionary = new MappedDictionary(file, raf.getChannel());
+        }
+        finally {
+            raf.close();
+        }
+        if (!dictionary.format.equals(format)) {
+            throw new IOException(file + " is a dictionary of format \""
+                    + dictionary.format + "\", expected \"" + format + "\"");
+        }
+        return dictionary;
+    }
+
+    /**
+     * Computes a fingerprint of the files a dictionary is compiled from: the
+     * modification time and length of the dictionary file and a checksum of
+     * the needed mentions.
+     *
+     * @param inputPath
+     *            the path of the dictionary file
+     * @param neededMentionsPath
+     *            the path of a file listing the mentions to compile, or null
+     * @return the fingerprint, which is never 0
+     * @throws IOException
+     *             if a file does not exist or cannot be read
+     */
+    public static long source(String inputPath, String neededMentionsPath)
+        throws IOException
+    {
+        File input = new File(inputPath);
+        if (!input.isFile()) {
+            throw new FileNotFoundException(inputPath);
+        }
+        long source = input.lastModified() * 31 + input.length();
+        if (neededMentionsPath != null) {
+            CRC32 crc = new CRC32();
+            FileInputStream in = new FileInputStream(neededMentionsPath);
+            try {
+                byte[] buffer = new byte[1 << 16];
+                int count;
+                while ((count = in.read(buffer)) != -1) {
+                    crc.update(buffer, 0, count);
+                }
+            }
+            finally {
+                in.close();
+            }
+            source = source * 31 + crc.getValue() + 1;
+        }
+        return source != 0 ? source : 1;
+    }
+
+    /**
+     * Writes a dictionary without a source fingerprint, see
+     * {@link #write(AbstractDictionary, String, File, long)}.
+     *
+     * @param dictionary
+     *            the dictionary to write
+     * @param format
+     *            a string identifying the kind of dictionary, e.g. "ukb"
+     * @param file
+     *            the dictionary file
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public static void write(AbstractDictionary dictionary, String format,
+            File file)
+        throws IOException
+    {
+        write(dictionary, format, file, 0);
+    }
+
+    /**
+     * Writes a dictionary to a file which can be loaded with
+     * {@link #map(File, String)}. Mentions are written in sorted order, and
+     * the targets of each mention in the order of the source dictionary. The
+     * file is written under a temporary name and then renamed, so processes
+     * which have already mapped an older file of the same name are not
+     * affected.
+     *
+     * @param dictionary
+     *            the dictionary to write
+     * @param format
+     *            a string identifying the kind of dictionary, e.g. "ukb"
+     * @param file
+     *            the dictionary file
+     * @param source
+     *            the fingerprint of the files the dictionary was compiled
+     *            from, as computed by {@link #source(String, String)}, or 0
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public static void write(AbstractDictionary dictionary, String format,
+            File file, long source)
+        throws IOException
+    {
+        String[] mentions = dictionary.mentionMap.keySet().toArray(
+                new String[dictionary.mentionMap.size()]);
+        Arrays.sort(mentions);
+
+        checkIntSection(mentions.length + 1L, "Mentions");
+
+        Map<String, Integer> targetIds = new LinkedHashMap<String, Integer>();
+        int[] pairOffsets = new int[mentions.length + 1];
+        long pairCount = 0;
+        for (int i = 0; i < mentions.length; i++) {
+            List<String[]> pairs = dictionary.mentionMap.get(mentions[i]);
+            for (String[] pair : pairs) {
+                if (!targetIds.containsKey(pair[0])) {
+                    targetIds.put(pair[0], targetIds.size());
+                }
+            }
+            pairCount += pairs.size();
+            checkIntSection(pairCount, "Mention-target pairs");
+            pairOffsets[i + 1] = (int) pairCount;
+        }
+        String[] targets = targetIds.keySet().toArray(
+                new String[targetIds.size()]);
+        checkIntSection(targets.length + 1L, "Targets");
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp),
+                            1 << 16));
+            try {
+                byte[][] mentionLabels = encode(mentions);
+                byte[][] targetLabels = encode(targets);
+                int[] mentionIndex = buildIndex(mentions);
+                int[] targetIndex = buildIndex(targets);
+
+                byte[] formatBytes = format.getBytes(UTF8);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(formatBytes.length);
+                out.write(formatBytes);
+                pad(out, formatBytes.length);
+                out.writeInt(mentions.length);
+                out.writeInt(targets.length);
+                out.writeInt(pairOffsets[mentions.length]);
+                out.writeInt(mentionIndex.length);
+                out.writeInt(targetIndex.length);
+                out.writeInt(byteCount(mentionLabels));
+                out.writeInt(byteCount(targetLabels));
+                out.writeLong(dictionary.getNumberOfMentionEntityPairs());
+                out.writeLong(source);
+
+                writeInts(out, mentionIndex);
+                writeLabels(out, mentionLabels);
+                writeInts(out, pairOffsets);
+                for (String mention : mentions) {
+                    for (String[] pair : dictionary.mentionMap.get(mention)) {
+                        out.writeInt(targetIds.get(pair[0]));
+                    }
+                }
+                for (String mention : mentions) {
+                    for (String[] pair : dictionary.mentionMap.get(mention)) {
+                        out.writeFloat(Float.parseFloat(pair[1]));
+                    }
+                }
+                writeInts(out, targetIndex);
+                writeLabels(out, targetLabels);
+                for (String target : targets) {
+                    Integer popularity = dictionary.getTargetPopularity(target);
+                    out.writeInt(popularity != null ? popularity : 0);
+                }
+            }
+            finally {
+                out.close();
+            }
+            Files.move(temp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            temp.delete();
+        }
+    }
+
+    private static int hash(byte[] label)
+    {
+        int h = Arrays.hashCode(label) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static byte[][] encode(String[] labels)
+    {
+        byte[][] encoded = new byte[labels.length][];
+        for (int i = 0; i < labels.length; i++) {
+            encoded[i] = labels[i].getBytes(UTF8);
+        }
+        return encoded;
+    }
+
+    private static int[] buildIndex(String[] labels)
+    {
+        int capacity = 2;
+        while (capacity < labels.length * 2L) {
+            capacity <<= 1;
+        }
+        checkIntSection(capacity, "Hash table");
+        int[] index = new int[capacity];
+        for (int id = 0; id < labels.length; id++) {
+            int slot = hash(labels[id].getBytes(UTF8)) & (capacity - 1);
+            while (index[slot] != 0) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            index[slot] = id + 1;
+        }
+        return index;
+    }
+
+    private static int byteCount(byte[][] labels)
+    {
+        long count = 0;
+        for (byte[] label : labels) {
+            count += label.length;
+        }
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Dictionary strings exceed 2 GB");
+        }
+        return (int) count;
+    }
+
+    /**
+     * Rejects sections of ints which could not be mapped as one buffer
+     */
+    private static void checkIntSection(long length, String name)
+    {
+        if (length * 4 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(name + " exceed 2 GB");
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] ints)
+        throws IOException
+    {
+        for (int i : ints) {
+            out.writeInt(i);
+        }
+    }
+
+    /**
+     * Writes the offsets of the labels followed by their bytes, padded to
+     * a multiple of four
+     */
+    private static void writeLabels(DataOutputStream out, byte[][] labels)
+        throws IOException
+    {
+        int offset = 0;
+        out.writeInt(offset);
+        for (byte[] label : labels) {
+            offset += label.length;
+            out.writeInt(offset);
+        }
+        for (byte[] label : labels) {
+            out.write(label);
+        }
+        pad(out, offset);
+    }
+
+    private static void pad(DataOutputStream out, int length)
+        throws IOException
+    {
+        for (int i = length; i % 4 != 0; i++) {
+            out.writeByte(0);
+        }
+    }
+
+    /**
+     * Maps the consecutive sections of the file, each aligned to four bytes
+     */
+    private static class Sections
+    {
+        private final FileChannel channel;
+        private long position;
+
+        Sections(FileChannel channel, long position)
+        {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        IntBuffer ints(int length)
+            throws IOException
+        {
+            return bytes(length * 4L).asIntBuffer();
+        }
+
+        FloatBuffer floats(int length)
+            throws IOException
+        {
+            return bytes(length * 4L).asFloatBuffer();
+        }
+
+        ByteBuffer bytes(long length)
+            throws IOException
+        {
+            if (length < 0 || length > Integer.MAX_VALUE) {
+                throw new IOException("Invalid section length " + length);
+            }
+            if (position + length > channel.size()) {
+                throw new IOException("Unexpected end of file");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    position, length);
+            position = (position + length + 3) & ~3L;
+            return buffer;
+        }
+    }
+
+    // Lookup
+
+    private static int find(IntBuffer index, IntBuffer offsets,
+            ByteBuffer bytes, byte[] label)
+    {
+        int mask = index.limit() - 1;
+        int slot = hash(label) & mask;
+        int id;
+        while ((id = index.get(slot)) != 0) {
+            if (equals(offsets, bytes, id - 1, label)) {
+                return id - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static boolean equals(IntBuffer offsets, ByteBuffer bytes, int id,
+            byte[] label)
+    {
+        int start = offsets.get(id);
+        if (offsets.get(id + 1) - start != label.length) {
+            return false;
+        }
+        for (int i = 0; i < label.length; i++) {
+            if (bytes.get(start + i) != label[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decode(IntBuffer offsets, ByteBuffer bytes, int id)
+    {
+        int start = offsets.get(id);
+        byte[] label = new byte[offsets.get(id + 1) - start];
+        for (int i = 0; i < label.length; i++) {
+            label[i] = bytes.get(start + i);
+        }
+        return new String(label, UTF8);
+    }
+
+    private int getMentionId(String mention)
+    {
+        return find(mentionIndex, mentionOffsets, mentionBytes,
+                AbstractDictionary.convertKey(mention).getBytes(UTF8));
+    }
+
+    private int getTargetId(String target)
+    {
+        return find(targetIndex, targetOffsets, targetBytes,
+                target.getBytes(UTF8));
+    }
+
+    private String getTarget(int targetId)
+    {
+        return decode(targetOffsets, targetBytes, targetId);
+    }
+
+    /**
+     * @return the format the dictionary was written with
+     */
+    public String getFormat()
+    {
+        return format;
+    }
+
+    /**
+     * @return the fingerprint of the files the dictionary was compiled from,
+     *         or 0 if it was written without one
+     */
+    public long getSource()
+    {
+        return source;
+    }
+
+    /**
+     * Returns the whole dictionary as a map from mentions to their targets.
+     * This reads all of the dictionary onto the heap.
+     */
+    public Map<String, List<String>> getSenseInventory()
+    {
+        Map<String, List<String>> senseInventory = new HashMap<String, List<String>>();
+        for (int i = 0; i < mentionCount; i++) {
+            senseInventory.put(decode(mentionOffsets, mentionBytes, i),
+                    getTargets(i));
+        }
+        return senseInventory;
+    }
+
+    private List<String> getTargets(int mentionId)
+    {
+        int start = pairOffsets.get(mentionId);
+        int end = pairOffsets.get(mentionId + 1);
+        List<String> targets = new ArrayList<String>(end - start);
+        for (int i = start; i < end; i++) {
+            targets.add(getTarget(pairTargets.get(i)));
+        }
+        return targets;
+    }
+
+    @Override
+    public List<String> getTargets(String mention)
+    {
+        int mentionId = getMentionId(mention);
+        if (mentionId < 0) {
+            return new ArrayList<String>();
+        }
+        return getTargets(mentionId);
+    }
+
+    /**
+     * Returns the targets of a mention with their scores. Integral scores
+     * are formatted without a fractional part, as in the source dictionary.
+     */
+    @Override
+    public List<String[]> getTargetValuePairs(String mention)
+    {
+        int mentionId = getMentionId(mention);
+        if (mentionId < 0) {
+            return new ArrayList<String[]>();
+        }
+        int start = pairOffsets.get(mentionId);
+        int end = pairOffsets.get(mentionId + 1);
+        List<String[]> pairs = new ArrayList<String[]>(end - start);
+        for (int i = start; i < end; i++) {
+            float score = pairScores.get(i);
+            pairs.add(new String[] {
+                    getTarget(pairTargets.get(i)),
+                    score == (int) score ? Integer.toString((int) score)
+                            : Float.toString(score) });
+        }
+        return pairs;
+    }
+
+    /**
+     * Returns the targets of a mention weighted by their share of the
+     * mention's total score, as {@link AbstractDictionary#getWeightedSenses}
+     * does. Targets scoring at most 1% of the best target are left out.
+     */
+    public Map<String, Double> getWeightedSenses(String sod)
+    {
+        Map<String, Double> weightedSenses = new HashMap<String, Double>();
+        int mentionId = getMentionId(sod);
+        if (mentionId < 0) {
+            return weightedSenses;
+        }
+        int start = pairOffsets.get(mentionId);
+        int end = pairOffsets.get(mentionId + 1);
+        double sum = 0;
+        double max = 0;
+        for (int i = start; i < end; i++) {
+            double score = pairScores.get(i);
+            sum += score;
+            if (score > max) {
+                max = score;
+            }
+        }
+        for (int i = start; i < end; i++) {
+            double score = pairScores.get(i);
+            String target = getTarget(pairTargets.get(i));
+            Double weight = weightedSenses.get(target);
+            if (weight != null) {
+                weightedSenses.put(target, score / sum + weight);
+            }
+            else if (score / max > 0.01) {
+                weightedSenses.put(target, score / sum);
+            }
+        }
+        return weightedSenses;
+    }
+
+    public Map<String, Double> getPopularityWeightedSenses(String sod)
+    {
+        Map<String, Double> weightedSenses = new HashMap<String, Double>();
+        int mentionId = getMentionId(sod);
+        if (mentionId >= 0) {
+            for (int i = pairOffsets.get(mentionId); i < pairOffsets
+                    .get(mentionId + 1); i++) {
+                int targetId = pairTargets.get(i);
+                weightedSenses.put(getTarget(targetId),
+                        (double) targetPopularity.get(targetId));
+            }
+        }
+        return weightedSenses;
+    }
+
+    public Map<String, Double> getRandomlyWeightedSenses(String sod)
+    {
+        Random random = new Random();
+        Map<String, Double> weightedSenses = new HashMap<String, Double>();
+        for (String target : getTargets(sod)) {
+            weightedSenses.put(target, random.nextDouble());
+        }
+        return weightedSenses;
+    }
+
+    @Override
+    public String getMostFrequentTarget(String mention)
+    {
+        int mentionId = getMentionId(mention);
+        if (mentionId < 0
+                || pairOffsets.get(mentionId) == pairOffsets
+                        .get(mentionId + 1)) {
+            return null;
+        }
+        return getTarget(pairTargets.get(pairOffsets.get(mentionId)));
+    }
+
+    @Override
+    public boolean isStringAsValueInDictionary(String candidate,
+            boolean onlyFirst)
+    {
+        if (onlyFirst) {
+            for (int i = 0; i < mentionCount; i++) {
+                int start = pairOffsets.get(i);
+                if (start < pairOffsets.get(i + 1)
+                        && AbstractDictionary.matches(candidate,
+                                getTarget(pairTargets.get(start)))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        else {
+            return containsTarget(candidate);
+        }
+    }
+
+    @Override
+    public boolean isStringAsValueForMentionInDictionary(String mention,
+            String candidate, boolean onlyFirst)
+    {
+        List<String> targets = getTargets(mention);
+        if (onlyFirst && targets.size() != 0) {
+            return AbstractDictionary.matches(candidate, targets.get(0));
+        }
+        for (String target : targets) {
+            if (AbstractDictionary.matches(candidate, target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean containsKey(String key)
+    {
+        return getMentionId(key) >= 0;
+    }
+
+    @Override
+    public Integer getTargetPopularity(String target)
+    {
+        int targetId = getTargetId(target);
+        return targetId < 0 ? null : targetPopularity.get(targetId);
+    }
+
+    @Override
+    public int getMentionFrequency(String mention)
+    {
+        int mentionId = getMentionId(mention);
+        int mentionFrequency = 0;
+        if (mentionId >= 0) {
+            for (int i = pairOffsets.get(mentionId); i < pairOffsets
+                    .get(mentionId + 1); i++) {
+                mentionFrequency += (int) pairScores.get(i);
+            }
+        }
+        return mentionFrequency;
+    }
+
+    @Override
+    public int getMentionSize()
+    {
+        return mentionCount;
+    }
+
+    @Override
+    public int getTargetSize()
+    {
+        return targetCount;
+    }
+
+    @Override
+    public long getNumberOfMentionEntityPairs()
+    {
+        return mentionEntityPairs;
+    }
+
+    @Override
+    public boolean containsTarget(String senseId)
+    {
+        return getTargetId(senseId) >= 0;
+    }
+}
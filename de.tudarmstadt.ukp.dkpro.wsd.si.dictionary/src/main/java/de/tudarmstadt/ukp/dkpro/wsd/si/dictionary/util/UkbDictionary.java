@@ -46,7 +46,9 @@ public class UkbDictionary extends AbstractDictionary{
 
 	public UkbDictionary(String path, String neededMentionsPath) throws FileNotFoundException, IOException{
 
-		HashSet<String> neededMentions = new HashSet<String>(FileUtils.readLines(new File(neededMentionsPath)));
+		// Without a list of needed mentions, the whole dictionary is loaded
+		HashSet<String> neededMentions = neededMentionsPath == null ? null
+				: new HashSet<String>(FileUtils.readLines(new File(neededMentionsPath)));
 
 		mentionMap = new HashMap<String,List<String[]>>();
 		targetMap = new HashMap<String,Integer>();
@@ -66,7 +68,7 @@ public class UkbDictionary extends AbstractDictionary{
 
 			lineArray = line.split(" ");
 
-			if(neededMentions.contains(lineArray[0].toLowerCase())){
+			if(neededMentions == null || neededMentions.contains(lineArray[0].toLowerCase())){
 				entities = new LinkedList<String[]>();
 				for(int i=1;i<lineArray.length;i++){
 
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si.dictionary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.Map;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.tudarmstadt.ukp.dkpro.wsd.si.dictionary.util.GoogleDictionary;
+import de.tudarmstadt.ukp.dkpro.wsd.si.dictionary.util.MappedDictionary;
+import de.tudarmstadt.ukp.dkpro.wsd.si.dictionary.util.UkbDictionary;
+
+public class MappedDictionaryTest
+{
+    private static String googlePath = "src/test/resources/dictionary/SpitkovskyChang/dict_google.txt.bz2";
+    private static String neededMentions = "src/test/resources/dictionary/SpitkovskyChang/needed_mentions.txt";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testGoogleDictionary()
+        throws Exception
+    {
+        GoogleDictionary expected = new GoogleDictionary(googlePath,
+                neededMentions);
+        File file = new File(folder.getRoot(), "google.dict");
+        MappedGoogleDictionaryInventory inventory = new MappedGoogleDictionaryInventory(
+                googlePath, file.getPath(), neededMentions);
+        assertTrue(file.exists());
+        MappedDictionary dictionary = inventory.getUnderlyingResource();
+
+        assertEquals(expected.getMentionSize(), dictionary.getMentionSize());
+        assertEquals(expected.getTargetSize(), dictionary.getTargetSize());
+        assertEquals(expected.getNumberOfMentionEntityPairs(),
+                dictionary.getNumberOfMentionEntityPairs());
+        assertEquals(3, dictionary.getTargetValuePairs("claude_monet").size());
+        for (String mention : expected.getSenseInventory().keySet()) {
+            assertEquals(expected.getTargets(mention),
+                    dictionary.getTargets(mention));
+            assertEquals(expected.getMostFrequentTarget(mention),
+                    inventory.getMostFrequentSense(mention));
+            assertWeights(expected.getWeightedSenses(mention),
+                    inventory.getWeightedSenses(mention));
+            for (String target : expected.getTargets(mention)) {
+                assertEquals(expected.getTargetPopularity(target),
+                        dictionary.getTargetPopularity(target));
+            }
+        }
+
+        // Open the existing file
+        inventory = new MappedGoogleDictionaryInventory(file.getPath());
+        assertEquals(expected.getSenseInventory().size(), inventory
+                .getSenseInventory().size());
+    }
+
+    @Test
+    public void testUkbDictionary()
+        throws Exception
+    {
+        File input = new File(folder.getRoot(), "ukb.txt.bz2");
+        Writer writer = new OutputStreamWriter(new BZip2CompressorOutputStream(
+                new FileOutputStream(input)), "UTF-8");
+        writer.write("Bank 08420278-n:1\n");
+        writer.write("bank 08420278-n:3 09213565-n:100 02787772-n:1\n");
+        writer.write("Café 02935658-n:7\n");
+        writer.write("tree 13104059-n:12\n");
+        writer.close();
+
+        UkbDictionary expected = new UkbDictionary(input.getPath(), null);
+        File file = new File(folder.getRoot(), "ukb.dict");
+        MappedDictionary.write(expected, MappedUkbDictionaryInventory.FORMAT,
+                file);
+        MappedUkbDictionaryInventory inventory = new MappedUkbDictionaryInventory(
+                file.getPath());
+        MappedDictionary dictionary = inventory.getUnderlyingResource();
+
+        assertEquals(3, dictionary.getMentionSize());
+        assertEquals(5, dictionary.getTargetSize());
+        assertEquals(124, dictionary.getNumberOfMentionEntityPairs());
+        assertEquals(104, dictionary.getMentionFrequency("Bank"));
+        assertEquals("08420278-n", inventory.getMostFrequentSense("bank"));
+        assertEquals("100", dictionary.getTargetValuePairs("bank").get(1)[1]);
+        assertTrue(dictionary.containsKey("T\\u0072ee"));
+        assertEquals(Integer.valueOf(7),
+                dictionary.getTargetPopularity("02935658-n"));
+        assertWeights(expected.getWeightedSenses("bank"),
+                inventory.getWeightedSenses("bank"));
+        assertEquals(3, inventory.getPopularityWeightedSenses("bank").size());
+        assertTrue(dictionary.isStringAsValueInDictionary("13104059-n",
+                true));
+        assertTrue(dictionary.isStringAsValueForMentionInDictionary("bank",
+                "02787772-n", false));
+        assertFalse(dictionary.isStringAsValueForMentionInDictionary("bank",
+                "02787772-n", true));
+
+        assertFalse(dictionary.containsKey("forest"));
+        assertTrue(dictionary.getTargets("forest").isEmpty());
+        assertTrue(inventory.getWeightedSenses("forest").isEmpty());
+        assertNull(inventory.getMostFrequentSense("forest"));
+        assertNull(dictionary.getTargetPopularity("09284015-n"));
+
+        try {
+            new MappedGoogleDictionaryInventory(file.getPath());
+            fail("Dictionary of different format was accepted");
+        }
+        catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testOutdatedDictionary()
+        throws Exception
+    {
+        File input = new File(folder.getRoot(), "ukb.txt.bz2");
+        writeUkb(input, "bank 08420278-n:3 09213565-n:100\n");
+        File mentions = new File(folder.getRoot(), "mentions.txt");
+        FileUtils.writeStringToFile(mentions, "bank\ntree\n", "UTF-8");
+        File file = new File(folder.getRoot(), "ukb.dict");
+
+        MappedUkbDictionaryInventory inventory = new MappedUkbDictionaryInventory(
+                input.getPath(), file.getPath(), mentions.getPath());
+        assertEquals(MappedDictionary.source(input.getPath(),
+                mentions.getPath()), inventory.getUnderlyingResource()
+                .getSource());
+        assertEquals(2, inventory.getSenses("bank").size());
+
+        // The source changed
+        writeUkb(input, "bank 08420278-n:3\ntree 13104059-n:12\n");
+        input.setLastModified(input.lastModified() + 2000);
+        inventory = new MappedUkbDictionaryInventory(input.getPath(),
+                file.getPath(), mentions.getPath());
+        assertEquals(1, inventory.getSenses("bank").size());
+        assertEquals(1, inventory.getSenses("tree").size());
+
+        // The needed mentions changed
+        FileUtils.writeStringToFile(mentions, "bank\n", "UTF-8");
+        inventory = new MappedUkbDictionaryInventory(input.getPath(),
+                file.getPath(), mentions.getPath());
+        assertTrue(inventory.getSenses("tree").isEmpty());
+
+        // A file written without a fingerprint is recompiled
+        MappedDictionary.write(new UkbDictionary(input.getPath(), null),
+                MappedUkbDictionaryInventory.FORMAT, file);
+        inventory = new MappedUkbDictionaryInventory(input.getPath(),
+                file.getPath(), mentions.getPath());
+        assertTrue(inventory.getSenses("tree").isEmpty());
+
+        try {
+            new MappedUkbDictionaryInventory(new File(folder.getRoot(),
+                    "missing.txt.bz2").getPath(), file.getPath(), null);
+            fail("Missing source was accepted");
+        }
+        catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testOversizedSection()
+        throws Exception
+    {
+        File input = new File(folder.getRoot(), "ukb.txt.bz2");
+        Writer writer = new OutputStreamWriter(new BZip2CompressorOutputStream(
+                new FileOutputStream(input)), "UTF-8");
+        writer.write("bank 08420278-n:3 09213565-n:100\n");
+        writer.close();
+        File file = new File(folder.getRoot(), "ukb.dict");
+        MappedDictionary.write(new UkbDictionary(input.getPath(), null),
+                MappedUkbDictionaryInventory.FORMAT, file);
+
+        // A pair count whose score section would be 4 GB must not wrap
+        // around to an empty section
+        int formatLength = MappedUkbDictionaryInventory.FORMAT
+                .getBytes("UTF-8").length;
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(12 + ((formatLength + 3) & ~3) + 8);
+            raf.writeInt(1 << 30);
+        }
+        finally {
+            raf.close();
+        }
+        try {
+            MappedDictionary.map(file, MappedUkbDictionaryInventory.FORMAT);
+            fail("Oversized section was accepted");
+        }
+        catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static void writeUkb(File file, String content)
+        throws IOException
+    {
+        Writer writer = new OutputStreamWriter(new BZip2CompressorOutputStream(
+                new FileOutputStream(file)), "UTF-8");
+        try {
+            writer.write(content);
+        }
+        finally {
+            writer.close();
+        }
+    }
+
+    private static void assertWeights(Map<String, Double> expected,
+            Map<String, Double> actual)
+    {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String sense : expected.keySet()) {
+            assertEquals(expected.get(sense), actual.get(sense), 1e-6);
+        }
+    }
+}
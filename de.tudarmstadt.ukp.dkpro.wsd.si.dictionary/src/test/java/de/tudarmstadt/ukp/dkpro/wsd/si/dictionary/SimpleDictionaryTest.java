@@ -26,6 +26,7 @@ import junit.framework.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import de.tudarmstadt.ukp.dkpro.wsd.si.dictionary.util.AbstractDictionary;
 import de.tudarmstadt.ukp.dkpro.wsd.si.dictionary.util.DictionaryWithoutFrequencies;
 
 
@@ -43,5 +44,17 @@ public class SimpleDictionaryTest {
 	
 	}
 
+	@Test
+	public void convertKeyFastPath() {
+
+		String key = "real_madrid";
+		Assert.assertSame(key, AbstractDictionary.convertKey(key));
+		Assert.assertEquals("real_madrid_c.f.", AbstractDictionary.convertKey("Real Madrid C.F."));
+		Assert.assertEquals("real_madrid_c.f.", AbstractDictionary.convertKey("Real_Madrid_C\\u002eF\\u002e"));
+		Assert.assertEquals(DictionaryWithoutFrequencies.convertKey("Caf\u00e9 de Flore"),
+				AbstractDictionary.convertKey("Caf\u00e9 de Flore"));
+
+	}
+
 
 }
@@ -34,6 +34,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import de.tudarmstadt.ukp.dkpro.wsd.UnorderedPair;
+import de.tudarmstadt.ukp.dkpro.wsd.si.CompactSenseGraph;
 import de.tudarmstadt.ukp.dkpro.wsd.si.POS;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseDictionary;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryBase;
@@ -45,8 +46,6 @@ import de.tuebingen.uni.sfs.germanet.api.LexUnit;
 import de.tuebingen.uni.sfs.germanet.api.Synset;
 import de.tuebingen.uni.sfs.germanet.api.WordCategory;
 import edu.uci.ics.jung.graph.UndirectedGraph;
-import edu.uci.ics.jung.graph.UndirectedSparseGraph;
-import edu.uci.ics.jung.graph.util.Graphs;
 
 /**
  * @author <a href="mailto:miller@ukp.informatik.tu-darmstadt.de">Tristan
@@ -209,7 +208,7 @@ public class GermaNetLexUnitSenseInventory
         logger.info("Creating sense graph for " + gnet.numLexUnits()
                 + " lexical units...");
         int lexUnitCount = 0;
-        undirectedGnetGraph = new UndirectedSparseGraph<String, UnorderedPair<String>>();
+        CompactSenseGraph.Builder builder = new CompactSenseGraph.Builder();
 
         String sourceLexUnitId, targetLexUnitId;
         for (LexUnit sourceLexUnit : gnet.getLexUnits()) {
@@ -225,20 +224,14 @@ public class GermaNetLexUnitSenseInventory
             }
             for (LexUnit targetLexUnit : targetLexUnits) {
                 targetLexUnitId = Integer.toString(targetLexUnit.getId());
-                UnorderedPair<String> e = new UnorderedPair<String>(
-                        sourceLexUnitId, targetLexUnitId);
-                if (!undirectedGnetGraph.containsEdge(e)) {
-                    undirectedGnetGraph.addEdge(e, sourceLexUnitId,
-                            targetLexUnitId);
-                }
+                builder.addEdge(sourceLexUnitId, targetLexUnitId);
             }
         }
+        undirectedGnetGraph = builder.build();
 
         logger.info("# vertices = " + undirectedGnetGraph.getVertexCount()
                 + "; # edges = " + undirectedGnetGraph.getEdgeCount());
 
-        undirectedGnetGraph = Graphs
-                .unmodifiableUndirectedGraph(undirectedGnetGraph);
         return undirectedGnetGraph;
     }
 
@@ -254,7 +247,8 @@ public class GermaNetLexUnitSenseInventory
             UndirectedGraph<String, UnorderedPair<String>> graph)
         throws SenseInventoryException, UnsupportedOperationException
     {
-        undirectedGnetGraph = graph;
+        undirectedGnetGraph = graph == null ? null : CompactSenseGraph
+                .copyOf(graph);
     }
 
     /*
@@ -35,6 +35,17 @@ public interface LinkDatabase extends SenseWeightedInventory {
     public Map<String,Double> getWeightedSenses(String sod) throws SenseInventoryException;
 
 	public List<String> getIncomingLinks(String target)	throws SenseInventoryException, UnsupportedOperationException;
+
+	/**
+	 * Returns the IDs of the distinct pages linking to a target in ascending
+	 * order, e.g. to count shared links with
+	 * {@link de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.util.MilneWittenRelatedness}.
+	 * The IDs are only comparable among results of the same database.
+	 * 
+	 * @param target a sense
+	 * @return the sorted IDs of the pages linking to the target
+	 */
+	public int[] getIncomingLinkIds(String target) throws SenseInventoryException;
 	
 	public int getNumberOfSenses();
 
@@ -0,0 +1,799 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.LinkDatabaseConnectionPool.PooledConnection;
+import de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.PerformanceLinkInformationReader.TABLE;
+
+/**
+ * Loads large numbers of links into a link database. Unlike
+ * {@link PerformanceLinkInformationWriter}, which runs several queries per
+ * link, the loader assigns the IDs of anchors and senses in memory and sums
+ * the counters of repeated links in a buffer. When the buffer is full, the
+ * new names and the buffered links are written in JDBC batches, one
+ * transaction per batch.
+ * <p>
+ * Without a database connection, the loader keeps all links in memory and
+ * writes them with {@link #writeTables(File)} as tab-separated tables sorted
+ * by ID, in the format of {@code mysqldump --tab}. These tables can be
+ * imported into MySQL with {@code mysqlimport} or converted to a local file
+ * with {@link MappedLinkDatabaseImporter}.
+ *
+ */
+public class LinkDatabaseBulkLoader
+	implements Closeable
+{
+	private final static Logger logger = Logger
+			.getLogger(LinkDatabaseBulkLoader.class.getName());
+
+	/** The default number of distinct links buffered before they are written */
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 22;
+
+	/** The default number of rows written per batch and transaction */
+	public static final int DEFAULT_BATCH_SIZE = 10000;
+
+	private static final String INSERT_LINK = "INSERT INTO "
+			+ TABLE.links
+			+ " (anchorId,sourceId,senseId,counter) VALUES (?,?,?,?)"
+			+ " ON DUPLICATE KEY UPDATE counter = counter + VALUES(counter)";
+
+	private final LinkDatabaseConnectionPool pool;
+	private final NameIds anchors;
+	private final NameIds senses;
+	private final LinkCounts links = new LinkCounts();
+
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private boolean flushed = false;
+	private long linkCount = 0;
+	private final long startTime = System.nanoTime();
+
+	public static void main(String[] args)
+		throws Exception
+	{
+		if (args.length != 2 && args.length != 5) {
+			System.err
+					.println("Usage: LinkDatabaseBulkLoader linksFile (outputDirectory | host database user password)");
+			System.err
+					.println("The links file contains lines of anchor, source, sense, and an optional count, separated by tabs.");
+			System.exit(1);
+		}
+		LinkDatabaseBulkLoader loader;
+		LinkDatabaseConnectionPool pool = null;
+		if (args.length == 2) {
+			loader = new LinkDatabaseBulkLoader();
+		}
+		else {
+			pool = LinkDatabaseConnectionPool.forMySql(args[1], args[2],
+					args[3], args[4], 1);
+			loader = new LinkDatabaseBulkLoader(pool);
+		}
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(args[0]), MappedLinkDatabase.UTF8));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] columns = line.split("\t");
+				if (columns.length < 3) {
+					continue;
+				}
+				loader.addLink(columns[0], columns[1], columns[2],
+						columns.length > 3 ? Long.parseLong(columns[3]) : 1);
+			}
+		}
+		finally {
+			reader.close();
+		}
+
+		if (pool == null) {
+			loader.writeTables(new File(args[1]));
+			System.out.println("Wrote tables to " + args[1]);
+		}
+		else {
+			loader.close();
+			pool.close();
+		}
+	}
+
+	/**
+	 * Creates a loader which keeps all links in memory until they are
+	 * written with {@link #writeTables(File)}. IDs are assigned from 1.
+	 */
+	public LinkDatabaseBulkLoader()
+	{
+		pool = null;
+		anchors = new NameIds();
+		senses = new NameIds();
+	}
+
+	/**
+	 * Creates a loader which adds links to a database. The IDs of the
+	 * anchors and senses already in the database are read first, so new
+	 * names get IDs after the existing ones and existing links are
+	 * incremented.
+	 *
+	 * @param pool
+	 *            the connections to the link database
+	 * @throws SQLException
+	 *             if the existing IDs cannot be read
+	 */
+	public LinkDatabaseBulkLoader(LinkDatabaseConnectionPool pool)
+		throws SQLException
+	{
+		this.pool = pool;
+		anchors = readIds(TABLE.anchors);
+		senses = readIds(TABLE.senses);
+	}
+
+	/**
+	 * @param bufferSize
+	 *            the number of distinct links buffered before they are
+	 *            written to the database
+	 */
+	public void setBufferSize(int bufferSize)
+	{
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * @param batchSize
+	 *            the number of rows written per batch and transaction
+	 */
+	public void setBatchSize(int batchSize)
+	{
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Adds a name to the anchors or senses, if it is not already known.
+	 *
+	 * @return the ID of the name
+	 */
+	public long addName(TABLE table, String name)
+	{
+		return names(table).getOrAdd(name);
+	}
+
+	/**
+	 * @return the ID of a name, or -1 if it is not known
+	 */
+	public long getId(TABLE table, String name)
+	{
+		return names(table).get(name);
+	}
+
+	private NameIds names(TABLE table)
+	{
+		switch (table) {
+		case anchors:
+			return anchors;
+		case senses:
+			return senses;
+		default:
+			throw new IllegalArgumentException("Table " + table
+					+ " has no names");
+		}
+	}
+
+	/**
+	 * Adds a link, or increments the counter of a known link.
+	 *
+	 * @throws SQLException
+	 *             if the buffer is full and cannot be written to the database
+	 */
+	public void addLink(String anchor, String source, String sense,
+			long counter)
+		throws SQLException
+	{
+		links.add(anchors.getOrAdd(anchor), senses.getOrAdd(source),
+				senses.getOrAdd(sense), counter);
+		linkCount++;
+		if (pool != null && links.size() >= bufferSize) {
+			flush();
+		}
+	}
+
+	/**
+	 * @return the number of links added so far
+	 */
+	public long getLinkCount()
+	{
+		return linkCount;
+	}
+
+	/**
+	 * Writes the new names and the buffered links to the database. Does
+	 * nothing if the loader has no database connection. Links are removed
+	 * from the buffer as soon as their batch is committed, so if a later
+	 * batch fails, calling this method again, or {@link #close()}, only
+	 * writes the remaining links and does not count any link twice.
+	 *
+	 * @throws SQLException
+	 *             if the database cannot be written
+	 */
+	public void flush()
+		throws SQLException
+	{
+		if (pool == null) {
+			return;
+		}
+		PooledConnection pooledConnection = pool.acquire();
+		Connection connection = pooledConnection.getConnection();
+		try {
+			connection.setAutoCommit(false);
+			insertNames(pooledConnection, TABLE.anchors, anchors);
+			insertNames(pooledConnection, TABLE.senses, senses);
+
+			links.sort();
+			PreparedStatement stmt = pooledConnection.prepare(INSERT_LINK);
+			int batch = 0;
+			for (int i = links.getWritten(); i < links.size(); i++) {
+				stmt.setLong(1, links.anchors[i]);
+				stmt.setLong(2, links.sources[i]);
+				stmt.setLong(3, links.senses[i]);
+				stmt.setLong(4, links.counts[i]);
+				stmt.addBatch();
+				if (++batch % batchSize == 0) {
+					stmt.executeBatch();
+					connection.commit();
+					links.setWritten(i + 1);
+				}
+			}
+			stmt.executeBatch();
+			connection.commit();
+			links.clear();
+			flushed = true;
+		}
+		catch (SQLException e) {
+			try {
+				connection.rollback();
+			}
+			catch (SQLException rollbackException) {
+				pooledConnection.invalidate();
+			}
+			throw e;
+		}
+		finally {
+			try {
+				connection.setAutoCommit(true);
+			}
+			catch (SQLException e) {
+				pooledConnection.invalidate();
+			}
+			pool.release(pooledConnection);
+		}
+		logThroughput();
+	}
+
+	private void insertNames(PooledConnection connection, TABLE table,
+			NameIds names)
+		throws SQLException
+	{
+		PreparedStatement stmt = connection.prepare("INSERT INTO "
+				+ table.name() + " (id,name) VALUES (?,?)");
+		int id = names.firstPendingId;
+		int batch = 0;
+		for (String name : names.pending) {
+			stmt.setLong(1, id++);
+			stmt.setString(2, name);
+			stmt.addBatch();
+			if (++batch % batchSize == 0) {
+				stmt.executeBatch();
+			}
+		}
+		stmt.executeBatch();
+		connection.getConnection().commit();
+		names.firstPendingId = id;
+		names.pending.clear();
+	}
+
+	private void logThroughput()
+	{
+		double minutes = (System.nanoTime() - startTime) / 60e9;
+		logger.info(String.format("Loaded %d links (%.2fM links per minute)",
+				linkCount, linkCount / 1e6 / minutes));
+	}
+
+	/**
+	 * Writes all names and links as the tab-separated files
+	 * {@code anchors.txt}, {@code senses.txt} and {@code links.txt} to the
+	 * given directory. The names are sorted by ID, and the links by anchor,
+	 * source, and sense ID. Special characters in names are escaped like by
+	 * {@code mysqldump}. No links can be added afterwards.
+	 *
+	 * @param directory
+	 *            the output directory
+	 * @throws IOException
+	 *             if a file cannot be written
+	 * @throws IllegalStateException
+	 *             if links have already been written to a database
+	 */
+	public void writeTables(File directory)
+		throws IOException
+	{
+		if (flushed) {
+			throw new IllegalStateException(
+					"Links have already been written to the database");
+		}
+		directory.mkdirs();
+		writeNames(new File(directory, TABLE.anchors + ".txt"), anchors);
+		writeNames(new File(directory, TABLE.senses + ".txt"), senses);
+
+		links.sort();
+		Writer writer = open(new File(directory, TABLE.links + ".txt"));
+		try {
+			for (int i = 0; i < links.size(); i++) {
+				writer.write(links.anchors[i] + "\t" + links.sources[i] + "\t"
+						+ links.senses[i] + "\t" + links.counts[i] + "\n");
+			}
+		}
+		finally {
+			writer.close();
+		}
+		logThroughput();
+	}
+
+	private static void writeNames(File file, NameIds names)
+		throws IOException
+	{
+		Writer writer = open(file);
+		try {
+			for (int slot : names.slotsById()) {
+				writer.write(names.ids[slot] + "\t" + escape(names.keys[slot])
+						+ "\n");
+			}
+		}
+		finally {
+			writer.close();
+		}
+	}
+
+	private static Writer open(File file)
+		throws IOException
+	{
+		return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(
+				file), MappedLinkDatabase.UTF8), 1 << 16);
+	}
+
+	/**
+	 * Escapes a value like {@code mysqldump --tab}, the inverse of
+	 * {@link MappedLinkDatabaseImporter#unescape(String)}.
+	 */
+	static String escape(String value)
+	{
+		StringBuilder escaped = null;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			String replacement;
+			switch (c) {
+			case '\\':
+				replacement = "\\\\";
+				break;
+			case '\t':
+				replacement = "\\t";
+				break;
+			case '\n':
+				replacement = "\\n";
+				break;
+			case '\r':
+				replacement = "\\r";
+				break;
+			case '\0':
+				replacement = "\\0";
+				break;
+			default:
+				replacement = null;
+				break;
+			}
+			if (replacement != null && escaped == null) {
+				escaped = new StringBuilder(value.length() + 8);
+				escaped.append(value, 0, i);
+			}
+			if (escaped != null) {
+				if (replacement != null) {
+					escaped.append(replacement);
+				}
+				else {
+					escaped.append(c);
+				}
+			}
+		}
+		return escaped == null ? value : escaped.toString();
+	}
+
+	private NameIds readIds(TABLE table)
+		throws SQLException
+	{
+		NameIds names = new NameIds();
+		PooledConnection connection = pool.acquire();
+		try {
+			PreparedStatement stmt = connection.prepare("SELECT id, name FROM "
+					+ table.name());
+			ResultSet rs = stmt.executeQuery();
+			try {
+				while (rs.next()) {
+					names.put(rs.getString("name"), toInt(rs.getLong("id")));
+				}
+			}
+			finally {
+				rs.close();
+			}
+		}
+		catch (SQLException e) {
+			connection.invalidate();
+			throw e;
+		}
+		finally {
+			pool.release(connection);
+		}
+		logger.info("Read " + names.size + " " + table);
+		return names;
+	}
+
+	private static int toInt(long id)
+	{
+		if (id < 0 || id > Integer.MAX_VALUE) {
+			throw new IllegalStateException("ID " + id + " out of range");
+		}
+		return (int) id;
+	}
+
+	/**
+	 * Writes the buffered links to the database.
+	 */
+	@Override
+	public void close()
+		throws IOException
+	{
+		try {
+			flush();
+		}
+		catch (SQLException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private static int hash(int h)
+	{
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * An open-addressing map from names to int IDs. New names get
+	 * consecutive IDs and are kept in a list until they are written.
+	 */
+	private static class NameIds
+	{
+		private String[] keys = new String[1024];
+		private int[] ids = new int[1024];
+		private int size = 0;
+		private int nextId = 1;
+
+		/** The names added since the last flush, with consecutive IDs */
+		private final List<String> pending = new ArrayList<String>();
+		private int firstPendingId = 1;
+
+		private int slot(String name)
+		{
+			int mask = keys.length - 1;
+			int slot = hash(name.hashCode()) & mask;
+			while (keys[slot] != null && !keys[slot].equals(name)) {
+				slot = (slot + 1) & mask;
+			}
+			return slot;
+		}
+
+		int get(String name)
+		{
+			int slot = slot(name);
+			return keys[slot] == null ? -1 : ids[slot];
+		}
+
+		int getOrAdd(String name)
+		{
+			int slot = slot(name);
+			if (keys[slot] != null) {
+				return ids[slot];
+			}
+			if (nextId == Integer.MAX_VALUE) {
+				throw new IllegalStateException("Too many names");
+			}
+			int id = nextId++;
+			insert(slot, name, id);
+			pending.add(name);
+			return id;
+		}
+
+		/**
+		 * Adds a name which is already in the database.
+		 */
+		void put(String name, int id)
+		{
+			int slot = slot(name);
+			if (keys[slot] == null) {
+				insert(slot, name, id);
+			}
+			if (id >= nextId) {
+				nextId = id + 1;
+				firstPendingId = nextId;
+			}
+		}
+
+		private void insert(int slot, String name, int id)
+		{
+			keys[slot] = name;
+			ids[slot] = id;
+			if (++size * 2 > keys.length) {
+				String[] oldKeys = keys;
+				int[] oldIds = ids;
+				keys = new String[oldKeys.length * 2];
+				ids = new int[oldKeys.length * 2];
+				for (int i = 0; i < oldKeys.length; i++) {
+					if (oldKeys[i] != null) {
+						int newSlot = slot(oldKeys[i]);
+						keys[newSlot] = oldKeys[i];
+						ids[newSlot] = oldIds[i];
+					}
+				}
+			}
+		}
+
+		/**
+		 * @return the occupied slots, sorted by ID
+		 */
+		int[] slotsById()
+		{
+			long[] packed = new long[size];
+			int count = 0;
+			for (int slot = 0; slot < keys.length; slot++) {
+				if (keys[slot] != null) {
+					packed[count++] = (long) ids[slot] << 32 | slot;
+				}
+			}
+			Arrays.sort(packed);
+			int[] slots = new int[size];
+			for (int i = 0; i < size; i++) {
+				slots[i] = (int) packed[i];
+			}
+			return slots;
+		}
+	}
+
+	/**
+	 * An open-addressing map from (anchor, source, sense) to the summed
+	 * counter. Before the links are written, they are compacted and sorted
+	 * in place.
+	 */
+	private static class LinkCounts
+	{
+		/** Anchor IDs plus one, so that 0 marks an empty slot */
+		private int[] anchors;
+		private int[] sources;
+		private int[] senses;
+		private long[] counts;
+		private int size;
+		private boolean sorted;
+		/** The number of sorted links at the start which have been written */
+		private int written;
+
+		LinkCounts()
+		{
+			clear();
+		}
+
+		void clear()
+		{
+			anchors = new int[1024];
+			sources = new int[1024];
+			senses = new int[1024];
+			counts = new long[1024];
+			size = 0;
+			sorted = false;
+			written = 0;
+		}
+
+		int getWritten()
+		{
+			return written;
+		}
+
+		/**
+		 * Marks the first sorted links as written; they are dropped when
+		 * links are added again.
+		 */
+		void setWritten(int written)
+		{
+			this.written = written;
+		}
+
+		int size()
+		{
+			return size;
+		}
+
+		void add(int anchor, int source, int sense, long count)
+		{
+			if (sorted) {
+				unsort();
+			}
+			int mask = anchors.length - 1;
+			int slot = hash((anchor * 31 + source) * 31 + sense) & mask;
+			while (anchors[slot] != 0) {
+				if (anchors[slot] == anchor + 1 && sources[slot] == source
+						&& senses[slot] == sense) {
+					counts[slot] += count;
+					return;
+				}
+				slot = (slot + 1) & mask;
+			}
+			anchors[slot] = anchor + 1;
+			sources[slot] = source;
+			senses[slot] = sense;
+			counts[slot] = count;
+			if (++size * 2 > anchors.length) {
+				rehash();
+			}
+		}
+
+		private void rehash()
+		{
+			int[] oldAnchors = anchors;
+			int[] oldSources = sources;
+			int[] oldSenses = senses;
+			long[] oldCounts = counts;
+			anchors = new int[oldAnchors.length * 2];
+			sources = new int[oldAnchors.length * 2];
+			senses = new int[oldAnchors.length * 2];
+			counts = new long[oldAnchors.length * 2];
+			size = 0;
+			for (int i = 0; i < oldAnchors.length; i++) {
+				if (oldAnchors[i] != 0) {
+					add(oldAnchors[i] - 1, oldSources[i], oldSenses[i],
+							oldCounts[i]);
+				}
+			}
+		}
+
+		/**
+		 * Puts the links which have not been written back into a hash table,
+		 * e.g. after a failed flush.
+		 */
+		private void unsort()
+		{
+			int[] oldAnchors = anchors;
+			int[] oldSources = sources;
+			int[] oldSenses = senses;
+			long[] oldCounts = counts;
+			int from = written;
+			int to = size;
+			clear();
+			for (int i = from; i < to; i++) {
+				add(oldAnchors[i], oldSources[i], oldSenses[i], oldCounts[i]);
+			}
+		}
+
+		/**
+		 * Moves the links to the first {@link #size()} positions, sorted by
+		 * anchor, source, and sense. Afterwards the positions hold the
+		 * actual anchor IDs.
+		 */
+		void sort()
+		{
+			if (sorted) {
+				return;
+			}
+			int count = 0;
+			for (int i = 0; i < anchors.length; i++) {
+				if (anchors[i] != 0) {
+					anchors[count] = anchors[i] - 1;
+					sources[count] = sources[i];
+					senses[count] = senses[i];
+					counts[count++] = counts[i];
+				}
+			}
+			quickSort(0, count - 1);
+			sorted = true;
+		}
+
+		private void quickSort(int low, int high)
+		{
+			while (low < high) {
+				int pivot = low + (high - low) / 2;
+				int pivotAnchor = anchors[pivot];
+				int pivotSource = sources[pivot];
+				int pivotSense = senses[pivot];
+				int i = low;
+				int j = high;
+				while (i <= j) {
+					while (compare(i, pivotAnchor, pivotSource, pivotSense) < 0) {
+						i++;
+					}
+					while (compare(j, pivotAnchor, pivotSource, pivotSense) > 0) {
+						j--;
+					}
+					if (i <= j) {
+						swap(i++, j--);
+					}
+				}
+				// Recurse into the smaller part to bound the stack depth
+				if (j - low < high - i) {
+					quickSort(low, j);
+					low = i;
+				}
+				else {
+					quickSort(i, high);
+					high = j;
+				}
+			}
+		}
+
+		private int compare(int i, int anchor, int source, int sense)
+		{
+			if (anchors[i] != anchor) {
+				return anchors[i] < anchor ? -1 : 1;
+			}
+			if (sources[i] != source) {
+				return sources[i] < source ? -1 : 1;
+			}
+			if (senses[i] != sense) {
+				return senses[i] < sense ? -1 : 1;
+			}
+			return 0;
+		}
+
+		private void swap(int i, int j)
+		{
+			int anchor = anchors[i];
+			anchors[i] = anchors[j];
+			anchors[j] = anchor;
+			int source = sources[i];
+			sources[i] = sources[j];
+			sources[j] = source;
+			int sense = senses[i];
+			senses[i] = senses[j];
+			senses[j] = sense;
+			long count = counts[i];
+			counts[i] = counts[j];
+			counts[j] = count;
+		}
+	}
+}
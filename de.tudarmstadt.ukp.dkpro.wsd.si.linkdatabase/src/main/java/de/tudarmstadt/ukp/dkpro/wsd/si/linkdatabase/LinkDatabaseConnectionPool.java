@@ -0,0 +1,339 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.log4j.Logger;
+
+/**
+ * A small thread-safe pool of JDBC connections to a link database. Each
+ * pooled connection caches its prepared statements by SQL string, so every
+ * query shape is only prepared once per connection. Connections are opened
+ * on demand up to the pool size; further callers wait until a connection is
+ * released. Callers should {@link PooledConnection#invalidate() invalidate} a
+ * connection on which a statement failed, so that it is discarded and
+ * replaced instead of being handed out again.
+ *
+ */
+public class LinkDatabaseConnectionPool
+	implements Closeable
+{
+	private final static Logger logger = Logger
+			.getLogger(LinkDatabaseConnectionPool.class.getName());
+
+	/**
+	 * Opens the connections of a pool.
+	 */
+	public interface ConnectionFactory
+	{
+		Connection createConnection()
+			throws SQLException;
+	}
+
+	private final ConnectionFactory factory;
+	private final int size;
+	private int fetchSize = 0;
+
+	private final LinkedBlockingQueue<PooledConnection> idleConnections = new LinkedBlockingQueue<PooledConnection>();
+	private final List<PooledConnection> connections = new ArrayList<PooledConnection>();
+	private boolean closed = false;
+
+	/**
+	 * Put into the idle queue by {@link #close()} to wake up waiting callers
+	 */
+	private final PooledConnection closedMarker = new PooledConnection(null);
+
+	/**
+	 * Put into the idle queue by {@link #release} when a broken connection
+	 * was discarded, so that a waiting caller opens a replacement
+	 */
+	private final PooledConnection vacancyMarker = new PooledConnection(null);
+
+	/**
+	 * @param factory
+	 *            opens new connections
+	 * @param size
+	 *            the maximum number of open connections
+	 */
+	public LinkDatabaseConnectionPool(ConnectionFactory factory, int size)
+	{
+		if (size < 1) {
+			throw new IllegalArgumentException("Invalid pool size " + size);
+		}
+		this.factory = factory;
+		this.size = size;
+	}
+
+	/**
+	 * @param url
+	 *            the JDBC URL of the database
+	 * @param user
+	 *            the database user
+	 * @param password
+	 *            the password of the user
+	 * @param size
+	 *            the maximum number of open connections
+	 */
+	public LinkDatabaseConnectionPool(final String url, final String user,
+			final String password, int size)
+	{
+		this(new ConnectionFactory()
+		{
+			@Override
+			public Connection createConnection()
+				throws SQLException
+			{
+				return DriverManager.getConnection(url, user, password);
+			}
+		}, size);
+	}
+
+	/**
+	 * Creates a pool of connections to a MySQL link database. Batched
+	 * inserts are sent as multi-row statements.
+	 */
+	public static LinkDatabaseConnectionPool forMySql(String host,
+			String database, String user, String password, int size)
+	{
+		try {
+			Class.forName("com.mysql.jdbc.Driver");
+		}
+		catch (ClassNotFoundException e) {
+			logger.warn("MySQL driver not found: " + e.getMessage());
+		}
+		return new LinkDatabaseConnectionPool("jdbc:mysql://" + host + "/"
+				+ database + "?rewriteBatchedStatements=true", user, password,
+				size);
+	}
+
+	/**
+	 * Sets the number of rows fetched at once by the statements of this
+	 * pool. The default of 0 leaves the choice to the driver.
+	 *
+	 * @param fetchSize
+	 *            the fetch size
+	 */
+	public void setFetchSize(int fetchSize)
+	{
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * @return the maximum number of open connections
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * Takes a connection from the pool, opening a new one if the pool is
+	 * not yet full, or waiting for one to be released otherwise. Every
+	 * acquired connection must be passed to {@link #release}.
+	 *
+	 * @return a connection for the exclusive use of the caller
+	 * @throws SQLException
+	 *             if a new connection cannot be opened or the pool is closed,
+	 *             also while waiting
+	 */
+	public PooledConnection acquire()
+		throws SQLException
+	{
+		PooledConnection connection = idleConnections.poll();
+		while (connection == null || connection == vacancyMarker) {
+			boolean vacancy = connection == vacancyMarker;
+			connection = null;
+			synchronized (connections) {
+				if (closed) {
+					throw new SQLException("Connection pool is closed");
+				}
+				if (connections.size() < size) {
+					try {
+						connection = new PooledConnection(factory
+								.createConnection());
+					}
+					catch (SQLException e) {
+						if (vacancy) {
+							// let the next waiting caller try again
+							idleConnections.add(vacancyMarker);
+						}
+						throw e;
+					}
+					connections.add(connection);
+				}
+			}
+			if (connection == null) {
+				try {
+					connection = idleConnections.take();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new SQLException(e);
+				}
+			}
+		}
+		if (connection == closedMarker) {
+			// leave the marker for the other waiting callers
+			idleConnections.add(closedMarker);
+			throw new SQLException("Connection pool is closed");
+		}
+		return connection;
+	}
+
+	/**
+	 * Returns a connection to the pool. Connections which have been closed
+	 * in the meantime, e.g. by a server timeout, are discarded, and the next
+	 * {@link #acquire()} opens a new one instead, also if it is already
+	 * waiting.
+	 *
+	 * @param connection
+	 *            a connection returned by {@link #acquire()}
+	 */
+	public void release(PooledConnection connection)
+	{
+		if (connection.isBroken()) {
+			connection.close();
+			synchronized (connections) {
+				connections.remove(connection);
+				if (!closed) {
+					idleConnections.add(vacancyMarker);
+				}
+			}
+		}
+		else {
+			idleConnections.add(connection);
+		}
+	}
+
+	/**
+	 * Closes all connections. Connections which are currently acquired are
+	 * closed as well, and callers waiting for a connection fail.
+	 */
+	@Override
+	public void close()
+	{
+		synchronized (connections) {
+			closed = true;
+			for (PooledConnection connection : connections) {
+				connection.close();
+			}
+			connections.clear();
+			idleConnections.clear();
+			idleConnections.add(closedMarker);
+		}
+	}
+
+	/**
+	 * A connection of the pool with its cached prepared statements.
+	 */
+	public class PooledConnection
+	{
+		private final Connection connection;
+		private final Map<String, PreparedStatement> statements = new HashMap<String, PreparedStatement>();
+		private boolean broken = false;
+
+		private PooledConnection(Connection connection)
+		{
+			this.connection = connection;
+		}
+
+		/**
+		 * Returns the prepared statement for the given SQL, preparing it on
+		 * first use. The statement stays open and must not be closed by the
+		 * caller.
+		 *
+		 * @param sql
+		 *            the SQL of the statement
+		 * @return the prepared statement
+		 * @throws SQLException
+		 *             if the statement cannot be prepared
+		 */
+		public PreparedStatement prepare(String sql)
+			throws SQLException
+		{
+			PreparedStatement statement = statements.get(sql);
+			if (statement == null) {
+				try {
+					statement = connection.prepareStatement(sql);
+				}
+				catch (SQLException e) {
+					broken = connection.isClosed();
+					throw e;
+				}
+				if (fetchSize > 0) {
+					statement.setFetchSize(fetchSize);
+				}
+				statements.put(sql, statement);
+			}
+			statement.clearParameters();
+			return statement;
+		}
+
+		/**
+		 * @return the underlying connection, e.g. to control transactions.
+		 *         It must not be closed by the caller.
+		 */
+		public Connection getConnection()
+		{
+			return connection;
+		}
+
+		/**
+		 * Marks the connection as unusable, so that it is replaced when it
+		 * is released, e.g. after a communication failure.
+		 */
+		public void invalidate()
+		{
+			broken = true;
+		}
+
+		private boolean isBroken()
+		{
+			if (!broken) {
+				try {
+					broken = connection.isClosed();
+				}
+				catch (SQLException e) {
+					broken = true;
+				}
+			}
+			return broken;
+		}
+
+		private void close()
+		{
+			try {
+				connection.close();
+			}
+			catch (SQLException e) {
+				// ignore
+			}
+		}
+	}
+}
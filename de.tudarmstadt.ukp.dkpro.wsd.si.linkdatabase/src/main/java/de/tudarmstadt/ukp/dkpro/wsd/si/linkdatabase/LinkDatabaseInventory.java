@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 
@@ -50,6 +51,23 @@ public class LinkDatabaseInventory
 		reader = new PerformanceLinkInformationReader(host, database);
 	}
 
+	public LinkDatabaseInventory(String host, String database, String user,
+			String password)
+	{
+		reader = new PerformanceLinkInformationReader(host, database, user,
+				password);
+	}
+
+	/**
+	 * @param reader
+	 *            the reader of the link database, which may be shared with
+	 *            other components
+	 */
+	public LinkDatabaseInventory(PerformanceLinkInformationReader reader)
+	{
+		this.reader = reader;
+	}
+
 	@Override
 	public String getSenseDescription(String senseId)
 		throws SenseInventoryException
@@ -94,9 +112,11 @@ public class LinkDatabaseInventory
 		logger.info("Getting senses for " + sod);
 		List<String> senses = new ArrayList<String>();
 		try {
-			for (long sense : reader.getLinkTargets(sod, null, null, 0)
-					.keySet()) {
-				senses.add(reader.getName(TABLE.senses, sense));
+			Set<Long> targets = reader.getLinkTargets(sod, null, null, 0)
+					.keySet();
+			Map<Long, String> names = reader.getNames(TABLE.senses, targets);
+			for (long sense : targets) {
+				senses.add(names.get(sense));
 			}
 		}
 		catch (Exception e) {
@@ -111,11 +131,16 @@ public class LinkDatabaseInventory
 	{
 		Map<String, Double> senses = new HashMap<String, Double>();
 		try {
-			long total = reader.getNumberOfLinkTargets(sod, null, null, 0);
 			Map<Long, Long> targets = reader.getLinkTargets(sod, null, null, 0);
-			for (long sense : targets.keySet()) {
-				senses.put(reader.getName(TABLE.senses, sense),
-						targets.get(sense) / (double) total);
+			long total = 0;
+			for (long count : targets.values()) {
+				total += count;
+			}
+			Map<Long, String> names = reader.getNames(TABLE.senses,
+					targets.keySet());
+			for (Map.Entry<Long, Long> target : targets.entrySet()) {
+				senses.put(names.get(target.getKey()), target.getValue()
+						/ (double) total);
 			}
 		}
 		catch (Exception e) {
@@ -178,6 +203,18 @@ public class LinkDatabaseInventory
 		}
 	}
 
+	@Override
+	public int[] getIncomingLinkIds(String target)
+		throws SenseInventoryException
+	{
+		try {
+			return reader.getLinkSourceIds(null, null, target, 0l);
+		}
+		catch (Exception e) {
+			throw new SenseInventoryException(e);
+		}
+	}
+
 	@Override
 	public int getNumberOfSenses()
 	{
@@ -18,6 +18,8 @@
 
 package de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -39,13 +41,44 @@ extends SenseInventoryResourceBase
 implements LinkDatabase
 {
 	public static final String PARAM_RESOURCE_HOST = "resourceHost";
-	@ConfigurationParameter(name = PARAM_RESOURCE_HOST, mandatory = true)
+	@ConfigurationParameter(name = PARAM_RESOURCE_HOST, mandatory = false)
 	private String resourceHost;
 
 	public static final String PARAM_RESOURCE_DATABASE = "resourceDatabase";
-	@ConfigurationParameter(name = PARAM_RESOURCE_DATABASE, mandatory = true)
+	@ConfigurationParameter(name = PARAM_RESOURCE_DATABASE, mandatory = false)
 	private String resourceDatabase;
 
+	public static final String PARAM_RESOURCE_USER = "resourceUser";
+	@ConfigurationParameter(name = PARAM_RESOURCE_USER, mandatory = false, defaultValue = "student")
+	private String resourceUser;
+
+	public static final String PARAM_RESOURCE_PASSWORD = "resourcePassword";
+	@ConfigurationParameter(name = PARAM_RESOURCE_PASSWORD, mandatory = false, defaultValue = "student")
+	private String resourcePassword;
+
+	/**
+	 * The maximum number of concurrent connections to the MySQL database.
+	 */
+	public static final String PARAM_POOL_SIZE = "poolSize";
+	@ConfigurationParameter(name = PARAM_POOL_SIZE, mandatory = false, defaultValue = "8")
+	private int poolSize;
+
+	/**
+	 * The number of rows fetched at once from the MySQL database. 0 leaves
+	 * the choice to the JDBC driver.
+	 */
+	public static final String PARAM_FETCH_SIZE = "fetchSize";
+	@ConfigurationParameter(name = PARAM_FETCH_SIZE, mandatory = false, defaultValue = "0")
+	private int fetchSize;
+
+	/**
+	 * A link database file built by {@link MappedLinkDatabaseImporter}. If
+	 * set, it is used instead of the MySQL database.
+	 */
+	public static final String PARAM_RESOURCE_FILE = "resourceFile";
+	@ConfigurationParameter(name = PARAM_RESOURCE_FILE, mandatory = false)
+	private String resourceFile;
+
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	@Override
 	public boolean initialize(ResourceSpecifier aSpecifier, Map additionalParams)
@@ -55,7 +88,27 @@ implements LinkDatabase
 			return false;
 		}
 
-		inventory = new LinkDatabaseInventory(resourceHost, resourceDatabase);
+		if (resourceFile != null) {
+			try {
+				inventory = new MappedLinkDatabase(new File(resourceFile));
+			}
+			catch (IOException e) {
+				throw new ResourceInitializationException(e);
+			}
+		}
+		else if (resourceHost != null && resourceDatabase != null) {
+			LinkDatabaseConnectionPool pool = LinkDatabaseConnectionPool.forMySql(
+					resourceHost, resourceDatabase, resourceUser,
+					resourcePassword, poolSize);
+			pool.setFetchSize(fetchSize);
+			inventory = new LinkDatabaseInventory(
+					new PerformanceLinkInformationReader(pool));
+		}
+		else {
+			throw new ResourceInitializationException(new IllegalArgumentException(
+					"Either " + PARAM_RESOURCE_FILE + " or " + PARAM_RESOURCE_HOST
+							+ " and " + PARAM_RESOURCE_DATABASE + " must be set"));
+		}
 
 		return true;
 	}
@@ -63,17 +116,23 @@ implements LinkDatabase
 	@Override
 	public List<String> getIncomingLinks(String target)
 			throws SenseInventoryException, UnsupportedOperationException {
-		return ((LinkDatabaseInventory) inventory).getIncomingLinks(target);
+		return ((LinkDatabase) inventory).getIncomingLinks(target);
+	}
+
+	@Override
+	public int[] getIncomingLinkIds(String target)
+			throws SenseInventoryException {
+		return ((LinkDatabase) inventory).getIncomingLinkIds(target);
 	}
 
 	@Override
 	public int getNumberOfSenses() {
-		return ((LinkDatabaseInventory) inventory).getNumberOfSenses();
+		return ((LinkDatabase) inventory).getNumberOfSenses();
 	}
 
 	@Override
 	public Map<String, Double> getWeightedSenses(String sod)
 			throws SenseInventoryException {
-		return ((LinkDatabaseInventory) inventory).getWeightedSenses(sod);
+		return ((LinkDatabase) inventory).getWeightedSenses(sod);
 	}
 }
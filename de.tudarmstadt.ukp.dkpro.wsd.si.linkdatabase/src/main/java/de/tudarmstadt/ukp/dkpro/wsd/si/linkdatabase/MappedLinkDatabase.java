@@ -0,0 +1,388 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.tudarmstadt.ukp.dkpro.wsd.si.POS;
+import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
+
+/**
+ * A read-only link database which is memory-mapped from a local file built
+ * by {@link MappedLinkDatabaseImporter}, so that no database server is
+ * needed.
+ * <p>
+ * Anchors and senses are interned as int IDs and found through
+ * open-addressing hash tables. For each anchor the file stores its targets
+ * with their link counts, summed over all source pages and sorted by
+ * descending count, and the total count. For each sense it stores the
+ * sorted IDs of the distinct pages linking to it. Each lookup thus reads a
+ * contiguous range of the file instead of running one query per ID.
+ * <p>
+ * Unlike {@link LinkDatabaseInventory}, the most frequent sense is the
+ * target with the highest count summed over all source pages, incoming
+ * links are only listed once per source page, and
+ * {@link #getNumberOfSenses()} returns the actual number of senses.
+ * <p>
+ * Each section of the file is mapped separately and may be at most 2 GB, so
+ * a database may hold up to about 500 million distinct links.
+ *
+ */
+public class MappedLinkDatabase
+	implements LinkDatabase
+{
+	static final int MAGIC = 0x57534c44;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 40;
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final int anchorCount;
+	private final int senseCount;
+
+	private final IntBuffer anchorIndex;
+	private final IntBuffer anchorOffsets;
+	private final ByteBuffer anchorBytes;
+
+	private final IntBuffer senseIndex;
+	private final IntBuffer senseOffsets;
+	private final ByteBuffer senseBytes;
+
+	/** The targets of anchor i are stored at targetOffsets[i] until targetOffsets[i+1] */
+	private final IntBuffer targetOffsets;
+	private final IntBuffer targets;
+	private final IntBuffer targetCounts;
+	private final IntBuffer anchorTotals;
+
+	/** The pages linking to sense i are stored at sourceOffsets[i] until sourceOffsets[i+1] */
+	private final IntBuffer sourceOffsets;
+	private final IntBuffer sources;
+
+	/**
+	 * Maps a link database built by {@link MappedLinkDatabaseImporter}.
+	 *
+	 * @param file
+	 *            the link database file
+	 * @throws IOException
+	 *             if the file cannot be read or is not a link database of
+	 *             the current version
+	 */
+	public MappedLinkDatabase(File file)
+		throws IOException
+	{
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					Math.min(channel.size(), HEADER_SIZE));
+			if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+				throw new IOException(file + " is not a link database");
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException(file + " has link database version "
+						+ version + ", expected " + VERSION);
+			}
+			anchorCount = header.getInt();
+			senseCount = header.getInt();
+			int linkCount = header.getInt();
+			int sourceCount = header.getInt();
+			int anchorIndexCapacity = header.getInt();
+			int senseIndexCapacity = header.getInt();
+			int anchorByteCount = header.getInt();
+			int senseByteCount = header.getInt();
+
+			long position = header.position();
+			anchorIndex = ints(channel, position, anchorIndexCapacity);
+			position += 4L * anchorIndexCapacity;
+			anchorOffsets = ints(channel, position, anchorCount + 1);
+			position += 4L * (anchorCount + 1);
+			anchorBytes = bytes(channel, position, anchorByteCount);
+			position = align(position + anchorByteCount);
+			senseIndex = ints(channel, position, senseIndexCapacity);
+			position += 4L * senseIndexCapacity;
+			senseOffsets = ints(channel, position, senseCount + 1);
+			position += 4L * (senseCount + 1);
+			senseBytes = bytes(channel, position, senseByteCount);
+			position = align(position + senseByteCount);
+			targetOffsets = ints(channel, position, anchorCount + 1);
+			position += 4L * (anchorCount + 1);
+			targets = ints(channel, position, linkCount);
+			position += 4L * linkCount;
+			targetCounts = ints(channel, position, linkCount);
+			position += 4L * linkCount;
+			anchorTotals = ints(channel, position, anchorCount);
+			position += 4L * anchorCount;
+			sourceOffsets = ints(channel, position, senseCount + 1);
+			position += 4L * (senseCount + 1);
+			sources = ints(channel, position, sourceCount);
+		}
+		finally {
+			raf.close();
+		}
+	}
+
+	static long align(long position)
+	{
+		return (position + 3) & ~3L;
+	}
+
+	private static ByteBuffer bytes(FileChannel channel, long position,
+			long length)
+		throws IOException
+	{
+		if (length < 0 || length > Integer.MAX_VALUE) {
+			throw new IOException("Invalid section length " + length);
+		}
+		if (position + length > channel.size()) {
+			throw new IOException("Truncated link database");
+		}
+		return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+	}
+
+	private static IntBuffer ints(FileChannel channel, long position,
+			int length)
+		throws IOException
+	{
+		return bytes(channel, position, length * 4L).asIntBuffer();
+	}
+
+	static int hash(byte[] name)
+	{
+		int h = Arrays.hashCode(name) * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private static int find(IntBuffer index, IntBuffer offsets,
+			ByteBuffer bytes, String name)
+	{
+		if (name == null) {
+			return -1;
+		}
+		byte[] key = name.getBytes(UTF8);
+		int mask = index.limit() - 1;
+		int slot = hash(key) & mask;
+		int id;
+		while ((id = index.get(slot)) != 0) {
+			int start = offsets.get(id - 1);
+			if (offsets.get(id) - start == key.length) {
+				int i = 0;
+				while (i < key.length && bytes.get(start + i) == key[i]) {
+					i++;
+				}
+				if (i == key.length) {
+					return id - 1;
+				}
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	private static String decode(IntBuffer offsets, ByteBuffer bytes, int id)
+	{
+		int start = offsets.get(id);
+		byte[] name = new byte[offsets.get(id + 1) - start];
+		for (int i = 0; i < name.length; i++) {
+			name[i] = bytes.get(start + i);
+		}
+		return new String(name, UTF8);
+	}
+
+	/**
+	 * @return the internal ID of the anchor, or -1 if it is not in the
+	 *         database
+	 */
+	public int getAnchorId(String anchor)
+	{
+		return find(anchorIndex, anchorOffsets, anchorBytes, anchor);
+	}
+
+	/**
+	 * @return the internal ID of the sense, or -1 if it is not in the
+	 *         database
+	 */
+	public int getSenseId(String sense)
+	{
+		return find(senseIndex, senseOffsets, senseBytes, sense);
+	}
+
+	/**
+	 * @return the name of the sense with the given internal ID
+	 */
+	public String getSense(int senseId)
+	{
+		return decode(senseOffsets, senseBytes, senseId);
+	}
+
+	/**
+	 * Returns the internal IDs of the distinct pages linking to a sense, in
+	 * ascending order, so that the links shared by two senses can be counted
+	 * by merging the arrays.
+	 *
+	 * @param target
+	 *            a sense
+	 * @return the IDs of the pages linking to the sense, or an empty array if
+	 *         the sense is not in the database
+	 */
+	@Override
+	public int[] getIncomingLinkIds(String target)
+	{
+		int senseId = getSenseId(target);
+		if (senseId < 0) {
+			return new int[0];
+		}
+		int start = sourceOffsets.get(senseId);
+		int[] ids = new int[sourceOffsets.get(senseId + 1) - start];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = sources.get(start + i);
+		}
+		return ids;
+	}
+
+	@Override
+	public List<String> getIncomingLinks(String target)
+		throws SenseInventoryException, UnsupportedOperationException
+	{
+		int[] ids = getIncomingLinkIds(target);
+		List<String> incomingLinks = new ArrayList<String>(ids.length);
+		for (int id : ids) {
+			incomingLinks.add(getSense(id));
+		}
+		return incomingLinks;
+	}
+
+	@Override
+	public Map<String, Double> getWeightedSenses(String sod)
+		throws SenseInventoryException
+	{
+		Map<String, Double> senses = new HashMap<String, Double>();
+		int anchorId = getAnchorId(sod);
+		if (anchorId >= 0) {
+			double total = anchorTotals.get(anchorId);
+			for (int i = targetOffsets.get(anchorId); i < targetOffsets
+					.get(anchorId + 1); i++) {
+				senses.put(getSense(targets.get(i)), targetCounts.get(i)
+						/ total);
+			}
+		}
+		return senses;
+	}
+
+	@Override
+	public List<String> getSenses(String sod)
+		throws SenseInventoryException
+	{
+		List<String> senses = new ArrayList<String>();
+		int anchorId = getAnchorId(sod);
+		if (anchorId >= 0) {
+			for (int i = targetOffsets.get(anchorId); i < targetOffsets
+					.get(anchorId + 1); i++) {
+				senses.add(getSense(targets.get(i)));
+			}
+		}
+		return senses;
+	}
+
+	@Override
+	public List<String> getSenses(String sod, POS pos)
+		throws SenseInventoryException
+	{
+		return getSenses(sod);
+	}
+
+	@Override
+	public String getMostFrequentSense(String sod)
+		throws SenseInventoryException, UnsupportedOperationException
+	{
+		int anchorId = getAnchorId(sod);
+		if (anchorId < 0
+				|| targetOffsets.get(anchorId) == targetOffsets
+						.get(anchorId + 1)) {
+			return null;
+		}
+		return getSense(targets.get(targetOffsets.get(anchorId)));
+	}
+
+	@Override
+	public String getMostFrequentSense(String sod, POS pos)
+		throws SenseInventoryException, UnsupportedOperationException
+	{
+		return getMostFrequentSense(sod);
+	}
+
+	@Override
+	public String getSenseDescription(String senseId)
+		throws SenseInventoryException
+	{
+		return getAnchorId(senseId) >= 0 ? senseId : "";
+	}
+
+	@Override
+	public POS getPos(String senseId)
+		throws SenseInventoryException
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Map<String, List<String>> getSenseInventory()
+		throws SenseInventoryException
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public String getSenseInventoryName()
+	{
+		return LinkDatabaseInventory.class.getSimpleName();
+	}
+
+	@Override
+	public int getNumberOfSenses()
+	{
+		return senseCount;
+	}
+
+	/**
+	 * @return the number of anchors in the database
+	 */
+	public int getNumberOfAnchors()
+	{
+		return anchorCount;
+	}
+
+	@Override
+	public int getUseCount(String senseId)
+		throws SenseInventoryException
+	{
+		throw new UnsupportedOperationException();
+	}
+}
@@ -0,0 +1,496 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Builds a {@link MappedLinkDatabase} file from the tables of a MySQL link
+ * database, exported as tab-separated files, e.g. with
+ * <code>mysqldump --tab</code> or <code>SELECT ... INTO OUTFILE</code>. The
+ * anchors and senses files must have the columns <code>id</code> and
+ * <code>name</code>, the links file the columns <code>anchorId</code>,
+ * <code>sourceId</code>, <code>senseId</code> and <code>counter</code>, in
+ * this order. Backslash escapes as written by MySQL are decoded.
+ * <p>
+ * Usage: <code>MappedLinkDatabaseImporter anchorsFile sensesFile linksFile
+ * outputFile</code>
+ *
+ */
+public class MappedLinkDatabaseImporter
+{
+	private final static Logger logger = Logger
+			.getLogger(MappedLinkDatabaseImporter.class.getName());
+
+	public static void main(String[] args)
+		throws Exception
+	{
+		if (args.length != 4) {
+			System.err
+					.println("Usage: MappedLinkDatabaseImporter anchorsFile sensesFile linksFile outputFile");
+			System.exit(1);
+		}
+		importTables(new File(args[0]), new File(args[1]), new File(args[2]),
+				new File(args[3]));
+		System.out.println("Wrote " + args[3]);
+	}
+
+	/**
+	 * Builds a link database file from exported tables.
+	 *
+	 * @param anchorsFile
+	 *            the anchors table
+	 * @param sensesFile
+	 *            the senses table
+	 * @param linksFile
+	 *            the links table
+	 * @param file
+	 *            the link database file to write
+	 * @throws IOException
+	 *             if a table cannot be read or the file cannot be written
+	 */
+	public static void importTables(File anchorsFile, File sensesFile,
+			File linksFile, File file)
+		throws IOException
+	{
+		NameTable anchors = new NameTable(anchorsFile);
+		NameTable senses = new NameTable(sensesFile);
+		checkIntSection(anchors.names.length + 1L, "Anchors");
+		checkIntSection(senses.names.length + 1L, "Senses");
+		logger.info("Read " + anchors.names.length + " anchors and "
+				+ senses.names.length + " senses");
+
+		// Read the links with positive counts between known IDs
+		IntList linkAnchors = new IntList();
+		IntList linkSources = new IntList();
+		IntList linkSenses = new IntList();
+		IntList linkCounts = new IntList();
+		BufferedReader reader = open(linksFile);
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] columns = line.split("\t");
+				if (columns.length < 4 || columns[3].equals("\\N")) {
+					continue;
+				}
+				int anchor = anchors.find(columns[0]);
+				int source = senses.find(columns[1]);
+				int sense = senses.find(columns[2]);
+				long count = Long.parseLong(columns[3]);
+				if (anchor < 0 || source < 0 || sense < 0 || count <= 0) {
+					continue;
+				}
+				checkIntSection(linkAnchors.size + 1L, "Links");
+				linkAnchors.add(anchor);
+				linkSources.add(source);
+				linkSenses.add(sense);
+				linkCounts.add((int) Math.min(count, Integer.MAX_VALUE));
+			}
+		}
+		finally {
+			reader.close();
+		}
+		logger.info("Read " + linkAnchors.size + " links");
+
+		// Anchor -> (target, count), summed over sources, by descending count
+		int[] targetOffsets = offsets(linkAnchors, anchors.names.length);
+		long[] pairs = new long[linkAnchors.size];
+		int[] next = Arrays.copyOf(targetOffsets, targetOffsets.length - 1);
+		for (int i = 0; i < linkAnchors.size; i++) {
+			pairs[next[linkAnchors.get(i)]++] = (long) linkSenses.get(i) << 32
+					| linkCounts.get(i);
+		}
+		int[] targets = new int[pairs.length];
+		int[] targetCounts = new int[pairs.length];
+		int[] anchorTotals = new int[anchors.names.length];
+		int linkCount = 0;
+		for (int anchor = 0; anchor < anchors.names.length; anchor++) {
+			int start = targetOffsets[anchor];
+			int end = targetOffsets[anchor + 1];
+			targetOffsets[anchor] = linkCount;
+			Arrays.sort(pairs, start, end);
+			int first = linkCount;
+			long total = 0;
+			for (int i = start; i < end; i++) {
+				int target = (int) (pairs[i] >>> 32);
+				int count = (int) pairs[i];
+				if (linkCount > first && targets[linkCount - 1] == target) {
+					targetCounts[linkCount - 1] = (int) Math.min(
+							(long) targetCounts[linkCount - 1] + count,
+							Integer.MAX_VALUE);
+				}
+				else {
+					targets[linkCount] = target;
+					targetCounts[linkCount++] = count;
+				}
+				total += count;
+			}
+			anchorTotals[anchor] = (int) Math.min(total, Integer.MAX_VALUE);
+			sortByDescendingCount(targets, targetCounts, pairs, first, linkCount);
+		}
+		targetOffsets[anchors.names.length] = linkCount;
+
+		// Sense -> distinct sources, in ascending order
+		int[] sourceOffsets = offsets(linkSenses, senses.names.length);
+		int[] sources = new int[linkSenses.size];
+		next = Arrays.copyOf(sourceOffsets, sourceOffsets.length - 1);
+		for (int i = 0; i < linkSenses.size; i++) {
+			sources[next[linkSenses.get(i)]++] = linkSources.get(i);
+		}
+		int sourceCount = 0;
+		for (int sense = 0; sense < senses.names.length; sense++) {
+			int start = sourceOffsets[sense];
+			int end = sourceOffsets[sense + 1];
+			sourceOffsets[sense] = sourceCount;
+			Arrays.sort(sources, start, end);
+			for (int i = start; i < end; i++) {
+				if (i == start || sources[i] != sources[i - 1]) {
+					sources[sourceCount++] = sources[i];
+				}
+			}
+		}
+		sourceOffsets[senses.names.length] = sourceCount;
+
+		write(file, anchors.names, senses.names, targetOffsets, targets,
+				targetCounts, linkCount, anchorTotals, sourceOffsets, sources,
+				sourceCount);
+	}
+
+	private static BufferedReader open(File file)
+		throws IOException
+	{
+		return new BufferedReader(new InputStreamReader(new FileInputStream(
+				file), MappedLinkDatabase.UTF8));
+	}
+
+	/**
+	 * @return the start offsets of the CSR rows of the given keys
+	 */
+	private static int[] offsets(IntList keys, int keyCount)
+	{
+		int[] offsets = new int[keyCount + 1];
+		for (int i = 0; i < keys.size; i++) {
+			offsets[keys.get(i) + 1]++;
+		}
+		for (int i = 0; i < keyCount; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		return offsets;
+	}
+
+	/**
+	 * Sorts a range of targets by descending count and then by ID, using the
+	 * already consumed part of the pairs array as scratch space
+	 */
+	private static void sortByDescendingCount(int[] targets, int[] counts,
+			long[] scratch, int start, int end)
+	{
+		for (int i = start; i < end; i++) {
+			scratch[i] = (long) (Integer.MAX_VALUE - counts[i]) << 32
+					| targets[i];
+		}
+		Arrays.sort(scratch, start, end);
+		for (int i = start; i < end; i++) {
+			targets[i] = (int) scratch[i];
+			counts[i] = Integer.MAX_VALUE - (int) (scratch[i] >>> 32);
+		}
+	}
+
+	private static void write(File file, String[] anchors, String[] senses,
+			int[] targetOffsets, int[] targets, int[] targetCounts,
+			int linkCount, int[] anchorTotals, int[] sourceOffsets,
+			int[] sources, int sourceCount)
+		throws IOException
+	{
+		byte[][] anchorNames = encode(anchors);
+		byte[][] senseNames = encode(senses);
+		int[] anchorIndex = buildIndex(anchorNames);
+		int[] senseIndex = buildIndex(senseNames);
+
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists()) {
+			parent.mkdirs();
+		}
+		File temp = File.createTempFile(file.getName(), ".tmp", parent);
+		try {
+			DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(temp),
+							1 << 16));
+			try {
+				out.writeInt(MappedLinkDatabase.MAGIC);
+				out.writeInt(MappedLinkDatabase.VERSION);
+				out.writeInt(anchors.length);
+				out.writeInt(senses.length);
+				out.writeInt(linkCount);
+				out.writeInt(sourceCount);
+				out.writeInt(anchorIndex.length);
+				out.writeInt(senseIndex.length);
+				out.writeInt(byteCount(anchorNames));
+				out.writeInt(byteCount(senseNames));
+				writeInts(out, anchorIndex, anchorIndex.length);
+				writeNames(out, anchorNames);
+				writeInts(out, senseIndex, senseIndex.length);
+				writeNames(out, senseNames);
+				writeInts(out, targetOffsets, targetOffsets.length);
+				writeInts(out, targets, linkCount);
+				writeInts(out, targetCounts, linkCount);
+				writeInts(out, anchorTotals, anchorTotals.length);
+				writeInts(out, sourceOffsets, sourceOffsets.length);
+				writeInts(out, sources, sourceCount);
+			}
+			finally {
+				out.close();
+			}
+			Files.move(temp.toPath(), file.toPath(),
+					StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			temp.delete();
+		}
+	}
+
+	private static byte[][] encode(String[] names)
+	{
+		byte[][] encoded = new byte[names.length][];
+		for (int i = 0; i < names.length; i++) {
+			encoded[i] = names[i].getBytes(MappedLinkDatabase.UTF8);
+		}
+		return encoded;
+	}
+
+	private static int[] buildIndex(byte[][] names)
+	{
+		int capacity = 2;
+		while (capacity < names.length * 2L) {
+			capacity <<= 1;
+		}
+		checkIntSection(capacity, "Hash table");
+		int[] index = new int[capacity];
+		for (int id = 0; id < names.length; id++) {
+			int slot = MappedLinkDatabase.hash(names[id]) & (capacity - 1);
+			while (index[slot] != 0) {
+				slot = (slot + 1) & (capacity - 1);
+			}
+			index[slot] = id + 1;
+		}
+		return index;
+	}
+
+	private static int byteCount(byte[][] names)
+	{
+		long count = 0;
+		for (byte[] name : names) {
+			count += name.length;
+		}
+		if (count > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Names exceed 2 GB");
+		}
+		return (int) count;
+	}
+
+	/**
+	 * Rejects sections of ints which could not be mapped as one buffer
+	 */
+	private static void checkIntSection(long length, String name)
+	{
+		if (length * 4 > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(name + " exceed 2 GB");
+		}
+	}
+
+	private static void writeInts(DataOutputStream out, int[] ints, int length)
+		throws IOException
+	{
+		for (int i = 0; i < length; i++) {
+			out.writeInt(ints[i]);
+		}
+	}
+
+	/**
+	 * Writes the offsets of the names followed by their bytes, padded to a
+	 * multiple of four
+	 */
+	private static void writeNames(DataOutputStream out, byte[][] names)
+		throws IOException
+	{
+		int offset = 0;
+		out.writeInt(offset);
+		for (byte[] name : names) {
+			offset += name.length;
+			out.writeInt(offset);
+		}
+		for (byte[] name : names) {
+			out.write(name);
+		}
+		for (int i = offset; i % 4 != 0; i++) {
+			out.writeByte(0);
+		}
+	}
+
+	/**
+	 * Decodes the backslash escapes MySQL writes in tab-separated exports
+	 */
+	static String unescape(String value)
+	{
+		if (value.indexOf('\\') < 0) {
+			return value;
+		}
+		StringBuilder unescaped = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\' && i + 1 < value.length()) {
+				c = value.charAt(++i);
+				switch (c) {
+				case 't':
+					c = '\t';
+					break;
+				case 'n':
+					c = '\n';
+					break;
+				case 'r':
+					c = '\r';
+					break;
+				case '0':
+					c = '\0';
+					break;
+				default:
+					break;
+				}
+			}
+			unescaped.append(c);
+		}
+		return unescaped.toString();
+	}
+
+	/**
+	 * An exported table of IDs and names. The rows are sorted by ID, and
+	 * the position of a row becomes its internal ID.
+	 */
+	private static class NameTable
+	{
+		private final long[] ids;
+		private final String[] names;
+
+		NameTable(File file)
+			throws IOException
+		{
+			LongList idList = new LongList();
+			List<String> nameList = new ArrayList<String>();
+			BufferedReader reader = open(file);
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					int tab = line.indexOf('\t');
+					if (tab < 0) {
+						continue;
+					}
+					checkIntSection(idList.size + 2L, "Rows of " + file);
+					idList.add(Long.parseLong(line.substring(0, tab)));
+					int end = line.indexOf('\t', tab + 1);
+					nameList.add(unescape(end < 0 ? line.substring(tab + 1)
+							: line.substring(tab + 1, end)));
+				}
+			}
+			finally {
+				reader.close();
+			}
+
+			final long[] unsorted = Arrays.copyOf(idList.values, idList.size);
+			Integer[] order = new Integer[unsorted.length];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, new Comparator<Integer>()
+			{
+				@Override
+				public int compare(Integer i1, Integer i2)
+				{
+					return Long.compare(unsorted[i1], unsorted[i2]);
+				}
+			});
+			ids = new long[order.length];
+			names = new String[order.length];
+			for (int i = 0; i < order.length; i++) {
+				ids[i] = unsorted[order[i]];
+				names[i] = nameList.get(order[i]);
+			}
+		}
+
+		/**
+		 * @return the internal ID of the row with the given ID, or -1
+		 */
+		int find(String id)
+		{
+			if (id.equals("\\N")) {
+				return -1;
+			}
+			int i = Arrays.binarySearch(ids, Long.parseLong(id));
+			return i < 0 ? -1 : i;
+		}
+	}
+
+	private static class IntList
+	{
+		private int[] values = new int[1024];
+		private int size = 0;
+
+		void add(int value)
+		{
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		int get(int i)
+		{
+			return values[i];
+		}
+	}
+
+	private static class LongList
+	{
+		private long[] values = new long[1024];
+		private int size = 0;
+
+		void add(long value)
+		{
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+	}
+}
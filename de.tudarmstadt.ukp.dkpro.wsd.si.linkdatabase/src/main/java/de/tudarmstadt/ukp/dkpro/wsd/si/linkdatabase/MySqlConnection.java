@@ -27,7 +27,10 @@ import java.sql.SQLException;
  * 
  * @author nico.erbs@gmail.com
  *
+ * @deprecated The link database classes use a
+ *             {@link LinkDatabaseConnectionPool} instead.
  */
+@Deprecated
 public class MySqlConnection {
 	static Connection conn = null;
 	
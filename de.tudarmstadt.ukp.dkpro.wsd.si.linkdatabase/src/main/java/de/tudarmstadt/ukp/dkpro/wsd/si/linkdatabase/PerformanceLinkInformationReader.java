@@ -22,17 +22,23 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.log4j.Logger;
 
+import de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.LinkDatabaseConnectionPool.PooledConnection;
 import de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.util.LinkIdentification;
+import de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.util.MilneWittenRelatedness;
 
 /**
- * A high-performance reader from a LinkDatabase
+ * A high-performance reader from a LinkDatabase. The reader takes its
+ * connections from a {@link LinkDatabaseConnectionPool} and is thread-safe.
  * 
  * @author nico.erbs@gmail.com
  *
@@ -42,22 +48,48 @@ public class PerformanceLinkInformationReader {
 	private final static Logger logger = Logger
 			.getLogger(PerformanceLinkInformationReader.class.getName());
 
-	private final String database;
-	private final String host;
-
 	public static enum TABLE{anchors,senses,links,unique_anchors};
 	public static enum COLUMN{id,anchorId,sourceId,senseId,counter,name}
 
+	/** The default number of connections of a reader */
+	public static final int DEFAULT_POOL_SIZE = 8;
+
+	/** The maximum number of IDs looked up by one query of {@link #getNames} */
+	public static final int MAX_BATCH_SIZE = 256;
+
+	/** The link queries for each combination of restricted anchor, source, and sense */
+	private static final String[] LINK_QUERIES = new String[8];
+	static {
+		COLUMN[] columns = {COLUMN.anchorId, COLUMN.sourceId, COLUMN.senseId};
+		for(int shape=0; shape<LINK_QUERIES.length; shape++){
+			EnumSet<COLUMN> restrictions = EnumSet.noneOf(COLUMN.class);
+			for(int i=0; i<columns.length; i++){
+				if((shape & (1 << i)) != 0){
+					restrictions.add(columns[i]);
+				}
+			}
+			LINK_QUERIES[shape] = createStatement(restrictions);
+		}
+	}
+
+	private final LinkDatabaseConnectionPool pool;
+
 	public PerformanceLinkInformationReader(String host,String database){
-		this.database = database;
-		this.host = host;
-		MySqlConnection.createConnection(host,database);
+		this(host, database, "student", "student");
 	}
 
 	public PerformanceLinkInformationReader(String host,String database, String user, String password){
-		this.database = database;
-		this.host = host;
-		MySqlConnection.createConnection(host,database, user, password);
+		this(LinkDatabaseConnectionPool.forMySql(host, database, user, password, DEFAULT_POOL_SIZE));
+	}
+
+	/**
+	 * Creates a reader which takes its connections from the given pool. The
+	 * reader can be shared by several threads.
+	 *
+	 * @param pool the connections to the link database
+	 */
+	public PerformanceLinkInformationReader(LinkDatabaseConnectionPool pool){
+		this.pool = pool;
 	}
 	
 	public int getLinkCount(String anchor, String source, String target, long min_count) throws Exception {
@@ -81,13 +113,32 @@ public class PerformanceLinkInformationReader {
 	}
 
 	public List<String> getLinkSources(String anchor, String source, String target, long min_count) throws Exception {
-		List<String> sources = new ArrayList<String>();
-		for(LinkIdentification link : query(anchor,source,target,min_count)){
-			sources.add(getName(TABLE.senses, link.getSourceId()));
+		List<LinkIdentification> links = query(anchor,source,target,min_count);
+		List<Long> sourceIds = new ArrayList<Long>(links.size());
+		for(LinkIdentification link : links){
+			sourceIds.add(link.getSourceId());
+		}
+		Map<Long,String> names = getNames(TABLE.senses, sourceIds);
+		List<String> sources = new ArrayList<String>(sourceIds.size());
+		for(Long sourceId : sourceIds){
+			sources.add(names.get(sourceId));
 		}
 		return sources;
 	}
 
+	/**
+	 * @return the IDs of the distinct sources of the matching links, in
+	 *         ascending order
+	 */
+	public int[] getLinkSourceIds(String anchor, String source, String target, long min_count) throws Exception {
+		List<LinkIdentification> links = query(anchor,source,target,min_count);
+		int[] sourceIds = new int[links.size()];
+		for(int i=0; i<sourceIds.length; i++){
+			sourceIds[i] = (int) links.get(i).getSourceId();
+		}
+		return MilneWittenRelatedness.sortedDistinct(sourceIds, sourceIds.length);
+	}
+
 	public boolean isLinkAnchor(String anchor, String source, String target, long min_count) throws Exception {
 		return !query(anchor,source,target,min_count).isEmpty();
 	}
@@ -150,10 +201,6 @@ public class PerformanceLinkInformationReader {
 
 
 	private List<LinkIdentification> query(String anchor, String source, String target, long minCount) throws Exception{
-		if(MySqlConnection.conn == null || MySqlConnection.conn.isClosed()){
-			MySqlConnection.createConnection(host,database);
-		}
-
 		//get IDs for parameters
 		//return empty list if one of them is not found
 
@@ -187,56 +234,34 @@ public class PerformanceLinkInformationReader {
 	private List<LinkIdentification> query(Long anchor, Long source, Long target, long minCount) throws Exception{
 		List<LinkIdentification> links = new ArrayList<LinkIdentification>();
 
-		PreparedStatement stmt = null;
-		ResultSet rs = null;
-
-		try {
-			if(MySqlConnection.conn == null || MySqlConnection.conn.isClosed()){
-				MySqlConnection.createConnection(host,database);
-			}
-
-			//get IDs for parameters
-			//return empty list if one of them is not found
-
-
-
-			HashMap<COLUMN, Long> restrictions = new HashMap<COLUMN,Long>();
-			//fill parameters into map
-			if(anchor != null){
-				if(anchor == -1){
-					return links;
-				}
-				restrictions.put(COLUMN.anchorId, anchor);
-			}
-
-			if(source != null){
-				if(source == -1){
+		//the restricted columns select one of the fixed query shapes
+		int shape = 0;
+		Long[] restrictions = {anchor, source, target};
+		for(int i=0; i<restrictions.length; i++){
+			if(restrictions[i] != null){
+				if(restrictions[i] == -1){
 					return links;
 				}
-				restrictions.put(COLUMN.sourceId, source);
+				shape |= 1 << i;
 			}
+		}
 
-			if(target != null){
-				if(target == -1){
-					return links;
-				}
-				restrictions.put(COLUMN.senseId, target);
-			}
-
-
-			stmt = MySqlConnection.conn.prepareStatement(createStatement(restrictions));
+		PooledConnection connection = pool.acquire();
+		ResultSet rs = null;
+		try {
+			PreparedStatement stmt = connection.prepare(LINK_QUERIES[shape]);
 
 			int counter = 1;
-			for(COLUMN key : restrictions.keySet()){
-				stmt.setLong(counter++, restrictions.get(key));
+			for(Long restriction : restrictions){
+				if(restriction != null){
+					stmt.setLong(counter++, restriction);
+				}
 			}
 			stmt.setLong(counter, minCount);
 
-
 			logger.debug(stmt.toString());
 
-			stmt.execute();
-			rs = stmt.getResultSet ();
+			rs = stmt.executeQuery();
 
 			//fill LinkIdentification from result set
 			while(rs.next()){
@@ -251,49 +276,26 @@ public class PerformanceLinkInformationReader {
 		}
 		catch (SQLException ex){
 			// handle any errors
+			connection.invalidate();
 			logger.warn("SQLException2: " + ex.getMessage());
 			logger.warn("SQLState: " + ex.getSQLState());
 			logger.warn("VendorError: " + ex.getErrorCode());
 		}
 		finally {
-			// it is a good idea to release
-			// resources in a finally{} block
-			// in reverse-order of their creation
-			// if they are no-longer needed
-
-			if (rs != null) {
-				try {
-					rs.close();
-				} catch (SQLException sqlEx) { } // ignore
-
-				rs = null;
-			}
-
-			if (stmt != null) {
-				try {
-					stmt.close();
-				} catch (SQLException sqlEx) { } // ignore
-
-				stmt = null;
-			}
+			close(rs);
+			pool.release(connection);
 		}
 		return links;
 
 	}
 
 	public long getId(TABLE table, String name) throws SQLException {
-		if(MySqlConnection.conn == null || MySqlConnection.conn.isClosed()){
-			MySqlConnection.createConnection(host,database);
-		}
-
-		PreparedStatement stmt = MySqlConnection.conn.prepareStatement("SELECT * FROM " + table.name() + " WHERE name=?");
-
-		stmt.setString(1, name);
+		PooledConnection connection = pool.acquire();
 		ResultSet rs = null;
-		long id = -1;
 		try{
-			stmt.execute();
-			rs = stmt.getResultSet ();
+			PreparedStatement stmt = connection.prepare("SELECT " + COLUMN.id + " FROM " + table.name() + " WHERE " + COLUMN.name + "=?");
+			stmt.setString(1, name);
+			rs = stmt.executeQuery();
 
 			//if there is no such an id return -1
 			if(!rs.next()){
@@ -301,37 +303,21 @@ public class PerformanceLinkInformationReader {
 			}
 
 			//get the id from the result set
-			id= rs.getLong(COLUMN.id.toString());
+			return rs.getLong(COLUMN.id.toString());
 			//TODO solve uppercase problem
 			//			if (rs.next()){
 			//				logger.log(Level.SEVERE,"Id is probably not unique");
 			//				throw new SQLException();
 			//			}
 		}
+		catch(SQLException e){
+			connection.invalidate();
+			throw e;
+		}
 		finally{
-			// it is a good idea to release
-			// resources in a finally{} block
-			// in reverse-order of their creation
-			// if they are no-longer needed
-
-			if (rs != null) {
-				try {
-					rs.close();
-				} catch (SQLException sqlEx) { } // ignore
-
-				rs = null;
-			}
-
-			if (stmt != null) {
-				try {
-					stmt.close();
-				} catch (SQLException sqlEx) { } // ignore
-
-				stmt = null;
-			}
+			close(rs);
+			pool.release(connection);
 		}
-
-		return id;
 	}
 
 	public String getName(TABLE table, Long id) throws SQLException {
@@ -339,18 +325,12 @@ public class PerformanceLinkInformationReader {
 			return null;
 		}
 
-		if(MySqlConnection.conn == null || MySqlConnection.conn.isClosed()){
-			MySqlConnection.createConnection(host,database);
-		}
-
-		PreparedStatement stmt = MySqlConnection.conn.prepareStatement("SELECT * FROM " + table.name() + " WHERE id=?");
-
-		stmt.setLong(1, id);
+		PooledConnection connection = pool.acquire();
 		ResultSet rs = null;
-		String name;
 		try{
-			stmt.execute();
-			rs = stmt.getResultSet();
+			PreparedStatement stmt = connection.prepare("SELECT " + COLUMN.name + " FROM " + table.name() + " WHERE " + COLUMN.id + "=?");
+			stmt.setLong(1, id);
+			rs = stmt.executeQuery();
 
 			//if there is no such an id return null
 			if(!rs.next()){
@@ -358,52 +338,110 @@ public class PerformanceLinkInformationReader {
 			}
 
 			//get the name from the result set
-			name= rs.getString(COLUMN.name.toString());
+			return rs.getString(COLUMN.name.toString());
+		}
+		catch(SQLException e){
+			connection.invalidate();
+			throw e;
 		}
 		finally{
-			// it is a good idea to release
-			// resources in a finally{} block
-			// in reverse-order of their creation
-			// if they are no-longer needed
-
-			if (rs != null) {
-				try {
-					rs.close();
-				} catch (SQLException sqlEx) { } // ignore
+			close(rs);
+			pool.release(connection);
+		}
+	}
 
-				rs = null;
+	/**
+	 * Looks up the names of several IDs with as few queries as possible. The
+	 * IDs are sent in chunks of at most {@link #MAX_BATCH_SIZE}. Each chunk is
+	 * padded to a power of two, so only a few statement shapes have to be
+	 * prepared.
+	 *
+	 * @param table the table of the IDs
+	 * @param ids the IDs to look up
+	 * @return a map from each found ID to its name
+	 * @throws SQLException
+	 */
+	public Map<Long,String> getNames(TABLE table, Collection<Long> ids) throws SQLException {
+		Map<Long,String> names = new HashMap<Long,String>();
+		long[] distinctIds = new long[ids.size()];
+		int size = 0;
+		for(Long id : new HashSet<Long>(ids)){
+			if(id != null){
+				distinctIds[size++] = id;
 			}
+		}
+		if(size == 0){
+			return names;
+		}
 
-			if (stmt != null) {
-				try {
-					stmt.close();
-				} catch (SQLException sqlEx) { } // ignore
-
-				stmt = null;
+		PooledConnection connection = pool.acquire();
+		try{
+			for(int start=0; start<size; start+=MAX_BATCH_SIZE){
+				int length = Math.min(MAX_BATCH_SIZE, size - start);
+				int paddedLength = Integer.highestOneBit(length);
+				if(paddedLength < length){
+					paddedLength <<= 1;
+				}
+				PreparedStatement stmt = connection.prepare(createNameStatement(table, paddedLength));
+				for(int i=0; i<paddedLength; i++){
+					stmt.setLong(i + 1, distinctIds[start + Math.min(i, length - 1)]);
+				}
+				ResultSet rs = stmt.executeQuery();
+				try{
+					while(rs.next()){
+						names.put(rs.getLong(COLUMN.id.toString()), rs.getString(COLUMN.name.toString()));
+					}
+				}
+				finally{
+					close(rs);
+				}
 			}
 		}
-
-		return name;
+		catch(SQLException e){
+			connection.invalidate();
+			throw e;
+		}
+		finally{
+			pool.release(connection);
+		}
+		return names;
 	}
 
-	private String createStatement(HashMap<COLUMN, Long> restrictions) {
-		String statement = "SELECT * FROM links l WHERE ";
+	private static String createNameStatement(TABLE table, int length) {
+		StringBuilder statement = new StringBuilder();
+		statement.append("SELECT ").append(COLUMN.id).append(", ").append(COLUMN.name);
+		statement.append(" FROM ").append(table.name());
+		statement.append(" WHERE ").append(COLUMN.id).append(" IN (?");
+		for(int i=1; i<length; i++){
+			statement.append(",?");
+		}
+		return statement.append(")").toString();
+	}
 
-		Iterator<COLUMN> keyIt = restrictions.keySet().iterator();
-		COLUMN nextKey;
-		while(keyIt.hasNext()){
-			nextKey = keyIt.next();
-			statement += nextKey.toString() + "= ?";
-			statement += " AND ";
+	private static String createStatement(EnumSet<COLUMN> restrictions) {
+		StringBuilder statement = new StringBuilder();
+		statement.append("SELECT ").append(COLUMN.anchorId).append(", ").append(COLUMN.sourceId);
+		statement.append(", ").append(COLUMN.senseId).append(", ").append(COLUMN.counter);
+		statement.append(" FROM ").append(TABLE.links).append(" WHERE ");
+		for(COLUMN column : restrictions){
+			statement.append(column).append("=? AND ");
 		}
-		statement += " "+COLUMN.counter+" > ?";
+		return statement.append(COLUMN.counter).append(" > ?").toString();
+	}
 
-		//		System.out.println(statement);
-		return statement;
+	private static void close(ResultSet rs) {
+		if (rs != null) {
+			try {
+				rs.close();
+			} catch (SQLException sqlEx) { } // ignore
+		}
 	}
 
+	/**
+	 * Closes all connections of this reader.
+	 */
 	public void closeDbConnection() {
-		MySqlConnection.closeConnection();
+		pool.close();
 	}
 
 	public int getNumberOfSenses() {
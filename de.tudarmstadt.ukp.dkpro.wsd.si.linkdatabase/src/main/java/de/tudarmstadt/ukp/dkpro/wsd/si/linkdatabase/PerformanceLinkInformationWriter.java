@@ -23,10 +23,13 @@ import java.sql.SQLException;
 
 import org.apache.log4j.Logger;
 
+import de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.LinkDatabaseConnectionPool.PooledConnection;
 import de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.PerformanceLinkInformationReader.TABLE;
 
 /**
- * A high-performace writer to the LinkDatabase
+ * A high-performace writer to the LinkDatabase. In bulk mode, links are
+ * added by a {@link LinkDatabaseBulkLoader} and only written when its buffer
+ * is full or the writer is closed.
  * 
  * @author nico.erbs@gmail.com
  *
@@ -36,17 +39,30 @@ public class PerformanceLinkInformationWriter{
 	private final static Logger logger = Logger
 			.getLogger(PerformanceLinkInformationWriter.class.getName());
 
-	private final String database;
-	private final String host;
+	private final LinkDatabaseConnectionPool pool;
 
 	private final PerformanceLinkInformationReader reader;
 
+	private final LinkDatabaseBulkLoader loader;
+
 	public PerformanceLinkInformationWriter(String host, String database) {
-		this.host = host;
-		this.database = database;
-		reader = new PerformanceLinkInformationReader(host, database);
-		MySqlConnection.createConnection(host,database);
+		pool = LinkDatabaseConnectionPool.forMySql(host, database, "student", "student", 1);
+		reader = new PerformanceLinkInformationReader(pool);
+		loader = null;
+	}
 
+	/**
+	 * @param host the database host
+	 * @param database the name of the database
+	 * @param user the database user
+	 * @param password the password of the user
+	 * @param bulkLoad whether links are buffered and written in batches
+	 * @throws SQLException if the IDs for bulk loading cannot be read
+	 */
+	public PerformanceLinkInformationWriter(String host, String database, String user, String password, boolean bulkLoad) throws SQLException {
+		pool = LinkDatabaseConnectionPool.forMySql(host, database, user, password, 1);
+		reader = new PerformanceLinkInformationReader(pool);
+		loader = bulkLoad ? new LinkDatabaseBulkLoader(pool) : null;
 	}
 
 	public void addLink(String anchor, String source, String sense){
@@ -54,7 +70,15 @@ public class PerformanceLinkInformationWriter{
 	}
 
 	public void closeDbConnection() {
-		MySqlConnection.closeConnection();
+		if(loader != null){
+			try {
+				loader.flush();
+			}
+			catch (SQLException ex){
+				logger.warn("SQLException: " + ex.getMessage());
+			}
+		}
+		pool.close();
 	}
 
 	public void addLinkDocCount(String anchor, long number) {
@@ -62,50 +86,47 @@ public class PerformanceLinkInformationWriter{
 	}
 
 	public void addId(TABLE table, String name) throws SQLException{
-		if(MySqlConnection.conn == null){
-			MySqlConnection.createConnection(host,database);
+		if(loader != null){
+			loader.addName(table, name);
+			return;
 		}
-		PreparedStatement stmt = null;
+		PooledConnection connection = pool.acquire();
 		try{
-			stmt = MySqlConnection.conn.prepareStatement(
+			PreparedStatement stmt = connection.prepare(
 			"INSERT into " + table.name() + " (name) values (?)");
 
 			stmt.setString(1, name);
 
 			stmt.execute();
 		}
+		catch(SQLException e){
+			connection.invalidate();
+			throw e;
+		}
 		finally {
-			// it is a good idea to release
-			// resources in a finally{} block
-			// in reverse-order of their creation
-			// if they are no-longer needed
-
-			if (stmt != null) {
-				try {
-					stmt.close();
-				} catch (SQLException sqlEx) { } // ignore
-
-				stmt = null;
-			}
+			pool.release(connection);
 		}
 
 	}
 
 	public void addLink(String anchor, String source, String sense,
 			Integer counter){
-		if(MySqlConnection.conn == null) {
-			MySqlConnection.createConnection(host,database);
-		}
-		PreparedStatement stmt = null;
+		PooledConnection connection = null;
 
 		try {
+			if(loader != null){
+				loader.addLink(anchor, source, sense, counter);
+				return;
+			}
+
 			//check and add IDs
 			long anchorId = checkId(TABLE.anchors, anchor);
 			long sourceId = checkId(TABLE.senses, source);
 			long senseId = checkId(TABLE.senses, sense);
 
 			//add links
-			stmt = MySqlConnection.conn.prepareStatement(
+			connection = pool.acquire();
+			PreparedStatement stmt = connection.prepare(
 					"INSERT into links (anchorId,sourceId,senseId,counter)" +
 			" values (?,?,?,?) ON DUPLICATE KEY UPDATE counter = counter + ?");
 			stmt.setLong(1, anchorId);
@@ -120,23 +141,17 @@ public class PerformanceLinkInformationWriter{
 		}
 		catch (SQLException ex){
 			// handle any errors
+			if (connection != null) {
+				connection.invalidate();
+			}
 			logger.warn("SQLException: " + ex.getMessage());
 			logger.warn("SQLState: " + ex.getSQLState());
 			logger.warn("VendorError: " + ex.getErrorCode());
 //			logger.log(Level.WARNING, stmt.toString());
 		}
 		finally {
-			// it is a good idea to release
-			// resources in a finally{} block
-			// in reverse-order of their creation
-			// if they are no-longer needed
-
-			if (stmt != null) {
-				try {
-					stmt.close();
-				} catch (SQLException sqlEx) { } // ignore
-
-				stmt = null;
+			if (connection != null) {
+				pool.release(connection);
 			}
 		}
 
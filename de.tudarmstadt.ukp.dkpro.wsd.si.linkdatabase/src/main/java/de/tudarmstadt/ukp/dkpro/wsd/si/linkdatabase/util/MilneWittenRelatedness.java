@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the link-based relatedness of Wikipedia pages by Milne &amp;
+ * Witten from the pages linking to them:
+ *
+ * <pre>
+ * distance(a, b) = (log(max(|A|, |B|)) - log(|A ∩ B|)) / (log(|W|) - log(min(|A|, |B|)))
+ * </pre>
+ *
+ * where A and B are the sets of pages linking to a and b, and W is the set
+ * of all pages. The incoming links of a page are represented as a sorted
+ * array of distinct page IDs, so that the shared links of two pages are
+ * counted by merging the arrays.
+ *
+ */
+public class MilneWittenRelatedness
+{
+	/**
+	 * If one array is this many times longer than the other, the shared
+	 * links are found by binary search instead of merging.
+	 */
+	private static final int GALLOP_RATIO = 16;
+
+	private final double logNumberOfPages;
+
+	private final Map<String, Integer> pageIds = new HashMap<String, Integer>();
+
+	/**
+	 * @param numberOfPages
+	 *            the number of pages |W|
+	 */
+	public MilneWittenRelatedness(int numberOfPages)
+	{
+		logNumberOfPages = Math.log(numberOfPages);
+	}
+
+	/**
+	 * Converts page names to a sorted array of distinct IDs. Unknown names
+	 * get new IDs, so the arrays are only comparable if they were created by
+	 * the same instance.
+	 *
+	 * @param pages
+	 *            the names of pages
+	 * @return the sorted IDs of the distinct pages
+	 */
+	public synchronized int[] toIds(Collection<String> pages)
+	{
+		int[] ids = new int[pages.size()];
+		int i = 0;
+		for (String page : pages) {
+			Integer id = pageIds.get(page);
+			if (id == null) {
+				id = pageIds.size();
+				pageIds.put(page, id);
+			}
+			ids[i++] = id;
+		}
+		return sortedDistinct(ids, ids.length);
+	}
+
+	/**
+	 * @return the number of page names which have been given an ID
+	 */
+	public synchronized int getNumberOfPageIds()
+	{
+		return pageIds.size();
+	}
+
+	/**
+	 * Forgets the IDs of all page names, e.g. to bound the memory used by a
+	 * long-lived instance. Arrays created by {@link #toIds} before are not
+	 * comparable to the arrays created afterwards.
+	 */
+	public synchronized void clearPageIds()
+	{
+		pageIds.clear();
+	}
+
+	/**
+	 * Sorts the first {@code length} IDs in place and removes duplicates.
+	 *
+	 * @return the sorted distinct IDs, which may be the given array
+	 */
+	public static int[] sortedDistinct(int[] ids, int length)
+	{
+		Arrays.sort(ids, 0, length);
+		int distinct = 0;
+		for (int i = 0; i < length; i++) {
+			if (i == 0 || ids[i] != ids[distinct - 1]) {
+				ids[distinct++] = ids[i];
+			}
+		}
+		return distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
+	}
+
+	/**
+	 * @return the number of IDs contained in both sorted arrays
+	 */
+	public static int countShared(int[] a, int[] b)
+	{
+		if (a.length > b.length) {
+			int[] swap = a;
+			a = b;
+			b = swap;
+		}
+		int shared = 0;
+		if (a.length * GALLOP_RATIO < b.length) {
+			int from = 0;
+			for (int id : a) {
+				int position = Arrays.binarySearch(b, from, b.length, id);
+				if (position >= 0) {
+					shared++;
+					from = position + 1;
+				}
+				else {
+					from = -position - 1;
+				}
+			}
+			return shared;
+		}
+		int i = 0;
+		int j = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			}
+			else if (a[i] > b[j]) {
+				j++;
+			}
+			else {
+				shared++;
+				i++;
+				j++;
+			}
+		}
+		return shared;
+	}
+
+	/**
+	 * Counts the shared incoming links of all pairs of pages.
+	 *
+	 * @param links
+	 *            the sorted incoming link IDs of each page
+	 * @param parallel
+	 *            whether the rows are computed in parallel
+	 * @return a symmetric matrix of the number of shared incoming links,
+	 *         with the number of incoming links on the diagonal
+	 */
+	public static int[][] countSharedLinks(final int[][] links,
+			boolean parallel)
+	{
+		final int[][] shared = new int[links.length][links.length];
+		IntStream rows = IntStream.range(0, links.length);
+		if (parallel) {
+			rows = rows.parallel();
+		}
+		rows.forEach(new IntConsumer()
+		{
+			@Override
+			public void accept(int i)
+			{
+				shared[i][i] = links[i].length;
+				for (int j = i + 1; j < links.length; j++) {
+					shared[i][j] = countShared(links[i], links[j]);
+				}
+			}
+		});
+		for (int i = 0; i < links.length; i++) {
+			for (int j = 0; j < i; j++) {
+				shared[i][j] = shared[j][i];
+			}
+		}
+		return shared;
+	}
+
+	/**
+	 * @return the Milne &amp; Witten distance of two pages with the given
+	 *         numbers of incoming and shared links. It is infinite if the
+	 *         pages share no links.
+	 */
+	public double distance(int linksA, int linksB, int sharedLinks)
+	{
+		return (Math.log(Math.max(linksA, linksB)) - Math.log(sharedLinks))
+				/ (logNumberOfPages - Math.log(Math.min(linksA, linksB)));
+	}
+
+	/**
+	 * @return the Milne &amp; Witten distance of two pages with the given
+	 *         sorted incoming link IDs
+	 */
+	public double distance(int[] linksA, int[] linksB)
+	{
+		return distance(linksA.length, linksB.length,
+				countShared(linksA, linksB));
+	}
+
+	/**
+	 * @return the relatedness of two pages with the given sorted incoming
+	 *         link IDs, i.e. one minus their distance, or 0 if the distance
+	 *         is undefined or greater than one
+	 */
+	public double relatedness(int[] linksA, int[] linksB)
+	{
+		double distance = distance(linksA, linksB);
+		if (Double.isNaN(distance) || Double.isInfinite(distance)
+				|| distance > 1) {
+			distance = 1;
+		}
+		return 1 - distance;
+	}
+}
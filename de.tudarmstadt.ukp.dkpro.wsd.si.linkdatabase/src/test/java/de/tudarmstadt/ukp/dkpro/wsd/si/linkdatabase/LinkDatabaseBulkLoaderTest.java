@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.PerformanceLinkInformationReader.TABLE;
+
+public class LinkDatabaseBulkLoaderTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteTables()
+        throws Exception
+    {
+        LinkDatabaseBulkLoader loader = new LinkDatabaseBulkLoader();
+        loader.addLink("jaguar", "Zoo", "Jaguar", 3);
+        loader.addLink("jaguar", "Café", "Jaguar_Cars", 5);
+        loader.addLink("bank", "River", "Bank", 3);
+        loader.addLink("jaguar", "River", "Jaguar", 2);
+        loader.addLink("jaguar", "Zoo", "Jaguar", 1);
+        loader.addLink("J\tX", "Café", "Jaguar_Cars", 1);
+        assertEquals(6, loader.getLinkCount());
+        assertEquals(1, loader.getId(TABLE.anchors, "jaguar"));
+        assertEquals(-1, loader.getId(TABLE.anchors, "Zoo"));
+
+        File directory = folder.newFolder("tables");
+        loader.writeTables(directory);
+
+        assertEquals(Arrays.asList("1\tjaguar", "2\tbank", "3\tJ\\tX"),
+                FileUtils.readLines(new File(directory, "anchors.txt"),
+                        "UTF-8"));
+        assertEquals(Arrays.asList("1\t1\t2\t4", "1\t3\t4\t5", "1\t5\t2\t2",
+                "2\t5\t6\t3", "3\t3\t4\t1"), FileUtils.readLines(new File(
+                directory, "links.txt"), "UTF-8"));
+
+        File file = new File(folder.getRoot(), "links.db");
+        MappedLinkDatabaseImporter.importTables(new File(directory,
+                "anchors.txt"), new File(directory, "senses.txt"), new File(
+                directory, "links.txt"), file);
+        MappedLinkDatabase database = new MappedLinkDatabase(file);
+        Map<String, Double> senses = database.getWeightedSenses("jaguar");
+        assertEquals(6 / 11.0, senses.get("Jaguar"), 1e-9);
+        assertEquals(5 / 11.0, senses.get("Jaguar_Cars"), 1e-9);
+        assertEquals(Arrays.asList("Jaguar_Cars"), database.getSenses("J\tX"));
+        assertEquals(Arrays.asList("Zoo", "River"),
+                database.getIncomingLinks("Jaguar"));
+    }
+
+    @Test
+    public void testEscape()
+    {
+        for (String value : Arrays.asList("plain", "a\\b", "tab\there",
+                "line\nbreak\r", "nul\0", "")) {
+            assertEquals(value, MappedLinkDatabaseImporter
+                    .unescape(LinkDatabaseBulkLoader.escape(value)));
+        }
+        assertEquals("a\\\\b\\t", LinkDatabaseBulkLoader.escape("a\\b\t"));
+    }
+
+    @Test
+    public void testRetryAfterFailedBatch()
+        throws Exception
+    {
+        final Map<String, Long> committed = new HashMap<String, Long>();
+        final int[] failingBatch = { 2 };
+        LinkDatabaseConnectionPool pool = new LinkDatabaseConnectionPool(
+                new LinkDatabaseConnectionPool.ConnectionFactory()
+                {
+                    @Override
+                    public Connection createConnection()
+                    {
+                        return connection(committed, failingBatch);
+                    }
+                }, 1);
+        LinkDatabaseBulkLoader loader = new LinkDatabaseBulkLoader(pool);
+        loader.setBatchSize(2);
+        for (int i = 0; i < 5; i++) {
+            loader.addLink("a" + i, "Source", "Sense", i + 1);
+        }
+        try {
+            loader.flush();
+            fail("Failing batch was not reported");
+        }
+        catch (SQLException e) {
+            // expected
+        }
+        // The first batch is committed and must not be written again
+        assertEquals(2, committed.size());
+        loader.addLink("a4", "Source", "Sense", 10);
+        loader.addLink("a5", "Source", "Sense", 6);
+        loader.close();
+
+        assertEquals(6, committed.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Long.valueOf(i + 1), committed.get((i + 1) + "\t1\t2"));
+        }
+        assertEquals(Long.valueOf(15), committed.get("5\t1\t2"));
+        assertEquals(Long.valueOf(6), committed.get("6\t1\t2"));
+    }
+
+    /**
+     * A connection which sums the counters of committed link batches and
+     * fails the given link batch once.
+     */
+    private static Connection connection(final Map<String, Long> committed,
+            final int[] failingBatch)
+    {
+        final Map<String, Long> pending = new HashMap<String, Long>();
+        return proxy(Connection.class, new InvocationHandler()
+        {
+            private int batches = 0;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+                throws SQLException
+            {
+                String name = method.getName();
+                if (name.equals("prepareStatement")) {
+                    final String sql = (String) args[0];
+                    final List<Object> row = new ArrayList<Object>();
+                    final List<String> batch = new ArrayList<String>();
+                    return proxy(PreparedStatement.class,
+                            new InvocationHandler()
+                            {
+                                @Override
+                                public Object invoke(Object proxy,
+                                        Method method, Object[] args)
+                                    throws SQLException
+                                {
+                                    String name = method.getName();
+                                    if (name.equals("setLong")) {
+                                        row.add(args[1]);
+                                    }
+                                    else if (name.equals("addBatch")) {
+                                        if (sql.contains("links")) {
+                                            batch.add(row.get(0) + "\t"
+                                                    + row.get(1) + "\t"
+                                                    + row.get(2) + "\t"
+                                                    + row.get(3));
+                                        }
+                                        row.clear();
+                                    }
+                                    else if (name.equals("executeBatch")) {
+                                        executeBatch(batch);
+                                    }
+                                    else if (name.equals("executeQuery")) {
+                                        return emptyResultSet();
+                                    }
+                                    return null;
+                                }
+                            });
+                }
+                else if (name.equals("commit")) {
+                    for (Map.Entry<String, Long> entry : pending.entrySet()) {
+                        Long counter = committed.get(entry.getKey());
+                        committed.put(entry.getKey(), entry.getValue()
+                                + (counter == null ? 0 : counter));
+                    }
+                    pending.clear();
+                }
+                else if (name.equals("rollback")) {
+                    pending.clear();
+                }
+                else if (name.equals("isClosed")) {
+                    return false;
+                }
+                return null;
+            }
+
+            private void executeBatch(List<String> batch)
+                throws SQLException
+            {
+                if (batch.isEmpty()) {
+                    return;
+                }
+                if (++batches == failingBatch[0]) {
+                    batch.clear();
+                    throw new SQLException("Batch failed");
+                }
+                for (String link : batch) {
+                    String key = link.substring(0, link.lastIndexOf('\t'));
+                    long counter = Long.parseLong(link.substring(key
+                            .length() + 1));
+                    Long sum = pending.get(key);
+                    pending.put(key, counter + (sum == null ? 0 : sum));
+                }
+                batch.clear();
+            }
+        });
+    }
+
+    private static ResultSet emptyResultSet()
+    {
+        return proxy(ResultSet.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                return method.getName().equals("next") ? false : null;
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler)
+    {
+        return (T) Proxy.newProxyInstance(
+                LinkDatabaseBulkLoaderTest.class.getClassLoader(),
+                new Class<?>[] { type }, handler);
+    }
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedLinkDatabaseTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private MappedLinkDatabase database;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        File anchors = folder.newFile("anchors.txt");
+        FileUtils.writeStringToFile(anchors, "10\tjaguar\n11\tbank\n12\tJ\\tX\n",
+                "UTF-8");
+        File senses = folder.newFile("senses.txt");
+        FileUtils.writeStringToFile(senses, "7\tZoo\n3\tJaguar\n5\tJaguar_Cars\n"
+                + "4\tBank\n6\tRiver\n9\tCafé\n", "UTF-8");
+        File links = folder.newFile("links.txt");
+        FileUtils.writeStringToFile(links,
+                // anchorId, sourceId, senseId, counter
+                "10\t7\t3\t4\n" + "10\t6\t3\t2\n" + "10\t9\t5\t5\n"
+                        + "10\t7\t5\t0\n" + "11\t6\t4\t3\n" + "11\t99\t4\t3\n"
+                        + "12\t9\t5\t1\n" + "12\t9\t5\t1\n", "UTF-8");
+
+        file = new File(folder.getRoot(), "links.db");
+        MappedLinkDatabaseImporter.importTables(anchors, senses, links, file);
+        database = new MappedLinkDatabase(file);
+    }
+
+    @Test
+    public void testWeightedSenses()
+        throws Exception
+    {
+        Map<String, Double> senses = database.getWeightedSenses("jaguar");
+        assertEquals(2, senses.size());
+        assertEquals(6 / 11.0, senses.get("Jaguar"), 1e-9);
+        assertEquals(5 / 11.0, senses.get("Jaguar_Cars"), 1e-9);
+        assertEquals(Arrays.asList("Jaguar", "Jaguar_Cars"),
+                database.getSenses("jaguar"));
+        assertEquals("Jaguar", database.getMostFrequentSense("jaguar"));
+
+        assertEquals(1.0, database.getWeightedSenses("bank").get("Bank"), 1e-9);
+        assertEquals(Arrays.asList("Jaguar_Cars"), database.getSenses("J\tX"));
+        assertTrue(database.getWeightedSenses("river").isEmpty());
+        assertNull(database.getMostFrequentSense("river"));
+    }
+
+    @Test
+    public void testIncomingLinks()
+        throws Exception
+    {
+        assertEquals(Arrays.asList("River", "Zoo"),
+                database.getIncomingLinks("Jaguar"));
+        assertEquals(Arrays.asList("Café"),
+                database.getIncomingLinks("Jaguar_Cars"));
+        assertArrayEquals(new int[] { database.getSenseId("River") },
+                database.getIncomingLinkIds("Bank"));
+        assertEquals(0, database.getIncomingLinks("Zoo").size());
+        assertEquals(0, database.getIncomingLinkIds("Unknown").length);
+
+        assertEquals(6, database.getNumberOfSenses());
+        assertEquals(3, database.getNumberOfAnchors());
+        assertEquals("jaguar", database.getSenseDescription("jaguar"));
+        assertEquals("", database.getSenseDescription("Jaguar"));
+    }
+
+    @Test
+    public void testOversizedSection()
+        throws Exception
+    {
+        // A source count whose section would be 4 GB must not wrap around to
+        // an empty section
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(20);
+            raf.writeInt(1 << 30);
+        }
+        finally {
+            raf.close();
+        }
+        try {
+            new MappedLinkDatabase(file);
+            fail("Oversized section was accepted");
+        }
+        catch (IOException e) {
+            // expected
+        }
+    }
+}
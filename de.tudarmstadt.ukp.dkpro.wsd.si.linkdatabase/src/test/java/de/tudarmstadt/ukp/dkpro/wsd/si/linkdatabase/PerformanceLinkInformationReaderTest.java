@@ -0,0 +1,456 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.LinkDatabaseConnectionPool.PooledConnection;
+import de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.PerformanceLinkInformationReader.TABLE;
+
+/**
+ * Tests the reader against an in-memory stand-in for the JDBC driver, which
+ * understands the simple queries issued by the reader.
+ */
+public class PerformanceLinkInformationReaderTest
+{
+    private final Map<String, List<Map<String, Object>>> tables = new HashMap<String, List<Map<String, Object>>>();
+    private final List<String> executedQueries = Collections
+            .synchronizedList(new ArrayList<String>());
+    private final AtomicInteger preparedStatements = new AtomicInteger();
+    private final AtomicInteger openedConnections = new AtomicInteger();
+    private volatile boolean failConnections = false;
+
+    private LinkDatabaseConnectionPool pool;
+    private PerformanceLinkInformationReader reader;
+
+    @Before
+    public void setUp()
+    {
+        addNames("anchors", 10, "jaguar", 11, "bank");
+        addNames("senses", 3, "Jaguar", 5, "Jaguar_Cars", 4, "Bank", 6,
+                "River", 7, "Zoo", 9, "Café");
+        addLink(10, 7, 3, 4);
+        addLink(10, 6, 3, 2);
+        addLink(10, 9, 5, 5);
+        addLink(10, 7, 5, 0);
+        addLink(11, 6, 4, 3);
+
+        pool = new LinkDatabaseConnectionPool(
+                new LinkDatabaseConnectionPool.ConnectionFactory()
+                {
+                    @Override
+                    public Connection createConnection()
+                        throws SQLException
+                    {
+                        if (failConnections) {
+                            throw new SQLException("Connection refused");
+                        }
+                        openedConnections.incrementAndGet();
+                        return connection();
+                    }
+                }, 2);
+        pool.setFetchSize(100);
+        reader = new PerformanceLinkInformationReader(pool);
+    }
+
+    @Test
+    public void testQueries()
+        throws Exception
+    {
+        assertEquals(10, reader.getId(TABLE.anchors, "jaguar"));
+        assertEquals(-1, reader.getId(TABLE.anchors, "zoo"));
+        assertEquals("Zoo", reader.getName(TABLE.senses, 7L));
+        assertNull(reader.getName(TABLE.senses, 8L));
+
+        Map<Long, Long> targets = reader.getLinkTargets("jaguar", null, null,
+                0);
+        assertEquals(2, targets.size());
+        assertEquals(Long.valueOf(6), targets.get(3L));
+        assertEquals(Long.valueOf(5), targets.get(5L));
+        assertEquals(Long.valueOf(3), reader.getMostFrequentLinkTarget(
+                "jaguar", "Zoo", null, 0));
+        assertEquals(0, reader.getLinkTargets("jaguar", "Bank", null, 0)
+                .size());
+        assertEquals(Arrays.asList("Zoo", "River"),
+                reader.getLinkSources(null, null, "Jaguar", 0));
+        assertArrayEquals(new int[] { 6, 7, 9 },
+                reader.getLinkSourceIds("jaguar", null, null, 0));
+
+        LinkDatabaseInventory inventory = new LinkDatabaseInventory(reader);
+        Map<String, Double> senses = inventory.getWeightedSenses("jaguar");
+        assertEquals(6 / 11.0, senses.get("Jaguar"), 1e-9);
+        assertEquals(5 / 11.0, senses.get("Jaguar_Cars"), 1e-9);
+        // The most frequent sense is the target of the most frequent single link
+        assertEquals("Jaguar_Cars", inventory.getMostFrequentSense("jaguar"));
+
+        // Repeated query shapes reuse the prepared statements
+        int prepared = preparedStatements.get();
+        reader.getLinkTargets("bank", null, null, 0);
+        inventory.getWeightedSenses("jaguar");
+        assertEquals(prepared, preparedStatements.get());
+        assertEquals(1, openedConnections.get());
+    }
+
+    @Test
+    public void testBatchedNames()
+        throws Exception
+    {
+        List<Long> ids = new ArrayList<Long>();
+        for (long id = 1000; id < 1300; id++) {
+            addNames("senses", id, "Page " + id);
+            ids.add(id);
+        }
+        ids.add(3L);
+        ids.add(3L);
+        ids.add(2L);
+
+        Map<Long, String> names = reader.getNames(TABLE.senses, ids);
+        assertEquals(301, names.size());
+        assertEquals("Page 1299", names.get(1299L));
+        assertEquals("Jaguar", names.get(3L));
+
+        // 302 distinct IDs need one full batch and one padded to 64 IDs
+        assertEquals(2, executedQueries.size());
+        for (String query : executedQueries) {
+            assertTrue(query, query.contains(" IN ("));
+        }
+        assertTrue(executedQueries.get(1).endsWith(
+                "?" + repeat(",?", 63) + ")"));
+        assertTrue(reader.getNames(TABLE.senses, new ArrayList<Long>())
+                .isEmpty());
+    }
+
+    @Test
+    public void testConcurrentQueries()
+        throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Map<Long, Long>>> results = new ArrayList<Future<Map<Long, Long>>>();
+        for (int i = 0; i < 100; i++) {
+            results.add(executor.submit(new Callable<Map<Long, Long>>()
+            {
+                @Override
+                public Map<Long, Long> call()
+                    throws Exception
+                {
+                    return reader.getLinkTargets("jaguar", null, null, 0);
+                }
+            }));
+        }
+        for (Future<Map<Long, Long>> result : results) {
+            assertEquals(Long.valueOf(6), result.get().get(3L));
+        }
+        executor.shutdown();
+        assertTrue(openedConnections.get() <= pool.getSize());
+        reader.closeDbConnection();
+    }
+
+    @Test
+    public void testFailedQueryReplacesConnection()
+        throws Exception
+    {
+        assertEquals(10, reader.getId(TABLE.anchors, "jaguar"));
+        List<Map<String, Object>> anchors = tables.remove("anchors");
+        try {
+            reader.getId(TABLE.anchors, "jaguar");
+            fail("Query on a missing table succeeded");
+        }
+        catch (SQLException e) {
+            // expected
+        }
+        tables.put("anchors", anchors);
+
+        // The failed connection was discarded and a new one is opened
+        assertEquals(1, openedConnections.get());
+        int prepared = preparedStatements.get();
+        assertEquals(10, reader.getId(TABLE.anchors, "jaguar"));
+        assertEquals(prepared + 1, preparedStatements.get());
+        assertEquals(2, openedConnections.get());
+    }
+
+    @Test
+    public void testCloseWakesWaitingCallers()
+        throws Exception
+    {
+        pool.acquire();
+        pool.acquire();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<PooledConnection> waiting = executor.submit(new Callable<PooledConnection>()
+        {
+            @Override
+            public PooledConnection call()
+                throws Exception
+            {
+                return pool.acquire();
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+        pool.close();
+        try {
+            waiting.get(10, TimeUnit.SECONDS);
+            fail("Waiting caller got a connection of a closed pool");
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+        finally {
+            executor.shutdown();
+        }
+        try {
+            pool.acquire();
+            fail("Closed pool handed out a connection");
+        }
+        catch (SQLException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFailedReopenKeepsVacancy()
+        throws Exception
+    {
+        final PooledConnection connection = pool.acquire();
+        pool.acquire();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<PooledConnection> waiting = executor.submit(new Callable<PooledConnection>()
+        {
+            @Override
+            public PooledConnection call()
+                throws Exception
+            {
+                return pool.acquire();
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+
+        // The database is down when the broken connection is released
+        failConnections = true;
+        connection.invalidate();
+        pool.release(connection);
+        try {
+            waiting.get(10, TimeUnit.SECONDS);
+            fail("Waiting caller got a connection of a database which is down");
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        // The slot of the discarded connection is not lost
+        failConnections = false;
+        assertEquals(10, reader.getId(TABLE.anchors, "jaguar"));
+        assertEquals(3, openedConnections.get());
+    }
+
+    private void addNames(String table, Object... idsAndNames)
+    {
+        for (int i = 0; i < idsAndNames.length; i += 2) {
+            Map<String, Object> row = new HashMap<String, Object>();
+            row.put("id", ((Number) idsAndNames[i]).longValue());
+            row.put("name", idsAndNames[i + 1]);
+            addRow(table, row);
+        }
+    }
+
+    private void addLink(long anchorId, long sourceId, long senseId,
+            long counter)
+    {
+        Map<String, Object> row = new HashMap<String, Object>();
+        row.put("anchorId", anchorId);
+        row.put("sourceId", sourceId);
+        row.put("senseId", senseId);
+        row.put("counter", counter);
+        addRow("links", row);
+    }
+
+    private void addRow(String table, Map<String, Object> row)
+    {
+        if (!tables.containsKey(table)) {
+            tables.put(table, new ArrayList<Map<String, Object>>());
+        }
+        tables.get(table).add(row);
+    }
+
+    private static String repeat(String s, int times)
+    {
+        StringBuilder repeated = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            repeated.append(s);
+        }
+        return repeated.toString();
+    }
+
+    private Connection connection()
+    {
+        return proxy(Connection.class, new InvocationHandler()
+        {
+            private boolean closed = false;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("prepareStatement")) {
+                    preparedStatements.incrementAndGet();
+                    return statement((String) args[0]);
+                }
+                else if (method.getName().equals("close")) {
+                    closed = true;
+                }
+                else if (method.getName().equals("isClosed")) {
+                    return closed;
+                }
+                return null;
+            }
+        });
+    }
+
+    private PreparedStatement statement(final String sql)
+    {
+        final Map<Integer, Object> parameters = new HashMap<Integer, Object>();
+        return proxy(PreparedStatement.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+                throws SQLException
+            {
+                String name = method.getName();
+                if (name.equals("setLong") || name.equals("setString")) {
+                    parameters.put((Integer) args[0], args[1]);
+                }
+                else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                }
+                else if (name.equals("executeQuery")) {
+                    executedQueries.add(sql);
+                    return resultSet(select(sql, parameters));
+                }
+                else if (name.equals("toString")) {
+                    return sql;
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Evaluates queries of the form
+     * {@code SELECT ... FROM table WHERE a=? AND b IN (?,?) AND c > ?}.
+     */
+    private List<Map<String, Object>> select(String sql,
+            Map<Integer, Object> parameters)
+        throws SQLException
+    {
+        String[] parts = sql.split(" FROM | WHERE ");
+        if (parts.length != 3 || !tables.containsKey(parts[1])) {
+            throw new SQLException("Unsupported query " + sql);
+        }
+        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        for (Map<String, Object> row : tables.get(parts[1])) {
+            int parameter = 1;
+            boolean matches = true;
+            for (String condition : parts[2].split(" AND ")) {
+                String[] operands = condition.split(" IN \\(|=| > ");
+                Object value = row.get(operands[0].trim());
+                if (condition.contains(" IN (")) {
+                    boolean found = false;
+                    for (int i = 0; i < operands[1].split(",").length; i++) {
+                        found |= value.equals(parameters.get(parameter++));
+                    }
+                    matches &= found;
+                }
+                else if (condition.contains(" > ")) {
+                    matches &= (Long) value > (Long) parameters
+                            .get(parameter++);
+                }
+                else {
+                    matches &= value.equals(parameters.get(parameter++));
+                }
+            }
+            if (matches) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static ResultSet resultSet(final List<Map<String, Object>> rows)
+    {
+        return proxy(ResultSet.class, new InvocationHandler()
+        {
+            private int row = -1;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                String name = method.getName();
+                if (name.equals("next")) {
+                    return ++row < rows.size();
+                }
+                else if (name.equals("getLong")) {
+                    return rows.get(row).get(args[0]);
+                }
+                else if (name.equals("getString")) {
+                    return rows.get(row).get(args[0]);
+                }
+                return null;
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler)
+    {
+        return (T) Proxy.newProxyInstance(
+                PerformanceLinkInformationReaderTest.class.getClassLoader(),
+                new Class<?>[] { type }, handler);
+    }
+}
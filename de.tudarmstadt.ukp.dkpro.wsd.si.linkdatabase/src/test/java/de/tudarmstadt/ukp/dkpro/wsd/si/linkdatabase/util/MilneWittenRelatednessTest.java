@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si.linkdatabase.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MilneWittenRelatednessTest
+{
+    @Test
+    public void testToIds()
+    {
+        MilneWittenRelatedness relatedness = new MilneWittenRelatedness(100);
+        int[] a = relatedness.toIds(Arrays.asList("Zoo", "River", "Zoo"));
+        int[] b = relatedness.toIds(Arrays.asList("Bank", "River"));
+        assertArrayEquals(new int[] { 0, 1 }, a);
+        assertArrayEquals(new int[] { 1, 2 }, b);
+        assertEquals(1, MilneWittenRelatedness.countShared(a, b));
+
+        assertEquals(3, relatedness.getNumberOfPageIds());
+        relatedness.clearPageIds();
+        assertEquals(0, relatedness.getNumberOfPageIds());
+        assertArrayEquals(new int[] { 0 },
+                relatedness.toIds(Arrays.asList("Bank")));
+    }
+
+    @Test
+    public void testRelatedness()
+    {
+        MilneWittenRelatedness relatedness = new MilneWittenRelatedness(1000);
+        int[] a = { 1, 2, 3, 4 };
+        int[] b = { 3, 4, 5, 6, 7, 8, 9, 10 };
+        double expected = (Math.log(8) - Math.log(2))
+                / (Math.log(1000) - Math.log(4));
+        assertEquals(expected, relatedness.distance(a, b), 1e-12);
+        assertEquals(1 - expected, relatedness.relatedness(a, b), 1e-12);
+        assertEquals(1.0, relatedness.relatedness(a, a), 1e-12);
+        assertTrue(Double.isInfinite(relatedness.distance(a, new int[] { 5 })));
+        assertEquals(0.0, relatedness.relatedness(a, new int[] { 5 }), 0);
+        assertEquals(0.0, relatedness.relatedness(a, new int[0]), 0);
+    }
+
+    @Test
+    public void testCountSharedLinks()
+    {
+        Random random = new Random(1);
+        int[][] links = new int[20][];
+        for (int i = 0; i < links.length; i++) {
+            // include very different lengths to use the binary search
+            int[] ids = new int[i % 5 == 0 ? 2000 : random.nextInt(50)];
+            for (int j = 0; j < ids.length; j++) {
+                ids[j] = random.nextInt(3000);
+            }
+            links[i] = MilneWittenRelatedness.sortedDistinct(ids, ids.length);
+        }
+
+        int[][] shared = MilneWittenRelatedness.countSharedLinks(links, false);
+        for (int[][] matrix : Arrays.asList(shared,
+                MilneWittenRelatedness.countSharedLinks(links, true))) {
+            for (int i = 0; i < links.length; i++) {
+                for (int j = 0; j < links.length; j++) {
+                    assertEquals(naiveIntersection(links[i], links[j]),
+                            matrix[i][j]);
+                }
+            }
+        }
+    }
+
+    private static int naiveIntersection(int[] a, int[] b)
+    {
+        int shared = 0;
+        for (int x : a) {
+            for (int y : b) {
+                if (x == y) {
+                    shared++;
+                }
+            }
+        }
+        return shared;
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tudarmstadt.ukp.dkpro.wsd.si.twsi;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * An immutable lookup index over the rows of the TWSI substitutions file.
+ * Each row has the form <code>sense, lemma, substitution, count</code>.
+ * Sense IDs are interned to dense integers; the senses of each lemma are
+ * stored as contiguous slices of a single <code>int[]</code>, and sense
+ * descriptions and most frequent senses are computed once at build time.
+ */
+class TwsiSenseIndex
+{
+    private final String[] senseIds;
+    private final String[] senseDescriptions;
+    private final Map<String, Integer> senseIndex;
+
+    private final String[] lemmas;
+    private final Map<String, Integer> lemmaIndex;
+    private final int[] lemmaOffsets;
+    private final int[] lemmaSenses;
+    private final int[] lemmaMfs;
+
+    private TwsiSenseIndex(String[] senseIds, String[] senseDescriptions,
+            Map<String, Integer> senseIndex, String[] lemmas,
+            Map<String, Integer> lemmaIndex, int[] lemmaOffsets,
+            int[] lemmaSenses, int[] lemmaMfs)
+    {
+        this.senseIds = senseIds;
+        this.senseDescriptions = senseDescriptions;
+        this.senseIndex = senseIndex;
+        this.lemmas = lemmas;
+        this.lemmaIndex = lemmaIndex;
+        this.lemmaOffsets = lemmaOffsets;
+        this.lemmaSenses = lemmaSenses;
+        this.lemmaMfs = lemmaMfs;
+    }
+
+    /**
+     * Builds the index from the raw substitution rows. The rows are only
+     * read; callers may discard them once this method returns.
+     *
+     * @param substitutions
+     *            the tab-split lines of the TWSI substitutions file
+     * @return the index
+     */
+    public static TwsiSenseIndex build(List<String[]> substitutions)
+    {
+        Map<String, Integer> senseIndex = new HashMap<String, Integer>();
+        List<String> senseIds = new ArrayList<String>();
+        List<List<String>> synonyms = new ArrayList<List<String>>();
+
+        Map<String, Integer> lemmaIndex = new LinkedHashMap<String, Integer>();
+        List<List<Integer>> senses = new ArrayList<List<Integer>>();
+        List<Integer> mfs = new ArrayList<Integer>();
+        List<Integer> mfsCount = new ArrayList<Integer>();
+
+        for (String[] substitution : substitutions) {
+            String sense = substitution[0];
+            String lemma = substitution[1];
+            int count = Integer.parseInt(substitution[3]);
+
+            Integer senseId = senseIndex.get(sense);
+            if (senseId == null) {
+                senseId = senseIds.size();
+                senseIndex.put(sense, senseId);
+                senseIds.add(sense);
+                synonyms.add(new ArrayList<String>());
+            }
+            synonyms.get(senseId).add(substitution[2]);
+
+            Integer lemmaId = lemmaIndex.get(lemma);
+            if (lemmaId == null) {
+                lemmaId = senses.size();
+                lemmaIndex.put(lemma, lemmaId);
+                senses.add(new ArrayList<Integer>());
+                mfs.add(-1);
+                mfsCount.add(-1);
+            }
+            List<Integer> lemmaSenses = senses.get(lemmaId);
+            if (!lemmaSenses.contains(senseId)) {
+                lemmaSenses.add(senseId);
+            }
+            // Strictly greater, so that ties go to the first row in the file
+            if (count > mfsCount.get(lemmaId)) {
+                mfs.set(lemmaId, senseId);
+                mfsCount.set(lemmaId, count);
+            }
+        }
+
+        String[] senseIdArray = senseIds.toArray(new String[senseIds.size()]);
+        String[] descriptions = new String[senseIdArray.length];
+        for (int i = 0; i < descriptions.length; i++) {
+            descriptions[i] = StringUtils.join(synonyms.get(i), ", ");
+        }
+
+        String[] lemmaArray = lemmaIndex.keySet().toArray(
+                new String[lemmaIndex.size()]);
+        int[] offsets = new int[lemmaArray.length + 1];
+        for (int i = 0; i < lemmaArray.length; i++) {
+            offsets[i + 1] = offsets[i] + senses.get(i).size();
+        }
+        int[] senseArray = new int[offsets[lemmaArray.length]];
+        int[] mfsArray = new int[lemmaArray.length];
+        for (int i = 0; i < lemmaArray.length; i++) {
+            int j = offsets[i];
+            for (Integer senseId : senses.get(i)) {
+                senseArray[j++] = senseId;
+            }
+            mfsArray[i] = mfs.get(i);
+        }
+
+        return new TwsiSenseIndex(senseIdArray, descriptions, senseIndex,
+                lemmaArray, lemmaIndex, offsets, senseArray, mfsArray);
+    }
+
+    /**
+     * @return the distinct senses of the given lemma in file order, or an
+     *         empty list if the lemma is unknown
+     */
+    public List<String> getSenses(String lemma)
+    {
+        Integer lemmaId = lemmaIndex.get(lemma);
+        if (lemmaId == null) {
+            return new ArrayList<String>();
+        }
+        return getSenses(lemmaId);
+    }
+
+    private List<String> getSenses(int lemmaId)
+    {
+        int start = lemmaOffsets[lemmaId];
+        int end = lemmaOffsets[lemmaId + 1];
+        List<String> senses = new ArrayList<String>(end - start);
+        for (int i = start; i < end; i++) {
+            senses.add(senseIds[lemmaSenses[i]]);
+        }
+        return senses;
+    }
+
+    /**
+     * @return the sense with the highest substitution count for the given
+     *         lemma, or <code>null</code> if the lemma is unknown
+     */
+    public String getMostFrequentSense(String lemma)
+    {
+        Integer lemmaId = lemmaIndex.get(lemma);
+        if (lemmaId == null) {
+            return null;
+        }
+        return senseIds[lemmaMfs[lemmaId]];
+    }
+
+    /**
+     * @return the comma-separated substitutions of the given sense, or an
+     *         empty string if the sense is unknown
+     */
+    public String getSenseDescription(String senseId)
+    {
+        Integer id = senseIndex.get(senseId);
+        if (id == null) {
+            return "";
+        }
+        return senseDescriptions[id];
+    }
+
+    /**
+     * @return a fresh map from each lemma to its senses, in file order
+     */
+    public Map<String, List<String>> getSenseInventory()
+    {
+        Map<String, List<String>> inventory = new HashMap<String, List<String>>(
+                lemmas.length * 2);
+        for (int i = 0; i < lemmas.length; i++) {
+            inventory.put(lemmas[i], getSenses(i));
+        }
+        return inventory;
+    }
+
+    public int getLemmaCount()
+    {
+        return lemmas.length;
+    }
+
+    public int getSenseCount()
+    {
+        return senseIds.length;
+    }
+}
@@ -22,12 +22,10 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.channels.UnsupportedAddressTypeException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang.StringUtils;
 
 import de.tudarmstadt.langtech.substituter.settings.Configuration;
 import de.tudarmstadt.ukp.dkpro.wsd.si.POS;
@@ -42,7 +40,7 @@ import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
 public class TwsiSenseInventoryBase
     implements TwsiSenseInventory
 {
-    List<String[]> substitutions;
+    TwsiSenseIndex index;
     File twsiConfigFile;
 
     public TwsiSenseInventoryBase(String twsiConfigFilename)
@@ -52,8 +50,10 @@ public class TwsiSenseInventoryBase
         Configuration.setConfigFile(twsiConfigFilename, false);
 
         try {
-            substitutions = getSubstitutions(new File(
-                    Configuration.substitutionsFile));
+            // The raw rows are only needed to build the index and are
+            // released as soon as it is constructed
+            index = TwsiSenseIndex.build(getSubstitutions(new File(
+                    Configuration.substitutionsFile)));
         }
         catch (IOException e) {
             throw new SenseInventoryException(e);
@@ -72,18 +72,7 @@ public class TwsiSenseInventoryBase
     public String getMostFrequentSense(String sod)
         throws SenseInventoryException, UnsupportedOperationException
     {
-        String mfs = null;
-        int count = -1;
-
-        for (String[] substitution : substitutions) {
-            if (substitution[1].equals(sod)
-                    && Integer.parseInt(substitution[3]) > count) {
-                mfs = substitution[0];
-                count = Integer.parseInt(substitution[3]);
-            }
-        }
-
-        return mfs;
+        return index.getMostFrequentSense(sod);
     }
 
     @Override
@@ -104,43 +93,14 @@ public class TwsiSenseInventoryBase
     public String getSenseDescription(String senseId)
         throws SenseInventoryException
     {
-        List<String> synonyms = new ArrayList<String>();
-
-        for (String[] substitution : substitutions) {
-            if (substitution[0].equals(senseId)) {
-                synonyms.add(substitution[2]);
-            }
-        }
-
-        return StringUtils.join(synonyms, ", ");
+        return index.getSenseDescription(senseId);
     }
 
     @Override
     public Map<String, List<String>> getSenseInventory()
         throws SenseInventoryException
     {
-        Map<String, List<String>> inventory = new HashMap<String, List<String>>();
-
-        for (String[] substitution : substitutions) {
-            String word = substitution[1];
-            String sense = substitution[0];
-
-            if (inventory.containsKey(word)) {
-                List<String> ids = inventory.get(word);
-                if (!ids.contains(sense)) {
-                    ids.add(sense);
-                    inventory.put(word, ids);
-                }
-            }
-            else {
-                List<String> ids = new ArrayList<String>();
-                ids.add(sense);
-
-                inventory.put(word, ids);
-            }
-        }
-
-        return inventory;
+        return index.getSenseInventory();
     }
 
     @Override
@@ -153,16 +113,7 @@ public class TwsiSenseInventoryBase
     public List<String> getSenses(String sod)
         throws SenseInventoryException
     {
-        List<String> senses = new ArrayList<String>();
-
-        for (String[] substitution : substitutions) {
-            if (substitution[1].equals(sod)
-                    && !senses.contains(substitution[0])) {
-                senses.add(substitution[0]);
-            }
-        }
-
-        return senses;
+        return index.getSenses(sod);
     }
 
     @Override
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tudarmstadt.ukp.dkpro.wsd.si.twsi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class TwsiSenseIndexTest
+{
+    @Test
+    public void testIndex()
+        throws Exception
+    {
+        List<String[]> substitutions = new ArrayList<String[]>();
+        substitutions.add("present@@1\tpresent\tgift\t3".split("\t"));
+        substitutions.add("present@@2\tpresent\tcurrent\t5".split("\t"));
+        substitutions.add("present@@1\tpresent\tdonation\t5".split("\t"));
+        substitutions.add("present@@3\tpresent\tshow\t2".split("\t"));
+        substitutions.add("prime@@1\tprime\tmain\t1".split("\t"));
+
+        TwsiSenseIndex index = TwsiSenseIndex.build(substitutions);
+
+        assertEquals(2, index.getLemmaCount());
+        assertEquals(4, index.getSenseCount());
+
+        assertEquals(Arrays.asList("present@@1", "present@@2", "present@@3"),
+                index.getSenses("present"));
+        assertEquals(Arrays.asList("prime@@1"), index.getSenses("prime"));
+        assertTrue(index.getSenses("absent").isEmpty());
+
+        assertEquals("gift, donation",
+                index.getSenseDescription("present@@1"));
+        assertEquals("", index.getSenseDescription("absent@@1"));
+
+        // Ties are resolved in favour of the earlier row
+        assertEquals("present@@2", index.getMostFrequentSense("present"));
+        assertEquals("prime@@1", index.getMostFrequentSense("prime"));
+        assertNull(index.getMostFrequentSense("absent"));
+
+        Map<String, List<String>> inventory = index.getSenseInventory();
+        assertEquals(2, inventory.size());
+        assertEquals(index.getSenses("present"), inventory.get("present"));
+    }
+}
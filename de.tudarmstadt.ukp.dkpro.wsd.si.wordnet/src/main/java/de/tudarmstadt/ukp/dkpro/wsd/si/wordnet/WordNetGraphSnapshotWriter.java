@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package de.tudarmstadt.ukp.dkpro.wsd.si.wordnet;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+/**
+ * Reads the sense graph of a WordNet sense inventory and writes it to a
+ * snapshot directory, so that later runs can memory-map it instead of
+ * reading it from WordNet. See
+ * {@link WordNetSenseInventoryBase#setGraphSnapshotDirectory(File)}.
+ * <p>
+ * Usage: <code>WordNetGraphSnapshotWriter propertiesFile snapshotDirectory
+ * [synset|senseKey]</code>
+ *
+ */
+public class WordNetGraphSnapshotWriter
+{
+    public static void main(String[] args)
+        throws Exception
+    {
+        if (args.length < 2 || args.length > 3) {
+            System.err
+                    .println("Usage: WordNetGraphSnapshotWriter propertiesFile snapshotDirectory [synset|senseKey]");
+            System.exit(1);
+        }
+        String scheme = args.length == 3 ? args[2] : "synset";
+
+        WordNetSenseInventoryBase inventory;
+        InputStream propertiesStream = new FileInputStream(args[0]);
+        try {
+            if (scheme.equals("synset")) {
+                inventory = new WordNetSynsetSenseInventory(propertiesStream);
+            }
+            else if (scheme.equals("senseKey")) {
+                inventory = new WordNetSenseKeySenseInventory(propertiesStream);
+            }
+            else {
+                throw new IllegalArgumentException("Unknown sense ID scheme "
+                        + scheme);
+            }
+        }
+        finally {
+            propertiesStream.close();
+        }
+
+        // Remove an existing snapshot so that the graph is read from WordNet
+        inventory.setGraphSnapshotDirectory(new File(args[1]));
+        File file = inventory.getGraphSnapshotFile();
+        if (file.exists() && !file.delete()) {
+            throw new IllegalStateException("Cannot replace " + file);
+        }
+        inventory.getUndirectedGraph();
+        if (!file.exists()) {
+            throw new IllegalStateException("Could not write " + file);
+        }
+        System.out.println("Wrote " + file);
+    }
+}
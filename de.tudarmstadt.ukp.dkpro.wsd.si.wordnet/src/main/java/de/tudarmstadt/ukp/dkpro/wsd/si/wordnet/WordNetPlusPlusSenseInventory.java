@@ -33,11 +33,10 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import de.tudarmstadt.ukp.dkpro.wsd.UnorderedPair;
+import de.tudarmstadt.ukp.dkpro.wsd.si.CompactSenseGraph;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
 import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.UndirectedGraph;
-import edu.uci.ics.jung.graph.UndirectedSparseGraph;
-import edu.uci.ics.jung.graph.util.Graphs;
 
 /**
  * A sense inventory for WordNet++, based on extJWNL.  Synset IDs are used as
@@ -85,16 +84,10 @@ public class WordNetPlusPlusSenseInventory
         Graph<String, UnorderedPair<String>> undirectedWNGraph = super
                 .getUndirectedGraph();
         logger.info("Copying WordNet graph");
-        UndirectedGraph<String, UnorderedPair<String>> undirectedWNPPGraph = new UndirectedSparseGraph<String, UnorderedPair<String>>();
-        for (String vertex : undirectedWNGraph.getVertices()) {
-            undirectedWNPPGraph.addVertex(vertex);
-        }
-        for (UnorderedPair<String> edge : undirectedWNGraph.getEdges()) {
-            undirectedWNPPGraph.addEdge(edge,
-                    undirectedWNGraph.getEndpoints(edge));
-        }
+        CompactSenseGraph.Builder builder = new CompactSenseGraph.Builder()
+                .addGraph(undirectedWNGraph);
 
-        int addedRelations = 0, totalRelations = 0, duplicateRelations = 0, dissimilarRelations = 0;
+        int acceptedRelations = 0, totalRelations = 0, dissimilarRelations = 0;
 
         // Read the WordNet++ semantic relations
         logger.info("Reading WordNet++ semantic relations");
@@ -121,16 +114,16 @@ public class WordNetPlusPlusSenseInventory
                     .format("%08dn", Long.parseLong(lineParts[2]));
             String target = String
                     .format("%08dn", Long.parseLong(lineParts[3]));
-            UnorderedPair<String> edge = new UnorderedPair<String>(source,
-                    target);
-            if (undirectedWNPPGraph.containsEdge(edge)) {
-                duplicateRelations++;
-                continue;
-            }
-            addedRelations++;
-            undirectedWNPPGraph.addEdge(edge, source, target);
+            acceptedRelations++;
+            builder.addEdge(source, target);
         }
 
+        // Relations already in the graph are merged when it is built
+        CompactSenseGraph undirectedWNPPGraph = builder.build();
+        int addedRelations = undirectedWNPPGraph.getEdgeCount()
+                - undirectedWNGraph.getEdgeCount();
+        int duplicateRelations = acceptedRelations - addedRelations;
+
         logger.info("Added " + addedRelations + " of " + totalRelations
                 + " semantic relations (" + dissimilarRelations
                 + " lower than similarity threshold; " + duplicateRelations
@@ -148,7 +141,7 @@ public class WordNetPlusPlusSenseInventory
             throw new SenseInventoryException("WordNet++ semantic relations reference nonexistent WordNet synsets");
         }
 
-        return Graphs.unmodifiableUndirectedGraph(undirectedWNPPGraph);
+        return undirectedWNPPGraph;
     }
 
     @Override
@@ -21,6 +21,8 @@
  */
 package de.tudarmstadt.ukp.dkpro.wsd.si.wordnet;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -34,8 +36,11 @@ import net.sf.extjwnl.data.Word;
 import net.sf.extjwnl.dictionary.Dictionary;
 
 import org.apache.commons.collections15.Transformer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import de.tudarmstadt.ukp.dkpro.wsd.UnorderedPair;
+import de.tudarmstadt.ukp.dkpro.wsd.si.CompactSenseGraph;
 import de.tudarmstadt.ukp.dkpro.wsd.si.POS;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseDictionary;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryBase;
@@ -57,9 +62,10 @@ public abstract class WordNetSenseInventoryBase
 {
 
     protected Dictionary wn;
-    // private final Log logger = LogFactory.getLog(getClass());
+    private final Log logger = LogFactory.getLog(getClass());
 
     protected UndirectedGraph<String, UnorderedPair<String>> undirectedWNGraph = null;
+    protected File graphSnapshotDirectory = null;
 
     protected final SiPosToWordNetPos siPosToWordNetPos = new SiPosToWordNetPos();
 
@@ -82,12 +88,124 @@ public abstract class WordNetSenseInventoryBase
         return wn;
     }
 
+    /**
+     * Sets the sense graph. Graphs of other types, such as previously
+     * serialized JUNG graphs, are converted to a {@link CompactSenseGraph}.
+     */
     @Override
     public void setUndirectedGraph(
             UndirectedGraph<String, UnorderedPair<String>> graph)
         throws SenseInventoryException, UnsupportedOperationException
     {
-        undirectedWNGraph = graph;
+        undirectedWNGraph = graph == null ? null : CompactSenseGraph
+                .copyOf(graph);
+    }
+
+    /**
+     * Sets a directory for snapshots of the sense graph. If set, the graph is
+     * memory-mapped from a snapshot in this directory instead of being read
+     * from WordNet, and a snapshot is written there the first time the graph
+     * is read from WordNet. Snapshots are keyed by the WordNet version and
+     * the sense ID scheme, so inventories of different WordNet versions or
+     * different sense ID types can share the same directory.
+     *
+     * @param directory
+     *            the snapshot directory, or null to disable snapshots
+     */
+    public void setGraphSnapshotDirectory(File directory)
+    {
+        graphSnapshotDirectory = directory;
+    }
+
+    public File getGraphSnapshotDirectory()
+    {
+        return graphSnapshotDirectory;
+    }
+
+    /**
+     * Returns a name for the format of the sense IDs used by this class,
+     * which is part of the key of the sense graph snapshot.
+     *
+     * @return the name of the sense ID scheme
+     */
+    protected String getSenseIdScheme()
+    {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * @return the key identifying the sense graph snapshot for the
+     *         underlying WordNet and sense ID scheme
+     */
+    protected String getGraphSnapshotKey()
+    {
+        Dictionary.Version version = wn.getVersion();
+        String versionString = version == null ? "unknown" : version
+                .getPublisher()
+                + " "
+                + version.getNumber()
+                + " "
+                + version.getLocale();
+        return "WordNet " + versionString + " " + getSenseIdScheme();
+    }
+
+    /**
+     * @return the sense graph snapshot file for the underlying WordNet and
+     *         sense ID scheme, or null if no snapshot directory is set
+     */
+    public File getGraphSnapshotFile()
+    {
+        if (graphSnapshotDirectory == null) {
+            return null;
+        }
+        return new File(graphSnapshotDirectory, getGraphSnapshotKey()
+                .replaceAll("[^A-Za-z0-9.-]+", "_") + ".graph");
+    }
+
+    /**
+     * Memory-maps the sense graph snapshot, if there is one.
+     *
+     * @return the mapped graph, or null if there is no usable snapshot
+     */
+    protected CompactSenseGraph readGraphSnapshot()
+    {
+        File file = getGraphSnapshotFile();
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try {
+            CompactSenseGraph graph = CompactSenseGraph.map(file,
+                    getGraphSnapshotKey());
+            logger.info("Mapped sense graph snapshot " + file);
+            return graph;
+        }
+        catch (IOException e) {
+            logger.warn("Ignoring sense graph snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes a sense graph snapshot, if a snapshot directory is set. Failure
+     * to write the snapshot is logged but otherwise ignored.
+     *
+     * @param graph
+     *            the graph to write
+     */
+    protected void writeGraphSnapshot(CompactSenseGraph graph)
+    {
+        File file = getGraphSnapshotFile();
+        if (file == null) {
+            return;
+        }
+        try {
+            graph.write(file, getGraphSnapshotKey());
+            logger.info("Wrote sense graph snapshot " + file);
+        }
+        catch (IOException e) {
+            logger.warn("Could not write sense graph snapshot " + file + ": "
+                    + e.getMessage());
+        }
     }
 
     @Override
@@ -394,7 +512,9 @@ public abstract class WordNetSenseInventoryBase
     }
 
     /**
-     * A class for the textual information associated with a WordNet synset
+     * A class for the textual information associated with a WordNet synset.
+     * Lazily computed fields are filled in under the lock of the sense, so
+     * cached senses may be shared between threads.
      *
      * @author <a href="mailto:miller@ukp.informatik.tu-darmstadt.de">Tristan
      *         Miller</a>
@@ -429,7 +549,7 @@ public abstract class WordNetSenseInventoryBase
         }
 
         @Override
-        public Set<String> getExamples()
+        public synchronized Set<String> getExamples()
             throws SenseInventoryException
         {
             if (examples != null) {
@@ -440,7 +560,7 @@ public abstract class WordNetSenseInventoryBase
         }
 
         @Override
-        public String getDefinition()
+        public synchronized String getDefinition()
             throws SenseInventoryException
         {
             if (definition != null) {
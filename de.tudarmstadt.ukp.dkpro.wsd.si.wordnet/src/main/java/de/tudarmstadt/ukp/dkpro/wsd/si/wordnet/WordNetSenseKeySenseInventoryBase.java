@@ -22,13 +22,14 @@
 package de.tudarmstadt.ukp.dkpro.wsd.si.wordnet;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 
 import net.sf.extjwnl.JWNLException;
@@ -42,13 +43,12 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import de.tudarmstadt.ukp.dkpro.wsd.UnorderedPair;
+import de.tudarmstadt.ukp.dkpro.wsd.si.CompactSenseGraph;
 import de.tudarmstadt.ukp.dkpro.wsd.si.POS;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseDictionary;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseTaxonomy;
 import edu.uci.ics.jung.graph.UndirectedGraph;
-import edu.uci.ics.jung.graph.UndirectedSparseGraph;
-import edu.uci.ics.jung.graph.util.Graphs;
 
 /**
  * Abstract class for WordNet-like sense inventories, where sense keys are used
@@ -64,11 +64,11 @@ public abstract class WordNetSenseKeySenseInventoryBase
 
     private final Log logger = LogFactory.getLog(getClass());
 
-    private final Map<String, CachedSense> senses = new HashMap<String, CachedSense>();
+    private final ConcurrentMap<String, CachedSense> senses = new ConcurrentHashMap<String, CachedSense>();
 
     // It's expensive to find sense keys corresponding to a given lemma+POS, so
     // we cache them in a map
-    private final Map<String, List<String>> senseKeyMap = new HashMap<String, List<String>>();
+    private final Map<String, List<String>> senseKeyMap = new ConcurrentHashMap<String, List<String>>();
 
     /**
      * A class for the textual information associated with a WordNet sense
@@ -97,7 +97,7 @@ public abstract class WordNetSenseKeySenseInventoryBase
         }
 
         @Override
-        public Set<String> getSynonyms()
+        public synchronized Set<String> getSynonyms()
         {
             if (synonyms != null) {
                 return synonyms;
@@ -111,7 +111,7 @@ public abstract class WordNetSenseKeySenseInventoryBase
         }
 
         @Override
-        protected void setDefinitionAndExamples()
+        protected synchronized void setDefinitionAndExamples()
             throws SenseInventoryException
         {
             examples = new HashSet<String>();
@@ -146,7 +146,7 @@ public abstract class WordNetSenseKeySenseInventoryBase
         }
 
         @Override
-        public Set<String> getNeighbours()
+        public synchronized Set<String> getNeighbours()
             throws SenseInventoryException
         {
             if (neighbours != null) {
@@ -242,13 +242,23 @@ public abstract class WordNetSenseKeySenseInventoryBase
         CachedSense s = senses.get(senseId);
         if (s == null) {
             s = new CachedSense(senseId);
-            senses.put(senseId, s);
+            CachedSense cached = senses.putIfAbsent(senseId, s);
+            if (cached != null) {
+                s = cached;
+            }
         }
         return s;
     }
 
+    @Override
+    protected String getSenseIdScheme()
+    {
+        return "senseKey";
+    }
+
     /**
-     * Read WordNet into a graph
+     * Read WordNet into a graph, or map it from a snapshot if a snapshot
+     * directory has been set
      *
      * @throws SenseInventoryException
      */
@@ -260,7 +270,12 @@ public abstract class WordNetSenseKeySenseInventoryBase
             return undirectedWNGraph;
         }
 
-        undirectedWNGraph = new UndirectedSparseGraph<String, UnorderedPair<String>>();
+        undirectedWNGraph = readGraphSnapshot();
+        if (undirectedWNGraph != null) {
+            return undirectedWNGraph;
+        }
+
+        CompactSenseGraph.Builder builder = new CompactSenseGraph.Builder();
         int senseKeyCount = 0, pointerCount = 0;
 
         // For each POS
@@ -307,14 +322,9 @@ public abstract class WordNetSenseKeySenseInventoryBase
                         }
 
                         // Add vertices and edges to graph
-                        undirectedWNGraph.addVertex(w.getSenseKey());
+                        builder.addVertex(w.getSenseKey());
                         for (String targetSenseKey : targetSenseKeys) {
-                            UnorderedPair<String> e = new UnorderedPair<String>(
-                                    w.getSenseKey(), targetSenseKey);
-                            if (!undirectedWNGraph.containsEdge(e)) {
-                                undirectedWNGraph.addEdge(e, w.getSenseKey(),
-                                        targetSenseKey);
-                            }
+                            builder.addEdge(w.getSenseKey(), targetSenseKey);
                         }
                     }
                     catch (JWNLException e) {
@@ -323,14 +333,15 @@ public abstract class WordNetSenseKeySenseInventoryBase
                 }
 
             }
-            logger.info("# vertices = " + undirectedWNGraph.getVertexCount()
-                    + "; # senseKeys = " + senseKeyCount + "; # edges = "
-                    + undirectedWNGraph.getEdgeCount() + "; # pointers = "
-                    + pointerCount);
         }
 
-        undirectedWNGraph = Graphs
-                .unmodifiableUndirectedGraph(undirectedWNGraph);
+        CompactSenseGraph graph = builder.build();
+        writeGraphSnapshot(graph);
+        undirectedWNGraph = graph;
+        logger.info("# vertices = " + undirectedWNGraph.getVertexCount()
+                + "; # senseKeys = " + senseKeyCount + "; # edges = "
+                + undirectedWNGraph.getEdgeCount() + "; # pointers = "
+                + pointerCount);
         return undirectedWNGraph;
 
     }
@@ -22,13 +22,13 @@
 package de.tudarmstadt.ukp.dkpro.wsd.si.wordnet;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 
 import net.sf.extjwnl.JWNLException;
@@ -43,14 +43,13 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import de.tudarmstadt.ukp.dkpro.wsd.UnorderedPair;
+import de.tudarmstadt.ukp.dkpro.wsd.si.CompactSenseGraph;
 import de.tudarmstadt.ukp.dkpro.wsd.si.POS;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseDictionary;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseTaxonomy;
 import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.UndirectedGraph;
-import edu.uci.ics.jung.graph.UndirectedSparseGraph;
-import edu.uci.ics.jung.graph.util.Graphs;
 
 /**
  * Abstract class for WordNet-like sense inventories, where synset IDs are used
@@ -70,7 +69,7 @@ public abstract class WordNetSynsetSenseInventoryBase
     private final PointerToUnorderedPair pointerToUnorderedPair = new PointerToUnorderedPair();
 
     // Variables and cache for sense descriptions
-    private final Map<String, CachedSense> senses = new HashMap<String, CachedSense>();
+    private final ConcurrentMap<String, CachedSense> senses = new ConcurrentHashMap<String, CachedSense>();
 
     @Override
     public String getWordNetSenseKey(String senseId, String lemma)
@@ -131,7 +130,10 @@ public abstract class WordNetSynsetSenseInventoryBase
         CachedSense s = senses.get(senseId);
         if (s == null) {
             s = new CachedSense(senseId);
-            senses.put(senseId, s);
+            CachedSense cached = senses.putIfAbsent(senseId, s);
+            if (cached != null) {
+                s = cached;
+            }
         }
         return s;
     }
@@ -159,7 +161,7 @@ public abstract class WordNetSynsetSenseInventoryBase
         }
 
         @Override
-        public Set<String> getSynonyms()
+        public synchronized Set<String> getSynonyms()
         {
             if (synonyms != null) {
                 return synonyms;
@@ -173,7 +175,7 @@ public abstract class WordNetSynsetSenseInventoryBase
         }
 
         @Override
-        protected void setDefinitionAndExamples()
+        protected synchronized void setDefinitionAndExamples()
             throws SenseInventoryException
         {
             examples = new HashSet<String>();
@@ -208,7 +210,7 @@ public abstract class WordNetSynsetSenseInventoryBase
         }
 
         @Override
-        public Set<String> getNeighbours()
+        public synchronized Set<String> getNeighbours()
             throws SenseInventoryException
         {
             if (neighbours != null) {
@@ -232,8 +234,15 @@ public abstract class WordNetSynsetSenseInventoryBase
         }
     }
 
+    @Override
+    protected String getSenseIdScheme()
+    {
+        return "synset";
+    }
+
     /**
-     * Read WordNet into a graph
+     * Read WordNet into a graph, or map it from a snapshot if a snapshot
+     * directory has been set
      *
      * @throws SenseInventoryException
      */
@@ -245,7 +254,12 @@ public abstract class WordNetSynsetSenseInventoryBase
             return undirectedWNGraph;
         }
 
-        undirectedWNGraph = new UndirectedSparseGraph<String, UnorderedPair<String>>();
+        undirectedWNGraph = readGraphSnapshot();
+        if (undirectedWNGraph != null) {
+            return undirectedWNGraph;
+        }
+
+        CompactSenseGraph.Builder builder = new CompactSenseGraph.Builder();
         int synsetCount = 0, pointerCount = 0;
 
         for (Object pos : net.sf.extjwnl.data.POS.getAllPOS()) {
@@ -255,31 +269,28 @@ public abstract class WordNetSynsetSenseInventoryBase
                         .getSynsetIterator((net.sf.extjwnl.data.POS) pos); i
                         .hasNext();) {
                     Synset s = (Synset) i.next();
-                    String s_name = synsetToString.transform(s);
-                    undirectedWNGraph.addVertex(s_name);
+                    builder.addVertex(synsetToString.transform(s));
                     synsetCount++;
                     for (Pointer p : s.getPointers()) {
                         pointerCount++;
                         UnorderedPair<String> e = pointerToUnorderedPair
                                 .transform(p);
-                        if (!undirectedWNGraph.containsEdge(e)) {
-                            undirectedWNGraph.addEdge(e, s_name, synsetToString
-                                    .transform(p.getTargetSynset()));
-                        }
+                        builder.addEdge(e.getFirst(), e.getSecond());
                     }
                 }
             }
             catch (JWNLException e) {
                 throw new SenseInventoryException(e);
             }
-            logger.info("# vertices = " + undirectedWNGraph.getVertexCount()
-                    + "; # synsets = " + synsetCount + "; # edges = "
-                    + undirectedWNGraph.getEdgeCount() + "; # pointers = "
-                    + pointerCount);
         }
 
-        undirectedWNGraph = Graphs
-                .unmodifiableUndirectedGraph(undirectedWNGraph);
+        CompactSenseGraph graph = builder.build();
+        writeGraphSnapshot(graph);
+        undirectedWNGraph = graph;
+        logger.info("# vertices = " + undirectedWNGraph.getVertexCount()
+                + "; # synsets = " + synsetCount + "; # edges = "
+                + undirectedWNGraph.getEdgeCount() + "; # pointers = "
+                + pointerCount);
         return undirectedWNGraph;
 
     }
@@ -45,6 +45,10 @@ public class WordNetSenseInventoryResourceBase
     @ConfigurationParameter(name = PARAM_SENSE_DESCRIPTION_FORMAT, description = "A format string specifying how sense descriptions should be printed", mandatory = false)
     protected String senseDescriptionFormat;
 
+    public static final String PARAM_GRAPH_SNAPSHOT_DIRECTORY = "graphSnapshotDirectory";
+    @ConfigurationParameter(name = PARAM_GRAPH_SNAPSHOT_DIRECTORY, description = "A directory in which a snapshot of the sense graph is stored and from which it is memory-mapped", mandatory = false)
+    protected String graphSnapshotDirectory;
+
     /**
      * Returns the underlying {@link Dictionary} object.
      *
@@ -21,6 +21,7 @@
  */
 package de.tudarmstadt.ukp.dkpro.wsd.si.wordnet.resource;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.util.Map;
@@ -71,6 +72,10 @@ public class WordNetSenseKeySenseInventoryResource
             ((WordNetSenseKeySenseInventory) inventory)
                     .setSenseDescriptionFormat(senseDescriptionFormat);
         }
+        if (graphSnapshotDirectory != null) {
+            ((WordNetSenseKeySenseInventory) inventory).setGraphSnapshotDirectory(new File(
+                    graphSnapshotDirectory));
+        }
         return true;
     }
 
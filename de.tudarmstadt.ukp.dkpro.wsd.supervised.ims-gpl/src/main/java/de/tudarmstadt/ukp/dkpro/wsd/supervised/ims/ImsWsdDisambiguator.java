@@ -21,10 +21,18 @@ package de.tudarmstadt.ukp.dkpro.wsd.supervised.ims;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import net.didion.jwnl.JWNLException;
 import sg.edu.nus.comp.nlp.ims.classifiers.CLibLinearEvaluator;
@@ -43,101 +51,254 @@ import sg.edu.nus.comp.nlp.ims.lexelt.ILexelt;
 import sg.edu.nus.comp.nlp.ims.util.CJWNL;
 import sg.edu.nus.comp.nlp.ims.util.COpenNLPPOSTagger;
 import sg.edu.nus.comp.nlp.ims.util.COpenNLPSentenceSplitter;
+import sg.edu.nus.comp.nlp.ims.util.CPTBWNLemmatizer;
+import sg.edu.nus.comp.nlp.ims.util.CPennTreeBankTokenizer;
 import sg.edu.nus.comp.nlp.ims.util.CWordNetSenseIndex;
+import sg.edu.nus.comp.nlp.ims.util.ILemmatizer;
+import sg.edu.nus.comp.nlp.ims.util.IPOSTagger;
 import sg.edu.nus.comp.nlp.ims.util.ISenseIndex;
+import sg.edu.nus.comp.nlp.ims.util.ISentenceSplitter;
+import sg.edu.nus.comp.nlp.ims.util.ITokenizer;
 import de.tudarmstadt.ukp.dkpro.wsd.algorithm.WSDAlgorithmDocumentTextBasic;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventory;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
 
+/**
+ * Disambiguates plain text with IMS. An instance is meant to be long-lived:
+ * the models of the POS tagger and sentence splitter, the sense index and
+ * the evaluator with its model cache are loaded once, and each thread keeps
+ * its own tagger, splitter and extractors between documents.
+ * {@link #disambiguate(String)} may be called from several threads at once,
+ * and the lexelts of a document are evaluated in parallel.
+ * <p>
+ * JWNL and the OpenNLP models are set up statically, so all instances in a
+ * JVM must use the same library directory. Usually there is a single
+ * instance per JVM.
+ */
 public class ImsWsdDisambiguator
 implements WSDAlgorithmDocumentTextBasic
 {
-    private static String BASE_DIR;
-    private static String LIB_DIR;
-
-    // default instance extractor class name
-    protected static final String INSTANCEEXTRACTOR = CInstanceExtractor.class.getName();
-    // default feature extractor class name
-    protected static final String FEATUREEXTRACTOR = CAllWordsFeatureExtractorCombination.class.getName();
-    // default corpus class name
-    protected static final String CORPUS = CAllWordsPlainCorpus.class.getName();
+    public static final String DEFAULT_LIB_DIR = "src/main/resources/ims/lib/";
+    public static final String DEFAULT_MODEL_DIR = "src/main/resources/ims/models/";
+    public static final String DEFAULT_STAT_DIR = "target/ims_stat/";
+    public static final String DEFAULT_SAVE_DIR = "target/ims_results/";
+
     // evaluator
     protected IEvaluator m_Evaluator = new CLibLinearEvaluator();
     // writer
-    protected IResultWriter m_Writer = new CPlainCorpusInlineWriter();
+    protected volatile IResultWriter m_Writer = new CPlainCorpusInlineWriter();
     // results
     protected ArrayList<Object> m_Results = new ArrayList<Object>();
-    // instance extractor class name
-    protected String m_InstanceExtractorName = INSTANCEEXTRACTOR;
-    // feature extractor class name
-    protected String m_FeatureExtractorName = FEATUREEXTRACTOR;
-    // corpus class name
-    protected String m_CorpusName = CORPUS;
+    // evaluates the lexelts of a document, null to evaluate them sequentially
+    protected final ExecutorService m_Executor;
+    // the components of the current thread
+    protected final ThreadLocal<Components> m_Components = new ThreadLocal<Components>()
+    {
+        @Override
+        protected Components initialValue()
+        {
+            return createComponents();
+        }
+    };
 
     SenseInventory inventory;
 
+    // the library directory of the static setup, null before the first instance
+    private static File initializedLibDir;
 
-    public ImsWsdDisambiguator(SenseInventory inventory) throws JWNLException, IOException, InstantiationException, IllegalAccessException, ClassNotFoundException
+    /**
+     * The components which process one document at a time. They keep their
+     * state between documents, so they must not be shared between threads.
+     */
+    protected static class Components
     {
-        this.inventory = inventory;
-        init();
+        public final IPOSTagger posTagger;
+        public final ISentenceSplitter sentenceSplitter;
+        public final ITokenizer tokenizer;
+        public final ILemmatizer lemmatizer;
+        public final IInstanceExtractor instanceExtractor;
+        public final IFeatureExtractor featureExtractor;
+
+        public Components(IPOSTagger posTagger,
+                ISentenceSplitter sentenceSplitter, ITokenizer tokenizer,
+                ILemmatizer lemmatizer, IInstanceExtractor instanceExtractor,
+                IFeatureExtractor featureExtractor)
+        {
+            this.posTagger = posTagger;
+            this.sentenceSplitter = sentenceSplitter;
+            this.tokenizer = tokenizer;
+            this.lemmatizer = lemmatizer;
+            this.instanceExtractor = instanceExtractor;
+            this.featureExtractor = featureExtractor;
+        }
     }
 
-    private void init() throws JWNLException, IOException, InstantiationException, IllegalAccessException, ClassNotFoundException
+    public ImsWsdDisambiguator(SenseInventory inventory) throws JWNLException, IOException
     {
-        BASE_DIR = "src/main/resources/ims/";
-        LIB_DIR = BASE_DIR + "lib/";
+        this(inventory, DEFAULT_LIB_DIR, DEFAULT_MODEL_DIR, DEFAULT_STAT_DIR);
+    }
 
-        String modelDir = BASE_DIR + "models/";
-        String statDir = "target/ims_stat/";
-        String saveDir = "target/ims_results/";
-        String evaluatorName = CLibLinearEvaluator.class.getName();
-        String writerName = CPlainCorpusInlineWriter.class.getName();
+    public ImsWsdDisambiguator(SenseInventory inventory, String libDir,
+            String modelDir, String statDir)
+        throws JWNLException, IOException
+    {
+        this(inventory, libDir, modelDir, statDir, Runtime.getRuntime()
+                .availableProcessors());
+    }
 
-        CJWNL.initial(new FileInputStream(new File(LIB_DIR + "prop.xml")));
+    /**
+     * @param libDir
+     *            the directory of the IMS libraries, i.e. prop.xml for JWNL,
+     *            the OpenNLP models and the WordNet sense index
+     * @param modelDir
+     *            the directory of the IMS models
+     * @param statDir
+     *            the directory of the IMS statistics
+     * @param threads
+     *            the number of threads which evaluate the lexelts of a
+     *            document
+     */
+    public ImsWsdDisambiguator(SenseInventory inventory, String libDir,
+            String modelDir, String statDir, int threads)
+        throws JWNLException, IOException
+    {
+        this.inventory = inventory;
+        if (threads > 1) {
+            m_Executor = Executors.newFixedThreadPool(threads, new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "ims-wsd");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        else {
+            m_Executor = null;
+        }
+        init(new File(libDir), modelDir, statDir);
+    }
 
-        COpenNLPSentenceSplitter.setDefaultModel(LIB_DIR + "EnglishSD.bin.gz");
-        COpenNLPPOSTagger.setDefaultModel(LIB_DIR + "tag.bin.gz");
-        COpenNLPPOSTagger.setDefaultPOSDictionary(LIB_DIR + "tagdict.txt");
+    private void init(File libDir, String modelDir, String statDir)
+        throws JWNLException, IOException
+    {
+        initLibraries(libDir);
 
-        IEvaluator evaluator = (IEvaluator) Class.forName(evaluatorName).newInstance();
+        IEvaluator evaluator = new CLibLinearEvaluator();
         evaluator.setOptions(new String[]{"-m", modelDir, "-s", statDir});
 
-        ISenseIndex senseIndex = new CWordNetSenseIndex(LIB_DIR + "dict/index.sense");
+        ISenseIndex senseIndex = new CWordNetSenseIndex(new File(libDir, "dict/index.sense").getPath());
         evaluator.setSenseIndex(senseIndex);
 
-        IResultWriter writer = (IResultWriter) Class.forName(writerName).newInstance();
-        writer.setOptions(new String[] { "-s", saveDir });
+        IResultWriter writer = new CPlainCorpusInlineWriter();
+        writer.setOptions(new String[] { "-s", DEFAULT_SAVE_DIR });
 
         setEvaluator(evaluator);
         setWriter(writer);
-
-        setFeatureExtractorName("sg.edu.nus.comp.nlp.ims.feature.CAllWordsFeatureExtractorCombination");
-        setCorpusClassName("sg.edu.nus.comp.nlp.ims.corpus.CAllWordsPlainCorpus");
-
     }
 
-    public void test(String text)
-            throws SenseInventoryException
-            {
-        IInstanceExtractor instExtractor;
-        IFeatureExtractor featExtractor;
-        ACorpus corpus;
+    /**
+     * Sets up JWNL and the OpenNLP models once per JVM. They are static, so
+     * another library directory would replace them under the instances
+     * which are already running.
+     *
+     * @throws IllegalStateException
+     *             if an instance with another library directory exists
+     */
+    private static synchronized void initLibraries(File libDir)
+        throws JWNLException, IOException
+    {
+        File canonicalLibDir = libDir.getCanonicalFile();
+        if (initializedLibDir != null) {
+            if (!initializedLibDir.equals(canonicalLibDir)) {
+                throw new IllegalStateException("IMS is already set up with "
+                        + initializedLibDir + ", cannot use " + canonicalLibDir);
+            }
+            return;
+        }
+
+        InputStream prop = new FileInputStream(new File(libDir, "prop.xml"));
         try {
-            instExtractor = (IInstanceExtractor) Class.forName(this.m_InstanceExtractorName).newInstance();
-            featExtractor = (IFeatureExtractor) Class.forName(this.m_FeatureExtractorName).newInstance();
-            corpus = (ACorpus) Class.forName(this.m_CorpusName).newInstance();
+            CJWNL.initial(prop);
         }
-        catch (InstantiationException e) {
-            throw new SenseInventoryException(e);
+        finally {
+            prop.close();
         }
-        catch (IllegalAccessException e) {
-            throw new SenseInventoryException(e);
+
+        COpenNLPSentenceSplitter.setDefaultModel(new File(libDir, "EnglishSD.bin.gz"));
+        COpenNLPPOSTagger.setDefaultModel(new File(libDir, "tag.bin.gz"));
+        COpenNLPPOSTagger.setDefaultPOSDictionary(new File(libDir, "tagdict.txt").getPath());
+        initializedLibDir = canonicalLibDir;
+    }
+
+    /**
+     * Creates the components of a thread. The POS tagger and sentence
+     * splitter share the models loaded by the constructor.
+     */
+    protected Components createComponents()
+    {
+        return new Components(new COpenNLPPOSTagger(),
+                new COpenNLPSentenceSplitter(), new CPennTreeBankTokenizer(),
+                new CPTBWNLemmatizer(), new CInstanceExtractor(),
+                new CAllWordsFeatureExtractorCombination());
+    }
+
+    /**
+     * Creates the corpus of one document.
+     */
+    protected ACorpus createCorpus(Components components)
+    {
+        return new CAllWordsPlainCorpus(components.posTagger,
+                components.sentenceSplitter, components.tokenizer,
+                components.lemmatizer);
+    }
+
+    /**
+     * Disambiguates a document.
+     *
+     * @return the results of the document as written by the writer set with
+     *         {@link #setWriter(IResultWriter)}, by default the text with each
+     *         disambiguated word replaced by its sense
+     */
+    public String disambiguate(String documentText)
+        throws SenseInventoryException
+    {
+        ACorpus corpus = load(documentText);
+        List<Object> results = evaluate(corpus);
+        IResultWriter writer = this.m_Writer;
+        if (writer.getClass() == CPlainCorpusInlineWriter.class) {
+            // the default writer only needs the corpus, so each call gets its own
+            return new CPlainCorpusInlineWriter(corpus).toString(results);
         }
-        catch (ClassNotFoundException e) {
-            throw new SenseInventoryException(e);
+        // other writers may keep state, so they write one document at a time
+        synchronized (writer) {
+            if (writer instanceof CPlainCorpusInlineWriter) {
+                ((CPlainCorpusInlineWriter) writer).setCorpus(corpus);
+            }
+            return writer.toString(results);
         }
+    }
+
+    /**
+     * Evaluates a document and keeps its results for {@link #write()}. Unlike
+     * {@link #disambiguate(String)}, this is not thread-safe.
+     */
+    public void test(String text)
+        throws SenseInventoryException
+    {
+        ACorpus corpus = load(text);
+        if (this.m_Writer != null && CPlainCorpusInlineWriter.class.isInstance(this.m_Writer)) {
+            ((CPlainCorpusInlineWriter)this.m_Writer).setCorpus(corpus);
+        }
+        this.m_Results.addAll(evaluate(corpus));
+    }
 
+    protected ACorpus load(String text)
+        throws SenseInventoryException
+    {
+        ACorpus corpus = createCorpus(m_Components.get());
         corpus.setSplit(false);
         corpus.setTokenized(false);
         corpus.setPOSTagged(false);
@@ -148,12 +309,21 @@ implements WSDAlgorithmDocumentTextBasic
         catch (Exception e) {
             throw new SenseInventoryException(e);
         }
+        return corpus;
+    }
 
-        if (this.m_Writer != null && CPlainCorpusInlineWriter.class.isInstance(this.m_Writer)) {
-            ((CPlainCorpusInlineWriter)this.m_Writer).setCorpus(corpus);
-        }
+    /**
+     * Evaluates the lexelts of a corpus.
+     *
+     * @return the results of the lexelts, ordered by lexelt ID
+     */
+    protected List<Object> evaluate(ACorpus corpus)
+        throws SenseInventoryException
+    {
+        Components components = m_Components.get();
+        IInstanceExtractor instExtractor = components.instanceExtractor;
         instExtractor.setCorpus(corpus);
-        instExtractor.setFeatureExtractor(featExtractor);
+        instExtractor.setFeatureExtractor(components.featureExtractor);
 
         Hashtable<String, ILexelt> lexelts = new Hashtable<String, ILexelt>();
         while (instExtractor.hasNext()) {
@@ -168,38 +338,69 @@ implements WSDAlgorithmDocumentTextBasic
         lexeltIDs.addAll(lexelts.keySet());
         Collections.sort(lexeltIDs);
 
-        for (String lexeltID : lexeltIDs) {
-            System.err.println(lexeltID);
-            Object lexelt = lexelts.remove(lexeltID);
-            try {
-                this.m_Results.add(this.m_Evaluator.evaluate(lexelt));
+        List<Object> results = new ArrayList<Object>(lexeltIDs.size());
+        if (m_Executor == null || lexeltIDs.size() < 2) {
+            for (String lexeltID : lexeltIDs) {
+                try {
+                    results.add(this.m_Evaluator.evaluate(lexelts.remove(lexeltID)));
+                }
+                catch (Exception e) {
+                    throw new SenseInventoryException(e);
+                }
             }
-            catch (Exception e) {
-                throw new SenseInventoryException(e);
+            return results;
+        }
+
+        final IEvaluator evaluator = this.m_Evaluator;
+        List<Future<Object>> futures = new ArrayList<Future<Object>>(lexeltIDs.size());
+        for (String lexeltID : lexeltIDs) {
+            final ILexelt lexelt = lexelts.remove(lexeltID);
+            futures.add(m_Executor.submit(new Callable<Object>()
+            {
+                @Override
+                public Object call()
+                    throws Exception
+                {
+                    return evaluator.evaluate(lexelt);
+                }
+            }));
+        }
+        try {
+            for (Future<Object> future : futures) {
+                results.add(future.get());
             }
         }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SenseInventoryException(e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw new SenseInventoryException(cause instanceof Exception ? (Exception) cause : e);
+        }
+        finally {
+            for (Future<Object> future : futures) {
+                future.cancel(true);
             }
+        }
+        return results;
+    }
 
+    /**
+     * Sets the evaluator. It has to be thread-safe if the lexelts are
+     * evaluated by more than one thread.
+     */
     public void setEvaluator(IEvaluator p_Evaluator) {
         this.m_Evaluator = p_Evaluator;
     }
 
+    /**
+     * Sets the writer of {@link #disambiguate(String)} and {@link #write()}.
+     */
     public void setWriter(IResultWriter p_Writer) {
         this.m_Writer = p_Writer;
     }
 
-    public void setCorpusClassName(String p_Name) {
-        this.m_CorpusName = p_Name;
-    }
-
-    public void setInstanceExtractorName(String p_Name) {
-        this.m_InstanceExtractorName = p_Name;
-    }
-
-    public void setFeatureExtractorName(String p_Name) {
-        this.m_FeatureExtractorName = p_Name;
-    }
-
     public void write()
             throws SenseInventoryException
             {
@@ -215,15 +416,21 @@ implements WSDAlgorithmDocumentTextBasic
         this.m_Results.clear();
     }
 
+    /**
+     * Stops the threads which evaluate the lexelts.
+     */
+    public void shutdown()
+    {
+        if (m_Executor != null) {
+            m_Executor.shutdown();
+        }
+    }
+
     @Override
     public String getDisambiguation(String documentText)
         throws SenseInventoryException
     {
-        test(documentText);
-        String disambiguation = this.m_Writer.toString(this.m_Results);
-        clear();
-
-        return disambiguation;
+        return disambiguate(documentText);
     }
 
     @Override
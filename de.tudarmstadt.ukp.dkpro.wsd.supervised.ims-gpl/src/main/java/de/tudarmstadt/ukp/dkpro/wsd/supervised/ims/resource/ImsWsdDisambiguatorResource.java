@@ -23,6 +23,7 @@ import java.util.Map;
 
 import net.didion.jwnl.JWNLException;
 
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.fit.descriptor.ExternalResource;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.resource.ResourceSpecifier;
@@ -39,6 +40,22 @@ public class ImsWsdDisambiguatorResource
     @ExternalResource(key = PARAM_SENSE_INVENTORY)
     private SenseInventory senseInventory;
 
+    public static final String PARAM_LIB_DIR = "libDir";
+    @ConfigurationParameter(name = PARAM_LIB_DIR, mandatory = false, description = "The directory of the IMS libraries", defaultValue = ImsWsdDisambiguator.DEFAULT_LIB_DIR)
+    protected String libDir;
+
+    public static final String PARAM_MODEL_DIR = "modelDir";
+    @ConfigurationParameter(name = PARAM_MODEL_DIR, mandatory = false, description = "The directory of the IMS models", defaultValue = ImsWsdDisambiguator.DEFAULT_MODEL_DIR)
+    protected String modelDir;
+
+    public static final String PARAM_STAT_DIR = "statDir";
+    @ConfigurationParameter(name = PARAM_STAT_DIR, mandatory = false, description = "The directory of the IMS statistics", defaultValue = ImsWsdDisambiguator.DEFAULT_STAT_DIR)
+    protected String statDir;
+
+    public static final String PARAM_THREADS = "threads";
+    @ConfigurationParameter(name = PARAM_THREADS, mandatory = false, description = "The number of threads which evaluate the lexelts of a document, or 0 for one per processor", defaultValue = "0")
+    protected int threads;
+
 	@Override
 	public boolean initialize(ResourceSpecifier aSpecifier,
 			Map<String, Object> aAdditionalParams)
@@ -57,7 +74,9 @@ public class ImsWsdDisambiguatorResource
 		super.afterResourcesInitialized();
 
 		try {
-            wsdAlgorithm = new ImsWsdDisambiguator(senseInventory);
+            wsdAlgorithm = new ImsWsdDisambiguator(senseInventory, libDir,
+                    modelDir, statDir, threads > 0 ? threads : Runtime
+                            .getRuntime().availableProcessors());
         }
         catch (JWNLException e) {
             throw new ResourceInitializationException(e);
@@ -65,14 +84,5 @@ public class ImsWsdDisambiguatorResource
         catch (IOException e) {
             throw new ResourceInitializationException(e);
         }
-        catch (InstantiationException e) {
-            throw new ResourceInitializationException(e);
-        }
-        catch (IllegalAccessException e) {
-            throw new ResourceInitializationException(e);
-        }
-        catch (ClassNotFoundException e) {
-            throw new ResourceInitializationException(e);
-        }
 	}
 }
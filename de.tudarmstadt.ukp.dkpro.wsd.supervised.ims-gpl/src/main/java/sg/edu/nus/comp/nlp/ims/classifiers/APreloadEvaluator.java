@@ -22,8 +22,8 @@ package sg.edu.nus.comp.nlp.ims.classifiers;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.concurrent.Callable;
 
 import sg.edu.nus.comp.nlp.ims.util.CArgumentManager;
 import sg.edu.nus.comp.nlp.ims.util.ISenseIndex;
@@ -43,16 +43,12 @@ public abstract class APreloadEvaluator implements IEvaluator {
 	protected ISenseIndex m_SenseIndex = null;
 	// default capacity
 	protected int m_Capacity = 100;
-	// classifier models
-	protected Object[] m_Classifiers = null;
-	// classifier statistics
-	protected Object[] m_Statistics = null;
-	// models permanently in memory
-	protected HashSet <Integer> m_PermanentlyInMemory = new HashSet<Integer>();
+	// maximum total estimated size of cached models in bytes, 0 means unbounded
+	protected long m_CapacityBytes = 0;
 	// lexelt index
 	protected Hashtable <String, Integer> m_ReverseIndice = null;
-	// most recently used lexelt
-	protected ArrayList <String> m_MostRecentlyInMemory = new ArrayList<String>();
+	// models and statistics kept in memory, shared by all evaluating threads
+	protected CModelCache m_Cache = new CModelCache(this.m_Capacity, this.m_CapacityBytes);
 
 	/**
 	 * constructor
@@ -102,6 +98,50 @@ public abstract class APreloadEvaluator implements IEvaluator {
 	 */
 	protected abstract Object loadModelFromDisk(String p_LexeltID) throws Exception;
 
+	/**
+	 * estimate the heap size of a loaded model and statistic, used to bound
+	 * the cache by bytes. the default returns 0, so that only the number of
+	 * models is bounded.
+	 * @param p_LexeltID lexelt id
+	 * @param p_Model loaded model, may be null
+	 * @param p_Statistic loaded statistic, may be null
+	 * @return estimated size in bytes
+	 */
+	protected long estimateSize(String p_LexeltID, Object p_Model, Object p_Statistic) {
+		return 0;
+	}
+
+	/**
+	 * get the cached model and statistic of p_LexeltID, loading both from
+	 * disk on a miss
+	 * @param p_LexeltID lexelt id
+	 * @return cache entry, or null if p_LexeltID has no model
+	 * @throws Exception exception
+	 */
+	protected CModelCache.CEntry getEntry(final String p_LexeltID) throws Exception {
+		if (this.m_ReverseIndice != null && !this.m_ReverseIndice.containsKey(p_LexeltID)) {
+			return null;
+		}
+		return this.m_Cache.get(p_LexeltID, new Callable<CModelCache.CEntry>() {
+			@Override
+			public CModelCache.CEntry call() throws Exception {
+				return loadEntryFromDisk(p_LexeltID);
+			}
+		});
+	}
+
+	/**
+	 * load the model and statistic of p_LexeltID from disk
+	 * @param p_LexeltID lexelt id
+	 * @return cache entry
+	 * @throws Exception exception
+	 */
+	protected CModelCache.CEntry loadEntryFromDisk(String p_LexeltID) throws Exception {
+		Object stat = this.loadStatisticFromDisk(p_LexeltID);
+		Object model = this.loadModelFromDisk(p_LexeltID);
+		return new CModelCache.CEntry(model, stat, this.estimateSize(p_LexeltID, model, stat));
+	}
+
 	/**
 	 * get model for p_LexeltID
 	 * @param p_LexeltID lexelt id
@@ -109,32 +149,11 @@ public abstract class APreloadEvaluator implements IEvaluator {
 	 * @throws Exception exception
 	 */
 	protected Object getModel(String p_LexeltID) throws Exception {
-		Object model = null;
-		if (this.m_ReverseIndice == null) {
-			return this.loadModelFromDisk(p_LexeltID);
-		} else if (this.m_ReverseIndice.containsKey(p_LexeltID)) {
-			int index = this.m_ReverseIndice.get(p_LexeltID);
-			if (!this.m_PermanentlyInMemory.contains(index)) {
-				if (!this.m_MostRecentlyInMemory.contains(index)) {
-					Object stat = this.loadStatisticFromDisk(p_LexeltID);
-					model = this.loadModelFromDisk(p_LexeltID);
-					synchronized (this) {
-						if (this.m_MostRecentlyInMemory.contains(p_LexeltID)) {
-							this.m_MostRecentlyInMemory.remove(this.m_MostRecentlyInMemory.indexOf(p_LexeltID));
-						} else {
-							if (this.m_MostRecentlyInMemory.size() > this.m_Capacity) {
-								this.m_MostRecentlyInMemory.remove(0);
-							}
-						}
-						this.m_Classifiers[index] = model;
-						this.m_Statistics[index] = stat;
-						this.m_MostRecentlyInMemory.add(p_LexeltID);
-					}
-				}
-			}
-			model = this.m_Classifiers[index];
+		CModelCache.CEntry entry = this.getEntry(p_LexeltID);
+		if (entry == null) {
+			return null;
 		}
-		return model;
+		return entry.model;
 	}
 
 	/**
@@ -144,32 +163,19 @@ public abstract class APreloadEvaluator implements IEvaluator {
 	 * @throws Exception exception
 	 */
 	protected Object getStatistic(String p_LexeltID) throws Exception {
-		Object stat = null;
-		if (this.m_ReverseIndice == null) {
-			return this.loadStatisticFromDisk(p_LexeltID);
-		} else if (this.m_ReverseIndice.containsKey(p_LexeltID)) {
-			int index = this.m_ReverseIndice.get(p_LexeltID);
-			if (!this.m_PermanentlyInMemory.contains(index)) {
-				if (!this.m_MostRecentlyInMemory.contains(index)) {
-					Object model = this.loadModelFromDisk(p_LexeltID);
-					stat = this.loadStatisticFromDisk(p_LexeltID);
-					synchronized (this) {
-						if (this.m_MostRecentlyInMemory.contains(p_LexeltID)) {
-							this.m_MostRecentlyInMemory.remove(this.m_MostRecentlyInMemory.indexOf(p_LexeltID));
-						} else {
-							if (this.m_MostRecentlyInMemory.size() > this.m_Capacity) {
-								this.m_MostRecentlyInMemory.remove(0);
-							}
-						}
-						this.m_Classifiers[index] = model;
-						this.m_Statistics[index] = stat;
-						this.m_MostRecentlyInMemory.add(p_LexeltID);
-					}
-				}
-			}
-			stat = this.m_Statistics[index];
+		CModelCache.CEntry entry = this.getEntry(p_LexeltID);
+		if (entry == null) {
+			return null;
 		}
-		return stat;
+		return entry.statistic;
+	}
+
+	/**
+	 * get the model cache, e.g. to report its hit rate
+	 * @return model cache
+	 */
+	public CModelCache getCache() {
+		return this.m_Cache;
 	}
 
 	/**
@@ -180,20 +186,19 @@ public abstract class APreloadEvaluator implements IEvaluator {
 	 */
 	protected void initial(ArrayList <String> p_LexeltList, int p_Capacity, ArrayList<String> p_StaticOnes) {
 		try {
+			this.m_ReverseIndice = null;
 			if (p_LexeltList != null && p_LexeltList.size() > 0) {
 				this.m_ReverseIndice = new Hashtable<String, Integer>();
 				for (int i = 0; i < p_LexeltList.size(); i++) {
 					this.m_ReverseIndice.put(p_LexeltList.get(i), i);
 				}
-				this.m_Capacity = p_Capacity;
-				this.m_Classifiers = new Object[this.m_ReverseIndice.size()];
-				this.m_Statistics = new Object[this.m_ReverseIndice.size()];
+			}
+			this.m_Capacity = p_Capacity;
+			this.m_Cache = new CModelCache(this.m_Capacity, this.m_CapacityBytes);
+			if (p_StaticOnes != null && p_StaticOnes.size() > 0) {
 				for (String lexelt : p_StaticOnes) {
-					if (this.m_ReverseIndice.containsKey(lexelt)) {
-						int index = this.m_ReverseIndice.get(lexelt);
-						this.m_Classifiers[index] = this.loadModelFromDisk(lexelt);
-						this.m_Statistics[index] = this.loadStatisticFromDisk(lexelt);
-						this.m_PermanentlyInMemory.add(index);
+					if (this.m_ReverseIndice == null || this.m_ReverseIndice.containsKey(lexelt)) {
+						this.m_Cache.pin(lexelt, this.loadEntryFromDisk(lexelt));
 						System.err.print(".");
 					}
 				}
@@ -230,6 +235,9 @@ public abstract class APreloadEvaluator implements IEvaluator {
 		if (this.m_Capacity <= 0) {
 			this.m_Capacity = 1;
 		}
+		if (argmgr.has("capbytes")) {
+			this.m_CapacityBytes = Long.parseLong(argmgr.get("capbytes"));
+		}
 		try {
 			ArrayList<String> lexelts = new ArrayList<String>();
 			if (argmgr.has("l") && argmgr.get("l") != null) {
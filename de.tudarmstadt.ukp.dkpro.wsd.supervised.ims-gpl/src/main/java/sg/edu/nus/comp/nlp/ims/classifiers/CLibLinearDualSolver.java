@@ -0,0 +1,335 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+package sg.edu.nus.comp.nlp.ims.classifiers;
+
+import java.lang.reflect.Field;
+import java.util.Random;
+
+import liblinear.FeatureNode;
+import liblinear.Model;
+import liblinear.Parameter;
+import liblinear.Problem;
+import liblinear.SolverType;
+
+/**
+ * the dual coordinate descent solvers of liblinear 1.7.1
+ * (L2R_L2LOSS_SVC_DUAL and L2R_L1LOSS_SVC_DUAL) with a random generator
+ * per call. liblinear.Linear shares one static generator between all
+ * calls, so threads training at the same time change each other's
+ * models. given a generator seeded like Linear.resetRandom(), train
+ * returns the same model as Linear.train. CLibLinearDualSolverTest checks
+ * that, so keep both in step when liblinear is upgraded.
+ */
+public final class CLibLinearDualSolver {
+	// seed of Linear.resetRandom()
+	public static final long DEFAULT_RANDOM_SEED = 0;
+
+	// maximal number of iterations
+	private static final int MAX_ITER = 1000;
+
+	// fields of liblinear.Model
+	private static final Field[] MODEL_FIELDS;
+
+	static {
+		String[] names = { "solverType", "nr_class", "label", "nr_feature", "bias", "w" };
+		MODEL_FIELDS = new Field[names.length];
+		try {
+			for (int i = 0; i < names.length; i++) {
+				MODEL_FIELDS[i] = Model.class.getDeclaredField(names[i]);
+				MODEL_FIELDS[i].setAccessible(true);
+			}
+		} catch (NoSuchFieldException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private CLibLinearDualSolver() {
+	}
+
+	/**
+	 * whether the solver type is supported
+	 * @param p_SolverType solver type
+	 * @return true for the dual l2-regularized svm solvers
+	 */
+	public static boolean supports(SolverType p_SolverType) {
+		return p_SolverType == SolverType.L2R_L2LOSS_SVC_DUAL
+				|| p_SolverType == SolverType.L2R_L1LOSS_SVC_DUAL;
+	}
+
+	/**
+	 * train a model like Linear.train
+	 * @param p_Problem problem
+	 * @param p_Param parameters with a supported solver type
+	 * @param p_Random random generator, only used by this call
+	 * @return model
+	 */
+	public static Model train(Problem p_Problem, Parameter p_Param, Random p_Random) {
+		if (!supports(p_Param.getSolverType())) {
+			throw new IllegalArgumentException("unsupported solver type " + p_Param.getSolverType());
+		}
+		for (FeatureNode[] nodes : p_Problem.x) {
+			int last = 0;
+			for (FeatureNode node : nodes) {
+				if (node.index <= last) {
+					throw new IllegalArgumentException("feature nodes must be sorted by index in ascending order");
+				}
+				last = node.index;
+			}
+		}
+		int l = p_Problem.l;
+		int n = p_Problem.n;
+
+		// group the instances by class, in the order the labels appear
+		int[] label = new int[16];
+		int[] count = new int[16];
+		int[] dataLabel = new int[l];
+		int nrClass = 0;
+		for (int i = 0; i < l; i++) {
+			int j;
+			for (j = 0; j < nrClass; j++) {
+				if (p_Problem.y[i] == label[j]) {
+					count[j]++;
+					break;
+				}
+			}
+			dataLabel[i] = j;
+			if (j == nrClass) {
+				if (nrClass == label.length) {
+					label = copyOf(label, 2 * nrClass);
+					count = copyOf(count, 2 * nrClass);
+				}
+				label[nrClass] = p_Problem.y[i];
+				count[nrClass] = 1;
+				nrClass++;
+			}
+		}
+		int[] start = new int[nrClass];
+		for (int i = 1; i < nrClass; i++) {
+			start[i] = start[i - 1] + count[i - 1];
+		}
+		int[] next = copyOf(start, nrClass);
+		FeatureNode[][] x = new FeatureNode[l][];
+		for (int i = 0; i < l; i++) {
+			x[next[dataLabel[i]]++] = p_Problem.x[i];
+		}
+
+		double[] weightedC = new double[nrClass];
+		for (int i = 0; i < nrClass; i++) {
+			weightedC[i] = p_Param.getC();
+		}
+		for (int i = 0; i < p_Param.getNumWeights(); i++) {
+			int j;
+			for (j = 0; j < nrClass; j++) {
+				if (p_Param.getWeightLabels()[i] == label[j]) {
+					break;
+				}
+			}
+			if (j == nrClass) {
+				throw new IllegalArgumentException("class label " + p_Param.getWeightLabels()[i] + " specified in weight is not found");
+			}
+			weightedC[j] *= p_Param.getWeights()[i];
+		}
+
+		int[] y = new int[l];
+		double[] w;
+		if (nrClass == 2) {
+			w = new double[n];
+			for (int i = 0; i < l; i++) {
+				y[i] = i < count[0] ? 1 : -1;
+			}
+			solve(x, y, n, w, p_Param, weightedC[0], weightedC[1], p_Random);
+		} else {
+			w = new double[n * nrClass];
+			double[] current = new double[n];
+			for (int i = 0; i < nrClass; i++) {
+				for (int k = 0; k < l; k++) {
+					y[k] = k >= start[i] && k < start[i] + count[i] ? 1 : -1;
+				}
+				solve(x, y, n, current, p_Param, weightedC[i], p_Param.getC(), p_Random);
+				for (int j = 0; j < n; j++) {
+					w[j * nrClass + i] = current[j];
+				}
+			}
+		}
+		return createModel(p_Param.getSolverType(), copyOf(label, nrClass),
+				p_Problem.bias >= 0 ? n - 1 : n, p_Problem.bias, w);
+	}
+
+	/**
+	 * solve one binary problem by dual coordinate descent
+	 * @param p_X instances
+	 * @param p_Y labels, 1 or -1
+	 * @param p_N number of features
+	 * @param p_W weights, overwritten
+	 * @param p_Param parameters
+	 * @param p_Cp cost of positive instances
+	 * @param p_Cn cost of negative instances
+	 * @param p_Random random generator
+	 */
+	private static void solve(FeatureNode[][] p_X, int[] p_Y, int p_N, double[] p_W, Parameter p_Param,
+			double p_Cp, double p_Cn, Random p_Random) {
+		int l = p_X.length;
+		double eps = p_Param.getEps();
+		double[] qd = new double[l];
+		int[] index = new int[l];
+		double[] alpha = new double[l];
+		int activeSize = l;
+
+		// PG: projected gradient, for shrinking and stopping
+		double pgMaxOld = Double.POSITIVE_INFINITY;
+		double pgMinOld = Double.NEGATIVE_INFINITY;
+
+		// indexed by y + 1
+		double[] diag = { 0.5 / p_Cn, 0, 0.5 / p_Cp };
+		double[] upperBound = { Double.POSITIVE_INFINITY, 0, Double.POSITIVE_INFINITY };
+		if (p_Param.getSolverType() == SolverType.L2R_L1LOSS_SVC_DUAL) {
+			diag[0] = 0;
+			diag[2] = 0;
+			upperBound[0] = p_Cn;
+			upperBound[2] = p_Cp;
+		}
+
+		for (int i = 0; i < p_N; i++) {
+			p_W[i] = 0;
+		}
+		for (int i = 0; i < l; i++) {
+			qd[i] = diag[p_Y[i] + 1];
+			for (FeatureNode node : p_X[i]) {
+				qd[i] += node.value * node.value;
+			}
+			index[i] = i;
+		}
+
+		int iter = 0;
+		while (iter < MAX_ITER) {
+			double pgMaxNew = Double.NEGATIVE_INFINITY;
+			double pgMinNew = Double.POSITIVE_INFINITY;
+
+			for (int i = 0; i < activeSize; i++) {
+				swap(index, i, i + p_Random.nextInt(activeSize - i));
+			}
+
+			for (int s = 0; s < activeSize; s++) {
+				int i = index[s];
+				int yi = p_Y[i];
+				double g = 0;
+				for (FeatureNode node : p_X[i]) {
+					g += p_W[node.index - 1] * node.value;
+				}
+				g = g * yi - 1;
+				double c = upperBound[yi + 1];
+				g += alpha[i] * diag[yi + 1];
+
+				double pg = 0;
+				if (alpha[i] == 0) {
+					if (g > pgMaxOld) {
+						activeSize--;
+						swap(index, s, activeSize);
+						s--;
+						continue;
+					} else if (g < 0) {
+						pg = g;
+					}
+				} else if (alpha[i] == c) {
+					if (g < pgMinOld) {
+						activeSize--;
+						swap(index, s, activeSize);
+						s--;
+						continue;
+					} else if (g > 0) {
+						pg = g;
+					}
+				} else {
+					pg = g;
+				}
+
+				pgMaxNew = Math.max(pgMaxNew, pg);
+				pgMinNew = Math.min(pgMinNew, pg);
+
+				if (Math.abs(pg) > 1.0e-12) {
+					double alphaOld = alpha[i];
+					alpha[i] = Math.min(Math.max(alpha[i] - g / qd[i], 0.0), c);
+					double d = (alpha[i] - alphaOld) * yi;
+					for (FeatureNode node : p_X[i]) {
+						p_W[node.index - 1] += d * node.value;
+					}
+				}
+			}
+
+			iter++;
+			if (pgMaxNew - pgMinNew <= eps) {
+				if (activeSize == l) {
+					break;
+				}
+				activeSize = l;
+				pgMaxOld = Double.POSITIVE_INFINITY;
+				pgMinOld = Double.NEGATIVE_INFINITY;
+				continue;
+			}
+			pgMaxOld = pgMaxNew;
+			pgMinOld = pgMinNew;
+			if (pgMaxOld <= 0) {
+				pgMaxOld = Double.POSITIVE_INFINITY;
+			}
+			if (pgMinOld >= 0) {
+				pgMinOld = Double.NEGATIVE_INFINITY;
+			}
+		}
+	}
+
+	/**
+	 * build a liblinear model. its fields are package-private and the model
+	 * reader parses text char by char, which costs more than the solver,
+	 * so the fields are set directly.
+	 * @param p_SolverType solver type
+	 * @param p_Labels labels
+	 * @param p_NrFeature number of features without the bias
+	 * @param p_Bias bias
+	 * @param p_W weights, feature major
+	 * @return model
+	 */
+	private static Model createModel(SolverType p_SolverType, int[] p_Labels, int p_NrFeature, double p_Bias,
+			double[] p_W) {
+		Model model = new Model();
+		try {
+			MODEL_FIELDS[0].set(model, p_SolverType);
+			MODEL_FIELDS[1].setInt(model, p_Labels.length);
+			MODEL_FIELDS[2].set(model, p_Labels);
+			MODEL_FIELDS[3].setInt(model, p_NrFeature);
+			MODEL_FIELDS[4].setDouble(model, p_Bias);
+			MODEL_FIELDS[5].set(model, p_W);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+		return model;
+	}
+
+	private static void swap(int[] p_Array, int p_I, int p_J) {
+		int tmp = p_Array[p_I];
+		p_Array[p_I] = p_Array[p_J];
+		p_Array[p_J] = tmp;
+	}
+
+	private static int[] copyOf(int[] p_Array, int p_Length) {
+		int[] copy = new int[p_Length];
+		System.arraycopy(p_Array, 0, copy, 0, Math.min(p_Array.length, p_Length));
+		return copy;
+	}
+}
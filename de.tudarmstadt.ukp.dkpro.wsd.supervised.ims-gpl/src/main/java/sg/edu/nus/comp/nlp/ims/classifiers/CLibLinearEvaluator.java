@@ -33,10 +33,10 @@ import java.util.zip.GZIPInputStream;
 import liblinear.FeatureNode;
 import liblinear.Linear;
 import liblinear.Model;
-import liblinear.Problem;
 
-import sg.edu.nus.comp.nlp.ims.io.CLibLinearLexeltWriter;
-import sg.edu.nus.comp.nlp.ims.io.ILexeltWriter;
+import sg.edu.nus.comp.nlp.ims.io.CLibLinearVectorizer;
+import sg.edu.nus.comp.nlp.ims.io.CPackedModelStore;
+import sg.edu.nus.comp.nlp.ims.lexelt.CPackedStatistic;
 import sg.edu.nus.comp.nlp.ims.lexelt.CStatistic;
 import sg.edu.nus.comp.nlp.ims.lexelt.ILexelt;
 import sg.edu.nus.comp.nlp.ims.lexelt.IStatistic;
@@ -55,8 +55,58 @@ public class CLibLinearEvaluator extends APreloadEvaluator {
 	protected String m_ModelDir = null;
 	// class index
 	protected int m_ClassIndex = -1;
+	// packed model store, checked before the model and statistic directories
+	protected CPackedModelStore m_Store = null;
+	// estimated heap size of an object header with a few fields
+	protected static final int OBJECTSIZE = 48;
+	// estimated heap size of a hash table or list entry
+	protected static final int ENTRYSIZE = 40;
 	protected static Pattern LEXELTPATTERN = Pattern.compile("^(.*\\.[nvar])\\-.*$");
 
+	/**
+	 * everything needed to evaluate instances of one lexelt, built once per
+	 * cached model. a context is used by one thread at a time and is kept
+	 * with the model in the cache between calls.
+	 */
+	protected static class CContext {
+		// model, a liblinear.Model or a CPackedLinearModel
+		protected final Object model;
+		// number of classes of the model
+		protected final int nrClass;
+		// labels of the model
+		protected final int[] labels;
+		// tags of the statistic in order
+		protected final String[] classes;
+		// vectorizer of the statistic
+		protected final CLibLinearVectorizer vectorizer;
+		// decision values of the current instance
+		protected final double[] probs;
+
+		/**
+		 * constructor
+		 * @param p_Statistic statistic
+		 * @param p_Model model
+		 * @throws ClassNotFoundException unknown feature type
+		 */
+		protected CContext(IStatistic p_Statistic, Object p_Model) throws ClassNotFoundException {
+			double bias;
+			if (p_Model instanceof CPackedLinearModel) {
+				CPackedLinearModel packed = (CPackedLinearModel) p_Model;
+				bias = packed.getBias();
+				this.nrClass = packed.getNrClass();
+				this.labels = packed.getLabels();
+			} else {
+				bias = ((Model) p_Model).getBias();
+				this.nrClass = ((Model) p_Model).getNrClass();
+				this.labels = ((Model) p_Model).getLabels();
+			}
+			this.model = p_Model;
+			this.classes = p_Statistic.getTagsInOrder().toArray(new String[0]);
+			this.vectorizer = new CLibLinearVectorizer(p_Statistic, bias);
+			this.probs = new double[this.nrClass];
+		}
+	}
+
 	/**
 	 * default constructor
 	 */
@@ -129,7 +179,8 @@ public class CLibLinearEvaluator extends APreloadEvaluator {
 	public Object evaluate(Object p_Lexelt) throws Exception {
 		ILexelt lexelt = (ILexelt) p_Lexelt;
 		String lexeltID = lexelt.getID();
-		IStatistic stat = (IStatistic) this.getStatistic(lexeltID);
+		CModelCache.CEntry entry = this.getEntry(lexeltID);
+		IStatistic stat = entry == null ? null : (IStatistic) entry.statistic;
 		int type = 2;
 		String firstSense = this.m_UnknownSense;
 		if (stat == null) {
@@ -166,27 +217,34 @@ public class CLibLinearEvaluator extends APreloadEvaluator {
 			break;
 		default:
 			lexelt.setStatistic(stat);
-			Model model = (Model) this.getModel(lexeltID);
-			ILexeltWriter lexeltWriter = new CLibLinearLexeltWriter(model.getBias());
-			Problem instances = (Problem) lexeltWriter.getInstances(lexelt);
-			retVal.lexelt = lexelt.getID();
-			retVal.docs = new String[lexelt.size()];
-			retVal.ids = new String[lexelt.size()];
-			retVal.probabilities = new double[instances.l][];
-			retVal.classes = new String[stat.getTagsInOrder().size()];
-			stat.getTagsInOrder().toArray(retVal.classes);
-			for (int i = 0; i < instances.l; i++) {
-				FeatureNode[] instance = instances.x[i];
-				double[] probs = new double[model.getNrClass()];
-				retVal.docs[i] = lexelt.getInstanceDocID(i);
-				retVal.ids[i] = lexelt.getInstanceID(i);
-				retVal.probabilities[i] = new double[retVal.classes.length];
-				this.Predict(model, instance, probs);
-				for (int c = 0; c < model.getNrClass(); c++) {
-					if (model.getLabels()[c] > 0) {
-						retVal.probabilities[i][model.getLabels()[c] - 1] = probs[c];
+			CContext context = (CContext) entry.pollContext();
+			if (context == null) {
+				context = new CContext(stat, entry.model);
+			}
+			try {
+				retVal.lexelt = lexelt.getID();
+				retVal.docs = new String[lexelt.size()];
+				retVal.ids = new String[lexelt.size()];
+				retVal.probabilities = new double[lexelt.size()][];
+				retVal.classes = context.classes.clone();
+				for (int i = 0; i < lexelt.size(); i++) {
+					FeatureNode[] instance = context.vectorizer.getVector(lexelt.getInstance(i));
+					retVal.docs[i] = lexelt.getInstanceDocID(i);
+					retVal.ids[i] = lexelt.getInstanceID(i);
+					retVal.probabilities[i] = new double[retVal.classes.length];
+					if (context.model instanceof CPackedLinearModel) {
+						this.Predict((CPackedLinearModel) context.model, instance, context.probs);
+					} else {
+						this.Predict((Model) context.model, instance, context.probs);
+					}
+					for (int c = 0; c < context.nrClass; c++) {
+						if (context.labels[c] > 0) {
+							retVal.probabilities[i][context.labels[c] - 1] = context.probs[c];
+						}
 					}
 				}
+			} finally {
+				entry.offerContext(context);
 			}
 		}
 		return retVal;
@@ -200,14 +258,36 @@ public class CLibLinearEvaluator extends APreloadEvaluator {
 	 * @return answer
 	 */
 	protected int Predict(Model model, FeatureNode[] x, double[] prob_estimates) {
-		int nr_class = model.getNrClass();
+		int label = Linear.predictValues(model, x, prob_estimates);
+		this.toProbabilities(model.getNrClass(), prob_estimates);
+		return label;
+	}
+
+	/**
+	 * predict with a packed model and calculate the probabilities
+	 * @param model packed model
+	 * @param x input instance
+	 * @param prob_estimates output probabilities
+	 * @return answer
+	 */
+	protected int Predict(CPackedLinearModel model, FeatureNode[] x, double[] prob_estimates) {
+		int label = model.predictValues(x, prob_estimates);
+		this.toProbabilities(model.getNrClass(), prob_estimates);
+		return label;
+	}
+
+	/**
+	 * turn decision values into probabilities
+	 * @param nr_class number of classes
+	 * @param prob_estimates decision values in, probabilities out
+	 */
+	protected void toProbabilities(int nr_class, double[] prob_estimates) {
 		int nr_w;
 		if (nr_class == 2) {
 			nr_w = 1;
 		} else {
 			nr_w = nr_class;
 		}
-		int label = Linear.predictValues(model, x, prob_estimates);
 		for (int i = 0; i < nr_w; i++) {
 			prob_estimates[i] = 1 / (1 + Math.exp(-prob_estimates[i]));
 		}
@@ -222,7 +302,95 @@ public class CLibLinearEvaluator extends APreloadEvaluator {
 				prob_estimates[i] = prob_estimates[i] / sum;
 			}
 		}
-		return label;
+	}
+
+	/**
+	 * set a packed model store which is checked before the model and
+	 * statistic directories
+	 * @param p_Store store, null to use the directories only
+	 */
+	public void setStore(CPackedModelStore p_Store) {
+		this.m_Store = p_Store;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.classifiers.APreloadEvaluator#estimateSize(java.lang.String, java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	protected long estimateSize(String p_LexeltID, Object p_Model, Object p_Statistic) {
+		return this.estimateModelSize(p_Model) + this.estimateStatisticSize(p_Statistic);
+	}
+
+	/**
+	 * estimate the heap size of a model. a packed model is memory-mapped, so
+	 * only its labels are on the heap.
+	 * @param p_Model model
+	 * @return estimated size in bytes
+	 */
+	protected long estimateModelSize(Object p_Model) {
+		if (p_Model instanceof CPackedLinearModel) {
+			return OBJECTSIZE + 4L * ((CPackedLinearModel) p_Model).getNrClass();
+		}
+		if (p_Model instanceof Model) {
+			Model model = (Model) p_Model;
+			int nrClass = model.getNrClass();
+			long nrFeature = model.getNrFeature();
+			if (model.getBias() >= 0) {
+				nrFeature++;
+			}
+			return OBJECTSIZE + 4L * nrClass + 8L * nrFeature * (nrClass == 2 ? 1 : nrClass);
+		}
+		return 0;
+	}
+
+	/**
+	 * estimate the heap size of a statistic from its keys and values. a
+	 * packed statistic is memory-mapped, so only its per key views are on
+	 * the heap.
+	 * @param p_Statistic statistic
+	 * @return estimated size in bytes
+	 */
+	protected long estimateStatisticSize(Object p_Statistic) {
+		if (!(p_Statistic instanceof IStatistic)) {
+			return 0;
+		}
+		IStatistic stat = (IStatistic) p_Statistic;
+		int keySize = stat.getKeys().size();
+		if (p_Statistic instanceof CPackedStatistic) {
+			return OBJECTSIZE + (long) OBJECTSIZE * keySize;
+		}
+		long size = OBJECTSIZE;
+		for (int i = 0; i < keySize; i++) {
+			size += ENTRYSIZE + this.estimateStringSize(stat.getKey(i));
+			for (String value : stat.getValue(i)) {
+				size += ENTRYSIZE + this.estimateStringSize(value);
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @param p_String string
+	 * @return estimated heap size of p_String in bytes
+	 */
+	protected long estimateStringSize(String p_String) {
+		return OBJECTSIZE + 2L * p_String.length();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.classifiers.APreloadEvaluator#loadEntryFromDisk(java.lang.String)
+	 */
+	@Override
+	protected CModelCache.CEntry loadEntryFromDisk(String p_LexeltID) throws Exception {
+		if (this.m_Store != null && this.m_Store.contains(p_LexeltID)) {
+			// map the entry once for both the statistic and the model
+			CPackedModelStore.CEntry entry = this.m_Store.getEntry(p_LexeltID);
+			return new CModelCache.CEntry(entry.model, entry.statistic,
+					this.estimateSize(p_LexeltID, entry.model, entry.statistic));
+		}
+		return super.loadEntryFromDisk(p_LexeltID);
 	}
 
 	/*
@@ -231,6 +399,9 @@ public class CLibLinearEvaluator extends APreloadEvaluator {
 	 */
 	@Override
 	protected Object loadModelFromDisk(String p_LexeltID) throws Exception {
+		if (this.m_Store != null && this.m_Store.contains(p_LexeltID)) {
+			return this.m_Store.getModel(p_LexeltID);
+		}
 		Object model = null;
 		File modelFile = new File(this.m_ModelDir + this.m_FileSeparator + p_LexeltID + ".model.gz");
 		if (!modelFile.exists()) {
@@ -259,6 +430,9 @@ public class CLibLinearEvaluator extends APreloadEvaluator {
 	 */
 	@Override
 	protected Object loadStatisticFromDisk(String p_LexeltID) throws Exception {
+		if (this.m_Store != null && this.m_Store.contains(p_LexeltID)) {
+			return this.m_Store.getStatistic(p_LexeltID);
+		}
 		Object stat = null;
 		File statFile = new File(this.m_StatDir + this.m_FileSeparator + p_LexeltID + ".stat.gz");
 		if (!statFile.exists()) {
@@ -302,7 +476,13 @@ public class CLibLinearEvaluator extends APreloadEvaluator {
 		if (this.m_Capacity <= 0) {
 			this.m_Capacity = 1;
 		}
+		if (argmgr.has("capbytes")) {
+			this.m_CapacityBytes = Long.parseLong(argmgr.get("capbytes"));
+		}
 		try {
+			if (argmgr.has("pack") && argmgr.get("pack") != null) {
+				this.m_Store = new CPackedModelStore(argmgr.get("pack"));
+			}
 			ArrayList<String> lexelts = new ArrayList<String>();
 			if (argmgr.has("l") && argmgr.get("l") != null) {
 				String line;
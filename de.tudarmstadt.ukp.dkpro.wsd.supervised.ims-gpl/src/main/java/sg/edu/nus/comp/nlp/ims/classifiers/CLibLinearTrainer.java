@@ -19,6 +19,8 @@
 
 package sg.edu.nus.comp.nlp.ims.classifiers;
 
+import java.util.Random;
+
 import liblinear.Linear;
 import liblinear.Model;
 import liblinear.Parameter;
@@ -77,21 +79,46 @@ public class CLibLinearTrainer implements IModelTrainer {
 		if (((IStatistic) retVal.statistic).getTagsInOrder().size() <= 1) {
 			retVal.model = null;
 		} else {
-			if (this.m_Param.getEps() == Double.POSITIVE_INFINITY) {
-				if (this.m_Param.getSolverType() == SolverType.L2R_LR || this.m_Param.getSolverType() == SolverType.L2R_L2LOSS_SVC) {
-					this.m_Param.setEps(0.01);
-				} else if (this.m_Param.getSolverType() == SolverType.L2R_L2LOSS_SVC_DUAL || this.m_Param.getSolverType() == SolverType.L2R_L1LOSS_SVC_DUAL
-						|| this.m_Param.getSolverType() == SolverType.MCSVM_CS) {
-					this.m_Param.setEps(0.1);
-				}
-			}
-
+			this.setDefaultEps();
 			ILexeltWriter lexeltWriter = new CLibLinearLexeltWriter(this.m_Bias);
 			Problem prob = (Problem) lexeltWriter.getInstances(lexelt);
-			Model model = Linear.train(prob, this.m_Param);
+			Model model;
+			SolverType solverType = this.m_Param.getSolverType();
+			if (CLibLinearDualSolver.supports(solverType)) {
+				// a generator of its own for each lexelt, so the model
+				// does not depend on the other threads
+				model = CLibLinearDualSolver.train(prob, this.m_Param, new Random(CLibLinearDualSolver.DEFAULT_RANDOM_SEED));
+			} else if (solverType == SolverType.L2R_LR || solverType == SolverType.L2R_L2LOSS_SVC) {
+				// the trust region solvers do not use random numbers
+				model = Linear.train(prob, this.m_Param);
+			} else {
+				// the other solvers share one static random generator.
+				// train one lexelt at a time from a fresh seed, so the
+				// model does not depend on the number of threads or the
+				// order of the lexelts.
+				synchronized (Linear.class) {
+					Linear.resetRandom();
+					model = Linear.train(prob, this.m_Param);
+				}
+			}
 			retVal.model = model;
 		}
 		return retVal;
 	}
 
+	/**
+	 * set the stopping tolerance to the default of the solver type if it
+	 * is not set. call it before training lexelts in several threads.
+	 */
+	public synchronized void setDefaultEps() {
+		if (this.m_Param.getEps() == Double.POSITIVE_INFINITY) {
+			if (this.m_Param.getSolverType() == SolverType.L2R_LR || this.m_Param.getSolverType() == SolverType.L2R_L2LOSS_SVC) {
+				this.m_Param.setEps(0.01);
+			} else if (this.m_Param.getSolverType() == SolverType.L2R_L2LOSS_SVC_DUAL || this.m_Param.getSolverType() == SolverType.L2R_L1LOSS_SVC_DUAL
+					|| this.m_Param.getSolverType() == SolverType.MCSVM_CS) {
+				this.m_Param.setEps(0.1);
+			}
+		}
+	}
+
 }
@@ -0,0 +1,334 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+package sg.edu.nus.comp.nlp.ims.classifiers;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe LRU cache of lexelt models and statistics.
+ *
+ * Each lexelt is loaded at most once at a time: concurrent requests for a
+ * lexelt which is being loaded wait for the running load instead of starting
+ * another one. Loads of different lexelts run in parallel, and the cache lock
+ * is never held while loading. The cache is bounded by the number of entries
+ * and, optionally, by the total estimated size of the entries in bytes.
+ * Pinned entries are never evicted and do not count against either bound.
+ */
+public class CModelCache {
+
+	/**
+	 * a cached model together with its statistic
+	 */
+	public static class CEntry {
+		// classifier model
+		public final Object model;
+		// classifier statistic
+		public final Object statistic;
+		// estimated size in bytes
+		public final long size;
+		// idle evaluation contexts, each of which is used by one thread at a time
+		protected final ConcurrentLinkedQueue<Object> m_Contexts = new ConcurrentLinkedQueue<Object>();
+
+		/**
+		 * constructor
+		 * @param p_Model model
+		 * @param p_Statistic statistic
+		 * @param p_Size estimated size in bytes
+		 */
+		public CEntry(Object p_Model, Object p_Statistic, long p_Size) {
+			this.model = p_Model;
+			this.statistic = p_Statistic;
+			this.size = p_Size;
+		}
+
+		/**
+		 * take an idle evaluation context of this entry. the caller owns the
+		 * context until it returns it with offerContext.
+		 * @return context, or null if there is no idle one
+		 */
+		public Object pollContext() {
+			return this.m_Contexts.poll();
+		}
+
+		/**
+		 * return an evaluation context, so that other threads can reuse it.
+		 * the contexts are dropped together with the entry.
+		 * @param p_Context context
+		 */
+		public void offerContext(Object p_Context) {
+			this.m_Contexts.offer(p_Context);
+		}
+	}
+
+	// maximum number of evictable entries
+	protected int m_Capacity;
+	// maximum total size of evictable entries in bytes, 0 means unbounded
+	protected long m_MaxBytes;
+	// current total size of evictable entries
+	protected long m_Bytes = 0;
+	// evictable entries in access order
+	protected final LinkedHashMap<String, CEntry> m_Entries = new LinkedHashMap<String, CEntry>(16, 0.75f, true);
+	// entries which are never evicted
+	protected final ConcurrentHashMap<String, CEntry> m_Pinned = new ConcurrentHashMap<String, CEntry>();
+	// loads in progress
+	protected final ConcurrentHashMap<String, FutureTask<CEntry>> m_Loading = new ConcurrentHashMap<String, FutureTask<CEntry>>();
+
+	// counters
+	protected final AtomicLong m_Hits = new AtomicLong();
+	protected final AtomicLong m_Misses = new AtomicLong();
+	protected final AtomicLong m_Waits = new AtomicLong();
+	protected final AtomicLong m_Evictions = new AtomicLong();
+	protected final AtomicLong m_LoadNanos = new AtomicLong();
+
+	/**
+	 * constructor
+	 * @param p_Capacity maximum number of entries
+	 */
+	public CModelCache(int p_Capacity) {
+		this(p_Capacity, 0);
+	}
+
+	/**
+	 * constructor
+	 * @param p_Capacity maximum number of entries
+	 * @param p_MaxBytes maximum total estimated size in bytes, 0 for no limit
+	 */
+	public CModelCache(int p_Capacity, long p_MaxBytes) {
+		if (p_Capacity <= 0) {
+			p_Capacity = 1;
+		}
+		this.m_Capacity = p_Capacity;
+		this.m_MaxBytes = p_MaxBytes;
+	}
+
+	/**
+	 * get the entry of p_Key, loading it with p_Loader if it is not cached
+	 * @param p_Key lexelt id
+	 * @param p_Loader loader called at most once per concurrent miss
+	 * @return entry
+	 * @throws Exception exception thrown by p_Loader
+	 */
+	public CEntry get(String p_Key, Callable<CEntry> p_Loader) throws Exception {
+		CEntry entry = this.lookup(p_Key);
+		if (entry != null) {
+			this.m_Hits.incrementAndGet();
+			return entry;
+		}
+		FutureTask<CEntry> task = new FutureTask<CEntry>(p_Loader);
+		FutureTask<CEntry> running = this.m_Loading.putIfAbsent(p_Key, task);
+		if (running == null) {
+			// a load may have completed between the lookup and putIfAbsent
+			entry = this.lookup(p_Key);
+			if (entry != null) {
+				this.m_Loading.remove(p_Key, task);
+				this.m_Hits.incrementAndGet();
+				return entry;
+			}
+			this.m_Misses.incrementAndGet();
+			long start = System.nanoTime();
+			try {
+				task.run();
+				entry = this.unwrap(task);
+				this.put(p_Key, entry);
+			} finally {
+				this.m_LoadNanos.addAndGet(System.nanoTime() - start);
+				this.m_Loading.remove(p_Key, task);
+			}
+			return entry;
+		}
+		// neither a hit nor a miss: the entry was not cached, but this request did not load it
+		this.m_Waits.incrementAndGet();
+		return this.unwrap(running);
+	}
+
+	/**
+	 * pin an entry so that it is never evicted
+	 * @param p_Key lexelt id
+	 * @param p_Entry entry
+	 */
+	public void pin(String p_Key, CEntry p_Entry) {
+		this.m_Pinned.put(p_Key, p_Entry);
+		synchronized (this.m_Entries) {
+			CEntry old = this.m_Entries.remove(p_Key);
+			if (old != null) {
+				this.m_Bytes -= old.size;
+			}
+		}
+	}
+
+	/**
+	 * remove all evictable entries
+	 */
+	public void clear() {
+		synchronized (this.m_Entries) {
+			this.m_Entries.clear();
+			this.m_Bytes = 0;
+		}
+	}
+
+	/**
+	 * @return number of cached entries, including pinned ones
+	 */
+	public int size() {
+		synchronized (this.m_Entries) {
+			return this.m_Entries.size() + this.m_Pinned.size();
+		}
+	}
+
+	/**
+	 * @return total estimated size of evictable entries in bytes
+	 */
+	public long getBytes() {
+		synchronized (this.m_Entries) {
+			return this.m_Bytes;
+		}
+	}
+
+	/**
+	 * @return number of requests served without loading
+	 */
+	public long getHitCount() {
+		return this.m_Hits.get();
+	}
+
+	/**
+	 * @return number of requests which triggered a load
+	 */
+	public long getMissCount() {
+		return this.m_Misses.get();
+	}
+
+	/**
+	 * @return number of requests which waited for a load started by another request
+	 */
+	public long getWaitCount() {
+		return this.m_Waits.get();
+	}
+
+	/**
+	 * @return fraction of requests which found their entry cached
+	 */
+	public double getHitRate() {
+		long hits = this.getHitCount();
+		long requests = hits + this.getMissCount() + this.getWaitCount();
+		return requests == 0 ? 0 : (double) hits / requests;
+	}
+
+	/**
+	 * @return number of evicted entries
+	 */
+	public long getEvictionCount() {
+		return this.m_Evictions.get();
+	}
+
+	/**
+	 * @return total time spent loading, in nanoseconds
+	 */
+	public long getTotalLoadTime() {
+		return this.m_LoadNanos.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "hits=" + this.getHitCount() + " misses=" + this.getMissCount()
+				+ " waits=" + this.getWaitCount() + " hitRate=" + this.getHitRate()
+				+ " evictions=" + this.getEvictionCount()
+				+ " loadTime=" + this.getTotalLoadTime() / 1000000 + "ms"
+				+ " size=" + this.size() + " bytes=" + this.getBytes();
+	}
+
+	/**
+	 * look up a cached entry and mark it as recently used
+	 * @param p_Key lexelt id
+	 * @return entry or null
+	 */
+	protected CEntry lookup(String p_Key) {
+		CEntry entry = this.m_Pinned.get(p_Key);
+		if (entry == null) {
+			synchronized (this.m_Entries) {
+				entry = this.m_Entries.get(p_Key);
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * add an entry and evict the least recently used ones if necessary
+	 * @param p_Key lexelt id
+	 * @param p_Entry entry
+	 */
+	protected void put(String p_Key, CEntry p_Entry) {
+		if (this.m_Pinned.containsKey(p_Key)) {
+			return;
+		}
+		synchronized (this.m_Entries) {
+			CEntry old = this.m_Entries.put(p_Key, p_Entry);
+			if (old != null) {
+				this.m_Bytes -= old.size;
+			}
+			this.m_Bytes += p_Entry.size;
+			Iterator<Map.Entry<String, CEntry>> it = this.m_Entries.entrySet().iterator();
+			while (it.hasNext() && this.m_Entries.size() > 1
+					&& (this.m_Entries.size() > this.m_Capacity
+							|| (this.m_MaxBytes > 0 && this.m_Bytes > this.m_MaxBytes))) {
+				Map.Entry<String, CEntry> eldest = it.next();
+				if (eldest.getKey().equals(p_Key)) {
+					continue;
+				}
+				this.m_Bytes -= eldest.getValue().size;
+				it.remove();
+				this.m_Evictions.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * wait for a load and rethrow its failure
+	 * @param p_Task load task
+	 * @return loaded entry
+	 * @throws Exception load failure
+	 */
+	protected CEntry unwrap(FutureTask<CEntry> p_Task) throws Exception {
+		try {
+			return p_Task.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+package sg.edu.nus.comp.nlp.ims.classifiers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+import liblinear.FeatureNode;
+import liblinear.Model;
+
+/**
+ * read-only liblinear model backed by a byte buffer, usually a memory-mapped
+ * region of a packed model store. the weight matrix is read in place.
+ *
+ * layout (big endian):
+ * <pre>
+ * double bias
+ * int number of classes
+ * int number of features
+ * int number of weight vectors
+ * int[number of classes] labels
+ * int number of weights
+ * double[number of weights] weights, feature major
+ * </pre>
+ */
+public class CPackedLinearModel {
+	// bias
+	protected final double m_Bias;
+	// number of classes
+	protected final int m_NrClass;
+	// number of features
+	protected final int m_NrFeature;
+	// number of weight vectors
+	protected final int m_NrW;
+	// labels
+	protected final int[] m_Labels;
+	// weights
+	protected final DoubleBuffer m_Weights;
+
+	/**
+	 * constructor
+	 * @param p_Buffer buffer holding one packed model at position 0
+	 */
+	public CPackedLinearModel(ByteBuffer p_Buffer) {
+		this.m_Bias = p_Buffer.getDouble(0);
+		this.m_NrClass = p_Buffer.getInt(8);
+		this.m_NrFeature = p_Buffer.getInt(12);
+		this.m_NrW = p_Buffer.getInt(16);
+		this.m_Labels = new int[this.m_NrClass];
+		int position = 20;
+		for (int i = 0; i < this.m_NrClass; i++, position += 4) {
+			this.m_Labels[i] = p_Buffer.getInt(position);
+		}
+		int size = p_Buffer.getInt(position);
+		position += 4;
+		ByteBuffer weights = p_Buffer.duplicate();
+		weights.position(position);
+		weights.limit(position + 8 * size);
+		this.m_Weights = weights.slice().asDoubleBuffer();
+	}
+
+	/**
+	 * serialize a liblinear model in the packed layout
+	 * @param p_Model model
+	 * @return bytes
+	 * @throws IOException exception
+	 */
+	public static byte[] toBytes(Model p_Model) throws IOException {
+		double[] weights = p_Model.getFeatureWeights();
+		int[] labels = p_Model.getLabels();
+		int n = p_Model.getNrFeature();
+		if (p_Model.getBias() >= 0) {
+			n++;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(24 + 4 * labels.length + 8 * weights.length);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeDouble(p_Model.getBias());
+		out.writeInt(p_Model.getNrClass());
+		out.writeInt(p_Model.getNrFeature());
+		out.writeInt(n == 0 ? 0 : weights.length / n);
+		for (int label : labels) {
+			out.writeInt(label);
+		}
+		out.writeInt(weights.length);
+		for (double weight : weights) {
+			out.writeDouble(weight);
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * @return bias
+	 */
+	public double getBias() {
+		return this.m_Bias;
+	}
+
+	/**
+	 * @return number of classes
+	 */
+	public int getNrClass() {
+		return this.m_NrClass;
+	}
+
+	/**
+	 * @return number of features
+	 */
+	public int getNrFeature() {
+		return this.m_NrFeature;
+	}
+
+	/**
+	 * @return labels
+	 */
+	public int[] getLabels() {
+		return this.m_Labels;
+	}
+
+	/**
+	 * compute the decision values of p_Instance, same as
+	 * liblinear.Linear.predictValues
+	 * @param p_Instance feature vector
+	 * @param p_DecValues output decision values
+	 * @return predicted label
+	 */
+	public int predictValues(FeatureNode[] p_Instance, double[] p_DecValues) {
+		int n = this.m_NrFeature;
+		if (this.m_Bias >= 0) {
+			n++;
+		}
+		int nrW = this.m_NrW;
+		for (int i = 0; i < nrW; i++) {
+			p_DecValues[i] = 0;
+		}
+		for (FeatureNode node : p_Instance) {
+			int index = node.index;
+			// the dimension of testing data may exceed that of training
+			if (index <= n) {
+				int base = (index - 1) * nrW;
+				for (int i = 0; i < nrW; i++) {
+					p_DecValues[i] += this.m_Weights.get(base + i) * node.value;
+				}
+			}
+		}
+		if (this.m_NrClass == 2) {
+			return p_DecValues[0] > 0 ? this.m_Labels[0] : this.m_Labels[1];
+		}
+		int max = 0;
+		for (int i = 1; i < this.m_NrClass; i++) {
+			if (p_DecValues[i] > p_DecValues[max]) {
+				max = i;
+			}
+		}
+		return this.m_Labels[max];
+	}
+}
@@ -340,6 +340,7 @@ public class CTester {
 					+ "\t-lexelt path of lexelt file\n"
 					+ "\t-is path of index.sense(option)\n"
 					+ "\t-prop path of prop.xml for JWNL\n"
+					+ "\t-lemmatable path of the WordNet dictionary to precompute lemmas from(option, use the same for training and testing)\n"
 					+ "\t-split 1/0 whether the corpus is sentence splitted(default 0)\n"
 					+ "\t-ssm path of sentence splitter model\n"
 					+ "\t-token 1/0 whether the corpus is tokenized(default 0)\n"
@@ -380,6 +381,9 @@ public class CTester {
 				throw new IllegalArgumentException(generalOptions);
 			}
 			CJWNL.initial(new FileInputStream(argmgr.get("prop")));
+			if (argmgr.has("lemmatable")) {
+				CJWNL.setLemmaTable(new CLemmaTable(argmgr.get("lemmatable")));
+			}
 
 			// set sentence splitter
 			if (argmgr.has("split") && Integer.parseInt(argmgr.get("split")) == 1) {
@@ -26,8 +26,16 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Hashtable;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -78,6 +86,12 @@ public class CTrainModel {
 	protected boolean m_Lemmatized = false;
 	// pos tagged
 	protected boolean m_POSTagged = false;
+	// number of lexelts trained in parallel
+	protected int m_Threads = 1;
+	// memory budget of the lexelts in training in bytes, 0 for no limit
+	protected long m_MemoryBudget = 0;
+	// skip lexelts which have been written already
+	protected boolean m_Resume = false;
 
 	/**
 	 * default constructor
@@ -166,9 +180,107 @@ public class CTrainModel {
 			}
 			lexelts.get(lexeltID).addInstance(instance, true);
 		}
-		for (String lexeltID : lexelts.keySet()) {
-			System.err.println(lexeltID);
-			ILexelt lexelt = lexelts.get(lexeltID);
+		this.train(lexelts);
+	}
+
+	/**
+	 * train the models of lexelts. the lexelts are trained by a pool of
+	 * m_Threads threads, so the model trainer has to be thread-safe if
+	 * there is more than one thread. the models are added in the order of
+	 * the lexelt ids, whichever finishes first. CLibLinearTrainer trains
+	 * the same models with any number of threads.
+	 *
+	 * @param p_Lexelts
+	 *            lexelts by id
+	 * @throws Exception
+	 *             if any lexelt cannot be trained. the models of the other
+	 *             lexelts are added anyway.
+	 */
+	protected void train(Hashtable<String, ILexelt> p_Lexelts) throws Exception {
+		ArrayList<String> lexeltIDs = new ArrayList<String>(p_Lexelts.keySet());
+		Collections.sort(lexeltIDs);
+		final Semaphore budget;
+		final int budgetKB;
+		if (this.m_MemoryBudget > 0) {
+			budgetKB = (int) Math.min(Integer.MAX_VALUE, Math.max(1, this.m_MemoryBudget >> 10));
+			budget = new Semaphore(budgetKB, true);
+		} else {
+			budgetKB = 0;
+			budget = null;
+		}
+		if (this.m_Trainer instanceof CLibLinearTrainer) {
+			((CLibLinearTrainer) this.m_Trainer).setDefaultEps();
+		}
+		long start = System.currentTimeMillis();
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, this.m_Threads));
+		ArrayList<Future<Object>> results = new ArrayList<Future<Object>>();
+		int skipped = 0;
+		try {
+			for (String lexeltID : lexeltIDs) {
+				final ILexelt lexelt = p_Lexelts.get(lexeltID);
+				if (this.m_Resume && this.isWritten(lexelt)) {
+					System.err.println(lexeltID + "\tskipped");
+					results.add(null);
+					skipped++;
+					continue;
+				}
+				results.add(pool.submit(new Callable<Object>() {
+					@Override
+					public Object call() throws Exception {
+						return train(lexelt, budget, budgetKB);
+					}
+				}));
+			}
+			ArrayList<String> failed = new ArrayList<String>();
+			Throwable cause = null;
+			for (int i = 0; i < results.size(); i++) {
+				if (results.get(i) == null) {
+					continue;
+				}
+				try {
+					this.m_Models.add(results.get(i).get());
+				} catch (ExecutionException e) {
+					System.err.println(lexeltIDs.get(i) + "\tfailed");
+					e.getCause().printStackTrace();
+					failed.add(lexeltIDs.get(i));
+					if (cause == null) {
+						cause = e.getCause();
+					}
+				}
+			}
+			System.err.println((lexeltIDs.size() - skipped - failed.size())
+					+ " lexelts trained, " + skipped + " skipped, "
+					+ failed.size() + " failed in "
+					+ (System.currentTimeMillis() - start) + " ms");
+			if (!failed.isEmpty()) {
+				throw new Exception("cannot train lexelts " + failed, cause);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * select the features of one lexelt and train its model
+	 *
+	 * @param p_Lexelt
+	 *            lexelt
+	 * @param p_Budget
+	 *            memory budget in KB, null for no limit
+	 * @param p_BudgetKB
+	 *            the whole memory budget in KB
+	 * @return model
+	 * @throws Exception
+	 *             train exception
+	 */
+	protected Object train(ILexelt p_Lexelt, Semaphore p_Budget, int p_BudgetKB) throws Exception {
+		int permits = 0;
+		if (p_Budget != null) {
+			permits = (int) Math.max(1, Math.min(p_BudgetKB, this.estimateSize(p_Lexelt) >> 10));
+			p_Budget.acquire(permits);
+		}
+		try {
+			long start = System.currentTimeMillis();
 			ArrayList<IFeatureSelector> selectors = new ArrayList<IFeatureSelector>();
 			int s2 = 0, c2 = 0, p2 = 0;
 			if (this.m_CutOffs.containsKey("s2")) {
@@ -191,13 +303,55 @@ public class CTrainModel {
 			}
 
 			IFeatureSelector mixselector = new CFeatureSelectorCombination(selectors);
-			lexelt.getStatistic().select(mixselector);
-			Object model = this.m_Trainer.train(lexelt);
-			System.err.println("done");
-			this.m_Models.add(model);
+			p_Lexelt.getStatistic().select(mixselector);
+			Object model = this.m_Trainer.train(p_Lexelt);
+			System.err.println(p_Lexelt.getID() + "\t" + p_Lexelt.size()
+					+ " instances\t" + (System.currentTimeMillis() - start) + " ms");
+			return model;
+		} finally {
+			if (permits > 0) {
+				p_Budget.release(permits);
+			}
 		}
 	}
 
+	/**
+	 * roughly estimate the memory needed to train a lexelt, i.e. its feature
+	 * vectors and the weights of a linear model
+	 *
+	 * @param p_Lexelt
+	 *            lexelt
+	 * @return size in bytes
+	 */
+	protected long estimateSize(ILexelt p_Lexelt) {
+		IStatistic stat = p_Lexelt.getStatistic();
+		long features = 0;
+		for (int i = 0; i < p_Lexelt.size(); i++) {
+			features += p_Lexelt.getInstance(i).size() + 1;
+		}
+		long dimensions = 1;
+		for (int k = 0; k < stat.getKeys().size(); k++) {
+			dimensions += Math.max(1, stat.getValue(k).size());
+		}
+		return 32 * features + 8 * dimensions * Math.max(1, stat.getTagsInOrder().size());
+	}
+
+	/**
+	 * check whether the model and statistic of a lexelt have been written by
+	 * the model writer. lexelts with one tag have no model.
+	 *
+	 * @param p_Lexelt
+	 *            lexelt
+	 * @return whether written
+	 */
+	protected boolean isWritten(ILexelt p_Lexelt) {
+		if (this.m_Writer instanceof CModelWriter) {
+			return ((CModelWriter) this.m_Writer).isWritten(p_Lexelt.getID(),
+					p_Lexelt.getStatistic().getTagsInOrder().size() > 1);
+		}
+		return false;
+	}
+
 	/**
 	 * whether the input is already split
 	 * @param p_Split whether split
@@ -238,6 +392,31 @@ public class CTrainModel {
 		this.m_Delimiter = p_Delimiter;
 	}
 
+	/**
+	 * set the number of lexelts trained in parallel
+	 * @param p_Threads number of threads
+	 */
+	public void setThreads(int p_Threads) {
+		this.m_Threads = p_Threads;
+	}
+
+	/**
+	 * set the memory budget of the lexelts in training. a lexelt waits until
+	 * its estimated size fits into the budget.
+	 * @param p_MemoryBudget budget in bytes, 0 for no limit
+	 */
+	public void setMemoryBudget(long p_MemoryBudget) {
+		this.m_MemoryBudget = p_MemoryBudget;
+	}
+
+	/**
+	 * whether to skip the lexelts whose model and statistic files exist
+	 * @param p_Resume whether resume
+	 */
+	public void setResume(boolean p_Resume) {
+		this.m_Resume = p_Resume;
+	}
+
 	/**
 	 * set model trainer
 	 *
@@ -344,6 +523,9 @@ public class CTrainModel {
 				+ "\t-s2 cut off for surrounding word(default 0)\n"
 				+ "\t-c2 cut off for collocation(default 0)\n"
 				+ "\t-p2 cut off for pos(default 0)\n"
+				+ "\t-threads number of lexelts trained in parallel(default 1)\n"
+				+ "\t-mem memory budget in MB of the lexelts in training(default 0, no limit)\n"
+				+ "\t-resume 1/0 whether to skip lexelts whose model files exist(default 0)\n"
 				+ "\t-split 1/0 whether the corpus is sentence splitted(default 0)\n"
 				+ "\t-ssm path of sentence splitter model\n"
 				+ "\t-token 1/0 whether the corpus is tokenized(default 0)\n"
@@ -353,6 +535,7 @@ public class CTrainModel {
 				+ "\t-tagdict path of tagdict for opennlp POS tagger\n"
 				+ "\t-lemma 1/0 whether the lemma is provided in the corpus(default 0)\n"
 				+ "\t-prop path of prop.xml for JWNL\n"
+				+ "\t-lemmatable path of the WordNet dictionary to precompute lemmas from(option, use the same for training and testing)\n"
 				+ "\t-type type of train.xml\n"
 				+ "\t\tdirectory train all xml files under directory trainPath\n"
 				+ "\t\tlist train all xml files listed in file trainPath\n"
@@ -371,6 +554,9 @@ public class CTrainModel {
 				throw new IllegalArgumentException(generalOptions);
 			}
 			CJWNL.initial(new FileInputStream(argmgr.get("prop")));
+			if (argmgr.has("lemmatable")) {
+				CJWNL.setLemmaTable(new CLemmaTable(argmgr.get("lemmatable")));
+			}
 			File trainXmlDir = new File(argmgr.get(0));
 			File trainKeyDir = new File(argmgr.get(1));
 
@@ -455,6 +641,17 @@ public class CTrainModel {
 				int p2 = Integer.parseInt(argmgr.get("p2"));
 				trainModel.setCutOff("p2", p2);
 			}
+			if (argmgr.has("threads")) {
+				trainModel.setThreads(Integer.parseInt(argmgr.get("threads")));
+			}
+			if (argmgr.has("mem")) {
+				trainModel.setMemoryBudget(Long.parseLong(argmgr.get("mem")) << 20);
+			}
+			if (argmgr.has("resume")) {
+				if (Integer.parseInt(argmgr.get("resume")) == 1) {
+					trainModel.setResume(true);
+				}
+			}
 			ArrayList<File> trainXmlList = new ArrayList<File>();
 			ArrayList<File> trainKeyList = new ArrayList<File>();
 			Pattern xmlPattern = Pattern.compile("([^\\/]*)\\.xml$");
@@ -485,6 +682,7 @@ public class CTrainModel {
 							+ trainKeyDir.getName() + "!\n");
 				}
 				File[] trainXmlFiles = trainXmlDir.listFiles();
+				Arrays.sort(trainXmlFiles);
 				for (File xmlFile : trainXmlFiles) {
 					matcher = xmlPattern.matcher(xmlFile.getAbsolutePath());
 					if (matcher.find()) {
@@ -507,10 +705,14 @@ public class CTrainModel {
 				File xmlFile = trainXmlList.get(i);
 				File keyFile = trainKeyList.get(i);
 				System.err.println(xmlFile.getAbsolutePath());
-				trainModel.train(xmlFile.getAbsolutePath(), keyFile
-						.getAbsolutePath());
-				trainModel.write();
-				trainModel.clear();
+				try {
+					trainModel.train(xmlFile.getAbsolutePath(), keyFile
+							.getAbsolutePath());
+				} finally {
+					// keep the models trained so far, to resume from them
+					trainModel.write();
+					trainModel.clear();
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
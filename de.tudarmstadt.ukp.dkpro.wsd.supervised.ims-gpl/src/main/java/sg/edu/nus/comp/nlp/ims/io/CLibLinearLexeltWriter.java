@@ -24,17 +24,11 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashSet;
-import java.util.Hashtable;
-import java.util.List;
 
 import liblinear.FeatureNode;
 import liblinear.Problem;
 
-import sg.edu.nus.comp.nlp.ims.feature.ABinaryFeature;
-import sg.edu.nus.comp.nlp.ims.feature.ANumericFeature;
-import sg.edu.nus.comp.nlp.ims.feature.IFeature;
 import sg.edu.nus.comp.nlp.ims.instance.IInstance;
 import sg.edu.nus.comp.nlp.ims.lexelt.ILexelt;
 import sg.edu.nus.comp.nlp.ims.lexelt.IStatistic;
@@ -50,6 +44,8 @@ public class CLibLinearLexeltWriter implements ILexeltWriter {
 	protected double m_Bias = -1;
 	// feature index maximum value
 	protected int m_MaxIndex = 0;
+	// vectorizer of the last loaded statistic
+	protected CLibLinearVectorizer m_Vectorizer = null;
 
 	/**
 	 * constructor
@@ -97,32 +93,33 @@ public class CLibLinearLexeltWriter implements ILexeltWriter {
 	 * @throws ClassNotFoundException
 	 */
 	protected int[][] loadStatistic(ILexelt p_iLexelt) throws ClassNotFoundException {
-		int[][] retIndice = null;
-		int accuIndex = 1;
-		if (p_iLexelt != null) {
-			IStatistic stat = p_iLexelt.getStatistic();
-			int keySize = stat.getKeys().size();
-			retIndice = new int[keySize][0];
-			int keyIndex = 0;
-			for (keyIndex = 0;keyIndex < keySize;keyIndex++) {
-				Class <?> type = Class.forName(stat.getType(keyIndex));
-				if (ANumericFeature.class.isAssignableFrom(type)
-						|| ABinaryFeature.class.isAssignableFrom(type)) {
-					retIndice[keyIndex] = new int[]{accuIndex++};
-				} else {
-					List <String> values = stat.getValue(keyIndex);
-					retIndice[keyIndex] = new int[values.size()];
-					for (int i = 0;i < values.size();i++) {
-						retIndice[keyIndex][i] = accuIndex++;
-					}
-				}
-			}
+		if (p_iLexelt == null) {
+			this.m_Vectorizer = null;
+			this.m_MaxIndex = this.m_Bias < 0 ? 0 : 1;
+			return null;
 		}
-		this.m_MaxIndex = accuIndex;
-		if (this.m_Bias < 0) {
-			this.m_MaxIndex--;
+		this.m_Vectorizer = new CLibLinearVectorizer(p_iLexelt.getStatistic(), this.m_Bias);
+		this.m_MaxIndex = this.m_Vectorizer.getMaxIndex();
+		return this.m_Vectorizer.getIndice();
+	}
+
+	/**
+	 * get the vectorizer for statistic p_Stat, reusing the one of the last
+	 * loaded statistic. the feature indices are the ones of loadStatistic.
+	 * @param p_Stat statistic
+	 * @return vectorizer
+	 */
+	protected CLibLinearVectorizer getVectorizer(IStatistic p_Stat) {
+		if (this.m_Vectorizer == null
+				|| this.m_Vectorizer.getStatistic() != p_Stat
+				|| this.m_Vectorizer.getBias() != this.m_Bias) {
+			try {
+				this.m_Vectorizer = new CLibLinearVectorizer(p_Stat, this.m_Bias);
+			} catch (ClassNotFoundException e) {
+				throw new IllegalArgumentException(e.getMessage());
+			}
 		}
-		return retIndice;
+		return this.m_Vectorizer;
 	}
 
 	/**
@@ -132,49 +129,7 @@ public class CLibLinearLexeltWriter implements ILexeltWriter {
 	 * @return feature vector
 	 */
 	protected FeatureNode[] getVector(IInstance p_Instance, IStatistic p_Stat, int[][] p_Indice){
-		String value = null;
-		int kIndex = 0;
-		int featureSize = p_Instance.size();
-		Hashtable <Integer, Double> exist = new Hashtable <Integer, Double>();
-		for(int fIndex = 0;fIndex < featureSize;fIndex++) {
-			IFeature feature = p_Instance.getFeature(fIndex);
-			kIndex = p_Stat.getIndex(feature.getKey());
-			if (kIndex < 0) {
-				continue;
-			}
-			if (ANumericFeature.class.isInstance(feature)) {
-				exist.put(p_Indice[kIndex][0], Double.parseDouble(feature.getValue()));
-			} else if (ABinaryFeature.class.isInstance(feature)) {
-				if (feature.getValue().equals("1")) {
-					exist.put(p_Indice[kIndex][0], 1.0);
-				}
-			} else {
-				List<String> values = p_Stat.getValue(kIndex);
-				value = feature.getValue();
-				if (value == null || !p_Stat.contains(kIndex, value)) {
-					value = p_Stat.getDefaultValue();
-				}
-				for (int i = 0;i < values.size();i++) {
-					if (values.get(i).equals(value)) {
-						exist.put(p_Indice[kIndex][i], 1.0);
-						break;
-					}
-				}
-			}
-		}
-		ArrayList<Integer> indice = new ArrayList<Integer>(exist.keySet());
-		Collections.sort(indice);
-		FeatureNode[] retVal;
-		if (this.m_Bias >= 0) {
-			retVal = new FeatureNode[exist.size() + 1];
-			retVal[retVal.length - 1] = new FeatureNode(this.m_MaxIndex, this.m_Bias);
-		} else {
-			retVal = new FeatureNode[exist.size()];
-		}
-		for (int i = 0;i < indice.size();i++) {
-			retVal[i] = new FeatureNode(indice.get(i), exist.get(indice.get(i)));
-		}
-		return retVal;
+		return this.getVectorizer(p_Stat).getVector(p_Instance);
 	}
 
 	/**
@@ -186,13 +141,9 @@ public class CLibLinearLexeltWriter implements ILexeltWriter {
 	 */
 	protected String toString(IInstance p_Instance, IStatistic p_Stat, int[][] p_Indice){
 		StringBuilder featureBuilder = new StringBuilder();
-		FeatureNode[] features = this.getVector(p_Instance, p_Stat, p_Indice);
-		for (int i = 0; i < features.length; i++) {
-			featureBuilder.append(" ");
-			featureBuilder.append(features[i].index);
-			featureBuilder.append(":");
-			featureBuilder.append(features[i].value);
-		}
+		CLibLinearVectorizer vectorizer = this.getVectorizer(p_Stat);
+		vectorizer.vectorize(p_Instance);
+		vectorizer.appendTo(featureBuilder);
 		String featureOnly = featureBuilder.toString();
 		StringBuilder featureVector = new StringBuilder();
 		for (Integer tag : this.processTags(p_Stat, p_Instance.getTag())) {
@@ -246,9 +197,11 @@ public class CLibLinearLexeltWriter implements ILexeltWriter {
 		for (int i = 0;i < size;i++) {
 			IInstance instance = p_Lexelt.getInstance(i);
 			FeatureNode[] featureVector = this.getVector(instance, stat, indice);
+			boolean first = true;
 			for (Integer tag:this.processTags(stat, instance.getTag())) {
-				featureVectors.add(Arrays.copyOf(featureVector, featureVector.length));
+				featureVectors.add(first ? featureVector : Arrays.copyOf(featureVector, featureVector.length));
 				classes.add(tag);
+				first = false;
 			}
 		}
 		retVal.l = featureVectors.size();
@@ -0,0 +1,334 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+package sg.edu.nus.comp.nlp.ims.io;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import liblinear.FeatureNode;
+
+import sg.edu.nus.comp.nlp.ims.feature.ABinaryFeature;
+import sg.edu.nus.comp.nlp.ims.feature.ANumericFeature;
+import sg.edu.nus.comp.nlp.ims.feature.IFeature;
+import sg.edu.nus.comp.nlp.ims.instance.IInstance;
+import sg.edu.nus.comp.nlp.ims.lexelt.CPackedStatistic;
+import sg.edu.nus.comp.nlp.ims.lexelt.IStatistic;
+
+/**
+ * convert instances to liblinear feature vectors with the statistic of one
+ * lexelt.
+ *
+ * the feature types of the statistic are resolved once. the value indices
+ * of list features are looked up in hash tables, which are built from the
+ * statistic when a key is first used (a packed statistic is searched
+ * directly). an instance is vectorized into reusable index and value
+ * buffers, so a vectorizer must not be shared between threads.
+ */
+public class CLibLinearVectorizer {
+	// numeric feature
+	protected static final byte NUMERIC = 0;
+	// binary feature
+	protected static final byte BINARY = 1;
+	// list feature, each value is a feature
+	protected static final byte LIST = 2;
+
+	// statistic
+	protected final IStatistic m_Stat;
+	// liblinear bias parameter
+	protected final double m_Bias;
+	// feature index maximum value
+	protected final int m_MaxIndex;
+	// feature indices of the keys and their values
+	protected final int[][] m_Indice;
+	// feature kind of the keys
+	protected final byte[] m_Kinds;
+	// value indices of the list features, built on demand
+	protected final HashMap<String, Integer>[] m_ValueIndice;
+	// value index of the default value of the list features
+	protected final int[] m_DefaultIndice;
+
+	// feature indices of the current instance, sorted by vectorize
+	protected int[] m_Indices = new int[64];
+	// feature values of the current instance
+	protected double[] m_Values = new double[64];
+	// number of features of the current instance
+	protected int m_Size = 0;
+	// feature values by feature index
+	protected final double[] m_Dense;
+	// whether a feature index is set in the current instance
+	protected final boolean[] m_Set;
+
+	/**
+	 * constructor
+	 * for each feature type in statistic
+	 * 	if feature is binary or numeric
+	 * 		keep it
+	 * 	else
+	 * 		set each value as a new feature
+	 * @param p_Stat statistic
+	 * @param p_Bias bias, negative for none
+	 * @throws ClassNotFoundException
+	 */
+	@SuppressWarnings("unchecked")
+	public CLibLinearVectorizer(IStatistic p_Stat, double p_Bias) throws ClassNotFoundException {
+		this.m_Stat = p_Stat;
+		this.m_Bias = p_Bias;
+		int keySize = p_Stat.getKeys().size();
+		this.m_Indice = new int[keySize][];
+		this.m_Kinds = new byte[keySize];
+		this.m_ValueIndice = new HashMap[keySize];
+		this.m_DefaultIndice = new int[keySize];
+		HashMap<String, Byte> kinds = new HashMap<String, Byte>();
+		int accuIndex = 1;
+		for (int keyIndex = 0; keyIndex < keySize; keyIndex++) {
+			String type = p_Stat.getType(keyIndex);
+			Byte kind = kinds.get(type);
+			if (kind == null) {
+				Class<?> typeClass = Class.forName(type);
+				if (ANumericFeature.class.isAssignableFrom(typeClass)) {
+					kind = NUMERIC;
+				} else if (ABinaryFeature.class.isAssignableFrom(typeClass)) {
+					kind = BINARY;
+				} else {
+					kind = LIST;
+				}
+				kinds.put(type, kind);
+			}
+			this.m_Kinds[keyIndex] = kind;
+			if (kind == LIST) {
+				int valueSize = p_Stat.getValue(keyIndex).size();
+				this.m_Indice[keyIndex] = new int[valueSize];
+				for (int i = 0; i < valueSize; i++) {
+					this.m_Indice[keyIndex][i] = accuIndex++;
+				}
+			} else {
+				this.m_Indice[keyIndex] = new int[] { accuIndex++ };
+			}
+		}
+		if (p_Bias < 0) {
+			accuIndex--;
+		}
+		this.m_MaxIndex = accuIndex;
+		this.m_Dense = new double[accuIndex + 1];
+		this.m_Set = new boolean[accuIndex + 1];
+	}
+
+	/**
+	 * get the statistic
+	 * @return statistic
+	 */
+	public IStatistic getStatistic() {
+		return this.m_Stat;
+	}
+
+	/**
+	 * get the bias
+	 * @return bias
+	 */
+	public double getBias() {
+		return this.m_Bias;
+	}
+
+	/**
+	 * get the feature index maximum value, the index of the bias feature if
+	 * the bias is not negative
+	 * @return maximum index
+	 */
+	public int getMaxIndex() {
+		return this.m_MaxIndex;
+	}
+
+	/**
+	 * get the feature indices of the keys and their values
+	 * @return indices
+	 */
+	public int[][] getIndice() {
+		return this.m_Indice;
+	}
+
+	/**
+	 * convert an instance into the index and value buffers. if a feature
+	 * index is set more than once, the last value is kept.
+	 * @param p_Instance instance
+	 * @return number of features, without the bias feature
+	 */
+	public int vectorize(IInstance p_Instance) {
+		this.m_Size = 0;
+		int featureSize = p_Instance.size();
+		for (int fIndex = 0; fIndex < featureSize; fIndex++) {
+			IFeature feature = p_Instance.getFeature(fIndex);
+			int kIndex = this.m_Stat.getIndex(feature.getKey());
+			if (kIndex < 0) {
+				continue;
+			}
+			switch (this.m_Kinds[kIndex]) {
+			case NUMERIC:
+				this.set(this.m_Indice[kIndex][0], Double.parseDouble(feature.getValue()));
+				break;
+			case BINARY:
+				if ("1".equals(feature.getValue())) {
+					this.set(this.m_Indice[kIndex][0], 1.0);
+				}
+				break;
+			default:
+				int vIndex = this.getValueIndex(kIndex, feature.getValue());
+				if (vIndex >= 0) {
+					this.set(this.m_Indice[kIndex][vIndex], 1.0);
+				}
+			}
+		}
+		Arrays.sort(this.m_Indices, 0, this.m_Size);
+		for (int i = 0; i < this.m_Size; i++) {
+			int index = this.m_Indices[i];
+			this.m_Values[i] = this.m_Dense[index];
+			this.m_Set[index] = false;
+		}
+		return this.m_Size;
+	}
+
+	/**
+	 * set the value of a feature index
+	 * @param p_Index feature index
+	 * @param p_Value value
+	 */
+	protected void set(int p_Index, double p_Value) {
+		if (!this.m_Set[p_Index]) {
+			this.m_Set[p_Index] = true;
+			if (this.m_Size == this.m_Indices.length) {
+				this.m_Indices = Arrays.copyOf(this.m_Indices, this.m_Size * 2);
+				this.m_Values = Arrays.copyOf(this.m_Values, this.m_Size * 2);
+			}
+			this.m_Indices[this.m_Size++] = p_Index;
+		}
+		this.m_Dense[p_Index] = p_Value;
+	}
+
+	/**
+	 * get the index of value p_Value among the values of list feature
+	 * p_KeyIndex. unknown values are replaced by the default value.
+	 * @param p_KeyIndex key index
+	 * @param p_Value value
+	 * @return value index, or -1 if neither the value nor the default value is known
+	 */
+	protected int getValueIndex(int p_KeyIndex, String p_Value) {
+		if (this.m_Stat instanceof CPackedStatistic) {
+			CPackedStatistic packed = (CPackedStatistic) this.m_Stat;
+			int vIndex = p_Value == null ? -1 : packed.getValueIndex(p_KeyIndex, p_Value);
+			if (vIndex < 0) {
+				vIndex = packed.getValueIndex(p_KeyIndex, this.m_Stat.getDefaultValue());
+			}
+			return vIndex;
+		}
+		HashMap<String, Integer> valueIndice = this.m_ValueIndice[p_KeyIndex];
+		if (valueIndice == null) {
+			List<String> values = this.m_Stat.getValue(p_KeyIndex);
+			valueIndice = new HashMap<String, Integer>(values.size() * 4 / 3 + 1);
+			// keep the first index of a value, like List.indexOf
+			for (int i = values.size() - 1; i >= 0; i--) {
+				valueIndice.put(values.get(i), i);
+			}
+			Integer defaultIndex = valueIndice.get(this.m_Stat.getDefaultValue());
+			this.m_DefaultIndice[p_KeyIndex] = defaultIndex == null ? -1 : defaultIndex;
+			this.m_ValueIndice[p_KeyIndex] = valueIndice;
+		}
+		Integer vIndex = p_Value == null ? null : valueIndice.get(p_Value);
+		if (vIndex == null) {
+			return this.m_DefaultIndice[p_KeyIndex];
+		}
+		return vIndex;
+	}
+
+	/**
+	 * get the number of features of the last vectorized instance, without
+	 * the bias feature
+	 * @return number of features
+	 */
+	public int size() {
+		return this.m_Size;
+	}
+
+	/**
+	 * get the i-th feature index of the last vectorized instance
+	 * @param p_I position
+	 * @return feature index
+	 */
+	public int getIndex(int p_I) {
+		return this.m_Indices[p_I];
+	}
+
+	/**
+	 * get the i-th feature value of the last vectorized instance
+	 * @param p_I position
+	 * @return feature value
+	 */
+	public double getValue(int p_I) {
+		return this.m_Values[p_I];
+	}
+
+	/**
+	 * get the feature vector of the last vectorized instance, including the
+	 * bias feature
+	 * @return feature vector
+	 */
+	public FeatureNode[] toFeatureNodes() {
+		FeatureNode[] retVal;
+		if (this.m_Bias >= 0) {
+			retVal = new FeatureNode[this.m_Size + 1];
+			retVal[this.m_Size] = new FeatureNode(this.m_MaxIndex, this.m_Bias);
+		} else {
+			retVal = new FeatureNode[this.m_Size];
+		}
+		for (int i = 0; i < this.m_Size; i++) {
+			retVal[i] = new FeatureNode(this.m_Indices[i], this.m_Values[i]);
+		}
+		return retVal;
+	}
+
+	/**
+	 * get the feature vector of one instance
+	 * @param p_Instance instance
+	 * @return feature vector
+	 */
+	public FeatureNode[] getVector(IInstance p_Instance) {
+		this.vectorize(p_Instance);
+		return this.toFeatureNodes();
+	}
+
+	/**
+	 * append the last vectorized instance in liblinear format, " index:value"
+	 * for each feature including the bias feature
+	 * @param p_Builder output
+	 */
+	public void appendTo(StringBuilder p_Builder) {
+		for (int i = 0; i < this.m_Size; i++) {
+			p_Builder.append(" ");
+			p_Builder.append(this.m_Indices[i]);
+			p_Builder.append(":");
+			p_Builder.append(this.m_Values[i]);
+		}
+		if (this.m_Bias >= 0) {
+			p_Builder.append(" ");
+			p_Builder.append(this.m_MaxIndex);
+			p_Builder.append(":");
+			p_Builder.append(this.m_Bias);
+		}
+	}
+}
@@ -19,9 +19,12 @@
 
 package sg.edu.nus.comp.nlp.ims.io;
 
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.zip.GZIPOutputStream;
 
 import opennlp.maxent.GISModel;
@@ -34,6 +37,10 @@ import sg.edu.nus.comp.nlp.ims.util.CArgumentManager;
 /**
  * save model to hard disk.
  *
+ * each file is written under a temporary name and then renamed, and the
+ * statistic is written after the model. so an existing statistic file
+ * means that the lexelt has been written completely.
+ *
  * @author zhongzhi
  *
  */
@@ -81,12 +88,11 @@ public class CModelWriter implements IModelWriter {
 	@Override
 	public void write(Object p_Model) throws IOException {
 		CModelInfo info = (CModelInfo) p_Model;
-		((IStatistic) info.statistic).writeToFile(this.m_StatisticDir + "/" + info.lexelt
-				+ ".stat.gz");
 		if (info.model != null) {
+			File modelFile = this.getModelFile(info.lexelt);
+			File tmpFile = this.getTemporaryFile(modelFile);
 			ObjectOutputStream oos = new ObjectOutputStream(
-					new GZIPOutputStream(new FileOutputStream(this.m_ModelDir
-							+ "/" + info.lexelt + ".model.gz")));
+					new GZIPOutputStream(new FileOutputStream(tmpFile)));
 			if (GISModel.class.isInstance(info.model)) {
 				ObjectGISModelWriter writer = new ObjectGISModelWriter((GISModel) info.model, oos);
 				writer.persist();
@@ -95,7 +101,62 @@ public class CModelWriter implements IModelWriter {
 				oos.flush();
 				oos.close();
 			}
+			Files.move(tmpFile.toPath(), modelFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		File statFile = this.getStatisticFile(info.lexelt);
+		File tmpFile = this.getTemporaryFile(statFile);
+		if (!((IStatistic) info.statistic).writeToFile(tmpFile.getPath())) {
+			throw new IOException("cannot write statistic of " + info.lexelt);
 		}
+		Files.move(tmpFile.toPath(), statFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * check whether lexelt p_LexeltID has been written
+	 *
+	 * @param p_LexeltID
+	 *            lexelt id
+	 * @param p_HasModel
+	 *            whether the lexelt has a model, i.e. more than one tag
+	 * @return whether the statistic and, if p_HasModel, the model exist
+	 */
+	public boolean isWritten(String p_LexeltID, boolean p_HasModel) {
+		return this.getStatisticFile(p_LexeltID).exists()
+				&& (!p_HasModel || this.getModelFile(p_LexeltID).exists());
+	}
+
+	/**
+	 * get the model file of a lexelt
+	 *
+	 * @param p_LexeltID
+	 *            lexelt id
+	 * @return model file
+	 */
+	protected File getModelFile(String p_LexeltID) {
+		return new File(this.m_ModelDir + "/" + p_LexeltID + ".model.gz");
+	}
+
+	/**
+	 * get the statistic file of a lexelt
+	 *
+	 * @param p_LexeltID
+	 *            lexelt id
+	 * @return statistic file
+	 */
+	protected File getStatisticFile(String p_LexeltID) {
+		return new File(this.m_StatisticDir + "/" + p_LexeltID + ".stat.gz");
+	}
+
+	/**
+	 * get the file which p_File is written to before it is renamed. it keeps
+	 * the suffix, so that the statistic is still compressed.
+	 *
+	 * @param p_File
+	 *            target file
+	 * @return temporary file
+	 */
+	protected File getTemporaryFile(File p_File) {
+		return new File(p_File.getParentFile(), "." + p_File.getName());
 	}
 
 	/*
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+package sg.edu.nus.comp.nlp.ims.io;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import sg.edu.nus.comp.nlp.ims.classifiers.CPackedLinearModel;
+import sg.edu.nus.comp.nlp.ims.lexelt.CPackedStatistic;
+import sg.edu.nus.comp.nlp.ims.util.CStringTable;
+
+/**
+ * read-only store of lexelt models and statistics in a single file, written
+ * by CPackedModelWriter. entries are memory-mapped on demand, so opening a
+ * store only reads its index.
+ *
+ * layout (big endian):
+ * <pre>
+ * int magic "IMSP"
+ * int version
+ * long position of index
+ * int length of index
+ * entries:
+ *   int length of statistic
+ *   int length of model, 0 if the lexelt has no model
+ *   statistic (see CPackedStatistic)
+ *   model (see CPackedLinearModel)
+ * index:
+ *   lexelt ids (see CStringTable)
+ *   long[number of lexelts] entry positions
+ *   int[number of lexelts] entry lengths
+ * </pre>
+ */
+public class CPackedModelStore {
+	/**
+	 * statistic and model of a lexelt, which share one mapping of its entry
+	 */
+	public static class CEntry {
+		// statistic
+		public final CPackedStatistic statistic;
+		// model, null if the lexelt has no model
+		public final CPackedLinearModel model;
+
+		/**
+		 * constructor
+		 * @param p_Statistic statistic
+		 * @param p_Model model
+		 */
+		public CEntry(CPackedStatistic p_Statistic, CPackedLinearModel p_Model) {
+			this.statistic = p_Statistic;
+			this.model = p_Model;
+		}
+	}
+
+	// file magic
+	public static final int MAGIC = 0x494d5350;
+	// format version
+	public static final int VERSION = 2;
+	// file header size in bytes
+	public static final int HEADER = 20;
+	// entry header size in bytes
+	public static final int ENTRYHEADER = 8;
+
+	// store file
+	protected final RandomAccessFile m_File;
+	// file channel
+	protected final FileChannel m_Channel;
+	// index buffer
+	protected final ByteBuffer m_Index;
+	// lexelt ids
+	protected final CStringTable m_Lexelts;
+	// position of entry positions in the index
+	protected final int m_PositionsPos;
+	// position of entry lengths in the index
+	protected final int m_LengthsPos;
+
+	/**
+	 * open a store
+	 * @param p_FileName store file
+	 * @throws IOException exception
+	 */
+	public CPackedModelStore(String p_FileName) throws IOException {
+		this.m_File = new RandomAccessFile(p_FileName, "r");
+		this.m_Channel = this.m_File.getChannel();
+		try {
+			ByteBuffer header = this.m_Channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+			if (header.getInt(0) != MAGIC) {
+				throw new IOException(p_FileName + " is not a packed model store.");
+			}
+			if (header.getInt(4) != VERSION) {
+				throw new IOException("unsupported packed model store version " + header.getInt(4) + ".");
+			}
+			this.m_Index = this.m_Channel.map(FileChannel.MapMode.READ_ONLY, header.getLong(8), header.getInt(16));
+		} catch (IOException e) {
+			this.m_File.close();
+			throw e;
+		}
+		this.m_Lexelts = new CStringTable(this.m_Index, 0);
+		this.m_PositionsPos = this.m_Lexelts.byteSize();
+		this.m_LengthsPos = this.m_PositionsPos + 8 * this.m_Lexelts.size();
+	}
+
+	/**
+	 * @param p_LexeltID lexelt id
+	 * @return whether the store has an entry for p_LexeltID
+	 */
+	public boolean contains(String p_LexeltID) {
+		return this.m_Lexelts.indexOf(p_LexeltID) >= 0;
+	}
+
+	/**
+	 * @return lexelt ids in the store
+	 */
+	public List<String> getLexeltIDs() {
+		return this.m_Lexelts.asList();
+	}
+
+	/**
+	 * @param p_LexeltID lexelt id
+	 * @return size of the entry in bytes, 0 if there is no entry
+	 */
+	public long getSize(String p_LexeltID) {
+		int index = this.m_Lexelts.indexOf(p_LexeltID);
+		if (index < 0) {
+			return 0;
+		}
+		return this.m_Index.getInt(this.m_LengthsPos + 4 * index);
+	}
+
+	/**
+	 * map the entry of p_LexeltID once and read its statistic and model
+	 * @param p_LexeltID lexelt id
+	 * @return entry, or null if there is no entry
+	 * @throws IOException exception
+	 */
+	public CEntry getEntry(String p_LexeltID) throws IOException {
+		ByteBuffer entry = this.map(p_LexeltID);
+		if (entry == null) {
+			return null;
+		}
+		CPackedStatistic statistic = new CPackedStatistic(this.slice(entry, ENTRYHEADER, entry.getInt(0)));
+		CPackedLinearModel model = null;
+		if (entry.getInt(4) != 0) {
+			model = new CPackedLinearModel(this.slice(entry, ENTRYHEADER + entry.getInt(0), entry.getInt(4)));
+		}
+		return new CEntry(statistic, model);
+	}
+
+	/**
+	 * @param p_LexeltID lexelt id
+	 * @return statistic of p_LexeltID, or null if there is no entry
+	 * @throws IOException exception
+	 */
+	public CPackedStatistic getStatistic(String p_LexeltID) throws IOException {
+		CEntry entry = this.getEntry(p_LexeltID);
+		return entry == null ? null : entry.statistic;
+	}
+
+	/**
+	 * @param p_LexeltID lexelt id
+	 * @return model of p_LexeltID, or null if there is no entry or no model
+	 * @throws IOException exception
+	 */
+	public CPackedLinearModel getModel(String p_LexeltID) throws IOException {
+		CEntry entry = this.getEntry(p_LexeltID);
+		return entry == null ? null : entry.model;
+	}
+
+	/**
+	 * close the store. buffers already handed out stay valid.
+	 * @throws IOException exception
+	 */
+	public void close() throws IOException {
+		this.m_File.close();
+	}
+
+	/**
+	 * map the entry of p_LexeltID
+	 * @param p_LexeltID lexelt id
+	 * @return entry buffer or null
+	 * @throws IOException exception
+	 */
+	protected ByteBuffer map(String p_LexeltID) throws IOException {
+		int index = this.m_Lexelts.indexOf(p_LexeltID);
+		if (index < 0) {
+			return null;
+		}
+		long position = this.m_Index.getLong(this.m_PositionsPos + 8 * index);
+		int length = this.m_Index.getInt(this.m_LengthsPos + 4 * index);
+		return this.m_Channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+	}
+
+	/**
+	 * @param p_Buffer buffer
+	 * @param p_Position start
+	 * @param p_Length length
+	 * @return a buffer over the given region of p_Buffer, starting at 0
+	 */
+	protected ByteBuffer slice(ByteBuffer p_Buffer, int p_Position, int p_Length) {
+		ByteBuffer buffer = p_Buffer.duplicate();
+		buffer.position(p_Position);
+		buffer.limit(p_Position + p_Length);
+		return buffer.slice();
+	}
+}
@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+package sg.edu.nus.comp.nlp.ims.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.zip.GZIPInputStream;
+
+import liblinear.Model;
+
+import sg.edu.nus.comp.nlp.ims.classifiers.CPackedLinearModel;
+import sg.edu.nus.comp.nlp.ims.lexelt.CModelInfo;
+import sg.edu.nus.comp.nlp.ims.lexelt.CPackedStatistic;
+import sg.edu.nus.comp.nlp.ims.lexelt.CStatistic;
+import sg.edu.nus.comp.nlp.ims.lexelt.IStatistic;
+import sg.edu.nus.comp.nlp.ims.util.CArgumentManager;
+import sg.edu.nus.comp.nlp.ims.util.CStringTable;
+
+/**
+ * write liblinear models and statistics into a packed model store which can
+ * be memory-mapped by CPackedModelStore. entries are appended with write and
+ * the index is written by close.
+ *
+ * a statistic is packed with its feature counts if it has instances, e.g.
+ * one written through write(CModelInfo) while training. statistic files do
+ * not keep counts, so stores converted by main have none.
+ */
+public class CPackedModelWriter implements IModelWriter {
+	// store file
+	protected RandomAccessFile m_File;
+	// lexelt ids
+	protected ArrayList<String> m_Lexelts = new ArrayList<String>();
+	// written lexelt ids
+	protected HashSet<String> m_Written = new HashSet<String>();
+	// entry positions
+	protected ArrayList<Long> m_Positions = new ArrayList<Long>();
+	// entry lengths
+	protected ArrayList<Integer> m_Lengths = new ArrayList<Integer>();
+
+	/**
+	 * constructor
+	 * @param p_FileName store file
+	 * @throws IOException exception
+	 */
+	public CPackedModelWriter(String p_FileName) throws IOException {
+		File file = new File(p_FileName);
+		if (file.exists() && !file.delete()) {
+			throw new IOException("cannot overwrite " + p_FileName + ".");
+		}
+		this.m_File = new RandomAccessFile(file, "rw");
+		this.m_File.writeInt(CPackedModelStore.MAGIC);
+		this.m_File.writeInt(CPackedModelStore.VERSION);
+		this.m_File.writeLong(0);
+		this.m_File.writeInt(0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.io.IModelWriter#write(java.lang.Object)
+	 */
+	@Override
+	public void write(Object p_Model) throws IOException {
+		CModelInfo info = (CModelInfo) p_Model;
+		this.write(info.lexelt, (IStatistic) info.statistic, (Model) info.model);
+	}
+
+	/**
+	 * append the entry of a lexelt
+	 * @param p_LexeltID lexelt id
+	 * @param p_Statistic statistic
+	 * @param p_Model model, null if the lexelt has no model
+	 * @throws IOException exception
+	 */
+	public void write(String p_LexeltID, IStatistic p_Statistic, Model p_Model) throws IOException {
+		if (!this.m_Written.add(p_LexeltID)) {
+			throw new IOException("duplicate lexelt " + p_LexeltID + ".");
+		}
+		byte[] statistic = CPackedStatistic.toBytes(p_Statistic);
+		byte[] model = new byte[0];
+		if (p_Model != null) {
+			model = CPackedLinearModel.toBytes(p_Model);
+		}
+		long position = this.m_File.length();
+		this.m_File.seek(position);
+		this.m_File.writeInt(statistic.length);
+		this.m_File.writeInt(model.length);
+		this.m_File.write(statistic);
+		this.m_File.write(model);
+		this.m_Lexelts.add(p_LexeltID);
+		this.m_Positions.add(position);
+		this.m_Lengths.add(CPackedModelStore.ENTRYHEADER + statistic.length + model.length);
+	}
+
+	/**
+	 * write the index and close the store
+	 * @throws IOException exception
+	 */
+	public void close() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.write(CStringTable.toBytes(this.m_Lexelts));
+		for (Long position : this.m_Positions) {
+			out.writeLong(position);
+		}
+		for (Integer length : this.m_Lengths) {
+			out.writeInt(length);
+		}
+		out.flush();
+		long position = this.m_File.length();
+		this.m_File.seek(position);
+		this.m_File.write(bytes.toByteArray());
+		this.m_File.seek(8);
+		this.m_File.writeLong(position);
+		this.m_File.writeInt(bytes.size());
+		this.m_File.close();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.io.IModelWriter#setOptions(java.lang.String[])
+	 */
+	@Override
+	public void setOptions(String[] p_Options) {
+	}
+
+	/**
+	 * convert the model and statistic files of a model directory into a
+	 * packed model store
+	 * @param p_Args arguments
+	 */
+	public static void main(String[] p_Args) {
+		try {
+			String generalOptions = "Usage: modelDir store\n"
+				+ "\t-s statistic directory(default modelDir)\n";
+			CArgumentManager argmgr = new CArgumentManager(p_Args);
+			if (argmgr.size() != 2) { // check arguments
+				throw new IllegalArgumentException(generalOptions);
+			}
+			String modelDir = argmgr.get(0);
+			String statDir = modelDir;
+			if (argmgr.has("s")) {
+				statDir = argmgr.get("s");
+			}
+			String[] files = new File(statDir).list();
+			if (files == null) {
+				throw new IOException(statDir + " is not a directory.");
+			}
+			Arrays.sort(files);
+			CPackedModelWriter writer = new CPackedModelWriter(argmgr.get(1));
+			for (String file : files) {
+				String lexeltID;
+				if (file.endsWith(".stat.gz")) {
+					lexeltID = file.substring(0, file.length() - 8);
+				} else if (file.endsWith(".stat")) {
+					lexeltID = file.substring(0, file.length() - 5);
+					if (new File(statDir, file + ".gz").exists()) {
+						continue;
+					}
+				} else {
+					continue;
+				}
+				CStatistic stat = new CStatistic();
+				if (!stat.loadFromFile(new File(statDir, file).getAbsolutePath())) {
+					throw new IOException("cannot load " + file + ".");
+				}
+				Model model = null;
+				File modelFile = new File(modelDir, lexeltID + ".model.gz");
+				if (!modelFile.exists()) {
+					modelFile = new File(modelDir, lexeltID + ".model");
+				}
+				if (modelFile.exists()) {
+					InputStream is = new FileInputStream(modelFile);
+					if (modelFile.getName().endsWith(".gz")) {
+						is = new GZIPInputStream(is);
+					}
+					ObjectInputStream ois = new ObjectInputStream(is);
+					model = (Model) ois.readObject();
+					ois.close();
+				}
+				writer.write(lexeltID, stat, model);
+			}
+			writer.close();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+}
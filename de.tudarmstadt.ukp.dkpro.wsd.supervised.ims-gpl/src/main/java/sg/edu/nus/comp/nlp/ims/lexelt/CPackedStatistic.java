@@ -0,0 +1,778 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+package sg.edu.nus.comp.nlp.ims.lexelt;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import sg.edu.nus.comp.nlp.ims.feature.ANumericFeature;
+import sg.edu.nus.comp.nlp.ims.instance.IInstance;
+import sg.edu.nus.comp.nlp.ims.lexelt.IFeatureSelector.Type;
+import sg.edu.nus.comp.nlp.ims.util.CStringTable;
+
+/**
+ * statistic backed by a byte buffer, usually a memory-mapped region of a
+ * packed model store.
+ *
+ * the buffer keeps the information saved by CStatistic.writeToFile (tags,
+ * feature keys, feature types and feature values) and, if the statistic was
+ * packed with its counts, the number of instances, the tag counts and the
+ * value counts. a statistic packed without counts, e.g. one loaded from a
+ * statistic file, has 0 instances and reports 0 for every known count.
+ *
+ * the buffer is never changed: select and clear only restrict the keys and
+ * values seen through this object, and instances cannot be added or loaded.
+ *
+ * layout (big endian, positions relative to the buffer start):
+ * <pre>
+ * int position of tag table
+ * int position of type table
+ * int position of key table
+ * int position of key types (int[number of keys], index into type table)
+ * int position of value table positions (int[number of keys])
+ * int number of instances
+ * int position of tag counts (int[number of tags]), 0 if there are no counts
+ * int position of count positions (int[number of keys]), 0 if there are no counts
+ * string tables ...
+ * counts of each key:
+ *   int[number of values] value counts
+ *   int[number of values][number of tags] value counts per tag
+ * </pre>
+ */
+public class CPackedStatistic implements IStatistic {
+
+	/**
+	 * serial version id
+	 */
+	private static final long serialVersionUID = 1L;
+	// default value
+	protected static final String DEFAULT = "!DEF!";
+	// header size in bytes
+	protected static final int HEADER = 32;
+	// separator of statistic files
+	protected static final String SEPARATOR = "\t";
+
+	// buffer
+	protected final ByteBuffer m_Buffer;
+	// tags in order
+	protected final CStringTable m_Tags;
+	// feature type class names
+	protected final CStringTable m_Types;
+	// feature keys
+	protected final CStringTable m_Keys;
+	// position of key types
+	protected final int m_KeyTypesPos;
+	// position of value table positions
+	protected final int m_ValuesPos;
+	// number of instances
+	protected final int m_Size;
+	// position of tag counts, 0 if there are no counts
+	protected final int m_TagCountsPos;
+	// position of count positions, 0 if there are no counts
+	protected final int m_CountsPos;
+	// value tables, decoded lazily
+	protected final CStringTable[] m_Values;
+	// whether a feature type is numeric: 0 not resolved, 1 numeric, 2 not numeric
+	protected final byte[] m_Numeric;
+
+	// selected keys in order as indices into the key table, null for all
+	protected int[] m_KeyIndice = null;
+	// selected values of each key in order as indices into its value table, null for all
+	protected int[][] m_ValueIndice;
+	// whether the statistic has been cleared
+	protected boolean m_Cleared = false;
+	// status
+	protected boolean m_Status = true;
+	// filter threshold
+	protected int m_M2 = 0;
+
+	/**
+	 * constructor
+	 * @param p_Buffer buffer holding one packed statistic at position 0
+	 */
+	public CPackedStatistic(ByteBuffer p_Buffer) {
+		this.m_Buffer = p_Buffer;
+		this.m_Tags = new CStringTable(p_Buffer, p_Buffer.getInt(0));
+		this.m_Types = new CStringTable(p_Buffer, p_Buffer.getInt(4));
+		this.m_Keys = new CStringTable(p_Buffer, p_Buffer.getInt(8));
+		this.m_KeyTypesPos = p_Buffer.getInt(12);
+		this.m_ValuesPos = p_Buffer.getInt(16);
+		this.m_Size = p_Buffer.getInt(20);
+		this.m_TagCountsPos = p_Buffer.getInt(24);
+		this.m_CountsPos = p_Buffer.getInt(28);
+		this.m_Values = new CStringTable[this.m_Keys.size()];
+		this.m_Numeric = new byte[this.m_Types.size()];
+		this.m_ValueIndice = new int[this.m_Keys.size()][];
+	}
+
+	/**
+	 * serialize p_Statistic in the packed layout. the counts are kept if
+	 * p_Statistic has instances.
+	 * @param p_Statistic statistic
+	 * @return bytes
+	 * @throws IOException exception
+	 */
+	public static byte[] toBytes(IStatistic p_Statistic) throws IOException {
+		int keySize = p_Statistic.getKeys().size();
+		List<String> tags = p_Statistic.getTagsInOrder();
+		boolean counts = p_Statistic.size() > 0;
+		ArrayList<String> keys = new ArrayList<String>(keySize);
+		ArrayList<String> types = new ArrayList<String>();
+		int[] keyTypes = new int[keySize];
+		for (int i = 0; i < keySize; i++) {
+			keys.add(p_Statistic.getKey(i));
+			String type = p_Statistic.getType(i);
+			int typeIndex = types.indexOf(type);
+			if (typeIndex < 0) {
+				typeIndex = types.size();
+				types.add(type);
+			}
+			keyTypes[i] = typeIndex;
+		}
+		byte[] tagTable = CStringTable.toBytes(new ArrayList<String>(tags));
+		byte[] typeTable = CStringTable.toBytes(types);
+		byte[] keyTable = CStringTable.toBytes(keys);
+		byte[][] valueTables = new byte[keySize][];
+		for (int i = 0; i < keySize; i++) {
+			valueTables[i] = CStringTable.toBytes(new ArrayList<String>(p_Statistic.getValue(i)));
+		}
+
+		int tagPos = HEADER;
+		int typePos = tagPos + tagTable.length;
+		int keyPos = typePos + typeTable.length;
+		int keyTypesPos = keyPos + keyTable.length;
+		int valuesPos = keyTypesPos + 4 * keySize;
+		int position = valuesPos + 4 * keySize;
+		int[] valueTablePos = new int[keySize];
+		for (int i = 0; i < keySize; i++) {
+			valueTablePos[i] = position;
+			position += valueTables[i].length;
+		}
+		int tagCountsPos = 0;
+		int countsPos = 0;
+		int[] countPos = new int[keySize];
+		if (counts) {
+			tagCountsPos = position;
+			countsPos = tagCountsPos + 4 * tags.size();
+			position = countsPos + 4 * keySize;
+			for (int i = 0; i < keySize; i++) {
+				countPos[i] = position;
+				position += 4 * p_Statistic.getValue(i).size() * (1 + tags.size());
+			}
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(position);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(tagPos);
+		out.writeInt(typePos);
+		out.writeInt(keyPos);
+		out.writeInt(keyTypesPos);
+		out.writeInt(valuesPos);
+		out.writeInt(counts ? p_Statistic.size() : 0);
+		out.writeInt(tagCountsPos);
+		out.writeInt(countsPos);
+		out.write(tagTable);
+		out.write(typeTable);
+		out.write(keyTable);
+		for (int keyType : keyTypes) {
+			out.writeInt(keyType);
+		}
+		for (int i = 0; i < keySize; i++) {
+			out.writeInt(valueTablePos[i]);
+		}
+		for (byte[] valueTable : valueTables) {
+			out.write(valueTable);
+		}
+		if (counts) {
+			for (String tag : tags) {
+				out.writeInt(p_Statistic.getTagCount(tag));
+			}
+			for (int i = 0; i < keySize; i++) {
+				out.writeInt(countPos[i]);
+			}
+			for (int i = 0; i < keySize; i++) {
+				List<String> values = p_Statistic.getValue(i);
+				for (String value : values) {
+					out.writeInt(p_Statistic.getCount(i, value));
+				}
+				for (String value : values) {
+					for (String tag : tags) {
+						out.writeInt(p_Statistic.getCount(i, value, tag));
+					}
+				}
+			}
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * get the value table of a key
+	 * @param p_Packed index into the key table
+	 * @return value table
+	 */
+	protected CStringTable getValueTable(int p_Packed) {
+		CStringTable table = this.m_Values[p_Packed];
+		if (table == null) {
+			// benign race: concurrent callers build equivalent views
+			table = new CStringTable(this.m_Buffer, this.m_Buffer.getInt(this.m_ValuesPos + 4 * p_Packed));
+			this.m_Values[p_Packed] = table;
+		}
+		return table;
+	}
+
+	/**
+	 * @return number of selected keys
+	 */
+	protected int keySize() {
+		if (this.m_KeyIndice != null) {
+			return this.m_KeyIndice.length;
+		}
+		return this.m_Keys.size();
+	}
+
+	/**
+	 * @param p_Index key index
+	 * @return whether p_Index is a valid key index
+	 */
+	protected boolean isKey(int p_Index) {
+		return p_Index >= 0 && p_Index < this.keySize();
+	}
+
+	/**
+	 * @param p_Index key index
+	 * @return index of the key in the key table
+	 */
+	protected int toPacked(int p_Index) {
+		if (this.m_KeyIndice != null) {
+			return this.m_KeyIndice[p_Index];
+		}
+		return p_Index;
+	}
+
+	/**
+	 * @param p_Packed index into the key table
+	 * @return whether the key is numeric
+	 */
+	protected boolean isNumeric(int p_Packed) {
+		int type = this.m_Buffer.getInt(this.m_KeyTypesPos + 4 * p_Packed);
+		if (this.m_Numeric[type] == 0) {
+			boolean numeric = false;
+			try {
+				numeric = ANumericFeature.class.isAssignableFrom(Class.forName(this.m_Types.get(type)));
+			} catch (ClassNotFoundException e) {
+				// unknown feature types are not numeric
+			}
+			this.m_Numeric[type] = (byte) (numeric ? 1 : 2);
+		}
+		return this.m_Numeric[type] == 1;
+	}
+
+	/**
+	 * @param p_Packed index into the key table
+	 * @param p_Value value
+	 * @return index of p_Value in the value table of the key, or -1 if it is not selected
+	 */
+	protected int getPackedValueIndex(int p_Packed, String p_Value) {
+		int index = this.getValueTable(p_Packed).indexOf(p_Value);
+		int[] selected = this.m_ValueIndice[p_Packed];
+		if (index >= 0 && selected != null && Arrays.binarySearch(selected, index) < 0) {
+			return -1;
+		}
+		return index;
+	}
+
+	/**
+	 * @param p_Tag tag
+	 * @return tag index, or -1 if p_Tag is unknown
+	 */
+	protected int getTagIndex(String p_Tag) {
+		if (this.m_Cleared) {
+			return -1;
+		}
+		return this.m_Tags.indexOf(p_Tag);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#addInstance(sg.edu.nus.comp.nlp.ims.instance.IInstance)
+	 */
+	@Override
+	public boolean addInstance(IInstance p_iInstance) {
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#removeInstance(sg.edu.nus.comp.nlp.ims.instance.IInstance)
+	 */
+	@Override
+	public boolean removeInstance(IInstance p_iInstance) {
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#loadFromFile(java.lang.String)
+	 */
+	@Override
+	public boolean loadFromFile(String p_FileName) {
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#writeToFile(java.lang.String)
+	 */
+	@Override
+	public boolean writeToFile(String p_FileName) {
+		try {
+			OutputStream os = new FileOutputStream(p_FileName);
+			if (p_FileName.endsWith(".gz")) {
+				os = new GZIPOutputStream(os);
+			}
+			BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(os, "ISO8859-1"));
+			for (String tag : this.getTagsInOrder()) {
+				writer.write(tag);
+				writer.write(SEPARATOR);
+			}
+			writer.write("\n");
+			for (String type : this.m_Types.asList()) {
+				writer.write(type);
+				writer.write(SEPARATOR);
+			}
+			writer.write("\n");
+			for (int keyIndex = 0; keyIndex < this.keySize(); keyIndex++) {
+				writer.write(this.getKey(keyIndex));
+				writer.write(SEPARATOR);
+				writer.write(Integer.toString(this.m_Buffer.getInt(this.m_KeyTypesPos + 4 * this.toPacked(keyIndex))));
+				for (String value : this.getValue(keyIndex)) {
+					writer.write(SEPARATOR);
+					writer.write(value);
+				}
+				writer.write("\n");
+			}
+			writer.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		}
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#setParameter(java.lang.String, int)
+	 */
+	@Override
+	public boolean setParameter(String p_Parameter, int p_Value) {
+		if (p_Value < 0) {
+			p_Value = 0;
+		}
+		this.m_M2 = p_Value;
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getParameter(java.lang.String)
+	 */
+	@Override
+	public int getParameter(String p_Parameter) {
+		return this.m_M2;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getTagCount(java.lang.String)
+	 */
+	@Override
+	public int getTagCount(String p_Tag) {
+		int tagIndex = this.getTagIndex(p_Tag);
+		if (tagIndex < 0) {
+			return -1;
+		}
+		if (this.m_TagCountsPos == 0) {
+			return 0;
+		}
+		return this.m_Buffer.getInt(this.m_TagCountsPos + 4 * tagIndex);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getTags()
+	 */
+	@Override
+	public Set<String> getTags() {
+		return new LinkedHashSet<String>(this.getTagsInOrder());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getTagsInOrder()
+	 */
+	@Override
+	public List<String> getTagsInOrder() {
+		if (this.m_Cleared) {
+			return Collections.emptyList();
+		}
+		return this.m_Tags.asList();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#size()
+	 */
+	@Override
+	public int size() {
+		if (this.m_Cleared) {
+			return 0;
+		}
+		return this.m_Size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getKeys()
+	 */
+	@Override
+	public List<String> getKeys() {
+		if (this.m_KeyIndice == null) {
+			return this.m_Keys.asList();
+		}
+		return new AbstractList<String>() {
+			@Override
+			public String get(int p_Index) {
+				return CPackedStatistic.this.getKey(p_Index);
+			}
+
+			@Override
+			public int size() {
+				return CPackedStatistic.this.keySize();
+			}
+
+			@Override
+			public int indexOf(Object p_Object) {
+				if (p_Object instanceof String) {
+					return CPackedStatistic.this.getIndex((String) p_Object);
+				}
+				return -1;
+			}
+
+			@Override
+			public boolean contains(Object p_Object) {
+				return this.indexOf(p_Object) >= 0;
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getIndex(java.lang.String)
+	 */
+	@Override
+	public int getIndex(String p_Key) {
+		int index = this.m_Keys.indexOf(p_Key);
+		if (index < 0 || this.m_KeyIndice == null) {
+			return index;
+		}
+		index = Arrays.binarySearch(this.m_KeyIndice, index);
+		return index < 0 ? -1 : index;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getKey(int)
+	 */
+	@Override
+	public String getKey(int p_Index) {
+		if (this.isKey(p_Index)) {
+			return this.m_Keys.get(this.toPacked(p_Index));
+		}
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getType(java.lang.String)
+	 */
+	@Override
+	public String getType(String p_Key) {
+		return this.getType(this.getIndex(p_Key));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getType(int)
+	 */
+	@Override
+	public String getType(int p_Index) {
+		if (this.isKey(p_Index)) {
+			return this.m_Types.get(this.m_Buffer.getInt(this.m_KeyTypesPos + 4 * this.toPacked(p_Index)));
+		}
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getValue(java.lang.String)
+	 */
+	@Override
+	public List<String> getValue(String p_Key) {
+		return this.getValue(this.getIndex(p_Key));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getValue(int)
+	 */
+	@Override
+	public List<String> getValue(int p_Index) {
+		if (!this.isKey(p_Index)) {
+			return null;
+		}
+		final int packed = this.toPacked(p_Index);
+		final CStringTable table = this.getValueTable(packed);
+		final int[] selected = this.m_ValueIndice[packed];
+		if (selected == null) {
+			return table.asList();
+		}
+		return new AbstractList<String>() {
+			@Override
+			public String get(int p_Value) {
+				return table.get(selected[p_Value]);
+			}
+
+			@Override
+			public int size() {
+				return selected.length;
+			}
+
+			@Override
+			public int indexOf(Object p_Object) {
+				if (p_Object instanceof String) {
+					int index = Arrays.binarySearch(selected, table.indexOf((String) p_Object));
+					return index < 0 ? -1 : index;
+				}
+				return -1;
+			}
+
+			@Override
+			public boolean contains(Object p_Object) {
+				return this.indexOf(p_Object) >= 0;
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getDefaultValue()
+	 */
+	@Override
+	public String getDefaultValue() {
+		return DEFAULT;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getCount(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public int getCount(String p_Key, String p_Value) {
+		return this.getCount(this.getIndex(p_Key), p_Value);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getCount(int, java.lang.String)
+	 */
+	@Override
+	public int getCount(int p_Index, String p_Value) {
+		if (!this.isKey(p_Index)) {
+			return -1;
+		}
+		int packed = this.toPacked(p_Index);
+		if (this.isNumeric(packed)) {
+			return 0;
+		}
+		int valueIndex = this.getPackedValueIndex(packed, p_Value);
+		if (valueIndex < 0) {
+			return -1;
+		}
+		if (this.m_CountsPos == 0) {
+			return 0;
+		}
+		int position = this.m_Buffer.getInt(this.m_CountsPos + 4 * packed);
+		return this.m_Buffer.getInt(position + 4 * valueIndex);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getCount(java.lang.String, java.lang.String, java.lang.String)
+	 */
+	@Override
+	public int getCount(String p_Key, String p_Value, String p_Tag) {
+		return this.getCount(this.getIndex(p_Key), p_Value, p_Tag);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#getCount(int, java.lang.String, java.lang.String)
+	 */
+	@Override
+	public int getCount(int p_KeyIndex, String p_Value, String p_Tag) {
+		if (!this.isKey(p_KeyIndex)) {
+			return -1;
+		}
+		int packed = this.toPacked(p_KeyIndex);
+		if (this.isNumeric(packed)) {
+			return 0;
+		}
+		int valueIndex = this.getPackedValueIndex(packed, p_Value);
+		int tagIndex = this.getTagIndex(p_Tag);
+		if (valueIndex < 0 || tagIndex < 0) {
+			return -1;
+		}
+		if (this.m_CountsPos == 0) {
+			return 0;
+		}
+		int position = this.m_Buffer.getInt(this.m_CountsPos + 4 * packed);
+		int valueSize = this.getValueTable(packed).size();
+		return this.m_Buffer.getInt(position + 4 * (valueSize + valueIndex * this.m_Tags.size() + tagIndex));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#contains(int, java.lang.String)
+	 */
+	@Override
+	public boolean contains(int p_Index, String p_Value) {
+		if (this.isKey(p_Index)) {
+			return this.getPackedValueIndex(this.toPacked(p_Index), p_Value) >= 0;
+		}
+		return false;
+	}
+
+	/**
+	 * get the index of p_Value among the values of key p_KeyIndex
+	 * @param p_KeyIndex key index
+	 * @param p_Value value
+	 * @return value index, or -1 if not found
+	 */
+	public int getValueIndex(int p_KeyIndex, String p_Value) {
+		if (!this.isKey(p_KeyIndex)) {
+			return -1;
+		}
+		int packed = this.toPacked(p_KeyIndex);
+		int index = this.getValueTable(packed).indexOf(p_Value);
+		int[] selected = this.m_ValueIndice[packed];
+		if (index < 0 || selected == null) {
+			return index;
+		}
+		index = Arrays.binarySearch(selected, index);
+		return index < 0 ? -1 : index;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#select(sg.edu.nus.comp.nlp.ims.lexelt.IFeatureSelector)
+	 */
+	@Override
+	public void select(IFeatureSelector p_Selector) {
+		this.m_Status = true;
+		p_Selector.filter(this);
+
+		int keySize = this.keySize();
+		int[] keys = new int[keySize];
+		int kept = 0;
+		for (int i = 0; i < keySize; i++) {
+			int packed = this.toPacked(i);
+			Type type = p_Selector.isFiltered(i);
+			if (type.equals(Type.PART)) {
+				List<String> values = this.getValue(i);
+				int[] selected = new int[values.size()];
+				int keptValues = 0;
+				for (int v = 0; v < values.size(); v++) {
+					if (!p_Selector.isFiltered(i, values.get(v)).equals(Type.FILTER)) {
+						int[] current = this.m_ValueIndice[packed];
+						selected[keptValues++] = current == null ? v : current[v];
+					}
+				}
+				this.m_ValueIndice[packed] = Arrays.copyOf(selected, keptValues);
+				if (keptValues != 0) {
+					keys[kept++] = packed;
+				}
+			} else if (type.equals(Type.ACCEPT)) {
+				keys[kept++] = packed;
+			}
+		}
+		this.m_KeyIndice = Arrays.copyOf(keys, kept);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#isProcessed()
+	 */
+	@Override
+	public boolean isProcessed() {
+		return this.m_Status;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see sg.edu.nus.comp.nlp.ims.lexelt.IStatistic#clear()
+	 */
+	@Override
+	public void clear() {
+		this.m_KeyIndice = new int[0];
+		this.m_Cleared = true;
+		this.m_Status = false;
+		this.m_M2 = 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#clone()
+	 */
+	@Override
+	public Object clone() {
+		CPackedStatistic clone = new CPackedStatistic(this.m_Buffer);
+		clone.m_KeyIndice = this.m_KeyIndice;
+		clone.m_ValueIndice = this.m_ValueIndice.clone();
+		clone.m_Cleared = this.m_Cleared;
+		clone.m_Status = this.m_Status;
+		clone.m_M2 = this.m_M2;
+		return clone;
+	}
+}
@@ -21,7 +21,6 @@ package sg.edu.nus.comp.nlp.ims.util;
 
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -36,16 +35,20 @@ import net.didion.jwnl.dictionary.MorphologicalProcessor;
 /**
  * an interface to call jwnl.
  *
+ * the root forms are cached in a bounded lock-free cache, which is shared by
+ * all threads. an optional lemma table answers the lookups of common words
+ * without jwnl. jwnl itself is called by one thread at a time.
+ *
  * @author zhongzhi
  *
  */
 public final class CJWNL {
 	private static Dictionary dictionary;
 	private static MorphologicalProcessor processor;
-	private static Hashtable<String, String> cacheNOUN;
-	private static Hashtable<String, String> cacheVERB;
-	private static Hashtable<String, String> cacheADJ;
-	private static Hashtable<String, String> cacheADV;
+	private static volatile CLemmaCache cache = new CLemmaCache();
+	private static volatile CLemmaTable lemmaTable = null;
+	private static final Object LOCK = new Object();
+	private static final POS[] POSs = { POS.NOUN, POS.VERB, POS.ADJECTIVE, POS.ADVERB };
 	private static Pattern LEMMAPATTERN = Pattern.compile("^([^\\s]+)%");
 	private static Pattern POSPATTERN = Pattern.compile("\\%(\\d)");
 	private static boolean STATE = false;
@@ -78,10 +81,47 @@ public final class CJWNL {
 		STATE = true;
 		dictionary = net.didion.jwnl.dictionary.Dictionary.getInstance();
 		processor = dictionary.getMorphologicalProcessor();
-		cacheADV = new Hashtable<String, String>();
-		cacheADJ = new Hashtable<String, String>();
-		cacheVERB = new Hashtable<String, String>();
-		cacheNOUN = new Hashtable<String, String>();
+		cache = new CLemmaCache(cache.getCapacity());
+	}
+
+	/**
+	 * set the capacity of the root form cache, which clears the cache
+	 *
+	 * @param p_Capacity
+	 *            maximum number of cached root forms
+	 */
+	public static void setCacheCapacity(int p_Capacity) {
+		cache = new CLemmaCache(p_Capacity);
+	}
+
+	/**
+	 * get the root form cache, e.g. for its hit rate
+	 *
+	 * @return cache
+	 */
+	public static CLemmaCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * set the precomputed lemma table. it has to be generated from the
+	 * WordNet dictionary of jwnl.
+	 *
+	 * @param p_Table
+	 *            lemma table, null for none
+	 */
+	public static void setLemmaTable(CLemmaTable p_Table) {
+		lemmaTable = p_Table;
+		cache = new CLemmaCache(cache.getCapacity());
+	}
+
+	/**
+	 * get the precomputed lemma table
+	 *
+	 * @return lemma table, null for none
+	 */
+	public static CLemmaTable getLemmaTable() {
+		return lemmaTable;
 	}
 
 	/**
@@ -132,7 +172,10 @@ public final class CJWNL {
 		checkStatus();
 		try {
 			if (p_POS != null) {
-				IndexWord indexWord = dictionary.lookupIndexWord(p_POS, p_Token);
+				IndexWord indexWord;
+				synchronized (LOCK) {
+					indexWord = dictionary.lookupIndexWord(p_POS, p_Token);
+				}
 				if (indexWord != null && indexWord.getLemma().replace(' ', '_').equals(p_Token)) {
 					return true;
 				}
@@ -216,41 +259,26 @@ public final class CJWNL {
 			return null;
 		}
 		p_Token = p_Token.trim().toLowerCase();
-		String rootForm = p_Token;
-		try {
-			if (!rootForm.isEmpty()) {
-				if (p_POS.equals("n")) {
-					if (cacheNOUN.containsKey(p_Token)) {
-						rootForm = cacheNOUN.get(p_Token);
-					} else {
-						rootForm = getRootForm(POS.NOUN, p_Token);
-						cacheNOUN.put(p_Token, rootForm);
-					}
-				} else if (p_POS.equals("v")) {
-					if (cacheVERB.containsKey(p_Token)) {
-						rootForm = cacheVERB.get(p_Token);
-					} else {
-						rootForm = getRootForm(POS.VERB, p_Token);
-						cacheVERB.put(p_Token, rootForm);
-					}
-				} else if (p_POS.equals("a")) {
-					if (cacheADJ.containsKey(p_Token)) {
-						rootForm = cacheADJ.get(p_Token);
-					} else {
-						rootForm = getRootForm(POS.ADJECTIVE, p_Token);
-						cacheADJ.put(p_Token, rootForm);
-					}
-				} else if (p_POS.equals("r")) {
-					if (cacheADV.containsKey(p_Token)) {
-						rootForm = cacheADV.get(p_Token);
-					} else {
-						rootForm = getRootForm(POS.ADVERB, p_Token);
-						cacheADV.put(p_Token, rootForm);
-					}
+		int pos = SHORTs.indexOf(p_POS);
+		if (p_Token.isEmpty() || pos < 0) {
+			return p_Token;
+		}
+		CLemmaCache rootForms = cache;
+		String rootForm = rootForms.get(p_Token, pos);
+		if (rootForm == null) {
+			try {
+				CLemmaTable table = lemmaTable;
+				if (table != null && LEGALPATTERN.matcher(p_Token).matches()) {
+					rootForm = table.get(p_Token, pos);
+				}
+				if (rootForm == null) {
+					rootForm = getRootForm(POSs[pos], p_Token);
 				}
+				rootForms.put(p_Token, pos, rootForm);
+			} catch (Exception e) {
+				e.printStackTrace();
+				rootForm = p_Token;
 			}
-		} catch (Exception e) {
-			e.printStackTrace();
 		}
 		return rootForm;
 	}
@@ -267,7 +295,10 @@ public final class CJWNL {
 		checkStatus();
 		if (LEGALPATTERN.matcher(p_Token).matches()) {
 //			if (DELIMITERPATTERN.matcher(p_Token).find()) {
-				List<String> indexWords = processor.lookupAllBaseForms(p_POS, p_Token);
+				List<String> indexWords;
+				synchronized (LOCK) {
+					indexWords = processor.lookupAllBaseForms(p_POS, p_Token);
+				}
 				if (indexWords.size() > 0) {
 					for (String lemma:indexWords) {
 						if (lemma.equals(p_Token)) {
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+package sg.edu.nus.comp.nlp.ims.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * a bounded cache of lemmas keyed by word and part-of-speech.
+ *
+ * the entries are kept in a fixed table of immutable entries, which is read
+ * and written without locks. each key has two slots; a new entry takes the
+ * first slot and moves the entry there to the second one, so the table never
+ * grows beyond its capacity. concurrent writers may lose an entry, which only
+ * costs another lookup.
+ */
+public class CLemmaCache {
+	// default capacity
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+
+	/**
+	 * an entry of the cache
+	 */
+	protected static final class CEntry {
+		// word
+		protected final String m_Word;
+		// part-of-speech index
+		protected final int m_POS;
+		// lemma
+		protected final String m_Lemma;
+
+		/**
+		 * constructor
+		 * @param p_Word word
+		 * @param p_POS part-of-speech index
+		 * @param p_Lemma lemma
+		 */
+		protected CEntry(String p_Word, int p_POS, String p_Lemma) {
+			this.m_Word = p_Word;
+			this.m_POS = p_POS;
+			this.m_Lemma = p_Lemma;
+		}
+
+		/**
+		 * check whether this entry belongs to a key
+		 * @param p_Word word
+		 * @param p_POS part-of-speech index
+		 * @return whether matches
+		 */
+		protected boolean matches(String p_Word, int p_POS) {
+			return this.m_POS == p_POS && this.m_Word.equals(p_Word);
+		}
+	}
+
+	// entries
+	protected final AtomicReferenceArray<CEntry> m_Entries;
+	// slot mask
+	protected final int m_Mask;
+	// number of hits
+	protected final LongAdder m_Hits = new LongAdder();
+	// number of misses
+	protected final LongAdder m_Misses = new LongAdder();
+
+	/**
+	 * constructor
+	 */
+	public CLemmaCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * constructor
+	 * @param p_Capacity maximum number of entries, rounded up to a power of 2
+	 */
+	public CLemmaCache(int p_Capacity) {
+		int capacity = 2;
+		while (capacity < p_Capacity && capacity < (1 << 30)) {
+			capacity <<= 1;
+		}
+		this.m_Entries = new AtomicReferenceArray<CEntry>(capacity);
+		this.m_Mask = capacity - 1;
+	}
+
+	/**
+	 * get the first slot of a key
+	 * @param p_Word word
+	 * @param p_POS part-of-speech index
+	 * @return slot
+	 */
+	protected int slot(String p_Word, int p_POS) {
+		int hash = p_Word.hashCode() * 31 + p_POS;
+		hash ^= hash >>> 16;
+		return hash & this.m_Mask;
+	}
+
+	/**
+	 * get the cached lemma of a word
+	 * @param p_Word word
+	 * @param p_POS part-of-speech index
+	 * @return lemma, null if not cached
+	 */
+	public String get(String p_Word, int p_POS) {
+		int slot = this.slot(p_Word, p_POS);
+		CEntry entry = this.m_Entries.get(slot);
+		if (entry == null || !entry.matches(p_Word, p_POS)) {
+			entry = this.m_Entries.get(slot ^ 1);
+		}
+		if (entry != null && entry.matches(p_Word, p_POS)) {
+			this.m_Hits.increment();
+			return entry.m_Lemma;
+		}
+		this.m_Misses.increment();
+		return null;
+	}
+
+	/**
+	 * cache the lemma of a word
+	 * @param p_Word word
+	 * @param p_POS part-of-speech index
+	 * @param p_Lemma lemma
+	 */
+	public void put(String p_Word, int p_POS, String p_Lemma) {
+		int slot = this.slot(p_Word, p_POS);
+		CEntry first = this.m_Entries.get(slot);
+		if (first != null && !first.matches(p_Word, p_POS)) {
+			this.m_Entries.set(slot ^ 1, first);
+		}
+		this.m_Entries.set(slot, new CEntry(p_Word, p_POS, p_Lemma));
+	}
+
+	/**
+	 * remove all entries and reset the counters
+	 */
+	public void clear() {
+		for (int i = 0; i < this.m_Entries.length(); i++) {
+			this.m_Entries.set(i, null);
+		}
+		this.m_Hits.reset();
+		this.m_Misses.reset();
+	}
+
+	/**
+	 * get the capacity
+	 * @return maximum number of entries
+	 */
+	public int getCapacity() {
+		return this.m_Entries.length();
+	}
+
+	/**
+	 * get the number of hits
+	 * @return hits
+	 */
+	public long getHits() {
+		return this.m_Hits.sum();
+	}
+
+	/**
+	 * get the number of misses
+	 * @return misses
+	 */
+	public long getMisses() {
+		return this.m_Misses.sum();
+	}
+
+	/**
+	 * get the ratio of hits among all lookups
+	 * @return hit rate, 0 if nothing was looked up
+	 */
+	public double getHitRate() {
+		long hits = this.getHits();
+		long total = hits + this.getMisses();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+package sg.edu.nus.comp.nlp.ims.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.StringTokenizer;
+
+/**
+ * a precomputed table of lemmas, generated from the index files and
+ * exception lists of a WordNet dictionary.
+ *
+ * a word in the index of a part-of-speech is its own lemma, and an inflected
+ * form in the exception list has its first base form as lemma. this is what
+ * jwnl returns for these words with the default morphological operations.
+ * words with more than one token are left out, so they are still looked up
+ * by jwnl. the table is not changed after loading, so it can be shared by
+ * threads.
+ */
+public class CLemmaTable {
+	// index files, in the order of CJWNL.SHORTs
+	public static final String[] INDEXFILES = { "index.noun", "index.verb", "index.adj", "index.adv" };
+	// exception lists, in the order of CJWNL.SHORTs
+	public static final String[] EXCEPTIONFILES = { "noun.exc", "verb.exc", "adj.exc", "adv.exc" };
+
+	// lemmas of each part-of-speech
+	protected final HashMap<String, String>[] m_Lemmas;
+
+	/**
+	 * constructor
+	 * @param p_DictDir WordNet dictionary directory
+	 * @throws IOException exception while reading the dictionary
+	 */
+	@SuppressWarnings("unchecked")
+	public CLemmaTable(String p_DictDir) throws IOException {
+		this.m_Lemmas = new HashMap[INDEXFILES.length];
+		for (int pos = 0; pos < INDEXFILES.length; pos++) {
+			this.m_Lemmas[pos] = new HashMap<String, String>();
+			BufferedReader reader = open(new File(p_DictDir, INDEXFILES[pos]));
+			try {
+				this.loadIndex(pos, reader);
+			} finally {
+				reader.close();
+			}
+			reader = open(new File(p_DictDir, EXCEPTIONFILES[pos]));
+			try {
+				this.loadExceptions(pos, reader);
+			} finally {
+				reader.close();
+			}
+		}
+	}
+
+	/**
+	 * open a dictionary file
+	 * @param p_File file
+	 * @return reader
+	 * @throws IOException exception while opening the file
+	 */
+	protected static BufferedReader open(File p_File) throws IOException {
+		return new BufferedReader(new InputStreamReader(new FileInputStream(p_File), "ISO-8859-1"));
+	}
+
+	/**
+	 * load the words of an index file, skipping the license lines which
+	 * start with spaces
+	 * @param p_POS part-of-speech index
+	 * @param p_Reader index file
+	 * @throws IOException exception while reading
+	 */
+	protected void loadIndex(int p_POS, BufferedReader p_Reader) throws IOException {
+		String line;
+		while ((line = p_Reader.readLine()) != null) {
+			if (line.isEmpty() || line.charAt(0) == ' ') {
+				continue;
+			}
+			int end = line.indexOf(' ');
+			String word = end < 0 ? line : line.substring(0, end);
+			if (word.indexOf('_') < 0) {
+				this.m_Lemmas[p_POS].put(word, word);
+			}
+		}
+	}
+
+	/**
+	 * load an exception list. the index words have to be loaded before, as
+	 * they take precedence.
+	 * @param p_POS part-of-speech index
+	 * @param p_Reader exception list
+	 * @throws IOException exception while reading
+	 */
+	protected void loadExceptions(int p_POS, BufferedReader p_Reader) throws IOException {
+		String line;
+		while ((line = p_Reader.readLine()) != null) {
+			StringTokenizer tokenizer = new StringTokenizer(line);
+			if (tokenizer.countTokens() < 2) {
+				continue;
+			}
+			String word = tokenizer.nextToken();
+			String lemma = tokenizer.nextToken();
+			if (word.indexOf('_') < 0 && lemma.indexOf('_') < 0
+					&& !this.m_Lemmas[p_POS].containsKey(word)) {
+				this.m_Lemmas[p_POS].put(word, lemma);
+			}
+		}
+	}
+
+	/**
+	 * get the lemma of a word
+	 * @param p_Word lower case word
+	 * @param p_POS part-of-speech index
+	 * @return lemma, null if the word is not in the table
+	 */
+	public String get(String p_Word, int p_POS) {
+		return this.m_Lemmas[p_POS].get(p_Word);
+	}
+
+	/**
+	 * get the number of words in the table
+	 * @return size
+	 */
+	public int size() {
+		int size = 0;
+		for (HashMap<String, String> lemmas : this.m_Lemmas) {
+			size += lemmas.size();
+		}
+		return size;
+	}
+}
@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+package sg.edu.nus.comp.nlp.ims.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * read-only table of strings stored in a byte buffer.
+ *
+ * layout (big endian):
+ * <pre>
+ * int count
+ * int[count + 1] byte offsets of the strings, relative to the string data
+ * int[count] original indices of the strings in byte order
+ * byte[] UTF-8 string data
+ * </pre>
+ * strings keep their original indices; the sorted permutation allows
+ * indexOf in O(log n) without decoding any string.
+ */
+public class CStringTable {
+	// string encoding
+	public static final Charset UTF8 = Charset.forName("UTF-8");
+
+	// buffer
+	protected final ByteBuffer m_Buffer;
+	// number of strings
+	protected final int m_Count;
+	// position of the offset array
+	protected final int m_OffsetsPos;
+	// position of the sorted permutation
+	protected final int m_SortedPos;
+	// position of the string data
+	protected final int m_DataPos;
+
+	/**
+	 * constructor
+	 * @param p_Buffer buffer
+	 * @param p_Position position of the table in p_Buffer
+	 */
+	public CStringTable(ByteBuffer p_Buffer, int p_Position) {
+		this.m_Buffer = p_Buffer;
+		this.m_Count = p_Buffer.getInt(p_Position);
+		this.m_OffsetsPos = p_Position + 4;
+		this.m_SortedPos = this.m_OffsetsPos + 4 * (this.m_Count + 1);
+		this.m_DataPos = this.m_SortedPos + 4 * this.m_Count;
+	}
+
+	/**
+	 * @return number of strings
+	 */
+	public int size() {
+		return this.m_Count;
+	}
+
+	/**
+	 * @return number of bytes occupied by this table
+	 */
+	public int byteSize() {
+		return this.m_DataPos - this.m_OffsetsPos + 4
+				+ this.m_Buffer.getInt(this.m_OffsetsPos + 4 * this.m_Count);
+	}
+
+	/**
+	 * get the string with original index p_Index
+	 * @param p_Index index
+	 * @return string
+	 */
+	public String get(int p_Index) {
+		if (p_Index < 0 || p_Index >= this.m_Count) {
+			throw new IndexOutOfBoundsException(Integer.toString(p_Index));
+		}
+		int start = this.m_Buffer.getInt(this.m_OffsetsPos + 4 * p_Index);
+		int end = this.m_Buffer.getInt(this.m_OffsetsPos + 4 * p_Index + 4);
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = this.m_Buffer.get(this.m_DataPos + start + i);
+		}
+		return new String(bytes, UTF8);
+	}
+
+	/**
+	 * find the original index of p_String
+	 * @param p_String string
+	 * @return index, or -1 if p_String is not in the table
+	 */
+	public int indexOf(String p_String) {
+		if (p_String == null) {
+			return -1;
+		}
+		byte[] key = p_String.getBytes(UTF8);
+		int low = 0;
+		int high = this.m_Count - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int index = this.m_Buffer.getInt(this.m_SortedPos + 4 * mid);
+			int cmp = this.compare(index, key);
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return a list view of the strings in original order
+	 */
+	public List<String> asList() {
+		return new AbstractList<String>() {
+			@Override
+			public String get(int p_Index) {
+				return CStringTable.this.get(p_Index);
+			}
+
+			@Override
+			public int size() {
+				return m_Count;
+			}
+
+			@Override
+			public int indexOf(Object p_Object) {
+				if (p_Object instanceof String) {
+					return CStringTable.this.indexOf((String) p_Object);
+				}
+				return -1;
+			}
+
+			@Override
+			public boolean contains(Object p_Object) {
+				return this.indexOf(p_Object) >= 0;
+			}
+		};
+	}
+
+	/**
+	 * compare the stored string p_Index with p_Key as unsigned bytes
+	 * @param p_Index original index
+	 * @param p_Key encoded key
+	 * @return comparison result
+	 */
+	protected int compare(int p_Index, byte[] p_Key) {
+		int start = this.m_Buffer.getInt(this.m_OffsetsPos + 4 * p_Index);
+		int end = this.m_Buffer.getInt(this.m_OffsetsPos + 4 * p_Index + 4);
+		int length = end - start;
+		int n = Math.min(length, p_Key.length);
+		for (int i = 0; i < n; i++) {
+			int a = this.m_Buffer.get(this.m_DataPos + start + i) & 0xff;
+			int b = p_Key[i] & 0xff;
+			if (a != b) {
+				return a - b;
+			}
+		}
+		return length - p_Key.length;
+	}
+
+	/**
+	 * serialize p_Strings in the table layout
+	 * @param p_Strings strings in original order
+	 * @return table bytes
+	 * @throws IOException exception
+	 */
+	public static byte[] toBytes(List<String> p_Strings) throws IOException {
+		final byte[][] encoded = new byte[p_Strings.size()][];
+		for (int i = 0; i < encoded.length; i++) {
+			encoded[i] = p_Strings.get(i).getBytes(UTF8);
+		}
+		Integer[] sorted = new Integer[encoded.length];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = i;
+		}
+		Arrays.sort(sorted, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer p_A, Integer p_B) {
+				return compareBytes(encoded[p_A], encoded[p_B]);
+			}
+		});
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(encoded.length);
+		int offset = 0;
+		out.writeInt(offset);
+		for (byte[] string : encoded) {
+			offset += string.length;
+			out.writeInt(offset);
+		}
+		for (Integer index : sorted) {
+			out.writeInt(index);
+		}
+		for (byte[] string : encoded) {
+			out.write(string);
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * compare two byte arrays as unsigned bytes
+	 * @param p_A a
+	 * @param p_B b
+	 * @return comparison result
+	 */
+	protected static int compareBytes(byte[] p_A, byte[] p_B) {
+		int n = Math.min(p_A.length, p_B.length);
+		for (int i = 0; i < n; i++) {
+			int a = p_A[i] & 0xff;
+			int b = p_B[i] & 0xff;
+			if (a != b) {
+				return a - b;
+			}
+		}
+		return p_A.length - p_B.length;
+	}
+}
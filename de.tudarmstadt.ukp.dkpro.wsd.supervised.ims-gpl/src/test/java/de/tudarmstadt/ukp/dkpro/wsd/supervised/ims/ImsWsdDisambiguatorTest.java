@@ -19,49 +19,116 @@
 package de.tudarmstadt.ukp.dkpro.wsd.supervised.ims;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeNoException;
+import static org.junit.Assume.assumeTrue;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import net.didion.jwnl.JWNLException;
-
-import org.junit.Ignore;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
+import sg.edu.nus.comp.nlp.ims.io.CPlainCorpusInlineWriter;
+import sg.edu.nus.comp.nlp.ims.io.IResultWriter;
 import de.tudarmstadt.ukp.dkpro.lexsemresource.exception.ResourceLoaderException;
 import de.tudarmstadt.ukp.dkpro.wsd.algorithm.WSDAlgorithmDocumentTextBasic;
 import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventory;
-import de.tudarmstadt.ukp.dkpro.wsd.si.SenseInventoryException;
 import de.tudarmstadt.ukp.dkpro.wsd.si.lsr.LsrSenseInventory;
 
 public class ImsWsdDisambiguatorTest {
 
+    private static final String INPUT = "I got money in the bank. Lucie sits on the bank in the park.";
+    private static final String OUTPUT = "I 2x40x00xx 1x21x00xx in the 1x14x00xx .\nLucie 2x35x00xx on the 1x14x00xx in the 1x15x00xx .\n";
+
+    private static SenseInventory inventory;
+    private static ImsWsdDisambiguator disambiguator;
+
     /**
      * Example how to use IMS WSD
-     * To run this example you need to install WordNet and install libraries from IMS.
-     * You'll find allr requires libraries at http://www.comp.nus.edu.sg/~nlp/sw/lib.tar.gz.
-     * Extract contents to the folder src/main/resources/ims/lib/ 
-     * @throws SenseInventoryException
-     * @throws ClassNotFoundException 
-     * @throws IllegalAccessException 
-     * @throws InstantiationException 
-     * @throws IOException 
-     * @throws JWNLException 
+     * To run the tests you need to install WordNet and install libraries from IMS.
+     * You'll find all required libraries at http://www.comp.nus.edu.sg/~nlp/sw/lib.tar.gz.
+     * Extract contents to the folder src/main/resources/ims/lib/
+     * The tests are skipped if the libraries or WordNet are missing.
      */
-	@Test
-	@Ignore
-	public void imsWsdDisambiguatorTest() throws SenseInventoryException, JWNLException, IOException, InstantiationException, IllegalAccessException, ClassNotFoundException {
-        SenseInventory inventory;
+    @BeforeClass
+    public static void setUp() throws Exception {
+        assumeTrue(new File(ImsWsdDisambiguator.DEFAULT_LIB_DIR, "prop.xml").exists());
         try {
             inventory = new LsrSenseInventory("wordnet", "en");
         } catch (ResourceLoaderException e) {
-            throw new SenseInventoryException(e);
+            assumeNoException(e);
         }
-        
-        WSDAlgorithmDocumentTextBasic wsdAlgo = new ImsWsdDisambiguator(inventory);
+        disambiguator = new ImsWsdDisambiguator(inventory);
+    }
 
-        String input = "I got money in the bank. Lucie sits on the bank in the park.";
-        String output = "I 2x40x00xx 1x21x00xx in the 1x14x00xx .\nLucie 2x35x00xx on the 1x14x00xx in the 1x15x00xx .\n";
+    @AfterClass
+    public static void tearDown() {
+        if (disambiguator != null) {
+            disambiguator.shutdown();
+        }
+    }
+
+    @Test
+    public void imsWsdDisambiguatorTest() throws Exception {
+        WSDAlgorithmDocumentTextBasic wsdAlgo = disambiguator;
+        assertEquals(OUTPUT, wsdAlgo.getDisambiguation(INPUT));
+    }
+
+    @Test
+    public void concurrentDisambiguationTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> outputs = new ArrayList<Future<String>>();
+            for (int i = 0; i < 32; i++) {
+                outputs.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return disambiguator.getDisambiguation(INPUT);
+                    }
+                }));
+            }
+            for (Future<String> output : outputs) {
+                assertEquals(OUTPUT, output.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void writerTest() throws Exception {
+        disambiguator.setWriter(new IResultWriter() {
+            @Override
+            public void write(Object p_Result) throws IOException {
+            }
+
+            @Override
+            public String toString(Object p_Result) {
+                return "custom writer";
+            }
+
+            @Override
+            public void setOptions(String[] p_Options) {
+            }
+        });
+        try {
+            assertEquals("custom writer", disambiguator.getDisambiguation(INPUT));
+        } finally {
+            disambiguator.setWriter(new CPlainCorpusInlineWriter());
+        }
+        assertEquals(OUTPUT, disambiguator.getDisambiguation(INPUT));
+    }
 
-        assertEquals(output,wsdAlgo.getDisambiguation(input));
-	}
-}
\ No newline at end of file
+    @Test(expected = IllegalStateException.class)
+    public void otherLibDirTest() throws Exception {
+        new ImsWsdDisambiguator(inventory, "target/ims_other_lib/",
+                ImsWsdDisambiguator.DEFAULT_MODEL_DIR, ImsWsdDisambiguator.DEFAULT_STAT_DIR, 1);
+    }
+}
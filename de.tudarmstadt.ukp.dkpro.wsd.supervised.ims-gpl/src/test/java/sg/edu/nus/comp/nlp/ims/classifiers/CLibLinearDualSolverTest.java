@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+
+package sg.edu.nus.comp.nlp.ims.classifiers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import liblinear.FeatureNode;
+import liblinear.Linear;
+import liblinear.Model;
+import liblinear.Parameter;
+import liblinear.Problem;
+import liblinear.SolverType;
+
+import org.junit.Test;
+
+/**
+ * check that CLibLinearDualSolver trains the models of Linear.train.
+ */
+public class CLibLinearDualSolverTest {
+
+	@Test
+	public void testBinary() throws Exception {
+		assertSameModel(createProblem(1, 200, 300, 2, -1), SolverType.L2R_L2LOSS_SVC_DUAL);
+		assertSameModel(createProblem(2, 200, 300, 2, 1), SolverType.L2R_L1LOSS_SVC_DUAL);
+	}
+
+	@Test
+	public void testMultiClass() throws Exception {
+		assertSameModel(createProblem(3, 300, 500, 5, -1), SolverType.L2R_L2LOSS_SVC_DUAL);
+		assertSameModel(createProblem(4, 300, 500, 5, 1), SolverType.L2R_L1LOSS_SVC_DUAL);
+	}
+
+	@Test
+	public void testWeights() throws Exception {
+		Problem problem = createProblem(5, 200, 300, 3, 1);
+		Parameter param = new Parameter(SolverType.L2R_L2LOSS_SVC_DUAL, 0.5, 0.1);
+		param.setWeights(new double[] { 2, 0.5 }, new int[] { 1, 3 });
+		Linear.resetRandom();
+		Model expected = Linear.train(problem, param);
+		Model model = CLibLinearDualSolver.train(problem, param, new Random(CLibLinearDualSolver.DEFAULT_RANDOM_SEED));
+		assertModelEquals(expected, model);
+	}
+
+	@Test
+	public void testThreads() throws Exception {
+		final List<Problem> problems = new ArrayList<Problem>();
+		final List<Model> expected = new ArrayList<Model>();
+		final Parameter param = new Parameter(SolverType.L2R_L2LOSS_SVC_DUAL, 1, 0.1);
+		for (int i = 0; i < 16; i++) {
+			Problem problem = createProblem(10 + i, 100, 200, 2 + i % 4, -1);
+			problems.add(problem);
+			Linear.resetRandom();
+			expected.add(Linear.train(problem, param));
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Model>> models = new ArrayList<Future<Model>>();
+			for (final Problem problem : problems) {
+				models.add(pool.submit(new Callable<Model>() {
+					@Override
+					public Model call() throws Exception {
+						return CLibLinearDualSolver.train(problem, param, new Random(CLibLinearDualSolver.DEFAULT_RANDOM_SEED));
+					}
+				}));
+			}
+			for (int i = 0; i < problems.size(); i++) {
+				assertModelEquals(expected.get(i), models.get(i).get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedSolver() throws Exception {
+		CLibLinearDualSolver.train(createProblem(6, 10, 10, 2, -1), new Parameter(SolverType.L1R_LR, 1, 0.01), new Random(0));
+	}
+
+	private static void assertSameModel(Problem p_Problem, SolverType p_SolverType) throws Exception {
+		Parameter param = new Parameter(p_SolverType, 1, 0.1);
+		Linear.resetRandom();
+		Model expected = Linear.train(p_Problem, param);
+		Model model = CLibLinearDualSolver.train(p_Problem, param, new Random(CLibLinearDualSolver.DEFAULT_RANDOM_SEED));
+		assertModelEquals(expected, model);
+	}
+
+	private static void assertModelEquals(Model p_Expected, Model p_Model) {
+		assertEquals(p_Expected.getNrClass(), p_Model.getNrClass());
+		assertEquals(p_Expected.getNrFeature(), p_Model.getNrFeature());
+		assertEquals(p_Expected.getBias(), p_Model.getBias(), 0);
+		assertArrayEquals(p_Expected.getLabels(), p_Model.getLabels());
+		assertArrayEquals(p_Expected.getFeatureWeights(), p_Model.getFeatureWeights(), 0);
+		assertEquals(p_Expected, p_Model);
+	}
+
+	/**
+	 * create a random sparse problem
+	 * @param p_Seed seed
+	 * @param p_Size number of instances
+	 * @param p_Features number of features
+	 * @param p_Classes number of classes
+	 * @param p_Bias bias
+	 * @return problem
+	 */
+	private static Problem createProblem(long p_Seed, int p_Size, int p_Features, int p_Classes, double p_Bias) {
+		Random random = new Random(p_Seed);
+		Problem problem = new Problem();
+		problem.l = p_Size;
+		problem.bias = p_Bias;
+		problem.n = p_Bias >= 0 ? p_Features + 1 : p_Features;
+		problem.y = new int[p_Size];
+		problem.x = new FeatureNode[p_Size][];
+		for (int i = 0; i < p_Size; i++) {
+			// labels in an order other than the sorted one
+			int label = random.nextInt(p_Classes);
+			problem.y[i] = p_Classes - label;
+			List<FeatureNode> nodes = new ArrayList<FeatureNode>();
+			for (int j = 1; j <= p_Features; j++) {
+				if (random.nextInt(p_Features) < 10 || j % p_Classes == label && random.nextInt(10) == 0) {
+					nodes.add(new FeatureNode(j, random.nextDouble()));
+				}
+			}
+			if (p_Bias >= 0) {
+				nodes.add(new FeatureNode(problem.n, p_Bias));
+			}
+			problem.x[i] = nodes.toArray(new FeatureNode[nodes.size()]);
+		}
+		return problem;
+	}
+}
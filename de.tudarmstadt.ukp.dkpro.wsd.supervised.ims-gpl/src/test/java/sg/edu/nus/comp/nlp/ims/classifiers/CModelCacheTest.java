@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+
+package sg.edu.nus.comp.nlp.ims.classifiers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class CModelCacheTest {
+
+	/**
+	 * loader which counts its calls
+	 */
+	private static class CLoader implements Callable<CModelCache.CEntry> {
+		// number of calls
+		protected final AtomicInteger m_Calls = new AtomicInteger();
+		// size of loaded entries
+		protected final long m_Size;
+
+		public CLoader(long p_Size) {
+			this.m_Size = p_Size;
+		}
+
+		@Override
+		public CModelCache.CEntry call() throws Exception {
+			this.m_Calls.incrementAndGet();
+			return new CModelCache.CEntry(new Object(), new Object(), this.m_Size);
+		}
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsed() throws Exception {
+		CModelCache cache = new CModelCache(2);
+		CLoader loader = new CLoader(0);
+		CModelCache.CEntry a = cache.get("a", loader);
+		cache.get("b", loader);
+		assertSame(a, cache.get("a", loader));
+		cache.get("c", loader);
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(3, loader.m_Calls.get());
+		// b was the least recently used one
+		assertSame(a, cache.get("a", loader));
+		cache.get("b", loader);
+		assertEquals(4, loader.m_Calls.get());
+		assertEquals(2, cache.getHitCount());
+		assertEquals(4, cache.getMissCount());
+	}
+
+	@Test
+	public void keepsPinnedEntries() throws Exception {
+		CModelCache cache = new CModelCache(1);
+		CLoader loader = new CLoader(0);
+		CModelCache.CEntry pinned = new CModelCache.CEntry(null, null, 1000);
+		cache.pin("p", pinned);
+		cache.get("a", loader);
+		cache.get("b", loader);
+		cache.clear();
+
+		assertSame(pinned, cache.get("p", loader));
+		assertEquals(1, cache.size());
+		assertEquals(0, cache.getBytes());
+		assertEquals(2, loader.m_Calls.get());
+	}
+
+	@Test
+	public void boundsBytes() throws Exception {
+		CModelCache cache = new CModelCache(100, 100);
+		cache.get("a", new CLoader(40));
+		cache.get("b", new CLoader(40));
+		assertEquals(80, cache.getBytes());
+		cache.get("c", new CLoader(40));
+		assertEquals(2, cache.size());
+		assertEquals(80, cache.getBytes());
+		assertEquals(1, cache.getEvictionCount());
+
+		// an entry larger than the bound is still kept on its own
+		cache.get("d", new CLoader(500));
+		assertEquals(1, cache.size());
+		assertEquals(500, cache.getBytes());
+	}
+
+	@Test
+	public void loadsOnceForConcurrentRequests() throws Exception {
+		final int threads = 8;
+		final CModelCache cache = new CModelCache(10);
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger calls = new AtomicInteger();
+		final Callable<CModelCache.CEntry> loader = new Callable<CModelCache.CEntry>() {
+			@Override
+			public CModelCache.CEntry call() throws Exception {
+				calls.incrementAndGet();
+				started.countDown();
+				release.await();
+				return new CModelCache.CEntry(new Object(), new Object(), 0);
+			}
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<CModelCache.CEntry>> futures = new ArrayList<Future<CModelCache.CEntry>>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(new Callable<CModelCache.CEntry>() {
+					@Override
+					public CModelCache.CEntry call() throws Exception {
+						return cache.get("a", loader);
+					}
+				}));
+			}
+			started.await();
+			// give the other requests time to find the running load
+			Thread.sleep(100);
+			release.countDown();
+			CModelCache.CEntry entry = futures.get(0).get(10, TimeUnit.SECONDS);
+			for (Future<CModelCache.CEntry> future : futures) {
+				assertSame(entry, future.get(10, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, calls.get());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(threads, cache.getHitCount() + cache.getMissCount() + cache.getWaitCount());
+		assertEquals((double) cache.getHitCount() / threads, cache.getHitRate(), 1e-9);
+	}
+
+	@Test
+	public void retriesFailedLoads() throws Exception {
+		CModelCache cache = new CModelCache(10);
+		try {
+			cache.get("a", new Callable<CModelCache.CEntry>() {
+				@Override
+				public CModelCache.CEntry call() throws Exception {
+					throw new IllegalStateException("broken");
+				}
+			});
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("broken", e.getMessage());
+		}
+		CLoader loader = new CLoader(0);
+		cache.get("a", loader);
+		assertEquals(1, loader.m_Calls.get());
+		assertEquals(1, cache.size());
+	}
+}
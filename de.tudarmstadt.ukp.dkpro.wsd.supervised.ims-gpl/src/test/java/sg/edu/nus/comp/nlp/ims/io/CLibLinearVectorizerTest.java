@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+
+package sg.edu.nus.comp.nlp.ims.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.List;
+
+import liblinear.FeatureNode;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import sg.edu.nus.comp.nlp.ims.feature.ABinaryFeature;
+import sg.edu.nus.comp.nlp.ims.feature.ANumericFeature;
+import sg.edu.nus.comp.nlp.ims.feature.CDoubleFeature;
+import sg.edu.nus.comp.nlp.ims.feature.CPOSFeature;
+import sg.edu.nus.comp.nlp.ims.feature.IFeature;
+import sg.edu.nus.comp.nlp.ims.instance.CInstance;
+import sg.edu.nus.comp.nlp.ims.instance.IInstance;
+import sg.edu.nus.comp.nlp.ims.lexelt.CLexelt;
+import sg.edu.nus.comp.nlp.ims.lexelt.IStatistic;
+
+/**
+ * check that CLibLinearVectorizer gives the same vectors as the former
+ * CLibLinearLexeltWriter.getVector.
+ */
+public class CLibLinearVectorizerTest {
+
+	@Rule
+	public TemporaryFolder m_Folder = new TemporaryFolder();
+
+	@Test
+	public void vectorizesLikeGetVector() throws Exception {
+		CLexelt lexelt = CPackedModelStoreTest.createTrainingLexelt();
+		CInstance numeric = CPackedModelStoreTest.createInstance("bank.6", "3", "NN", "plane");
+		numeric.addFeature(createDouble("distance", "0.5"));
+		lexelt.addInstance(numeric, true);
+		IStatistic statistic = lexelt.getStatistic();
+
+		File storeFile = new File(this.m_Folder.getRoot(), "bank.pack");
+		CPackedModelWriter packedWriter = new CPackedModelWriter(storeFile.getPath());
+		packedWriter.write("bank.n", statistic, null);
+		packedWriter.close();
+		CPackedModelStore store = new CPackedModelStore(storeFile.getPath());
+
+		List<IInstance> instances = new ArrayList<IInstance>();
+		for (int i = 0; i < lexelt.size(); i++) {
+			instances.add(lexelt.getInstance(i));
+		}
+		// unknown words and values, a repeated key and a numeric value
+		CInstance instance = CPackedModelStoreTest.createInstance("t.1", null, "VB", "money", "unseen", "river");
+		CPOSFeature pos = new CPOSFeature();
+		pos.setKey("POS_0");
+		pos.setValue("NNS");
+		instance.addFeature(pos);
+		instance.addFeature(createDouble("distance", "-2.25"));
+		instances.add(instance);
+		instances.add(CPackedModelStoreTest.createInstance("t.2", null, "DT"));
+
+		for (double bias : new double[] { -1, 1 }) {
+			assertVectorsEqual(statistic, bias, instances);
+			assertVectorsEqual(store.getStatistic("bank.n"), bias, instances);
+		}
+		store.close();
+	}
+
+	protected static void assertVectorsEqual(IStatistic p_Stat, double p_Bias, List<IInstance> p_Instances)
+			throws ClassNotFoundException {
+		CLibLinearVectorizer vectorizer = new CLibLinearVectorizer(p_Stat, p_Bias);
+		int[][] indice = loadStatistic(p_Stat);
+		int maxIndex = getMaxIndex(indice, p_Bias);
+		assertEquals(maxIndex, vectorizer.getMaxIndex());
+		for (IInstance instance : p_Instances) {
+			FeatureNode[] expected = getVector(instance, p_Stat, indice, maxIndex, p_Bias);
+			FeatureNode[] actual = vectorizer.getVector(instance);
+			assertEquals(instance.getID(), toString(expected), toString(actual));
+		}
+	}
+
+	/**
+	 * the feature indices of the former CLibLinearLexeltWriter.loadStatistic
+	 */
+	protected static int[][] loadStatistic(IStatistic p_Stat) throws ClassNotFoundException {
+		int accuIndex = 1;
+		int keySize = p_Stat.getKeys().size();
+		int[][] retIndice = new int[keySize][0];
+		for (int keyIndex = 0; keyIndex < keySize; keyIndex++) {
+			Class<?> type = Class.forName(p_Stat.getType(keyIndex));
+			if (ANumericFeature.class.isAssignableFrom(type)
+					|| ABinaryFeature.class.isAssignableFrom(type)) {
+				retIndice[keyIndex] = new int[] { accuIndex++ };
+			} else {
+				List<String> values = p_Stat.getValue(keyIndex);
+				retIndice[keyIndex] = new int[values.size()];
+				for (int i = 0; i < values.size(); i++) {
+					retIndice[keyIndex][i] = accuIndex++;
+				}
+			}
+		}
+		return retIndice;
+	}
+
+	protected static int getMaxIndex(int[][] p_Indice, double p_Bias) {
+		int maxIndex = 1;
+		for (int[] indice : p_Indice) {
+			maxIndex += indice.length;
+		}
+		return p_Bias < 0 ? maxIndex - 1 : maxIndex;
+	}
+
+	/**
+	 * the former CLibLinearLexeltWriter.getVector
+	 */
+	protected static FeatureNode[] getVector(IInstance p_Instance, IStatistic p_Stat, int[][] p_Indice,
+			int p_MaxIndex, double p_Bias) {
+		Hashtable<Integer, Double> exist = new Hashtable<Integer, Double>();
+		for (int fIndex = 0; fIndex < p_Instance.size(); fIndex++) {
+			IFeature feature = p_Instance.getFeature(fIndex);
+			int kIndex = p_Stat.getIndex(feature.getKey());
+			if (kIndex < 0) {
+				continue;
+			}
+			if (ANumericFeature.class.isInstance(feature)) {
+				exist.put(p_Indice[kIndex][0], Double.parseDouble(feature.getValue()));
+			} else if (ABinaryFeature.class.isInstance(feature)) {
+				if (feature.getValue().equals("1")) {
+					exist.put(p_Indice[kIndex][0], 1.0);
+				}
+			} else {
+				List<String> values = p_Stat.getValue(kIndex);
+				String value = feature.getValue();
+				if (value == null || !p_Stat.contains(kIndex, value)) {
+					value = p_Stat.getDefaultValue();
+				}
+				int vIndex = values.indexOf(value);
+				if (vIndex >= 0) {
+					exist.put(p_Indice[kIndex][vIndex], 1.0);
+				}
+			}
+		}
+		ArrayList<Integer> indice = new ArrayList<Integer>(exist.keySet());
+		Collections.sort(indice);
+		FeatureNode[] retVal;
+		if (p_Bias >= 0) {
+			retVal = new FeatureNode[exist.size() + 1];
+			retVal[retVal.length - 1] = new FeatureNode(p_MaxIndex, p_Bias);
+		} else {
+			retVal = new FeatureNode[exist.size()];
+		}
+		for (int i = 0; i < indice.size(); i++) {
+			retVal[i] = new FeatureNode(indice.get(i), exist.get(indice.get(i)));
+		}
+		return retVal;
+	}
+
+	protected static String toString(FeatureNode[] p_Vector) {
+		StringBuilder builder = new StringBuilder();
+		for (FeatureNode node : p_Vector) {
+			builder.append(" ").append(node.index).append(":").append(node.value);
+		}
+		return builder.toString();
+	}
+
+	protected static CDoubleFeature createDouble(String p_Key, String p_Value) {
+		CDoubleFeature feature = new CDoubleFeature();
+		feature.setKey(p_Key);
+		feature.setValue(p_Value);
+		return feature;
+	}
+}
@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+
+package sg.edu.nus.comp.nlp.ims.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.StringReader;
+
+import liblinear.Linear;
+import liblinear.Model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import sg.edu.nus.comp.nlp.ims.classifiers.CLibLinearEvaluator;
+import sg.edu.nus.comp.nlp.ims.feature.CPOSFeature;
+import sg.edu.nus.comp.nlp.ims.feature.CSurroundingWord;
+import sg.edu.nus.comp.nlp.ims.instance.CInstance;
+import sg.edu.nus.comp.nlp.ims.lexelt.CLexelt;
+import sg.edu.nus.comp.nlp.ims.lexelt.CModelInfo;
+import sg.edu.nus.comp.nlp.ims.lexelt.CPackedStatistic;
+import sg.edu.nus.comp.nlp.ims.lexelt.CResultInfo;
+import sg.edu.nus.comp.nlp.ims.lexelt.CStatistic;
+import sg.edu.nus.comp.nlp.ims.lexelt.IFeatureSelector;
+import sg.edu.nus.comp.nlp.ims.lexelt.IStatistic;
+
+/**
+ * write models with CPackedModelWriter and CModelWriter and check that the
+ * packed store gives the same statistics and answers as the gzipped files.
+ */
+public class CPackedModelStoreTest {
+
+	@Rule
+	public TemporaryFolder m_Folder = new TemporaryFolder();
+
+	// model directory
+	protected File m_ModelDir;
+	// packed model store
+	protected CPackedModelStore m_Store;
+	// statistic of bank.n
+	protected CStatistic m_Statistic;
+
+	@Before
+	public void setUp() throws Exception {
+		this.m_ModelDir = this.m_Folder.newFolder("models");
+		CLexelt bank = createTrainingLexelt();
+		this.m_Statistic = (CStatistic) bank.getStatistic();
+		CModelInfo info = new CModelInfo();
+		info.lexelt = bank.getID();
+		info.statistic = this.m_Statistic;
+		info.model = createModel(new CLibLinearVectorizer(this.m_Statistic, -1).getMaxIndex(),
+				this.m_Statistic.getTagsInOrder().size());
+
+		CLexelt one = new CLexelt("one.n");
+		one.addInstance(createInstance("one.1", "5", "NN", "money"), true);
+		CModelInfo oneInfo = new CModelInfo();
+		oneInfo.lexelt = one.getID();
+		oneInfo.statistic = one.getStatistic();
+
+		CModelWriter writer = new CModelWriter(this.m_ModelDir.getPath());
+		writer.write(info);
+		writer.write(oneInfo);
+		File storeFile = new File(this.m_Folder.getRoot(), "models.pack");
+		CPackedModelWriter packedWriter = new CPackedModelWriter(storeFile.getPath());
+		packedWriter.write(info);
+		packedWriter.write(oneInfo);
+		packedWriter.close();
+		this.m_Store = new CPackedModelStore(storeFile.getPath());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		this.m_Store.close();
+	}
+
+	@Test
+	public void keepsStatistic() throws Exception {
+		assertEquals(2, this.m_Store.getLexeltIDs().size());
+		assertNull(this.m_Store.getEntry("none.n"));
+		assertNull(this.m_Store.getModel("one.n"));
+		assertStatisticEquals(this.m_Statistic, this.m_Store.getStatistic("bank.n"));
+
+		// a statistic file has no counts
+		CStatistic loaded = new CStatistic();
+		loaded.loadFromFile(new File(this.m_ModelDir, "bank.n.stat.gz").getPath());
+		File storeFile = new File(this.m_Folder.getRoot(), "loaded.pack");
+		CPackedModelWriter packedWriter = new CPackedModelWriter(storeFile.getPath());
+		packedWriter.write("bank.n", loaded, null);
+		packedWriter.close();
+		CPackedModelStore store = new CPackedModelStore(storeFile.getPath());
+		CPackedStatistic packed = store.getStatistic("bank.n");
+		assertEquals(loaded.getKeys(), packed.getKeys());
+		assertEquals(0, packed.size());
+		assertEquals(0, packed.getTagCount("1"));
+		assertEquals(0, packed.getCount("POS_0", "NN"));
+		assertEquals(-1, packed.getCount("POS_0", "XX"));
+		store.close();
+	}
+
+	@Test
+	public void selectsLikeStatistic() throws Exception {
+		CStatistic statistic = (CStatistic) createTrainingLexelt().getStatistic();
+		CPackedStatistic packed = this.m_Store.getStatistic("bank.n");
+		statistic.select(new CSelector());
+		packed.select(new CSelector());
+		assertStatisticEquals(statistic, packed);
+		assertEquals(-1, packed.getIndex("money"));
+		assertEquals(-1, packed.getValueIndex(packed.getIndex("POS_0"), "NN"));
+
+		// clearing a clone leaves the original untouched
+		CPackedStatistic copy = (CPackedStatistic) packed.clone();
+		copy.clear();
+		assertEquals(0, copy.getKeys().size());
+		assertEquals(0, copy.getTagsInOrder().size());
+		assertEquals(0, copy.size());
+		assertEquals(statistic.getKeys(), packed.getKeys());
+	}
+
+	@Test
+	public void evaluatesLikeGzippedModels() throws Exception {
+		CLibLinearEvaluator files = new CLibLinearEvaluator(this.m_ModelDir.getPath(), this.m_ModelDir.getPath());
+		CLibLinearEvaluator packed = new CLibLinearEvaluator(this.m_Folder.newFolder("empty").getPath(),
+				this.m_Folder.getRoot().getPath());
+		packed.setStore(this.m_Store);
+		for (String lexeltID : new String[] { "bank.n", "one.n" }) {
+			CResultInfo expected = (CResultInfo) files.evaluate(createTestLexelt(lexeltID));
+			CResultInfo actual = (CResultInfo) packed.evaluate(createTestLexelt(lexeltID));
+			assertArrayEquals(expected.classes, actual.classes);
+			assertArrayEquals(expected.ids, actual.ids);
+			assertEquals(expected.probabilities.length, actual.probabilities.length);
+			for (int i = 0; i < expected.probabilities.length; i++) {
+				assertArrayEquals(expected.probabilities[i], actual.probabilities[i], 1e-12);
+			}
+		}
+	}
+
+	/**
+	 * feature selector which drops the key money and the value NN
+	 */
+	private static class CSelector implements IFeatureSelector {
+		// statistic
+		protected IStatistic m_Stat;
+
+		@Override
+		public void filter(IStatistic p_Stat) {
+			this.m_Stat = p_Stat;
+		}
+
+		@Override
+		public Type isFiltered(int p_FeatureIndex) {
+			String key = this.m_Stat.getKey(p_FeatureIndex);
+			if (key.startsWith("POS_")) {
+				return Type.PART;
+			}
+			if (key.equals("money")) {
+				return Type.FILTER;
+			}
+			return Type.ACCEPT;
+		}
+
+		@Override
+		public Type isFiltered(int p_FeatureIndex, String p_Value) {
+			return "NN".equals(p_Value) ? Type.FILTER : Type.ACCEPT;
+		}
+	}
+
+	protected static void assertStatisticEquals(IStatistic p_Expected, IStatistic p_Actual) {
+		assertEquals(p_Expected.getTagsInOrder(), p_Actual.getTagsInOrder());
+		assertEquals(p_Expected.getKeys(), p_Actual.getKeys());
+		assertEquals(p_Expected.size(), p_Actual.size());
+		for (String tag : p_Expected.getTagsInOrder()) {
+			assertEquals(p_Expected.getTagCount(tag), p_Actual.getTagCount(tag));
+		}
+		for (int i = 0; i < p_Expected.getKeys().size(); i++) {
+			String key = p_Expected.getKey(i);
+			assertEquals(i, p_Actual.getIndex(key));
+			assertEquals(p_Expected.getType(i), p_Actual.getType(i));
+			assertEquals(p_Expected.getValue(i), p_Actual.getValue(i));
+			for (String value : p_Expected.getValue(i)) {
+				assertEquals(key + "=" + value, p_Expected.getCount(i, value), p_Actual.getCount(i, value));
+				for (String tag : p_Expected.getTagsInOrder()) {
+					assertEquals(key + "=" + value + " " + tag,
+							p_Expected.getCount(i, value, tag), p_Actual.getCount(i, value, tag));
+				}
+			}
+		}
+	}
+
+	protected static CLexelt createTrainingLexelt() {
+		CLexelt lexelt = new CLexelt("bank.n");
+		lexelt.addInstance(createInstance("bank.1", "1", "NN", "money", "loan"), true);
+		lexelt.addInstance(createInstance("bank.2", "1", "NNS", "money", "account"), true);
+		lexelt.addInstance(createInstance("bank.3", "2", "NN", "river", "water"), true);
+		lexelt.addInstance(createInstance("bank.4", "2", "DT", "river", "grass"), true);
+		lexelt.addInstance(createInstance("bank.5", "3", "NN", "plane", "turn"), true);
+		return lexelt;
+	}
+
+	protected static CLexelt createTestLexelt(String p_LexeltID) {
+		CLexelt lexelt = new CLexelt(p_LexeltID);
+		lexelt.addInstance(createInstance("t.1", null, "NN", "money", "water"), false);
+		lexelt.addInstance(createInstance("t.2", null, "VB", "grass", "unseen"), false);
+		lexelt.addInstance(createInstance("t.3", null, "NNS", "turn"), false);
+		return lexelt;
+	}
+
+	protected static CInstance createInstance(String p_ID, String p_Tag, String p_POS, String... p_Words) {
+		CInstance instance = new CInstance(p_ID, "bank.n", "d");
+		if (p_Tag != null) {
+			instance.setTag(p_Tag);
+		}
+		CPOSFeature pos = new CPOSFeature();
+		pos.setKey("POS_0");
+		pos.setValue(p_POS);
+		instance.addFeature(pos);
+		for (String word : p_Words) {
+			CSurroundingWord feature = new CSurroundingWord();
+			feature.setKey(word);
+			instance.addFeature(feature);
+		}
+		return instance;
+	}
+
+	protected static Model createModel(int p_NrFeature, int p_NrClass) throws Exception {
+		StringBuilder builder = new StringBuilder();
+		builder.append("solver_type L2R_LR\n");
+		builder.append("nr_class ").append(p_NrClass).append("\n");
+		builder.append("label");
+		for (int c = p_NrClass; c > 0; c--) {
+			builder.append(" ").append(c);
+		}
+		builder.append("\nnr_feature ").append(p_NrFeature).append("\n");
+		builder.append("bias -1\nw\n");
+		for (int i = 0; i < p_NrFeature; i++) {
+			for (int c = 0; c < p_NrClass; c++) {
+				builder.append((i * 7 + c * 3) % 11 - 5).append(".25 ");
+			}
+			builder.append("\n");
+		}
+		return Linear.loadModel(new StringReader(builder.toString()));
+	}
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+
+package sg.edu.nus.comp.nlp.ims.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * check the slots, eviction and concurrent use of CLemmaCache.
+ */
+public class CLemmaCacheTest {
+
+	@Test
+	public void cachesByWordAndPOS() {
+		CLemmaCache cache = new CLemmaCache(100);
+		assertEquals(128, cache.getCapacity());
+		assertNull(cache.get("dogs", 0));
+		cache.put("dogs", 0, "dog");
+		cache.put("saw", 0, "saw");
+		cache.put("saw", 1, "see");
+		assertEquals("dog", cache.get("dogs", 0));
+		assertEquals("saw", cache.get("saw", 0));
+		assertEquals("see", cache.get("saw", 1));
+		assertNull(cache.get("dogs", 1));
+		assertEquals(3, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		assertEquals(3 / 5.0, cache.getHitRate(), 1e-12);
+
+		cache.clear();
+		assertNull(cache.get("dogs", 0));
+		assertEquals(0, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void keepsTwoCollidingKeys() {
+		CLemmaCache cache = new CLemmaCache(8);
+		String[] words = collidingWords(cache, 3);
+		cache.put(words[0], 0, "a");
+		cache.put(words[1], 0, "b");
+		assertEquals("a", cache.get(words[0], 0));
+		assertEquals("b", cache.get(words[1], 0));
+
+		// updating a key does not push out the other one
+		cache.put(words[1], 0, "c");
+		assertEquals("a", cache.get(words[0], 0));
+		assertEquals("c", cache.get(words[1], 0));
+	}
+
+	@Test
+	public void evictsTheOldestCollidingKey() {
+		CLemmaCache cache = new CLemmaCache(8);
+		String[] words = collidingWords(cache, 3);
+		cache.put(words[0], 0, "a");
+		cache.put(words[1], 0, "b");
+		cache.put(words[2], 0, "c");
+		assertNull(cache.get(words[0], 0));
+		assertEquals("b", cache.get(words[1], 0));
+		assertEquals("c", cache.get(words[2], 0));
+	}
+
+	@Test
+	public void staysWithinCapacity() {
+		CLemmaCache cache = new CLemmaCache(16);
+		for (int i = 0; i < 1000; i++) {
+			cache.put("word" + i, i % 4, "lemma" + i);
+			assertEquals("lemma" + i, cache.get("word" + i, i % 4));
+		}
+		int cached = 0;
+		for (int i = 0; i < 1000; i++) {
+			if (cache.get("word" + i, i % 4) != null) {
+				cached++;
+			}
+		}
+		assertTrue(cached > 0);
+		assertTrue(cached <= cache.getCapacity());
+	}
+
+	@Test
+	public void getsAndPutsConcurrently() throws Exception {
+		final CLemmaCache cache = new CLemmaCache(64);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for (int t = 0; t < 8; t++) {
+				final int thread = t;
+				results.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						int wrong = 0;
+						for (int i = 0; i < 100000; i++) {
+							int word = (i * 7 + thread * 13) % 500;
+							String lemma = cache.get("word" + word, word % 4);
+							if (lemma == null) {
+								cache.put("word" + word, word % 4, "lemma" + word);
+							} else if (!lemma.equals("lemma" + word)) {
+								wrong++;
+							}
+						}
+						return wrong;
+					}
+				}));
+			}
+			for (Future<Integer> result : results) {
+				assertEquals(0, result.get().intValue());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(800000, cache.getHits() + cache.getMisses());
+		assertTrue(cache.getHits() > 0);
+	}
+
+	/**
+	 * find words of the same first slot
+	 * @param p_Cache cache
+	 * @param p_Count number of words
+	 * @return words
+	 */
+	protected static String[] collidingWords(CLemmaCache p_Cache, int p_Count) {
+		String[] words = new String[p_Count];
+		int slot = p_Cache.slot("word0", 0);
+		int found = 0;
+		for (int i = 0; found < p_Count; i++) {
+			if (p_Cache.slot("word" + i, 0) == slot) {
+				words[found++] = "word" + i;
+			}
+		}
+		return words;
+	}
+}
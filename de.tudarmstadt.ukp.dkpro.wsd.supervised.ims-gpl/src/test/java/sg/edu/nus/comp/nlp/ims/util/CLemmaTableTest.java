@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * IMS (It Makes Sense) -- NUS WSD System
+ * Copyright (c) 2013 National University of Singapore.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+
+
+package sg.edu.nus.comp.nlp.ims.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * load a small WordNet dictionary into CLemmaTable.
+ */
+public class CLemmaTableTest {
+
+	@Rule
+	public TemporaryFolder m_Folder = new TemporaryFolder();
+
+	@Test
+	public void loadsIndexAndExceptions() throws Exception {
+		File dictDir = this.m_Folder.newFolder("dict");
+		write(new File(dictDir, "index.noun"), "  1 This software and database is being provided\n"
+				+ "bank n 10 3 @ ~ + 10 0 09213565\n" + "river_bank n 1 1 @ 1 0 09411430\n"
+				+ "mouse n 4 2 @ ~ 4 0 02330245\n" + "geese n 1 1 @ 1 0 01855672\n");
+		write(new File(dictDir, "noun.exc"), "geese goose\n" + "mice mouse\n" + "brethren brother\n"
+				+ "wolves_teeth wolf_tooth\n" + "single\n");
+		write(new File(dictDir, "index.verb"), "see v 24 3 @ ~ * 24 9 02129289\n");
+		write(new File(dictDir, "verb.exc"), "saw see\n" + "was be\n");
+		write(new File(dictDir, "index.adj"), "");
+		write(new File(dictDir, "adj.exc"), "better good well\n");
+		write(new File(dictDir, "index.adv"), "well r 13 1 \\ 13 4 00011093\n");
+		write(new File(dictDir, "adv.exc"), "");
+
+		CLemmaTable table = new CLemmaTable(dictDir.getPath());
+		assertEquals("bank", table.get("bank", 0));
+		assertEquals("mouse", table.get("mice", 0));
+		assertEquals("brother", table.get("brethren", 0));
+		// an index word is its own lemma, even if it is an exception
+		assertEquals("geese", table.get("geese", 0));
+		// words with more than one token and license lines are left out
+		assertNull(table.get("river_bank", 0));
+		assertNull(table.get("wolves_teeth", 0));
+		assertNull(table.get("", 0));
+		assertNull(table.get("This", 0));
+		assertNull(table.get("single", 0));
+		assertEquals("see", table.get("saw", 1));
+		assertEquals("be", table.get("was", 1));
+		assertNull(table.get("saw", 0));
+		// the first base form of an exception
+		assertEquals("good", table.get("better", 2));
+		assertEquals("well", table.get("well", 3));
+		assertEquals(10, table.size());
+	}
+
+	@Test(expected = IOException.class)
+	public void failsOnMissingFile() throws Exception {
+		new CLemmaTable(this.m_Folder.newFolder("empty").getPath());
+	}
+
+	/**
+	 * write a dictionary file
+	 * @param p_File file
+	 * @param p_Content content
+	 * @throws IOException exception while writing
+	 */
+	protected static void write(File p_File, String p_Content) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(p_File), "ISO-8859-1");
+		try {
+			writer.write(p_Content);
+		} finally {
+			writer.close();
+		}
+	}
+}
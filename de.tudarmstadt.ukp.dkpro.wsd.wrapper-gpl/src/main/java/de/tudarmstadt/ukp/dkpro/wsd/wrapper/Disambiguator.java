@@ -19,6 +19,7 @@
 package de.tudarmstadt.ukp.dkpro.wsd.wrapper;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -36,6 +37,20 @@ public interface Disambiguator {
      */
 	List<String> disambiguate(String inputText) throws IOException;
 
+    /**
+     * @param inputTexts The input texts.
+     *
+     * @return
+     *   The senses disambiguated in each input text, in the order of the input texts.
+     */
+	default List<List<String>> disambiguate(List<String> inputTexts) throws IOException {
+		List<List<String>> senses = new ArrayList<List<String>>(inputTexts.size());
+		for (String inputText : inputTexts) {
+			senses.add(disambiguate(inputText));
+		}
+		return senses;
+	}
+
     /**
      * @return The name of the disambiguator.
      */
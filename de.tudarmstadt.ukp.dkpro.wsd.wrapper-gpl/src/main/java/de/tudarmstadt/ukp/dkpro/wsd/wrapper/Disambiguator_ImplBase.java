@@ -21,19 +21,35 @@ package de.tudarmstadt.ukp.dkpro.wsd.wrapper;
 import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngine;
 import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngineDescription;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
-
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.analysis_engine.AnalysisEngineDescription;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.cas.FSArray;
+import org.apache.uima.resource.ExternalResourceDescription;
+import org.apache.uima.resource.Resource;
 import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.impl.ResourceManager_impl;
 
 import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Token;
 import de.tudarmstadt.ukp.dkpro.core.stanfordnlp.StanfordSegmenter;
@@ -43,7 +59,23 @@ import de.tudarmstadt.ukp.dkpro.wsd.type.Sense;
 import de.tudarmstadt.ukp.dkpro.wsd.type.WSDResult;
 
 
-public abstract class Disambiguator_ImplBase implements Disambiguator {
+/**
+ * Base class for disambiguators which run a preprocessing and a
+ * disambiguation pipeline on plain text.
+ * <p>
+ * The aggregate of both pipelines is instantiated only when needed, and at
+ * most {@link #setPoolSize(int) poolSize} instances are kept in a pool
+ * together with a CAS each. Every call borrows one of them, so concurrent
+ * calls are processed in parallel and no engine or CAS is created per call.
+ * All pipelines share one instance of the sense inventory returned by
+ * {@link #getSenseInventory()}, which therefore has to be thread-safe; every
+ * other resource, including the disambiguation algorithm, is created per
+ * pipeline. Since the pipeline is configured when it is first created,
+ * stopword filtering has to be set before the first call. {@link #close()}
+ * releases the pool and, once its pipelines are no longer in use, the shared
+ * sense inventory.
+ */
+public abstract class Disambiguator_ImplBase implements Disambiguator, Closeable {
 
 	/**
 	 * Default is English ("en").
@@ -61,10 +93,41 @@ public abstract class Disambiguator_ImplBase implements Disambiguator {
 	private boolean filterStopwords = true;
 
 	/**
-	 * the disambiguation engine that is used for this wrapper
+	 * the sense inventory shared by all pipelines
+	 */
+	private ExternalResourceDescription senseInventory = null;
+
+	/**
+	 * the pipelines created since the last {@link #close()} and their shared
+	 * resources, guarded by idlePipelines
+	 */
+	private Generation generation = null;
+
+	/**
+	 * the disambiguation engine of {@link #getDisambiguationEngine()}
 	 */
 	private AnalysisEngine disambiguationEngine = null;
 
+	/**
+	 * Default is the number of available processors.
+	 */
+	private int poolSize = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * pipelines which are currently not in use
+	 */
+	private final BlockingQueue<Pipeline> idlePipelines = new LinkedBlockingQueue<Pipeline>();
+
+	/**
+	 * number of pipelines which have not been destroyed, guarded by idlePipelines
+	 */
+	private int pipelineCount = 0;
+
+	/**
+	 * executor for batches, created on first use
+	 */
+	private ExecutorService batchExecutor = null;
+
 	/**
 	 * sets language for wrapper - important for preprocessing
 	 * @param language language of cas
@@ -81,40 +144,277 @@ public abstract class Disambiguator_ImplBase implements Disambiguator {
 		this.filterStopwords = filterStopwords;
 	}
 
+	/**
+	 * sets the maximum number of pipelines which process texts concurrently
+	 * @param poolSize number of pipelines, at least 1
+	 */
+	public void setPoolSize(int poolSize) {
+		if (poolSize < 1) {
+			throw new IllegalArgumentException("Invalid pool size " + poolSize);
+		}
+		synchronized (idlePipelines) {
+			this.poolSize = poolSize;
+		}
+	}
+
 	@Override
-    public List<String> disambiguate(String inputText) throws IOException {
+	public List<String> disambiguate(String inputText) throws IOException {
 
-		JCas jcas = null;
+		Pipeline pipeline = acquirePipeline();
 		try {
-			jcas = getDisambiguationEngine().newJCas();
+			JCas jcas = pipeline.jcas;
+			jcas.reset();
 			jcas.setDocumentText(inputText);
 			jcas.setDocumentLanguage(language);
 
+			pipeline.engine.process(jcas);
 
-            createEngine(getPreprocessingEngineDescription()).process(jcas);
-			getDisambiguationEngine().process(jcas);
-		}
-		catch (ResourceInitializationException e) {
-			throw new RuntimeException(e);
+			//      Extract senses
+			List<String> senses = new ArrayList<String>();
+			for(WSDResult wsdResult : JCasUtil.select(jcas, WSDResult.class)){
+				senses.addAll(getBestSenses(wsdResult.getSenses()));
+			}
+
+			return senses;
 		}
 		catch (AnalysisEngineProcessException e) {
 			throw new RuntimeException(e);
 		}
+		finally {
+			releasePipeline(pipeline);
+		}
+	}
+
+	/**
+	 * Disambiguates the texts in parallel on the pipelines of the pool.
+	 *
+	 * @param inputTexts the input texts
+	 * @return the senses of each text, in the order of the input texts
+	 */
+	@Override
+	public List<List<String>> disambiguate(List<String> inputTexts) throws IOException {
+
+		List<List<String>> senses = new ArrayList<List<String>>(inputTexts.size());
+		if (inputTexts.size() < 2 || poolSize < 2) {
+			for (String inputText : inputTexts) {
+				senses.add(disambiguate(inputText));
+			}
+			return senses;
+		}
 
-		//      Extract senses
-		List<String> senses = new ArrayList<String>();
-		for(WSDResult wsdResult : JCasUtil.select(jcas, WSDResult.class)){
-			senses.addAll(getBestSenses(wsdResult.getSenses()));
+		ExecutorService executor = getBatchExecutor();
+		List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>(inputTexts.size());
+		for (final String inputText : inputTexts) {
+			futures.add(executor.submit(new Callable<List<String>>() {
+				@Override
+				public List<String> call() throws IOException {
+					return disambiguate(inputText);
+				}
+			}));
+		}
+		try {
+			for (Future<List<String>> future : futures) {
+				senses.add(future.get());
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+		finally {
+			for (Future<List<String>> future : futures) {
+				future.cancel(false);
+			}
 		}
 
 		return senses;
 	}
 
+	/**
+	 * Destroys the pooled pipelines, the engine of
+	 * {@link #getDisambiguationEngine()} and the shared sense inventory, and
+	 * stops the batch executor. Pipelines which are in use when this is
+	 * called are destroyed when they are returned, and the sense inventory
+	 * once the last of them is destroyed. The disambiguator can still be used
+	 * afterwards and creates new pipelines as needed.
+	 */
+	@Override
+	public void close() {
+		List<Pipeline> pipelines = new ArrayList<Pipeline>();
+		synchronized (idlePipelines) {
+			if (batchExecutor != null) {
+				batchExecutor.shutdown();
+				batchExecutor = null;
+			}
+			idlePipelines.drainTo(pipelines);
+			pipelineCount -= pipelines.size();
+			if (generation != null) {
+				generation.closed = true;
+				generation = null;
+			}
+		}
+		// the last destroyed pipeline also destroys the shared resources
+		for (Pipeline pipeline : pipelines) {
+			destroyPipeline(pipeline);
+		}
+		synchronized (this) {
+			senseInventory = null;
+			if (disambiguationEngine != null) {
+				disambiguationEngine.destroy();
+				disambiguationEngine = null;
+			}
+		}
+	}
+
+	/**
+	 * Takes an idle pipeline from the pool, creates a new one if the pool is
+	 * not full yet, or waits for one to be returned. While waiting, it checks
+	 * regularly whether a pipeline of a closed pool has been destroyed and
+	 * left room for a new one.
+	 */
+	private Pipeline acquirePipeline() throws IOException {
+
+		while (true) {
+			Pipeline pipeline = idlePipelines.poll();
+			if (pipeline != null) {
+				return pipeline;
+			}
+
+			Generation current = null;
+			synchronized (idlePipelines) {
+				if (pipelineCount < poolSize) {
+					pipelineCount++;
+					if (generation == null) {
+						generation = new Generation();
+					}
+					current = generation;
+					current.pipelines++;
+				}
+			}
+			if (current != null) {
+				try {
+					return new Pipeline(createPipeline(current.resourceManager), current);
+				}
+				catch (ResourceInitializationException e) {
+					synchronized (idlePipelines) {
+						pipelineCount--;
+					}
+					releaseGeneration(current);
+					throw new IOException(e);
+				}
+			}
+
+			try {
+				pipeline = idlePipelines.poll(1, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			if (pipeline != null) {
+				return pipeline;
+			}
+		}
+	}
+
+	/**
+	 * Returns a pipeline to the pool, or destroys it if the pool has been
+	 * closed since it was created.
+	 */
+	private void releasePipeline(Pipeline pipeline) {
+		synchronized (idlePipelines) {
+			if (!pipeline.generation.closed) {
+				idlePipelines.add(pipeline);
+				return;
+			}
+			pipelineCount--;
+		}
+		destroyPipeline(pipeline);
+	}
+
+	private void destroyPipeline(Pipeline pipeline) {
+		pipeline.engine.destroy();
+		releaseGeneration(pipeline.generation);
+	}
+
+	/**
+	 * Counts a pipeline of a generation as destroyed and destroys the shared
+	 * resources of a closed generation with its last pipeline.
+	 */
+	private void releaseGeneration(Generation released) {
+		synchronized (idlePipelines) {
+			released.pipelines--;
+			if (!released.closed || released.pipelines > 0) {
+				return;
+			}
+		}
+		released.resourceManager.destroyResources();
+	}
+
+	/**
+	 * Creates an instance of the aggregate of the preprocessing and
+	 * disambiguation engines. The description is built anew for every
+	 * instance, so that each gets its own resources; only the sense inventory
+	 * keeps its name and is therefore taken from the shared resource manager.
+	 */
+	private synchronized AnalysisEngine createPipeline(ResourceManager_impl resourceManager)
+			throws ResourceInitializationException {
+		AnalysisEngineDescription pipelineDescription = createEngineDescription(
+				getPreprocessingEngineDescription(),
+				createDisambiguationEngine());
+		return UIMAFramework.produceAnalysisEngine(pipelineDescription,
+				resourceManager, null);
+	}
+
+	private ExecutorService getBatchExecutor() {
+		synchronized (idlePipelines) {
+			if (batchExecutor == null) {
+				batchExecutor = Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, getName() + "-batch");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+			}
+			return batchExecutor;
+		}
+	}
+
+	/**
+	 * Creates the description of the disambiguation engine. It is called once
+	 * per pipeline and should bind {@link #getSenseInventory()} rather than a
+	 * new sense inventory description.
+	 *
+	 * @return disambiguation engine description
+	 * @throws ResourceInitializationException
+	 */
 	protected abstract AnalysisEngineDescription createDisambiguationEngine() throws ResourceInitializationException;
 
-	public AnalysisEngine getDisambiguationEngine()
-			throws IOException
-			{
+	/**
+	 * Returns an engine for the disambiguation step alone, without
+	 * preprocessing. This engine is not used by {@link #disambiguate(String)}
+	 * and has its own sense inventory; it is destroyed by {@link #close()}.
+	 *
+	 * @return disambiguation engine
+	 * @throws IOException if the engine cannot be created
+	 * @deprecated {@link #disambiguate(String)} runs pooled pipelines; use
+	 *             {@link #createDisambiguationEngine()} to build a separate
+	 *             engine. This method will be removed in the next release.
+	 */
+	@Deprecated
+	public synchronized AnalysisEngine getDisambiguationEngine()
+			throws IOException {
 		if (disambiguationEngine == null) {
 			try {
 				disambiguationEngine = createEngine(createDisambiguationEngine());
@@ -123,9 +423,31 @@ public abstract class Disambiguator_ImplBase implements Disambiguator {
 				throw new IOException(e);
 			}
 		}
-
 		return disambiguationEngine;
-			}
+	}
+
+	/**
+	 * Creates the description of the sense inventory shared by all pipelines.
+	 *
+	 * @return sense inventory description
+	 * @throws ResourceInitializationException
+	 */
+	protected abstract ExternalResourceDescription createSenseInventory() throws ResourceInitializationException;
+
+	/**
+	 * Returns the description of the sense inventory shared by all pipelines,
+	 * creating it on first use.
+	 *
+	 * @return sense inventory description
+	 * @throws ResourceInitializationException
+	 */
+	protected synchronized ExternalResourceDescription getSenseInventory()
+			throws ResourceInitializationException {
+		if (senseInventory == null) {
+			senseInventory = createSenseInventory();
+		}
+		return senseInventory;
+	}
 
 	@Override
     public String getConfigurationDetails() {
@@ -201,4 +523,49 @@ public abstract class Disambiguator_ImplBase implements Disambiguator {
 		}
 		return createEngineDescription(preprocessing.toArray(new AnalysisEngineDescription[preprocessing.size()]));
 	}
+
+	/**
+	 * An instance of the aggregate engine together with the CAS it processes
+	 */
+	private static class Pipeline {
+
+		private final AnalysisEngine engine;
+		private final JCas jcas;
+		private final Generation generation;
+
+		Pipeline(AnalysisEngine engine, Generation generation) throws ResourceInitializationException {
+			this.engine = engine;
+			this.jcas = engine.newJCas();
+			this.generation = generation;
+		}
+	}
+
+	/**
+	 * The resource manager shared by the pipelines created between two calls
+	 * of {@link #close()}, and the number of these pipelines which have not
+	 * been destroyed. The fields are guarded by idlePipelines.
+	 */
+	private static class Generation {
+
+		private final SharedResourceManager resourceManager = new SharedResourceManager();
+		private int pipelines = 0;
+		private boolean closed = false;
+	}
+
+	/**
+	 * A resource manager which can destroy the resources it holds. The
+	 * ResourceManager interface of UIMA 2.6 has no destroy method.
+	 */
+	private static class SharedResourceManager extends ResourceManager_impl {
+
+		synchronized void destroyResources() {
+			Set<Object> destroyed = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+			for (Object resource : mResourceMap.values()) {
+				if (resource instanceof Resource && destroyed.add(resource)) {
+					((Resource) resource).destroy();
+				}
+			}
+			mResourceMap.clear();
+		}
+	}
 }
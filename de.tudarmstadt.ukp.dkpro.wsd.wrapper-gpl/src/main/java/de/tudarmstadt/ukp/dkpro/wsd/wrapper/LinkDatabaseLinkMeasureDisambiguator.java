@@ -53,17 +53,10 @@ public class LinkDatabaseLinkMeasureDisambiguator
 
         List<AnalysisEngineDescription> components = new ArrayList<AnalysisEngineDescription>();
 
-        ExternalResourceDescription linkDatabase = createExternalResourceDescription(
-                LinkDatabaseInventoryResource.class,
-                LinkDatabaseInventoryResource.PARAM_RESOURCE_HOST, "localhost",
-                LinkDatabaseInventoryResource.PARAM_RESOURCE_DATABASE, "linkdatabase_wikipedia_en_20100615",
-                LinkDatabaseInventoryResource.PARAM_SENSE_INVENTORY_NAME, "LinkDatabase_20100615"
-                );
-
         ExternalResourceDescription linkmeasureResource = createExternalResourceDescription(
                 WSDResourceCollectiveBasic.class,
                 WSDResourceCollectiveBasic.SENSE_INVENTORY_RESOURCE,
-                linkDatabase, WSDResourceCollectiveBasic.DISAMBIGUATION_METHOD,
+                getSenseInventory(), WSDResourceCollectiveBasic.DISAMBIGUATION_METHOD,
                 WikipediaRelatednessMethod.class.getName());
 
         AnalysisEngineDescription linkmeasure = createEngineDescription(
@@ -77,4 +70,16 @@ public class LinkDatabaseLinkMeasureDisambiguator
                 .toArray(new AnalysisEngineDescription[components.size()]));
     }
 
+    @Override
+    protected ExternalResourceDescription createSenseInventory()
+        throws ResourceInitializationException
+    {
+        return createExternalResourceDescription(
+                LinkDatabaseInventoryResource.class,
+                LinkDatabaseInventoryResource.PARAM_RESOURCE_HOST, "localhost",
+                LinkDatabaseInventoryResource.PARAM_RESOURCE_DATABASE, "linkdatabase_wikipedia_en_20100615",
+                LinkDatabaseInventoryResource.PARAM_SENSE_INVENTORY_NAME, "LinkDatabase_20100615"
+                );
+    }
+
 }
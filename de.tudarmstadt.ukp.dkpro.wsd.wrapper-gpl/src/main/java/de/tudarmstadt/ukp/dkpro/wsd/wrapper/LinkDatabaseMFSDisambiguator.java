@@ -51,18 +51,10 @@ public class LinkDatabaseMFSDisambiguator
 
         List<AnalysisEngineDescription> components = new ArrayList<AnalysisEngineDescription>();
 
-        ExternalResourceDescription linkDatabase = createExternalResourceDescription(
-                LinkDatabaseInventoryResource.class,
-                LinkDatabaseInventoryResource.PARAM_RESOURCE_HOST, "localhost",
-                LinkDatabaseInventoryResource.PARAM_RESOURCE_DATABASE,
-                "linkdatabase_wikipedia_en_20100615",
-                LinkDatabaseInventoryResource.PARAM_SENSE_INVENTORY_NAME,
-                "LinkDatabase_20100615");
-
         ExternalResourceDescription mfsBaselineResource = createExternalResourceDescription(
                 WSDResourceIndividualBasic.class,
                 WSDResourceIndividualBasic.SENSE_INVENTORY_RESOURCE,
-                linkDatabase, WSDResourceIndividualBasic.DISAMBIGUATION_METHOD,
+                getSenseInventory(), WSDResourceIndividualBasic.DISAMBIGUATION_METHOD,
                 MostFrequentSenseBaseline.class.getName());
 
         AnalysisEngineDescription mfsBaseline = createEngineDescription(
@@ -76,4 +68,17 @@ public class LinkDatabaseMFSDisambiguator
                 .toArray(new AnalysisEngineDescription[components.size()]));
     }
 
+    @Override
+    protected ExternalResourceDescription createSenseInventory()
+        throws ResourceInitializationException
+    {
+        return createExternalResourceDescription(
+                LinkDatabaseInventoryResource.class,
+                LinkDatabaseInventoryResource.PARAM_RESOURCE_HOST, "localhost",
+                LinkDatabaseInventoryResource.PARAM_RESOURCE_DATABASE,
+                "linkdatabase_wikipedia_en_20100615",
+                LinkDatabaseInventoryResource.PARAM_SENSE_INVENTORY_NAME,
+                "LinkDatabase_20100615");
+    }
+
 }